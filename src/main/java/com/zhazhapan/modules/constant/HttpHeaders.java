@@ -223,4 +223,25 @@ public class HttpHeaders {
      * 用于防止跨站请求伪造
      */
     public static final String X_CSRF_TOKEN = "X-Csrf-Token";
-}
\ No newline at end of file
+
+    /**
+     * 对于某个资源的某个特定版本的一个标识符，通常是一个消息散列（响应头）
+     *
+     * @since 1.1.0
+     */
+    public static final String ETAG = "ETag";
+
+    /**
+     * 所请求的对象的最后修改日期（响应头）
+     *
+     * @since 1.1.0
+     */
+    public static final String LAST_MODIFIED = "Last-Modified";
+
+    /**
+     * 指定一个日期/时间，超过该时间则认为此回应已经过期（响应头）
+     *
+     * @since 1.1.0
+     */
+    public static final String EXPIRES = "Expires";
+}
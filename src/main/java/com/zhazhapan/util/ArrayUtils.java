@@ -6,6 +6,7 @@ import java.lang.reflect.Array;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.RecursiveAction;
 
 /**
  * @author pantao
@@ -424,6 +425,22 @@ public class ArrayUtils {
         mergeSort(arrays, 0, arrays.length - 1);
     }
 
+    /**
+     * 并行归并排序，在 {@link ThreadPool#getForkJoinPool()} 中以工作窃取的方式执行，适合大数组
+     *
+     * @param arrays 数组
+     *
+     * @since 1.1.0
+     */
+    public static void parallelMergeSort(int[] arrays) {
+        if (arrays.length <= ParallelMergeSort.THRESHOLD) {
+            mergeSort(arrays);
+        } else {
+            ThreadPool.getForkJoinPool().invoke(new ParallelMergeSort(arrays, new int[arrays.length], 0, arrays
+                    .length - 1));
+        }
+    }
+
     private static void mergeSort(int[] arrays, int low, int high) {
         int mid = (low + high) / 2;
         if (low < high) {
@@ -454,6 +471,58 @@ public class ArrayUtils {
         System.arraycopy(temp, ValueConsts.ZERO_INT, arrays, low, temp.length);
     }
 
+    /**
+     * 并行归并排序任务，子区间足够小时退化为串行归并排序，合并时共用一个临时数组
+     */
+    private static class ParallelMergeSort extends RecursiveAction {
+
+        private static final long serialVersionUID = 1L;
+
+        private static final int THRESHOLD = 8192;
+
+        private final int[] arrays;
+
+        private final int[] temp;
+
+        private final int low;
+
+        private final int high;
+
+        private ParallelMergeSort(int[] arrays, int[] temp, int low, int high) {
+            this.arrays = arrays;
+            this.temp = temp;
+            this.low = low;
+            this.high = high;
+        }
+
+        @Override
+        protected void compute() {
+            if (high - low < THRESHOLD) {
+                mergeSort(arrays, low, high);
+                return;
+            }
+            int mid = (low + high) >>> 1;
+            invokeAll(new ParallelMergeSort(arrays, temp, low, mid), new ParallelMergeSort(arrays, temp, mid + 1,
+                    high));
+            if (arrays[mid] <= arrays[mid + 1]) {
+                return;
+            }
+            int i = low;
+            int j = mid + 1;
+            int k = low;
+            while (i <= mid && j <= high) {
+                temp[k++] = arrays[i] <= arrays[j] ? arrays[i++] : arrays[j++];
+            }
+            while (i <= mid) {
+                temp[k++] = arrays[i++];
+            }
+            while (j <= high) {
+                temp[k++] = arrays[j++];
+            }
+            System.arraycopy(temp, low, arrays, low, high - low + 1);
+        }
+    }
+
     /**
      * 希尔排序
      *
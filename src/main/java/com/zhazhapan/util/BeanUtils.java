@@ -3,20 +3,19 @@ package com.zhazhapan.util;
 import com.alibaba.fastjson.JSON;
 import com.alibaba.fastjson.JSONObject;
 import com.alibaba.fastjson.util.TypeUtils;
-import com.zhazhapan.modules.constant.ValueConsts;
 import com.zhazhapan.util.annotation.ToJsonString;
+import com.zhazhapan.util.bean.BeanIntrospector;
+import com.zhazhapan.util.bean.BeanProperty;
+import com.zhazhapan.util.binary.BinarySerializer;
 import com.zhazhapan.util.enums.FieldModifier;
 import com.zhazhapan.util.enums.JsonMethod;
 import com.zhazhapan.util.enums.JsonType;
+import com.zhazhapan.util.json.JsonStreamWriter;
+import com.zhazhapan.util.json.JsonWritePlan;
 
 import java.io.*;
-import java.lang.reflect.Field;
 import java.lang.reflect.InvocationTargetException;
-import java.lang.reflect.Method;
-import java.lang.reflect.Modifier;
-import java.util.Collection;
-import java.util.List;
-import java.util.Map;
+import java.nio.channels.WritableByteChannel;
 
 /**
  * @author pantao
@@ -24,7 +23,9 @@ import java.util.Map;
  */
 public class BeanUtils {
 
-    private static final JsonMethod[] METHODS = new JsonMethod[]{JsonMethod.MANUAL, JsonMethod.HANDLE};
+    private static final JsonStreamWriter COMPACT_WRITER = new JsonStreamWriter();
+
+    private static final JsonStreamWriter PRETTY_WRITER = new JsonStreamWriter().pretty(true);
 
     private BeanUtils() {}
 
@@ -87,7 +88,40 @@ public class BeanUtils {
     }
 
     /**
-     * 将类属性装换成JSON（只能转换有get和is方法的）
+     * 以紧凑的二进制格式序列化对象到文件，不要求实现 {@link Serializable}，格式见 {@link BinarySerializer}
+     *
+     * @param object 对象
+     * @param file 保存到指定文件
+     *
+     * @throws IOException 异常
+     * @since 1.1.0
+     */
+    public static void serializeBinary(Object object, String file) throws IOException {
+        try (OutputStream out = new BufferedOutputStream(new FileOutputStream(file))) {
+            BinarySerializer.write(object, out);
+        }
+    }
+
+    /**
+     * 反序列化 {@link #serializeBinary(Object, String)} 保存的对象
+     *
+     * @param file 对象文件
+     * @param clazz 类
+     * @param <T> 类型
+     *
+     * @return 反序列化后的对象
+     *
+     * @throws IOException 异常
+     * @since 1.1.0
+     */
+    public static <T> T deserializeBinary(String file, Class<T> clazz) throws IOException {
+        try (InputStream in = new BufferedInputStream(new FileInputStream(file))) {
+            return BinarySerializer.read(in, clazz);
+        }
+    }
+
+    /**
+     * 将类属性装换成JSON（只能转换有get和is方法的），属性访问器由 {@link BeanIntrospector} 缓存
      *
      * @param object 转换的对象
      *
@@ -97,15 +131,14 @@ public class BeanUtils {
      * @throws InvocationTargetException 异常
      */
     public static JSONObject beanToJson(Object object) throws IllegalAccessException, InvocationTargetException {
-        Method[] methods = object.getClass().getMethods();
         JSONObject jsonObject = new JSONObject();
-        for (Method method : methods) {
-            String name = method.getName();
-            if (name.startsWith("get") && !"getClass".equals(name)) {
-                name = name.substring(3);
-                jsonObject.put(name.substring(0, 1).toLowerCase() + name.substring(1), method.invoke(object));
-            } else if (name.startsWith("is")) {
-                jsonObject.put(name, method.invoke(object));
+        for (BeanProperty property : BeanIntrospector.of(object.getClass()).getProperties()) {
+            if (property.isReadable()) {
+                try {
+                    jsonObject.put(property.getName(), property.get(object));
+                } catch (RuntimeException e) {
+                    throw new InvocationTargetException(e);
+                }
             }
         }
         return jsonObject;
@@ -121,9 +154,7 @@ public class BeanUtils {
      * @deprecated 请使用 {@link JSONObject#toJavaObject(JSON, Class)}
      */
     public static void jsonPutIn(JSONObject jsonObject, Object object) throws IllegalAccessException {
-        Field[] fields = object.getClass().getDeclaredFields();
-        for (Field field : fields) {
-            field.setAccessible(true);
+        for (BeanProperty field : BeanIntrospector.of(object.getClass()).getFields()) {
             field.set(object, TypeUtils.castToJavaBean(jsonObject.get(field.getName()), field.getType()));
         }
     }
@@ -195,31 +226,40 @@ public class BeanUtils {
      */
     public static String toJsonString(Object object, FieldModifier modifier, JsonMethod method) throws
             IllegalAccessException {
-        JSONObject jsonObject = new JSONObject();
-        StringBuilder builder = new StringBuilder("{");
-        boolean isManual = false;
-        if (Checker.isNotNull(object)) {
-            Class<?> bean = object.getClass();
-            Field[] fields = bean.getDeclaredFields();
-            for (Field field : fields) {
-                int mod = field.getModifiers();
-                boolean addable = modifier == FieldModifier.ALL || (modifier == FieldModifier.PRIVATE && Modifier
-                        .isPrivate(mod)) || (modifier == FieldModifier.PUBLIC && Modifier.isPublic(mod));
-                if (addable) {
-                    field.setAccessible(true);
-                    isManual = Checker.isIn(method, METHODS);
-                    if (isManual) {
-                        Object f = field.get(object);
-                        if (Checker.isNotNull(f)) {
-                            builder.append(converter(field.getName(), f));
-                        }
-                    } else {
-                        jsonObject.put(field.getName(), field.get(object));
-                    }
-                }
-            }
+        if (Checker.isNull(object)) {
+            return new JSONObject().toString();
         }
-        return isManual ? builder.substring(0, builder.length() - 1) + "}" : jsonObject.toString();
+        return JsonWritePlan.of(object.getClass(), modifier, method).toJsonString(object);
+    }
+
+    /**
+     * 将对象以UTF-8编码的JSON直接写入输出流，不生成完整的字符串，集合、数组和Map输出为真正的JSON数组和对象
+     *
+     * @param object 对象
+     * @param out 输出流，不会被关闭
+     * @param pretty 是否格式化
+     *
+     * @throws IOException 写入失败
+     * @see JsonStreamWriter
+     * @since 1.1.0
+     */
+    public static void writeJson(Object object, OutputStream out, boolean pretty) throws IOException {
+        (pretty ? PRETTY_WRITER : COMPACT_WRITER).write(object, out);
+    }
+
+    /**
+     * 将对象以UTF-8编码的JSON直接写入通道，不生成完整的字符串
+     *
+     * @param object 对象
+     * @param channel 通道，不会被关闭
+     * @param pretty 是否格式化
+     *
+     * @throws IOException 写入失败
+     * @see JsonStreamWriter
+     * @since 1.1.0
+     */
+    public static void writeJson(Object object, WritableByteChannel channel, boolean pretty) throws IOException {
+        (pretty ? PRETTY_WRITER : COMPACT_WRITER).write(object, channel);
     }
 
     /**
@@ -247,35 +287,4 @@ public class BeanUtils {
         String json = toJsonString(object, modifier, method);
         return jsonType == JsonType.PRETTY ? Formatter.formatJson(json) : json;
     }
-
-    /**
-     * 手动转换 {@link List} 和 {@link Map}
-     *
-     * @param fieldName 字段名
-     * @param object 对象
-     *
-     * @return json对象
-     */
-    private static String converter(String fieldName, Object object) {
-        StringBuilder builder = new StringBuilder();
-        if (Checker.isNotEmpty(fieldName)) {
-            builder.append("\"").append(fieldName).append("\":");
-        }
-        if (object instanceof Collection) {
-            List list = (List) object;
-            builder.append("[");
-            list.forEach(obj -> builder.append(converter(ValueConsts.EMPTY_STRING, obj)));
-            return builder.substring(0, builder.length() - 1) + "],";
-        } else if (object instanceof Map) {
-            Map map = (Map) object;
-            builder.append("{");
-            map.forEach((k, v) -> builder.append(converter(k.toString(), v)));
-            return builder.substring(0, builder.length() - 1) + "},";
-        } else if (Checker.isEmpty(fieldName)) {
-            builder.append("\"").append(object).append("\",");
-        } else {
-            builder.append("\"").append(object).append("\",");
-        }
-        return builder.toString();
-    }
 }
@@ -1,17 +1,21 @@
 package com.zhazhapan.util;
 
-import cn.hutool.core.util.StrUtil;
 import com.zhazhapan.modules.constant.ValueConsts;
 import com.zhazhapan.util.annotation.FieldChecking;
+import com.zhazhapan.util.collection.IntMembershipSet;
+import com.zhazhapan.util.collection.LongMembershipSet;
+import com.zhazhapan.util.collection.MembershipSet;
+import com.zhazhapan.util.enums.CharType;
 import com.zhazhapan.util.interfaces.IChecker;
+import com.zhazhapan.util.model.BatchCheckResult;
 import com.zhazhapan.util.model.CheckResult;
-import com.zhazhapan.util.model.ResultObject;
+import com.zhazhapan.util.text.CharClassifier;
+import com.zhazhapan.util.text.TextScanner;
+import com.zhazhapan.util.validation.BeanValidator;
 
 import javax.servlet.http.HttpServletRequest;
 import java.io.File;
-import java.lang.reflect.Field;
 import java.util.Date;
-import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.regex.Pattern;
@@ -22,28 +26,28 @@ import java.util.regex.Pattern;
 public class Checker {
 
     /**
-     * 超链接匹配，忽略大小写
+     * 超链接匹配，忽略大小写，{@link #isHyperLink(String)} 使用等价的 {@link TextScanner#isHyperLink(CharSequence)}
      */
     public static final Pattern HYPER_LINK_PATTERN = Pattern.compile("^(https*://)?([^\\s&;\"':<>]+\\.)+[a-z0-9]+" +
             "(/[^\\s]*)*$", Pattern.CASE_INSENSITIVE);
 
     /**
-     * 日期匹配
+     * 日期匹配，{@link #isDate(String)} 使用等价的 {@link TextScanner#isDate(CharSequence)}
      */
     public static final Pattern DATE_PATTERN = Pattern.compile("^[0-9]{4}-(0[1-9]|1[0-2])-(0[1-9]|[1-2][0-9]|3[0-1])$");
 
     /**
-     * 整数匹配
+     * 整数匹配，{@link #isNumber(String)} 使用等价的 {@link TextScanner#isNumber(CharSequence)}
      */
     public static final Pattern NUMBER_PATTERN = Pattern.compile("^[0-9]+$");
 
     /**
-     * 数字匹配
+     * 数字匹配，{@link #isDecimal(String)} 使用等价的 {@link TextScanner#isDecimal(CharSequence)}
      */
     public static final Pattern DECIMAL_PATTERN = Pattern.compile("^[0-9]+(\\.[0-9]+)?$");
 
     /**
-     * 邮箱匹配，忽略大小写
+     * 邮箱匹配，忽略大小写，{@link #isEmail(String)} 使用等价的 {@link TextScanner#isEmail(CharSequence)}
      */
     public static final Pattern EMAIL_PATTERN = Pattern.compile("^[0-9a-z\\-]+([0-9a-z\\-]|(\\.[0-9a-z\\-]+))" +
             "*@[0-9a-z\\-]+(\\.[0-9a-z\\-]+)+$", Pattern.CASE_INSENSITIVE);
@@ -109,7 +113,7 @@ public class Checker {
     }
 
     /**
-     * 验证JavaBean带有 {@link FieldChecking}注解的字段
+     * 验证JavaBean带有 {@link FieldChecking}注解的字段，每个类的规则只编译一次，见 {@link BeanValidator}
      *
      * @param bean JavaBean
      *
@@ -118,55 +122,34 @@ public class Checker {
      * @since 1.0.9
      */
     public static CheckResult checkBean(Object bean) {
-        Field[] fields = bean.getClass().getDeclaredFields();
-        CheckResult result = new CheckResult();
-        ResultObject object = new ResultObject();
-        for (Field field : fields) {
-            FieldChecking checking = field.getAnnotation(FieldChecking.class);
-            if (isNotNull(checking)) {
-                String expression = checking.expression();
-                Object value;
-                try {
-                    value = field.get(bean);
-                } catch (IllegalAccessException e) {
-                    LoggerUtils.error("{}表达式异常", checking.expression());
-                    object.status = ValueConsts.ERROR_EN;
-                    object.message = "表达式异常";
-                    object.code = 501;
-                    result.passed = false;
-                    break;
-                }
-                if (isEmpty(expression)) {
-                    // 默认进行不为空验证
-                    result.passed = isNotNull(value) && isNotEmpty(value.toString());
-                } else if (expression.startsWith(ValueConsts.COLON)) {
-                    // 正则匹配
-                    result.passed = Pattern.compile(expression.substring(1)).matcher(value.toString()).matches();
-                } else {
-                    // 自定义表达式验证
-                    Map<String, Object> map = new HashMap<>(ValueConsts.TWO_INT);
-                    map.put("val", value);
-                    Object res = ReflectUtils.executeExpression(checking.expression(), map);
-                    result.passed = res instanceof Boolean && (boolean) res;
-                }
-                if (!result.passed) {
-                    object.code = checking.code();
-                    object.message = StrUtil.format(checking.message(), field.getName());
-                    object.status = checking.status();
-                    break;
-                }
-            }
-        }
-        if (result.passed) {
-            FieldChecking checking = bean.getClass().getAnnotation(FieldChecking.class);
-            if (isNotNull(checking)) {
-                object.code = checking.code();
-                object.message = checking.message();
-                object.status = checking.status();
-            }
-        }
-        result.resultObject = object;
-        return result;
+        return BeanValidator.check(bean);
+    }
+
+    /**
+     * 验证JavaBean带有 {@link FieldChecking}注解的字段
+     *
+     * @param bean JavaBean
+     * @param collectAll 是否收集全部违例，为true时不在第一个不通过的字段处结束，全部违例保存在 {@link CheckResult#violations}
+     *
+     * @return {@link CheckResult}
+     *
+     * @since 1.1.0
+     */
+    public static CheckResult checkBean(Object bean, boolean collectAll) {
+        return collectAll ? BeanValidator.checkAll(bean) : BeanValidator.check(bean);
+    }
+
+    /**
+     * 并行验证多个JavaBean，收集每一行的全部违例，不通过的行按下标报告
+     *
+     * @param beans JavaBean列表
+     *
+     * @return {@link BatchCheckResult}
+     *
+     * @since 1.1.0
+     */
+    public static BatchCheckResult checkBeans(List<?> beans) {
+        return BeanValidator.checkAll(beans);
     }
 
     /**
@@ -179,18 +162,7 @@ public class Checker {
      * @since 1.0.9
      */
     public static boolean isLetterAndNumber(String string) {
-        boolean result = isNotEmpty(string);
-        int idx = 0;
-        int len = string.length();
-        while (result) {
-            if (idx >= len) {
-                break;
-            }
-            char c = string.charAt(idx);
-            result = isLetter(c) || isNumber(c);
-            idx++;
-        }
-        return result;
+        return CharClassifier.matches(CharType.LETTER_OR_NUMBER, string);
     }
 
     /**
@@ -216,17 +188,7 @@ public class Checker {
      * @since 1.0.9
      */
     public static boolean isLetter(String string) {
-        boolean result = isNotEmpty(string);
-        int idx = 0;
-        int len = string.length();
-        while (result) {
-            if (idx >= len) {
-                break;
-            }
-            result = isLetter(string.charAt(idx));
-            idx++;
-        }
-        return result;
+        return CharClassifier.matches(CharType.LETTER, string);
     }
 
     /**
@@ -265,17 +227,7 @@ public class Checker {
      * @since 1.0.9
      */
     public static boolean isOnlyLowerCase(String string) {
-        boolean result = isNotEmpty(string);
-        int idx = 0;
-        int len = string.length();
-        while (result) {
-            if (idx >= len) {
-                break;
-            }
-            result = isLowerCase(string.charAt(idx));
-            idx++;
-        }
-        return result;
+        return CharClassifier.matches(CharType.LOWER_CASE, string);
     }
 
     /**
@@ -314,17 +266,7 @@ public class Checker {
      * @since 1.0.9
      */
     public static boolean isOnlyUpperCase(String string) {
-        boolean result = isNotEmpty(string);
-        int idx = 0;
-        int len = string.length();
-        while (result) {
-            if (idx >= len) {
-                break;
-            }
-            result = isUpperCase(string.charAt(idx));
-            idx++;
-        }
-        return result;
+        return CharClassifier.matches(CharType.UPPER_CASE, string);
     }
 
     /**
@@ -450,7 +392,50 @@ public class Checker {
      * @since 1.0.8
      */
     public static <T> boolean isIn(T t, List<T> ts) {
-        return isIn(t, ts.toArray());
+        return isNotNull(t) && isNotNull(ts) && ts.contains(t);
+    }
+
+    /**
+     * 检查对象是否在成员集合中，同一批候选值需要反复判断时，使用 {@link MembershipSet} 代替列表或数组
+     *
+     * @param <T> 类型
+     * @param t 对象
+     * @param set 成员集合
+     *
+     * @return 是否存在
+     *
+     * @since 1.1.0
+     */
+    public static <T> boolean isIn(T t, MembershipSet<T> set) {
+        return isNotNull(set) && set.contains(t);
+    }
+
+    /**
+     * 检查整数是否在成员集合中
+     *
+     * @param value 整数
+     * @param set 成员集合
+     *
+     * @return 是否存在
+     *
+     * @since 1.1.0
+     */
+    public static boolean isIn(int value, IntMembershipSet set) {
+        return isNotNull(set) && set.contains(value);
+    }
+
+    /**
+     * 检查长整数是否在成员集合中
+     *
+     * @param value 长整数
+     * @param set 成员集合
+     *
+     * @return 是否存在
+     *
+     * @since 1.1.0
+     */
+    public static boolean isIn(long value, LongMembershipSet set) {
+        return isNotNull(set) && set.contains(value);
     }
 
     /**
@@ -502,7 +487,50 @@ public class Checker {
      * @since 1.0.9
      */
     public static <T> boolean isNotIn(T t, List<T> ts) {
-        return isNotIn(t, ts.toArray());
+        return !isIn(t, ts);
+    }
+
+    /**
+     * 检查对象是否不存在成员集合中
+     *
+     * @param t 对象
+     * @param set 成员集合
+     * @param <T> 类型
+     *
+     * @return {@link Boolean}
+     *
+     * @since 1.1.0
+     */
+    public static <T> boolean isNotIn(T t, MembershipSet<T> set) {
+        return !isIn(t, set);
+    }
+
+    /**
+     * 检查整数是否不存在成员集合中
+     *
+     * @param value 整数
+     * @param set 成员集合
+     *
+     * @return {@link Boolean}
+     *
+     * @since 1.1.0
+     */
+    public static boolean isNotIn(int value, IntMembershipSet set) {
+        return !isIn(value, set);
+    }
+
+    /**
+     * 检查长整数是否不存在成员集合中
+     *
+     * @param value 长整数
+     * @param set 成员集合
+     *
+     * @return {@link Boolean}
+     *
+     * @since 1.1.0
+     */
+    public static boolean isNotIn(long value, LongMembershipSet set) {
+        return !isIn(value, set);
     }
 
     /**
@@ -617,7 +645,7 @@ public class Checker {
      * @return {@link Boolean}
      */
     public static boolean isDate(String date) {
-        return isNotNull(date) && DATE_PATTERN.matcher(date).matches();
+        return isNotNull(date) && TextScanner.isDate(date);
     }
 
     /**
@@ -654,7 +682,7 @@ public class Checker {
      * @return {@link Boolean}
      */
     public static boolean isEmail(String email) {
-        return isNotEmpty(email) && EMAIL_PATTERN.matcher(email).matches();
+        return isNotEmpty(email) && TextScanner.isEmail(email);
     }
 
     /**
@@ -665,7 +693,7 @@ public class Checker {
      * @return {@link Boolean}
      */
     public static boolean isDecimal(String decimal) {
-        return isNotEmpty(decimal) && DECIMAL_PATTERN.matcher(decimal).matches();
+        return isNotEmpty(decimal) && TextScanner.isDecimal(decimal);
     }
 
     /**
@@ -676,7 +704,7 @@ public class Checker {
      * @return {@link Boolean}
      */
     public static boolean isNumber(String number) {
-        return isNotEmpty(number) && NUMBER_PATTERN.matcher(number).matches();
+        return isNotEmpty(number) && TextScanner.isNumber(number);
     }
 
     /**
@@ -1313,7 +1341,7 @@ public class Checker {
      * @return {@link Boolean}
      */
     public static boolean isHyperLink(String hyperLink) {
-        return isNotEmpty(hyperLink) && HYPER_LINK_PATTERN.matcher(hyperLink).matches();
+        return isNotEmpty(hyperLink) && TextScanner.isHyperLink(hyperLink);
     }
 
     /**
@@ -9,6 +9,7 @@ import java.io.IOException;
 import java.io.InputStream;
 import java.net.HttpURLConnection;
 import java.net.URL;
+import java.util.concurrent.CompletableFuture;
 
 /**
  * @author pantao
@@ -85,6 +86,20 @@ public class Downloader {
         }
     }
 
+    /**
+     * 在 {@link ThreadPool#DOWNLOAD} 执行器中异步下载文件
+     *
+     * @param downloadURL 下载的URL
+     *
+     * @return 是否下载成功
+     *
+     * @since 1.1.0
+     */
+    public static CompletableFuture<Boolean> downloadAsync(String downloadURL) {
+        return CompletableFuture.supplyAsync(() -> download(downloadURL), ThreadPool.getExecutor(ThreadPool
+                .DOWNLOAD));
+    }
+
     /**
      * 检查文件路径是否存在
      *
@@ -86,6 +86,13 @@ public class Formatter {
 
     private static final String STANDARD_FORMAT = "#0.00";
 
+    /**
+     * Gson和JsonParser都是线程安全的，不需要每次创建
+     */
+    private static final Gson PRETTY_GSON = new GsonBuilder().setPrettyPrinting().create();
+
+    private static final JsonParser JSON_PARSER = new JsonParser();
+
     private Formatter() {}
 
     /**
@@ -375,12 +382,8 @@ public class Formatter {
      * @return {@link String}
      */
     public static String formatJson(String string) {
-        String json;
-        Gson gson = new GsonBuilder().setPrettyPrinting().create();
-        JsonParser jp = new JsonParser();
-        JsonElement je = jp.parse(string);
-        json = gson.toJson(je);
-        return json;
+        JsonElement je = JSON_PARSER.parse(string);
+        return PRETTY_GSON.toJson(je);
     }
 
     /**
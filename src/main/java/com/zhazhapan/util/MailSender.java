@@ -3,12 +3,17 @@ package com.zhazhapan.util;
 import com.alibaba.fastjson.JSON;
 import com.alibaba.fastjson.JSONObject;
 import com.sun.mail.util.MailSSLSocketFactory;
+import com.zhazhapan.util.mail.MailDeliveryEngine;
 
 import javax.mail.*;
 import javax.mail.internet.InternetAddress;
 import javax.mail.internet.MimeMessage;
+import java.io.UnsupportedEncodingException;
+import java.security.GeneralSecurityException;
 import java.util.Date;
 import java.util.Properties;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
 
 /**
  * 发送邮件需要邮箱账号开启POP3/SMTP服务
@@ -195,8 +200,8 @@ public class MailSender {
         if (!Checker.isEmail(to)) {
             throw new Exception("this email address is not valid. please check it again");
         }
-        // 获取系统属性
-        Properties properties = System.getProperties();
+        // 以系统属性为默认值，避免修改全局的系统属性
+        Properties properties = new Properties(System.getProperties());
         // 设置邮件服务器
         properties.setProperty("mail.smtp.host", host);
         if (port > 0) {
@@ -232,6 +237,43 @@ public class MailSender {
         Transport.send(message);
     }
 
+    /**
+     * 在 {@link ThreadPool#MAIL} 执行器中异步发送邮件
+     *
+     * @param to 收件箱
+     * @param title 标题
+     * @param content 内容
+     *
+     * @return {@link CompletableFuture}
+     *
+     * @since 1.1.0
+     */
+    public static CompletableFuture<Void> sendMailAsync(String to, String title, String content) {
+        return CompletableFuture.runAsync(() -> {
+            try {
+                sendMail(to, title, content);
+            } catch (Exception e) {
+                throw new CompletionException(e);
+            }
+        }, ThreadPool.getExecutor(ThreadPool.MAIL));
+    }
+
+    /**
+     * 使用当前配置新建邮件投递引擎，适合批量发送，使用完毕后请调用 {@link MailDeliveryEngine#close()}
+     *
+     * @param connections 连接数
+     *
+     * @return {@link MailDeliveryEngine}
+     *
+     * @throws GeneralSecurityException 异常
+     * @throws UnsupportedEncodingException 异常
+     * @since 1.1.0
+     */
+    public static MailDeliveryEngine newDeliveryEngine(int connections) throws GeneralSecurityException,
+            UnsupportedEncodingException {
+        return new MailDeliveryEngine(host, port, sslEnable, personal, from, key, connections);
+    }
+
     /**
      * 获取当前邮件服务器
      *
@@ -3,25 +3,25 @@ package com.zhazhapan.util;
 import com.google.common.net.HttpHeaders;
 import com.zhazhapan.config.JsonParser;
 import com.zhazhapan.modules.constant.ValueConsts;
-import org.htmlcleaner.CleanerProperties;
-import org.htmlcleaner.DomSerializer;
-import org.htmlcleaner.HtmlCleaner;
-import org.htmlcleaner.TagNode;
+import com.zhazhapan.util.net.AsyncHttpFetcher;
+import com.zhazhapan.util.net.HttpResponseCache;
+import com.zhazhapan.util.net.UrlView;
+import com.zhazhapan.util.net.XPathExtractor;
 import org.jsoup.Jsoup;
-import org.w3c.dom.Document;
 
 import javax.servlet.http.Cookie;
 import javax.servlet.http.HttpServletRequest;
 import javax.servlet.http.HttpServletResponse;
 import javax.xml.parsers.ParserConfigurationException;
-import javax.xml.xpath.XPath;
 import javax.xml.xpath.XPathExpressionException;
-import javax.xml.xpath.XPathFactory;
 import java.io.IOException;
 import java.io.InputStream;
 import java.net.*;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
 
 /**
  * @author pantao
@@ -50,8 +50,69 @@ public class NetUtils {
      */
     public static final String PATH_KEY = "$path";
 
+    private static final XPathExtractor XPATH_EXTRACTOR = new XPathExtractor();
+
+    private static volatile AsyncHttpFetcher asyncFetcher = null;
+
+    private static volatile HttpResponseCache responseCache = null;
+
     private NetUtils() {}
 
+    /**
+     * 获取异步抓取器，没有设置时使用默认配置创建
+     *
+     * @return {@link AsyncHttpFetcher}
+     *
+     * @since 1.1.0
+     */
+    public static AsyncHttpFetcher getAsyncFetcher() {
+        if (Checker.isNull(asyncFetcher)) {
+            synchronized (NetUtils.class) {
+                if (Checker.isNull(asyncFetcher)) {
+                    asyncFetcher = new AsyncHttpFetcher();
+                }
+            }
+        }
+        return asyncFetcher;
+    }
+
+    /**
+     * 设置异步抓取器（并发数、超时等），旧的抓取器会被关闭
+     *
+     * @param fetcher {@link AsyncHttpFetcher}
+     *
+     * @since 1.1.0
+     */
+    public static synchronized void setAsyncFetcher(AsyncHttpFetcher fetcher) {
+        AsyncHttpFetcher old = asyncFetcher;
+        asyncFetcher = fetcher;
+        if (Checker.isNotNull(old) && old != fetcher) {
+            old.close();
+        }
+    }
+
+    /**
+     * 获取响应缓存
+     *
+     * @return {@link HttpResponseCache}，没有设置时返回null
+     *
+     * @since 1.1.0
+     */
+    public static HttpResponseCache getResponseCache() {
+        return responseCache;
+    }
+
+    /**
+     * 设置响应缓存，设置后 {@link #getDataOfUrl(URL)}（以及基于它的 {@link JsonParser#JsonParser(URL)}）会优先使用缓存，设置为null时关闭缓存
+     *
+     * @param cache {@link HttpResponseCache}
+     *
+     * @since 1.1.0
+     */
+    public static void setResponseCache(HttpResponseCache cache) {
+        responseCache = cache;
+    }
+
     /**
      * 是否是 ajax请求
      *
@@ -66,12 +127,13 @@ public class NetUtils {
     }
 
     /**
-     * 解析URL
+     * 解析URL，参数值不解码，同名参数保留最后一个值，没有等号的参数值为空字符串
      *
      * @param url url
      *
      * @return {@link Map}
      *
+     * @see UrlView
      * @since 1.0.8
      */
     public static Map<String, String> parseUrl(String url) {
@@ -80,48 +142,25 @@ public class NetUtils {
         result.put(HOST_KEY, ValueConsts.EMPTY_STRING);
         result.put(PATH_KEY, ValueConsts.EMPTY_STRING);
         if (Checker.isNotEmpty(url)) {
-            String[] pros;
-            final String protocolSplit = "://";
-            if (url.contains(protocolSplit)) {
-                pros = url.split(protocolSplit);
-            } else {
-                pros = new String[]{"", url};
-            }
+            UrlView view = UrlView.parse(url);
             // 设置主机、协议、路径
-            result.put(PROTOCOL_KEY, pros[0]);
-            if (pros.length < ValueConsts.TWO_INT) {
-                pros = new String[]{pros[0], ValueConsts.EMPTY_STRING};
+            result.put(PROTOCOL_KEY, view.getProtocol());
+            result.put(HOST_KEY, view.getAuthority());
+            // 设置参数
+            UrlView.QueryCursor cursor = view.cursor();
+            while (cursor.next()) {
+                result.put(cursor.getRawName(), cursor.getRawValue());
             }
-            if (pros[1].contains(ValueConsts.SPLASH_STRING)) {
-                int lastIndex = pros[1].lastIndexOf(ValueConsts.SPLASH_STRING);
-                if (pros[1].startsWith(ValueConsts.SPLASH_STRING)) {
-                    // 文件协议
-                    result.put(PATH_KEY, pros[1].substring(1));
-                } else if (pros[1].contains(ValueConsts.SPLASH_STRING)) {
-                    int index = pros[1].indexOf("/");
-                    // 设置主机
-                    result.put(HOST_KEY, pros[1].substring(0, index));
-                    // 设置参数
-                    if (pros[1].contains(ValueConsts.QUESTION_MARK)) {
-                        lastIndex = pros[1].indexOf(ValueConsts.QUESTION_MARK);
-                        String[] params = pros[1].split("\\?")[1].split("&");
-                        for (String param : params) {
-                            String[] kv = param.split("=");
-                            result.put(kv[0], kv[1]);
-                        }
-                    }
-                    // 设置路径
-                    if (lastIndex > index) {
-                        String path = pros[1].substring(index + 1, lastIndex);
-                        path = path.endsWith(ValueConsts.SPLASH_STRING) ? path.substring(0, path.length() - 1) : path;
-                        result.put(PATH_KEY, path);
-                    }
-                } else {
-                    result.put(HOST_KEY, pros[1]);
-                }
-            } else {
-                result.put(HOST_KEY, pros[1]);
+            // 设置路径，去掉首尾的斜杠
+            int start = view.getPathStart();
+            int end = view.getPathEnd();
+            if (start < end && url.charAt(start) == '/') {
+                start++;
+            }
+            if (start < end && url.charAt(end - 1) == '/') {
+                end--;
             }
+            result.put(PATH_KEY, url.substring(start, end));
         }
         return result;
     }
@@ -349,6 +388,43 @@ public class NetUtils {
         return evaluate(ValueConsts.IP_REGION_XPATH, getHtmlFromUrl("http://ip.chinaz.com/" + ip));
     }
 
+    /**
+     * 异步whois查询
+     *
+     * @param domain 域名
+     *
+     * @return whois信息
+     *
+     * @since 1.1.0
+     */
+    public static CompletableFuture<String> whoisAsync(String domain) {
+        return AsyncHttpFetcher.thenApply(getHtmlFromUrlAsync("http://whois.chinaz.com/" + domain), html ->
+                evaluateUnchecked(ValueConsts.WHOIS_DOMAIN_XPATH, html).replaceAll("\\[whois\\s?反查]", ValueConsts
+                        .EMPTY_STRING).replaceAll("\\s{2,}", "\r\n"));
+    }
+
+    /**
+     * 异步获取ip归属地
+     *
+     * @param ip ip地址
+     *
+     * @return 归属地
+     *
+     * @since 1.1.0
+     */
+    public static CompletableFuture<String> getLocationByIpAsync(String ip) {
+        return AsyncHttpFetcher.thenApply(getHtmlFromUrlAsync("http://ip.chinaz.com/" + ip), html ->
+                evaluateUnchecked(ValueConsts.IP_REGION_XPATH, html));
+    }
+
+    private static String evaluateUnchecked(String xpath, String html) {
+        try {
+            return evaluate(xpath, html);
+        } catch (XPathExpressionException | ParserConfigurationException e) {
+            throw new CompletionException(e);
+        }
+    }
+
     /**
      * XPath解析HTML内容
      *
@@ -362,11 +438,24 @@ public class NetUtils {
      */
     public static String evaluate(String xpath, String html) throws XPathExpressionException,
             ParserConfigurationException {
-        HtmlCleaner hc = new HtmlCleaner();
-        TagNode tn = hc.clean(html);
-        Document document = new DomSerializer(new CleanerProperties()).createDOM(tn);
-        XPath xPath = XPathFactory.newInstance().newXPath();
-        return xPath.evaluate(xpath, document);
+        return XPATH_EXTRACTOR.evaluate(xpath, html);
+    }
+
+    /**
+     * XPath解析HTML内容，HTML只解析一次
+     *
+     * @param html html内容
+     * @param xpaths xpath表达式
+     *
+     * @return 与xpaths顺序一致的解析结果
+     *
+     * @throws XPathExpressionException 异常
+     * @throws ParserConfigurationException 异常
+     * @since 1.1.0
+     */
+    public static List<String> evaluateAll(String html, List<String> xpaths) throws XPathExpressionException,
+            ParserConfigurationException {
+        return XPATH_EXTRACTOR.extract(html, xpaths);
     }
 
     /**
@@ -395,6 +484,32 @@ public class NetUtils {
         return Jsoup.connect(url).get();
     }
 
+    /**
+     * 异步获取网页内容，可通过 {@link CompletableFuture#cancel(boolean)} 取消请求
+     *
+     * @param url 链接
+     *
+     * @return {@link CompletableFuture}
+     *
+     * @since 1.1.0
+     */
+    public static CompletableFuture<String> getHtmlFromUrlAsync(String url) {
+        return AsyncHttpFetcher.thenApply(getDocumentFromUrlAsync(url), org.jsoup.nodes.Document::html);
+    }
+
+    /**
+     * 异步获取HTML文档，可通过 {@link CompletableFuture#cancel(boolean)} 取消请求
+     *
+     * @param url 链接
+     *
+     * @return {@link CompletableFuture}
+     *
+     * @since 1.1.0
+     */
+    public static CompletableFuture<org.jsoup.nodes.Document> getDocumentFromUrlAsync(String url) {
+        return AsyncHttpFetcher.thenApply(getDataOfUrlAsync(url), html -> Jsoup.parse(html, url));
+    }
+
     /**
      * 获取计算机名
      *
@@ -506,9 +621,45 @@ public class NetUtils {
      * @throws IOException 异常
      */
     public static String getDataOfUrl(URL url) throws IOException {
+        HttpResponseCache cache = responseCache;
+        if (Checker.isNotNull(cache) && url.getProtocol().startsWith("http")) {
+            return cache.getString(url);
+        }
         return FileExecutor.read(getInputStreamOfUrl(url));
     }
 
+    /**
+     * 异步获取URL中的数据
+     *
+     * @param url 网络链接
+     *
+     * @return {@link CompletableFuture}
+     *
+     * @since 1.1.0
+     */
+    public static CompletableFuture<String> getDataOfUrlAsync(String url) {
+        try {
+            return getDataOfUrlAsync(new URL(url));
+        } catch (MalformedURLException e) {
+            CompletableFuture<String> future = new CompletableFuture<>();
+            future.completeExceptionally(e);
+            return future;
+        }
+    }
+
+    /**
+     * 异步获取URL中的数据，可通过 {@link CompletableFuture#cancel(boolean)} 取消请求
+     *
+     * @param url 网络链接
+     *
+     * @return {@link CompletableFuture}
+     *
+     * @since 1.1.0
+     */
+    public static CompletableFuture<String> getDataOfUrlAsync(URL url) {
+        return getAsyncFetcher().fetchString(url);
+    }
+
     /**
      * 获取URL的InputStream对象
      *
@@ -547,10 +698,21 @@ public class NetUtils {
      */
     public static InputStream getInputStreamOfConnection(HttpURLConnection connection) throws IOException {
         connection.setConnectTimeout(1000 * 6);
+        setDefaultRequestProperties(connection);
+        return connection.getInputStream();
+    }
+
+    /**
+     * 设置默认的请求头（字符集、User-Agent、Keep-Alive等）
+     *
+     * @param connection 链接对象
+     *
+     * @since 1.1.0
+     */
+    public static void setDefaultRequestProperties(HttpURLConnection connection) {
         connection.setRequestProperty("Charset", "UTF-8");
         connection.setRequestProperty("User-Agent", ValueConsts.USER_AGENT[0]);
         connection.setRequestProperty("Connection", "Keep-Alive");
         connection.setRequestProperty("Accept", "*/*");
-        return connection.getInputStream();
     }
 }
@@ -1,6 +1,10 @@
 package com.zhazhapan.util;
 
-import org.apache.commons.jexl3.JexlContext;
+import com.zhazhapan.util.reflect.BoundInvoker;
+import com.zhazhapan.util.reflect.ClassInfo;
+import com.zhazhapan.util.reflect.ClassScanner;
+import com.zhazhapan.util.reflect.ExpressionCache;
+import com.zhazhapan.util.reflect.MethodInvoker;
 import org.apache.commons.jexl3.JexlEngine;
 import org.apache.commons.jexl3.JexlExpression;
 import org.apache.commons.jexl3.MapContext;
@@ -10,15 +14,12 @@ import org.apache.log4j.Logger;
 import java.io.File;
 import java.io.IOException;
 import java.lang.reflect.InvocationTargetException;
-import java.net.JarURLConnection;
-import java.net.URL;
-import java.net.URLDecoder;
 import java.util.ArrayList;
-import java.util.Enumeration;
+import java.util.Arrays;
 import java.util.List;
 import java.util.Map;
-import java.util.jar.JarEntry;
-import java.util.jar.JarFile;
+import java.util.RandomAccess;
+import java.util.concurrent.RecursiveAction;
 
 /**
  * @author pantao
@@ -30,12 +31,28 @@ public class ReflectUtils {
 
     private static JexlEngine jexlEngine = new Engine();
 
+    /**
+     * 编译后的表达式和脚本最多缓存的数量
+     */
+    private static final int EXPRESSION_CACHE_SIZE = 1024;
+
+    /**
+     * 批量执行表达式时每个任务处理的上下文数量
+     */
+    private static final int EVALUATE_THRESHOLD = 64;
+
+    private static final ExpressionCache EXPRESSION_CACHE = new ExpressionCache(jexlEngine, EXPRESSION_CACHE_SIZE);
+
+    private static volatile ClassScanner classScanner = new ClassScanner();
+
     private ReflectUtils() {}
 
     /**
      * 将字符串转成代码，并执行
      * <p>
      * <br><a href="https://blog.csdn.net/qq_26954773/article/details/80379015#3-%E6%B5%8B%E8%AF%95">怎么使用</a>
+     * <p>
+     * 编译后的表达式会被缓存；参数映射直接作为上下文，不会被复制，表达式中的赋值会写入映射
      *
      * @param jexlExpression 代码表达式
      * @param map 参数映射
@@ -45,12 +62,60 @@ public class ReflectUtils {
      * @since 1.0.8
      */
     public static Object executeExpression(String jexlExpression, Map<String, Object> map) {
-        JexlExpression expression = jexlEngine.createExpression(jexlExpression);
-        JexlContext context = new MapContext();
-        if (Checker.isNotEmpty(map)) {
-            map.forEach(context::set);
+        return EXPRESSION_CACHE.getExpression(jexlExpression).evaluate(new MapContext(map));
+    }
+
+    /**
+     * 对每个参数映射执行同一个表达式，在 {@link ThreadPool#getForkJoinPool()} 中并行执行，表达式只编译一次
+     *
+     * @param jexlExpression 代码表达式
+     * @param maps 参数映射，每个映射单独执行一次
+     *
+     * @return 执行结果，与参数映射的顺序一致
+     *
+     * @since 1.1.0
+     */
+    public static List<Object> executeExpressions(String jexlExpression, List<? extends Map<String, Object>>
+            maps) {
+        JexlExpression expression = EXPRESSION_CACHE.getExpression(jexlExpression);
+        if (!(maps instanceof RandomAccess)) {
+            maps = new ArrayList<>(maps);
         }
-        return expression.evaluate(context);
+        Object[] results = new Object[maps.size()];
+        Evaluation evaluation = new Evaluation(expression, maps, results, 0, results.length);
+        if (results.length <= EVALUATE_THRESHOLD) {
+            evaluation.compute();
+        } else {
+            ThreadPool.getForkJoinPool().invoke(evaluation);
+        }
+        return Arrays.asList(results);
+    }
+
+    /**
+     * 执行JEXL脚本（可以包含多条语句），编译后的脚本会被缓存，参数映射直接作为上下文
+     *
+     * @param jexlScript 脚本
+     * @param map 参数映射
+     *
+     * @return 最后一条语句的结果
+     *
+     * @since 1.1.0
+     */
+    public static Object executeScript(String jexlScript, Map<String, Object> map) {
+        return EXPRESSION_CACHE.getScript(jexlScript).execute(new MapContext(map));
+    }
+
+    /**
+     * 获取编译后的表达式，需要自行管理上下文时使用
+     *
+     * @param jexlExpression 代码表达式
+     *
+     * @return {@link JexlExpression}
+     *
+     * @since 1.1.0
+     */
+    public static JexlExpression getExpression(String jexlExpression) {
+        return EXPRESSION_CACHE.getExpression(jexlExpression);
     }
 
     /**
@@ -106,12 +171,48 @@ public class ReflectUtils {
     public static Object invokeMethod(Object object, String methodName, Class<?>[] parameterTypes, Object[]
             parameters) throws NoSuchMethodException, InvocationTargetException, IllegalAccessException {
         if (Checker.isNull(parameters)) {
-            return object.getClass().getMethod(methodName).invoke(object);
+            return MethodInvoker.of(object.getClass(), methodName).invoke(object);
         } else {
-            return object.getClass().getMethod(methodName, parameterTypes).invoke(object, parameters);
+            return MethodInvoker.of(object.getClass(), methodName, parameterTypes).invoke(object, parameters);
         }
     }
 
+    /**
+     * 获取方法的调用器，解析结果会被缓存，反复调用同一个方法时应保存调用器，避免每次查找
+     *
+     * @param type 类
+     * @param methodName 方法名
+     * @param parameterTypes 参数类型，基本类型可以匹配更宽的基本类型和包装类，为null的元素匹配任意引用类型
+     *
+     * @return {@link MethodInvoker}
+     *
+     * @throws NoSuchMethodException 异常
+     * @throws IllegalAccessException 异常
+     * @since 1.1.0
+     */
+    public static MethodInvoker getInvoker(Class<?> type, String methodName, Class<?>... parameterTypes) throws
+            NoSuchMethodException, IllegalAccessException {
+        return MethodInvoker.of(type, methodName, parameterTypes);
+    }
+
+    /**
+     * 获取绑定了对象的方法调用器
+     *
+     * @param object 对象
+     * @param methodName 方法名
+     * @param parameterTypes 参数类型
+     *
+     * @return {@link BoundInvoker}
+     *
+     * @throws NoSuchMethodException 异常
+     * @throws IllegalAccessException 异常
+     * @since 1.1.0
+     */
+    public static BoundInvoker bindInvoker(Object object, String methodName, Class<?>... parameterTypes) throws
+            NoSuchMethodException, IllegalAccessException {
+        return MethodInvoker.of(object.getClass(), methodName, parameterTypes).bindTo(object);
+    }
+
     /**
      * 获取所有对象的基本类型
      *
@@ -190,7 +291,9 @@ public class ReflectUtils {
     }
 
     /**
-     * 从包中获取所有的类
+     * 从包中获取所有的类（包括子包），类只加载不初始化
+     * <p>
+     * 通过 {@link ClassScanner} 解析class文件得到类名，jar的扫描结果会被缓存，见 {@link #setClassIndexDirectory(File)}
      *
      * @param packageName 包名
      *
@@ -200,40 +303,40 @@ public class ReflectUtils {
      * @throws ClassNotFoundException 异常
      */
     public static List<Class<?>> getClasses(String packageName) throws IOException, ClassNotFoundException {
-        List<Class<?>> classes = new ArrayList<>();
-        String packageDirName = packageName.replace('.', '/');
-        Enumeration<URL> dirs = Thread.currentThread().getContextClassLoader().getResources(packageDirName);
-        while (dirs.hasMoreElements()) {
-            URL url = dirs.nextElement();
-            String protocol = url.getProtocol();
-            if ("file".equals(protocol)) {
-                String filePath = URLDecoder.decode(url.getFile(), "UTF-8");
-                addClassesInPackageByFile(packageName, filePath, classes);
-            } else if ("jar".equals(protocol)) {
-                JarFile jar = ((JarURLConnection) url.openConnection()).getJarFile();
-                Enumeration<JarEntry> entries = jar.entries();
-                while (entries.hasMoreElements()) {
-                    JarEntry entry = entries.nextElement();
-                    String name = entry.getName();
-                    if (name.charAt(0) == '/') {
-                        name = name.substring(1);
-                    }
-                    if (name.startsWith(packageDirName)) {
-                        int idx = name.lastIndexOf('/');
-                        if (idx != -1) {
-                            packageName = name.substring(0, idx).replace('/', '.');
-                        }
-                        if (name.endsWith(".class") && !entry.isDirectory()) {
-                            String className = name.substring(packageName.length() + 1, name.length() - 6);
-                            classes.add(Class.forName(packageName + '.' + className));
-                        }
-                    }
-                }
-            }
+        ClassLoader loader = Thread.currentThread().getContextClassLoader();
+        List<ClassInfo> infos = classScanner.scan(loader, packageName);
+        List<Class<?>> classes = new ArrayList<>(infos.size());
+        for (ClassInfo info : infos) {
+            classes.add(info.load(loader));
         }
         return classes;
     }
 
+    /**
+     * 扫描包（包括子包）中的类信息，不加载类，可以先按注解、父类等筛选再加载
+     *
+     * @param packages 包名
+     *
+     * @return {@link ClassInfo}
+     *
+     * @throws IOException 异常
+     * @since 1.1.0
+     */
+    public static List<ClassInfo> scanClasses(String... packages) throws IOException {
+        return classScanner.scan(packages);
+    }
+
+    /**
+     * 设置类扫描的磁盘索引目录，jar按内容的校验和建立索引，之后启动时不用再解析jar
+     *
+     * @param directory 索引目录，为null时只使用内存缓存
+     *
+     * @since 1.1.0
+     */
+    public static void setClassIndexDirectory(File directory) {
+        classScanner = new ClassScanner(directory);
+    }
+
     /**
      * 以文件的形式来获取包下的所有类
      *
@@ -261,4 +364,44 @@ public class ReflectUtils {
             }
         }
     }
+
+    /**
+     * 批量执行表达式的任务，区间足够小时串行执行
+     */
+    private static class Evaluation extends RecursiveAction {
+
+        private static final long serialVersionUID = 1L;
+
+        private final JexlExpression expression;
+
+        private final List<? extends Map<String, Object>> maps;
+
+        private final Object[] results;
+
+        private final int from;
+
+        private final int to;
+
+        private Evaluation(JexlExpression expression, List<? extends Map<String, Object>> maps, Object[] results,
+                           int from, int to) {
+            this.expression = expression;
+            this.maps = maps;
+            this.results = results;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from <= EVALUATE_THRESHOLD) {
+                for (int i = from; i < to; i++) {
+                    results[i] = expression.evaluate(new MapContext(maps.get(i)));
+                }
+                return;
+            }
+            int mid = (from + to) >>> 1;
+            invokeAll(new Evaluation(expression, maps, results, from, mid), new Evaluation(expression, maps,
+                    results, mid, to));
+        }
+    }
 }
@@ -1,28 +1,112 @@
 package com.zhazhapan.util;
 
+import com.zhazhapan.util.concurrent.AdaptivePoolController;
+import com.zhazhapan.util.concurrent.ExecutorRegistry;
+import com.zhazhapan.util.concurrent.MonitoredThreadPoolExecutor;
+import com.zhazhapan.util.concurrent.RateLimitedExecutor;
+import com.zhazhapan.util.concurrent.TaskScheduler;
+import com.zhazhapan.util.concurrent.ThreadPoolBuilder;
+import com.zhazhapan.util.enums.ExecutionMode;
+import com.zhazhapan.util.enums.QueueType;
+import com.zhazhapan.util.enums.RejectPolicy;
+import com.zhazhapan.util.interfaces.IRateLimiter;
+import com.zhazhapan.util.model.PoolMetrics;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
 import java.util.concurrent.*;
 
 /**
+ * 线程池，默认使用有界队列，队列满时由调用线程执行，可通过 {@link #getMetrics()} 查看运行指标
+ * <p>
+ * 另外可通过 {@link #getExecutor(String)} 获取按名称隔离的执行器，每个名称可选择不同的 {@link ExecutionMode}：{@link #CPU}
+ * 默认为工作窃取，{@link #IO}、{@link #MAIL}、{@link #DOWNLOAD} 默认为虚拟线程（不支持时退化为平台线程池）。所有执行器都登记在
+ * {@link #getRegistry()} 中，创建第一个执行器时注册JVM关闭钩子，退出时在截止时间内优雅关闭（见 {@link #setShutdownHookEnabled(boolean)}）
+ *
  * @author pantao
  */
 public class ThreadPool {
 
     /**
      * executor
+     *
+     * @deprecated 请使用 {@link #getExecutor()}，直接赋值不会关闭旧的线程池
+     */
+    @Deprecated
+    public static volatile ThreadPoolExecutor executor = null;
+
+    /**
+     * 线程名前缀
+     *
+     * @since 1.1.0
+     */
+    public static final String NAME = "thread-pool";
+
+    /**
+     * CPU密集型任务的执行器名称
+     *
+     * @since 1.1.0
+     */
+    public static final String CPU = "cpu";
+
+    /**
+     * 阻塞IO任务的执行器名称
+     *
+     * @since 1.1.0
      */
-    public static ThreadPoolExecutor executor = null;
+    public static final String IO = "io";
+
+    /**
+     * 发送邮件的执行器名称
+     *
+     * @since 1.1.0
+     */
+    public static final String MAIL = "mail";
+
+    /**
+     * 下载文件的执行器名称
+     *
+     * @since 1.1.0
+     */
+    public static final String DOWNLOAD = "download";
+
+    /**
+     * 执行共享调度器（{@link #getScheduler()}）中到期任务的执行器名称，队列无界，不会在调度线程中执行任务
+     *
+     * @since 1.1.0
+     */
+    public static final String SCHEDULED = "scheduled";
+
+    private static final int CPU_COUNT = Runtime.getRuntime().availableProcessors();
 
-    private static int corePoolSize = 1;
+    private static final Map<String, ExecutionMode> EXECUTION_MODES = new ConcurrentHashMap<>(8);
 
-    private static int maximumPoolSize = 3;
+    private static final ExecutorRegistry REGISTRY = new ExecutorRegistry(ThreadPool::newNamedExecutor);
+
+    private static final Map<String, AdaptivePoolController> CONTROLLERS = new ConcurrentHashMap<>(4);
+
+    private static volatile TaskScheduler scheduler = null;
+
+    private static int corePoolSize = CPU_COUNT;
+
+    private static int maximumPoolSize = corePoolSize * 2;
 
     private static long keepAliveTime = 1000;
 
     private static TimeUnit timeUnit = TimeUnit.MILLISECONDS;
 
-    private static BlockingQueue<Runnable> workQueue = new LinkedBlockingQueue<>(1);
+    private static BlockingQueue<Runnable> workQueue = null;
+
+    private static QueueType queueType = QueueType.LINKED;
+
+    private static int queueCapacity = ThreadPoolBuilder.DEFAULT_QUEUE_CAPACITY;
+
+    private static ThreadFactory threadFactory = null;
 
-    private static ThreadFactory threadFactory = Thread::new;
+    private static RejectPolicy rejectPolicy = RejectPolicy.CALLER_RUNS;
+
+    private static volatile boolean shutdownHookEnabled = true;
 
     /**
      * 新的线程池
@@ -38,17 +122,94 @@ public class ThreadPool {
      * @param unit 存活时长单位
      */
     public ThreadPool(int core, int maximum, int keep, TimeUnit unit) {
-        BlockingQueue<Runnable> queue = new LinkedBlockingQueue<>(1);
-        ThreadFactory factory = Thread::new;
-        newExecutor = new ThreadPoolExecutor(core, maximum, keep, unit, queue, factory);
+        this(new ThreadPoolBuilder(NAME).poolSize(core, maximum).keepAlive(keep, unit).daemon(false));
     }
 
     /**
-     * 初始化线程池
+     * 通过构建器新建线程池
+     *
+     * @param builder {@link ThreadPoolBuilder}
+     *
+     * @since 1.1.0
+     */
+    public ThreadPool(ThreadPoolBuilder builder) {
+        newExecutor = builder.build();
+    }
+
+    /**
+     * 初始化线程池，已存在的线程池会被替换：其队列中未执行的任务转移到新线程池，正在执行的任务完成后旧线程池关闭
      */
-    public static void init() {
-        executor = new ThreadPoolExecutor(corePoolSize, maximumPoolSize, keepAliveTime, timeUnit, workQueue,
-                threadFactory);
+    public static synchronized void init() {
+        ThreadPoolBuilder builder = new ThreadPoolBuilder(NAME).poolSize(corePoolSize, maximumPoolSize);
+        builder.keepAlive(keepAliveTime, timeUnit).queue(queueType, queueCapacity).rejectPolicy(rejectPolicy);
+        ThreadPoolExecutor old = executor;
+        if (Checker.isNotNull(workQueue)) {
+            if (Checker.isNotNull(old) && old.getQueue() == workQueue) {
+                // 旧线程池关闭后仍会消费自己的队列，新线程池必须使用新的队列实例
+                workQueue = newQueueLike(workQueue);
+            }
+            builder.queue(workQueue);
+        }
+        executor = builder.daemon(false).threadFactory(threadFactory).build();
+        installShutdownHook();
+        ExecutorService registered = REGISTRY.register(NAME, executor);
+        if (Checker.isNotNull(registered) && registered != old) {
+            registered.shutdown();
+        }
+        if (Checker.isNotNull(old)) {
+            List<Runnable> pending;
+            if (old instanceof MonitoredThreadPoolExecutor) {
+                // 去掉旧线程池的统计包装，由新线程池重新包装
+                pending = ((MonitoredThreadPoolExecutor) old).drainQueue();
+            } else {
+                pending = new ArrayList<>();
+                old.getQueue().drainTo(pending);
+            }
+            old.shutdown();
+            pending.forEach(executor::execute);
+        }
+    }
+
+    /**
+     * 新建与指定队列类型和容量相同的空队列
+     */
+    private static BlockingQueue<Runnable> newQueueLike(BlockingQueue<Runnable> queue) {
+        if (queue instanceof LinkedBlockingQueue) {
+            return new LinkedBlockingQueue<>(queue.size() + queue.remainingCapacity());
+        }
+        if (queue instanceof ArrayBlockingQueue) {
+            return new ArrayBlockingQueue<>(queue.size() + queue.remainingCapacity());
+        }
+        if (queue instanceof PriorityBlockingQueue) {
+            return new PriorityBlockingQueue<>(11, ((PriorityBlockingQueue<Runnable>) queue).comparator());
+        }
+        if (queue instanceof SynchronousQueue) {
+            return new SynchronousQueue<>();
+        }
+        try {
+            @SuppressWarnings("unchecked")
+            BlockingQueue<Runnable> copy = queue.getClass().getConstructor().newInstance();
+            return copy;
+        } catch (ReflectiveOperationException e) {
+            throw new IllegalStateException("can't create a new work queue of " + queue.getClass().getName() + ", " +
+                    "call setWorkQueue with a new instance", e);
+        }
+    }
+
+    private static void installShutdownHook() {
+        if (shutdownHookEnabled) {
+            try {
+                REGISTRY.installShutdownHook();
+            } catch (IllegalStateException e) {
+                // JVM正在退出
+            }
+        }
+    }
+
+    private static void reinit() {
+        if (Checker.isNotNull(executor)) {
+            init();
+        }
     }
 
     /**
@@ -74,11 +235,262 @@ public class ThreadPool {
      */
     public static ThreadPoolExecutor getExecutor() {
         if (Checker.isNull(executor)) {
-            init();
+            synchronized (ThreadPool.class) {
+                if (Checker.isNull(executor)) {
+                    init();
+                }
+            }
         }
         return executor;
     }
 
+    /**
+     * 获取指定名称的执行器，不存在时按该名称的执行模式新建
+     *
+     * @param name 执行器名称，如：{@link #CPU}、{@link #IO}
+     *
+     * @return {@link ExecutorService}
+     *
+     * @since 1.1.0
+     */
+    public static ExecutorService getExecutor(String name) {
+        return NAME.equals(name) ? getExecutor() : REGISTRY.get(name);
+    }
+
+    /**
+     * 获取执行器注册表
+     *
+     * @return {@link ExecutorRegistry}
+     *
+     * @since 1.1.0
+     */
+    public static ExecutorRegistry getRegistry() {
+        return REGISTRY;
+    }
+
+    /**
+     * 运行时调整指定执行器的线程数，只支持 {@link ThreadPoolExecutor}，工作窃取和虚拟线程模式不支持
+     *
+     * @param name 执行器名称
+     * @param core 核心线程数
+     * @param maximum 最大线程数
+     *
+     * @since 1.1.0
+     */
+    public static void resize(String name, int core, int maximum) {
+        if (NAME.equals(name)) {
+            corePoolSize = core;
+            maximumPoolSize = maximum;
+            ExecutorRegistry.resize(getExecutor(), core, maximum);
+        } else {
+            REGISTRY.resize(name, core, maximum);
+        }
+    }
+
+    /**
+     * 为指定执行器开启自适应线程数，按采样的吞吐量和排队耗时在上下限之间调整，只支持 {@link ThreadPoolExecutor}
+     *
+     * @param name 执行器名称
+     * @param minSize 最小线程数
+     * @param maxSize 最大线程数
+     *
+     * @return {@link AdaptivePoolController}
+     *
+     * @since 1.1.0
+     */
+    public static AdaptivePoolController enableAdaptiveSizing(String name, int minSize, int maxSize) {
+        ExecutorService service = getExecutor(name);
+        if (!(service instanceof ThreadPoolExecutor)) {
+            String type = service.getClass().getName();
+            throw new UnsupportedOperationException("executor '" + name + "' can't be resized: " + type);
+        }
+        AdaptivePoolController controller = new AdaptivePoolController((ThreadPoolExecutor) service, minSize,
+                maxSize).start();
+        AdaptivePoolController old = CONTROLLERS.put(name, controller);
+        if (Checker.isNotNull(old)) {
+            old.close();
+        }
+        return controller;
+    }
+
+    /**
+     * 关闭指定执行器的自适应线程数，线程数保持当前值
+     *
+     * @param name 执行器名称
+     *
+     * @since 1.1.0
+     */
+    public static void disableAdaptiveSizing(String name) {
+        AdaptivePoolController controller = CONTROLLERS.remove(name);
+        if (Checker.isNotNull(controller)) {
+            controller.close();
+        }
+    }
+
+    /**
+     * 优雅关闭指定执行器：不再接收新任务，在截止时间前等待已提交的任务完成，超时后中断，再次获取时会新建
+     *
+     * @param name 执行器名称
+     * @param timeout 等待时长
+     * @param unit 时间单位
+     *
+     * @return 是否在截止时间前执行完所有任务
+     *
+     * @since 1.1.0
+     */
+    public static boolean shutdown(String name, long timeout, TimeUnit unit) {
+        if (NAME.equals(name)) {
+            synchronized (ThreadPool.class) {
+                executor = null;
+            }
+        }
+        return REGISTRY.shutdown(name, timeout, unit);
+    }
+
+    /**
+     * 优雅关闭所有执行器，共用同一个截止时间，共享调度器中未到期的任务不再执行
+     *
+     * @param timeout 等待时长
+     * @param unit 时间单位
+     *
+     * @return 每个执行器是否在截止时间前执行完所有任务
+     *
+     * @since 1.1.0
+     */
+    public static Map<String, Boolean> shutdownAll(long timeout, TimeUnit unit) {
+        synchronized (ThreadPool.class) {
+            executor = null;
+            if (Checker.isNotNull(scheduler)) {
+                scheduler.close();
+                scheduler = null;
+            }
+        }
+        return REGISTRY.shutdownAll(timeout, unit);
+    }
+
+    /**
+     * 获取共享的调度器，基于时间轮，适合大量的延时重试和超时任务，到期的任务在 {@link #SCHEDULED} 执行器中执行
+     *
+     * @return {@link TaskScheduler}
+     *
+     * @since 1.1.0
+     */
+    public static TaskScheduler getScheduler() {
+        if (Checker.isNull(scheduler)) {
+            synchronized (ThreadPool.class) {
+                if (Checker.isNull(scheduler)) {
+                    // 每次都取当前的执行器，关闭后再次获取时会新建；不使用getExecutor()，它的CALLER_RUNS策略会在时间轮线程中执行任务
+                    scheduler = new TaskScheduler("scheduler", task -> REGISTRY.get(SCHEDULED).execute(task));
+                }
+            }
+        }
+        return scheduler;
+    }
+
+    /**
+     * 获取按限流器速率向指定执行器提交任务的执行器，需要等待的任务由共享调度器在 {@link #SCHEDULED} 执行器中延时提交，提交线程不会被阻塞
+     *
+     * @param name 执行器名称，为 {@link #NAME} 时使用 {@link #getExecutor()}
+     * @param limiter 限流器，如 {@link com.zhazhapan.util.concurrent.TokenBucketRateLimiter}
+     *
+     * @return {@link RateLimitedExecutor}
+     *
+     * @since 1.1.0
+     */
+    public static RateLimitedExecutor rateLimited(String name, IRateLimiter limiter) {
+        return new RateLimitedExecutor(getExecutor(name), limiter, getScheduler());
+    }
+
+    /**
+     * 获取CPU执行器对应的 {@link ForkJoinPool}，CPU执行器不是工作窃取模式时返回公共池
+     *
+     * @return {@link ForkJoinPool}
+     *
+     * @since 1.1.0
+     */
+    public static ForkJoinPool getForkJoinPool() {
+        ExecutorService executor = getExecutor(CPU);
+        return executor instanceof ForkJoinPool ? (ForkJoinPool) executor : ForkJoinPool.commonPool();
+    }
+
+    /**
+     * 设置是否在创建第一个执行器时注册JVM关闭钩子，默认开启；关闭时同时移除已注册的钩子
+     *
+     * @param enabled 是否开启
+     *
+     * @since 1.1.0
+     */
+    public static void setShutdownHookEnabled(boolean enabled) {
+        shutdownHookEnabled = enabled;
+        if (!enabled) {
+            REGISTRY.removeShutdownHook();
+        }
+    }
+
+    /**
+     * 获取指定名称的执行模式
+     *
+     * @param name 执行器名称
+     *
+     * @return {@link ExecutionMode}
+     *
+     * @since 1.1.0
+     */
+    public static ExecutionMode getExecutionMode(String name) {
+        ExecutionMode mode = EXECUTION_MODES.get(name);
+        if (Checker.isNotNull(mode)) {
+            return mode;
+        }
+        if (CPU.equals(name)) {
+            return ExecutionMode.WORK_STEALING;
+        }
+        if (IO.equals(name) || MAIL.equals(name) || DOWNLOAD.equals(name)) {
+            return ExecutionMode.VIRTUAL_THREAD;
+        }
+        return ExecutionMode.THREAD_POOL;
+    }
+
+    /**
+     * 设置指定名称的执行模式，已存在的执行器会被替换，旧执行器在执行完已提交的任务后关闭
+     *
+     * @param name 执行器名称
+     * @param mode {@link ExecutionMode}
+     *
+     * @since 1.1.0
+     */
+    public static void setExecutionMode(String name, ExecutionMode mode) {
+        EXECUTION_MODES.put(name, mode);
+        ExecutorService old = REGISTRY.remove(name);
+        if (Checker.isNotNull(old)) {
+            old.shutdown();
+        }
+    }
+
+    private static ExecutorService newNamedExecutor(String name) {
+        installShutdownHook();
+        ThreadPoolBuilder builder = new ThreadPoolBuilder(name).mode(getExecutionMode(name));
+        if (SCHEDULED.equals(name)) {
+            builder.poolSize(CPU_COUNT, CPU_COUNT).queue(QueueType.LINKED, 0).rejectPolicy(RejectPolicy.ABORT);
+        } else if (getExecutionMode(name) == ExecutionMode.VIRTUAL_THREAD) {
+            // 退化为平台线程时，阻塞IO需要更多的线程
+            builder.poolSize(CPU_COUNT * 4, CPU_COUNT * 16).allowCoreThreadTimeOut(true);
+        } else {
+            builder.poolSize(CPU_COUNT, CPU_COUNT);
+        }
+        return builder.buildExecutorService();
+    }
+
+    /**
+     * 获取线程池的运行指标：队列深度、活动线程数、已完成任务数、任务耗时分布等
+     *
+     * @return {@link PoolMetrics}
+     *
+     * @since 1.1.0
+     */
+    public static PoolMetrics getMetrics() {
+        return MonitoredThreadPoolExecutor.metricsOf(getExecutor());
+    }
+
     /**
      * 获取coreSize
      *
@@ -95,6 +507,9 @@ public class ThreadPool {
      */
     public static void setCorePoolSize(int corePoolSize) {
         ThreadPool.corePoolSize = corePoolSize;
+        if (Checker.isNotNull(executor)) {
+            ExecutorRegistry.resize(executor, corePoolSize, Math.max(corePoolSize, executor.getMaximumPoolSize()));
+        }
     }
 
     /**
@@ -113,6 +528,9 @@ public class ThreadPool {
      */
     public static void setMaximumPoolSize(int maximumPoolSize) {
         ThreadPool.maximumPoolSize = maximumPoolSize;
+        if (Checker.isNotNull(executor)) {
+            ExecutorRegistry.resize(executor, Math.min(executor.getCorePoolSize(), maximumPoolSize), maximumPoolSize);
+        }
     }
 
     /**
@@ -131,6 +549,9 @@ public class ThreadPool {
      */
     public static void setKeepAliveTime(int keepAliveTime) {
         ThreadPool.keepAliveTime = keepAliveTime;
+        if (Checker.isNotNull(executor)) {
+            executor.setKeepAliveTime(keepAliveTime, timeUnit);
+        }
     }
 
     /**
@@ -149,10 +570,13 @@ public class ThreadPool {
      */
     public static void setTimeUnit(TimeUnit unit) {
         ThreadPool.timeUnit = unit;
+        if (Checker.isNotNull(executor)) {
+            executor.setKeepAliveTime(keepAliveTime, timeUnit);
+        }
     }
 
     /**
-     * 获取workQueue
+     * 获取自定义的workQueue，为null时按队列类型和容量新建
      *
      * @return {@link BlockingQueue}
      */
@@ -161,16 +585,17 @@ public class ThreadPool {
     }
 
     /**
-     * 设置workQueue
+     * 设置workQueue，线程池已初始化时立即重建（见 {@link #init()}）
      *
      * @param workQueue {@link BlockingQueue}
      */
     public static void setWorkQueue(BlockingQueue<Runnable> workQueue) {
         ThreadPool.workQueue = workQueue;
+        reinit();
     }
 
     /**
-     * 获取threadFactory
+     * 获取自定义的threadFactory，为null时使用带名称的线程工厂
      *
      * @return {@link ThreadFactory}
      */
@@ -179,11 +604,81 @@ public class ThreadPool {
     }
 
     /**
-     * 设置threadFactory
+     * 设置threadFactory，线程池已初始化时立即重建（见 {@link #init()}）
      *
      * @param threadFactory {@link ThreadFactory}
      */
     public static void setThreadFactory(ThreadFactory threadFactory) {
         ThreadPool.threadFactory = threadFactory;
+        reinit();
+    }
+
+    /**
+     * 获取队列类型
+     *
+     * @return {@link QueueType}
+     *
+     * @since 1.1.0
+     */
+    public static QueueType getQueueType() {
+        return queueType;
+    }
+
+    /**
+     * 设置队列类型，线程池已初始化时立即重建（见 {@link #init()}）
+     *
+     * @param queueType {@link QueueType}
+     *
+     * @since 1.1.0
+     */
+    public static void setQueueType(QueueType queueType) {
+        ThreadPool.queueType = queueType;
+        reinit();
+    }
+
+    /**
+     * 获取队列容量
+     *
+     * @return {@link Integer}
+     *
+     * @since 1.1.0
+     */
+    public static int getQueueCapacity() {
+        return queueCapacity;
+    }
+
+    /**
+     * 设置队列容量，小于等于0时无界，线程池已初始化时立即重建（见 {@link #init()}）
+     *
+     * @param queueCapacity {@link Integer}
+     *
+     * @since 1.1.0
+     */
+    public static void setQueueCapacity(int queueCapacity) {
+        ThreadPool.queueCapacity = queueCapacity;
+        reinit();
+    }
+
+    /**
+     * 获取拒绝策略
+     *
+     * @return {@link RejectPolicy}
+     *
+     * @since 1.1.0
+     */
+    public static RejectPolicy getRejectPolicy() {
+        return rejectPolicy;
+    }
+
+    /**
+     * 设置拒绝策略，线程池已初始化时立即重建（见 {@link #init()}）
+     *
+     * @param rejectPolicy {@link RejectPolicy}
+     *
+     * @since 1.1.0
+     */
+    public static void setRejectPolicy(RejectPolicy rejectPolicy) {
+        ThreadPool.rejectPolicy = rejectPolicy;
+        reinit();
     }
 }
@@ -0,0 +1,25 @@
+package com.zhazhapan.util.annotation;
+
+import java.lang.annotation.*;
+
+/**
+ * 指定字段在二进制序列化（{@link com.zhazhapan.util.binary.BinarySerializer}）中的编号
+ * <p>
+ * 编号写入数据中，读取时按编号匹配字段，所以调整字段顺序、增加或删除字段后仍然可以读取旧数据。一个类（包括父类）的字段要么都有注解，
+ * 要么都没有；都没有时按字段名排序编号，增删字段会改变编号，不能用于持久化的数据
+ *
+ * @author pantao
+ * @since 1.1.0
+ */
+@Documented
+@Retention(RetentionPolicy.RUNTIME)
+@Target(ElementType.FIELD)
+public @interface BinaryField {
+
+    /**
+     * 字段编号，必须大于0，同一个类中不能重复
+     *
+     * @return {@link Integer}
+     */
+    int id();
+}
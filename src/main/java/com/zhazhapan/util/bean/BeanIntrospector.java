@@ -0,0 +1,321 @@
+package com.zhazhapan.util.bean;
+
+import com.zhazhapan.util.Checker;
+
+import java.lang.invoke.CallSite;
+import java.lang.invoke.LambdaMetafactory;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.lang.reflect.UndeclaredThrowableException;
+import java.util.*;
+import java.util.function.BiConsumer;
+import java.util.function.Function;
+
+/**
+ * 类的属性访问器缓存，每个类只分析一次
+ * <p>
+ * 属性（{@link #getProperties()}）来自公有的get、is和set方法，公有类的方法通过 {@link LambdaMetafactory} 生成
+ * {@link Function} 和 {@link BiConsumer}，调用开销与直接调用方法相当；非公有类或当前类加载器不可见的类退回到
+ * {@link MethodHandle}。字段（{@link #getFields()}）是类声明的全部字段，直接读写，不经过get和set方法
+ *
+ * @author pantao
+ * @since 1.1.0
+ */
+public final class BeanIntrospector {
+
+    private static final MethodType GETTER_TYPE = MethodType.methodType(Object.class, Object.class);
+
+    private static final MethodType SETTER_TYPE = MethodType.methodType(void.class, Object.class, Object.class);
+
+    private static final MethodType FUNCTION_FACTORY = MethodType.methodType(Function.class);
+
+    private static final MethodType BI_CONSUMER_FACTORY = MethodType.methodType(BiConsumer.class);
+
+    private static final ClassValue<BeanIntrospector> CACHE = new ClassValue<BeanIntrospector>() {
+        @Override
+        protected BeanIntrospector computeValue(Class<?> type) {
+            return new BeanIntrospector(type);
+        }
+    };
+
+    private final Class<?> type;
+
+    private final List<BeanProperty> properties;
+
+    private final Map<String, BeanProperty> propertyMap;
+
+    private final List<BeanProperty> fields;
+
+    private final Map<String, BeanProperty> fieldMap;
+
+    private BeanIntrospector(Class<?> type) {
+        this.type = type;
+        Map<String, Method> getters = new TreeMap<>();
+        Map<String, List<Method>> setters = new TreeMap<>();
+        for (Method method : type.getMethods()) {
+            if (Modifier.isStatic(method.getModifiers()) || method.isBridge() || method.getDeclaringClass() ==
+                    Object.class) {
+                continue;
+            }
+            String name = method.getName();
+            Class<?> returnType = method.getReturnType();
+            int count = method.getParameterCount();
+            if (count == 0 && name.length() > 3 && name.startsWith("get") && returnType != void.class) {
+                getters.put(decapitalize(name.substring(3)), method);
+            } else if (count == 0 && name.length() > 2 && name.startsWith("is") && (returnType == boolean.class ||
+                    returnType == Boolean.class)) {
+                // 同时存在get方法时使用get方法
+                getters.putIfAbsent(decapitalize(name.substring(2)), method);
+            } else if (count == 1 && name.length() > 3 && name.startsWith("set") && returnType == void.class) {
+                setters.computeIfAbsent(decapitalize(name.substring(3)), k -> new ArrayList<>(1)).add(method);
+            }
+        }
+        Set<String> names = new TreeSet<>(getters.keySet());
+        names.addAll(setters.keySet());
+        List<BeanProperty> list = new ArrayList<>(names.size());
+        for (String name : names) {
+            Method getter = getters.get(name);
+            Method setter = selectSetter(setters.get(name), getter);
+            Class<?> propertyType = Checker.isNull(getter) ? setter.getParameterTypes()[0] : getter.getReturnType();
+            list.add(new BeanProperty(name, propertyType, Checker.isNull(getter) ? null : compileGetter(getter),
+                    Checker.isNull(setter) ? null : compileSetter(setter)));
+        }
+        properties = Collections.unmodifiableList(list);
+        propertyMap = index(properties);
+        Field[] declared = type.getDeclaredFields();
+        list = new ArrayList<>(declared.length);
+        for (Field field : declared) {
+            list.add(compileField(field));
+        }
+        fields = Collections.unmodifiableList(list);
+        fieldMap = index(fields);
+    }
+
+    /**
+     * 获取类的属性访问器，同一个类只分析一次
+     *
+     * @param type 类
+     *
+     * @return {@link BeanIntrospector}
+     */
+    public static BeanIntrospector of(Class<?> type) {
+        return CACHE.get(type);
+    }
+
+    /**
+     * 获取通过get、is和set方法访问的属性，按属性名排序
+     *
+     * @return 只读的 {@link List}
+     */
+    public List<BeanProperty> getProperties() {
+        return properties;
+    }
+
+    /**
+     * 获取属性
+     *
+     * @param name 属性名
+     *
+     * @return {@link BeanProperty}，不存在时返回null
+     */
+    public BeanProperty getProperty(String name) {
+        return propertyMap.get(name);
+    }
+
+    /**
+     * 获取类声明的全部字段（包括私有和静态字段），按声明顺序排列
+     *
+     * @return 只读的 {@link List}
+     */
+    public List<BeanProperty> getFields() {
+        return fields;
+    }
+
+    /**
+     * 获取类声明的字段
+     *
+     * @param name 字段名
+     *
+     * @return {@link BeanProperty}，不存在时返回null
+     */
+    public BeanProperty getField(String name) {
+        return fieldMap.get(name);
+    }
+
+    /**
+     * 获取类
+     *
+     * @return {@link Class}
+     */
+    public Class<?> getType() {
+        return type;
+    }
+
+    private static Map<String, BeanProperty> index(List<BeanProperty> list) {
+        Map<String, BeanProperty> map = new HashMap<>(list.size() * 2);
+        for (BeanProperty property : list) {
+            map.putIfAbsent(property.getName(), property);
+        }
+        return map;
+    }
+
+    /**
+     * 与原来 {@link com.zhazhapan.util.BeanUtils#beanToJson(Object)} 的命名一致，只把首字母改为小写
+     */
+    private static String decapitalize(String name) {
+        return Character.toLowerCase(name.charAt(0)) + name.substring(1);
+    }
+
+    /**
+     * 有多个重载的set方法时，优先选择参数类型与get方法返回值一致的
+     */
+    private static Method selectSetter(List<Method> candidates, Method getter) {
+        if (Checker.isEmpty(candidates)) {
+            return null;
+        }
+        if (Checker.isNotNull(getter)) {
+            for (Method method : candidates) {
+                if (method.getParameterTypes()[0] == getter.getReturnType()) {
+                    return method;
+                }
+            }
+            return null;
+        }
+        return candidates.size() == 1 ? candidates.get(0) : null;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static Function<Object, Object> compileGetter(Method method) {
+        if (isLinkable(method)) {
+            try {
+                MethodHandles.Lookup lookup = MethodHandles.lookup();
+                MethodHandle handle = lookup.unreflect(method);
+                CallSite site = LambdaMetafactory.metafactory(lookup, "apply", FUNCTION_FACTORY, GETTER_TYPE,
+                        handle, handle.type().wrap());
+                return (Function<Object, Object>) site.getTarget().invokeExact();
+            } catch (Throwable e) {
+                // 退回到MethodHandle
+            }
+        }
+        try {
+            method.setAccessible(true);
+            return getter(MethodHandles.lookup().unreflect(method).asType(GETTER_TYPE));
+        } catch (IllegalAccessException | RuntimeException e) {
+            return null;
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private static BiConsumer<Object, Object> compileSetter(Method method) {
+        if (isLinkable(method)) {
+            try {
+                MethodHandles.Lookup lookup = MethodHandles.lookup();
+                MethodHandle handle = lookup.unreflect(method);
+                CallSite site = LambdaMetafactory.metafactory(lookup, "accept", BI_CONSUMER_FACTORY, SETTER_TYPE,
+                        handle, handle.type().wrap().changeReturnType(void.class));
+                return (BiConsumer<Object, Object>) site.getTarget().invokeExact();
+            } catch (Throwable e) {
+                // 退回到MethodHandle
+            }
+        }
+        try {
+            method.setAccessible(true);
+            return setter(MethodHandles.lookup().unreflect(method).asType(SETTER_TYPE));
+        } catch (IllegalAccessException | RuntimeException e) {
+            return null;
+        }
+    }
+
+    private static BeanProperty compileField(Field field) {
+        boolean isStatic = Modifier.isStatic(field.getModifiers());
+        MethodHandle getter;
+        MethodHandle setter;
+        try {
+            field.setAccessible(true);
+            getter = MethodHandles.lookup().unreflectGetter(field);
+            getter = (isStatic ? MethodHandles.dropArguments(getter, 0, Object.class) : getter).asType(GETTER_TYPE);
+        } catch (IllegalAccessException | RuntimeException e) {
+            getter = null;
+        }
+        if (isStatic && Modifier.isFinal(field.getModifiers())) {
+            // 与 Field.set 一致，静态常量不可写（JDK 8的unreflectSetter不会拒绝）
+            setter = null;
+        } else {
+            try {
+                setter = MethodHandles.lookup().unreflectSetter(field);
+                setter = isStatic ? MethodHandles.dropArguments(setter, 0, Object.class) : setter;
+                setter = setter.asType(SETTER_TYPE);
+            } catch (IllegalAccessException | RuntimeException e) {
+                setter = null;
+            }
+        }
+        return new BeanProperty(field.getName(), field.getType(), Checker.isNull(getter) ? null : getter(getter),
+                Checker.isNull(setter) ? null : setter(setter));
+    }
+
+    private static Function<Object, Object> getter(MethodHandle handle) {
+        return bean -> {
+            try {
+                return (Object) handle.invokeExact(bean);
+            } catch (RuntimeException | Error e) {
+                throw e;
+            } catch (Throwable e) {
+                throw new UndeclaredThrowableException(e);
+            }
+        };
+    }
+
+    private static BiConsumer<Object, Object> setter(MethodHandle handle) {
+        return (bean, value) -> {
+            try {
+                handle.invokeExact(bean, value);
+            } catch (RuntimeException | Error e) {
+                throw e;
+            } catch (Throwable e) {
+                throw new UndeclaredThrowableException(e);
+            }
+        };
+    }
+
+    /**
+     * 生成的lambda类由当前类加载器定义并直接调用方法，要求方法和声明它的类（包括外部类）都是公有的，
+     * 并且方法签名中的类对当前类加载器可见
+     */
+    private static boolean isLinkable(Method method) {
+        if (!Modifier.isPublic(method.getModifiers())) {
+            return false;
+        }
+        for (Class<?> c = method.getDeclaringClass(); Checker.isNotNull(c); c = c.getEnclosingClass()) {
+            if (!Modifier.isPublic(c.getModifiers())) {
+                return false;
+            }
+        }
+        if (!isVisible(method.getDeclaringClass()) || !isVisible(method.getReturnType())) {
+            return false;
+        }
+        for (Class<?> parameter : method.getParameterTypes()) {
+            if (!isVisible(parameter)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static boolean isVisible(Class<?> type) {
+        while (type.isArray()) {
+            type = type.getComponentType();
+        }
+        if (type.isPrimitive() || type.getClassLoader() == BeanIntrospector.class.getClassLoader()) {
+            return true;
+        }
+        try {
+            return Class.forName(type.getName(), false, BeanIntrospector.class.getClassLoader()) == type;
+        } catch (ClassNotFoundException | LinkageError e) {
+            return false;
+        }
+    }
+}
@@ -0,0 +1,139 @@
+package com.zhazhapan.util.bean;
+
+import com.zhazhapan.util.Checker;
+
+import java.lang.invoke.MethodType;
+import java.util.function.BiConsumer;
+import java.util.function.Function;
+
+/**
+ * Bean的一个属性（或字段），读写通过 {@link BeanIntrospector} 预先生成的 {@link Function} 和 {@link BiConsumer} 完成
+ *
+ * @author pantao
+ * @since 1.1.0
+ */
+public final class BeanProperty {
+
+    private final String name;
+
+    private final Class<?> type;
+
+    private final Function<Object, Object> getter;
+
+    private final BiConsumer<Object, Object> setter;
+
+    BeanProperty(String name, Class<?> type, Function<Object, Object> getter, BiConsumer<Object, Object> setter) {
+        this.name = name;
+        this.type = type;
+        this.getter = getter;
+        this.setter = setter;
+    }
+
+    /**
+     * 读取属性值
+     *
+     * @param bean 对象，静态字段可以为null
+     *
+     * @return 属性值
+     *
+     * @throws IllegalAccessException 属性不可读
+     */
+    public Object get(Object bean) throws IllegalAccessException {
+        if (Checker.isNull(getter)) {
+            throw new IllegalAccessException("property " + name + " is not readable");
+        }
+        return getter.apply(bean);
+    }
+
+    /**
+     * 设置属性值
+     *
+     * @param bean 对象，静态字段可以为null
+     * @param value 属性值，类型必须与属性一致
+     *
+     * @throws IllegalAccessException 属性不可写
+     * @throws IllegalArgumentException 属性值的类型与属性不一致，或基本类型的属性值为null（与 {@link
+     * java.lang.reflect.Field#set(Object, Object)} 一致）
+     */
+    public void set(Object bean, Object value) throws IllegalAccessException {
+        if (Checker.isNull(setter)) {
+            throw new IllegalAccessException("property " + name + " is not writable");
+        }
+        try {
+            setter.accept(bean, value);
+        } catch (ClassCastException | NullPointerException e) {
+            // 生成的setter对类型不一致的值抛出的是ClassCastException或NullPointerException，set方法自身抛出的异常原样抛出
+            if (isAssignable(value)) {
+                throw e;
+            }
+            throw new IllegalArgumentException("can not set " + type.getName() + " property " + name + " to " +
+                    (Checker.isNull(value) ? "null value" : value.getClass().getName()), e);
+        }
+    }
+
+    /**
+     * 是否可读
+     *
+     * @return {@link Boolean}
+     */
+    public boolean isReadable() {
+        return Checker.isNotNull(getter);
+    }
+
+    /**
+     * 是否可写
+     *
+     * @return {@link Boolean}
+     */
+    public boolean isWritable() {
+        return Checker.isNotNull(setter);
+    }
+
+    /**
+     * 获取属性名
+     *
+     * @return {@link String}
+     */
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * 获取属性类型
+     *
+     * @return {@link Class}
+     */
+    public Class<?> getType() {
+        return type;
+    }
+
+    /**
+     * 获取读取器
+     *
+     * @return {@link Function}，不可读时为null
+     */
+    public Function<Object, Object> getGetter() {
+        return getter;
+    }
+
+    /**
+     * 获取写入器
+     *
+     * @return {@link BiConsumer}，不可写时为null
+     */
+    public BiConsumer<Object, Object> getSetter() {
+        return setter;
+    }
+
+    @Override
+    public String toString() {
+        return type.getSimpleName() + " " + name;
+    }
+
+    private boolean isAssignable(Object value) {
+        if (Checker.isNull(value)) {
+            return !type.isPrimitive();
+        }
+        return MethodType.methodType(type).wrap().returnType().isInstance(value);
+    }
+}
@@ -0,0 +1,287 @@
+package com.zhazhapan.util.binary;
+
+import com.zhazhapan.util.Checker;
+import com.zhazhapan.util.annotation.BinaryField;
+import com.zhazhapan.util.bean.BeanIntrospector;
+import com.zhazhapan.util.bean.BeanProperty;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.function.BiConsumer;
+import java.util.function.Function;
+
+/**
+ * 类的二进制编解码器，每个类只生成一次：字段编号、字段的编码方式和 {@link BeanIntrospector} 的访问器
+ * <p>
+ * Bean的格式为若干个字段，每个字段以 (编号 &lt;&lt; 4 | 类型码) 的varint开头，后面是字段值，最后以0结束；值为null的字段不写入。
+ * 读取时不认识的编号会被跳过，数据中没有的字段保持构造器设置的默认值。序列化的字段为类及其父类中非静态、非transient的字段，
+ * 读取时需要无参构造器（可以是私有的）。
+ * <p>
+ * 编号由 {@link BinaryField} 指定，只要有一个字段使用了注解，所有序列化的字段都必须有注解，否则抛出
+ * {@link IllegalArgumentException}。都没有注解时按字段名排序编号（从1开始，父类字段在前），与JVM返回字段的顺序无关，
+ * 但增删任何字段都会改变其后字段的编号，只适合读写双方的类完全一致的场景（如进程内缓存）；需要持久化或跨版本读取的类必须为每个字段指定编号
+ *
+ * @param <T> 类型
+ *
+ * @author pantao
+ * @since 1.1.0
+ */
+public final class BinaryCodec<T> {
+
+    private static final ClassValue<BinaryCodec<?>> CODECS = new ClassValue<BinaryCodec<?>>() {
+        @Override
+        protected BinaryCodec<?> computeValue(Class<?> type) {
+            return new BinaryCodec<>(type);
+        }
+    };
+
+    private final Class<T> type;
+
+    /**
+     * 按写入顺序排列的字段
+     */
+    private final Slot[] slots;
+
+    /**
+     * 按编号索引的字段，没有的编号为null
+     */
+    private final Slot[] ids;
+
+    private final MethodHandle constructor;
+
+    private BinaryCodec(Class<T> type) {
+        this.type = type;
+        List<Class<?>> hierarchy = new ArrayList<>();
+        for (Class<?> c = type; Checker.isNotNull(c) && c != Object.class; c = c.getSuperclass()) {
+            hierarchy.add(c);
+        }
+        Collections.reverse(hierarchy);
+        List<List<Field>> fields = new ArrayList<>(hierarchy.size());
+        Field annotated = null;
+        Field unannotated = null;
+        for (Class<?> c : hierarchy) {
+            List<Field> declared = new ArrayList<>();
+            for (Field field : c.getDeclaredFields()) {
+                int mod = field.getModifiers();
+                if (Modifier.isStatic(mod) || Modifier.isTransient(mod) || field.isSynthetic()) {
+                    continue;
+                }
+                declared.add(field);
+                if (field.isAnnotationPresent(BinaryField.class)) {
+                    annotated = field;
+                } else {
+                    unannotated = field;
+                }
+            }
+            fields.add(declared);
+        }
+        if (Checker.isNull(annotated)) {
+            // getDeclaredFields的顺序没有规定，没有注解时按字段名编号
+            fields.forEach(declared -> declared.sort(Comparator.comparing(Field::getName)));
+        } else if (Checker.isNotNull(unannotated)) {
+            throw new IllegalArgumentException("missing @BinaryField on " + unannotated + ", all fields of " + type
+                    .getName() + " must have an id since " + annotated.getName() + " has one");
+        }
+        List<Slot> list = new ArrayList<>();
+        int maxId = 0;
+        for (int i = 0; i < hierarchy.size(); i++) {
+            BeanIntrospector introspector = BeanIntrospector.of(hierarchy.get(i));
+            for (Field field : fields.get(i)) {
+                BinaryField annotation = field.getAnnotation(BinaryField.class);
+                int id = Checker.isNull(annotation) ? list.size() + 1 : annotation.id();
+                if (id <= 0 || id > (Integer.MAX_VALUE >>> 4)) {
+                    throw new IllegalArgumentException("illegal binary field id " + id + " of " + field);
+                }
+                BeanProperty property = introspector.getField(field.getName());
+                list.add(new Slot(id, field.getName(), ValueType.of(field.getGenericType()), property.getGetter(),
+                        property.getSetter()));
+                maxId = Math.max(maxId, id);
+            }
+        }
+        slots = list.toArray(new Slot[0]);
+        // 编号一般是连续的小整数，直接用数组索引；编号过大时说明注解有误
+        if (maxId > Math.max(1024, slots.length * 16)) {
+            throw new IllegalArgumentException("binary field id " + maxId + " of " + type.getName() + " is too large");
+        }
+        ids = new Slot[maxId + 1];
+        for (Slot slot : slots) {
+            if (Checker.isNotNull(ids[slot.id])) {
+                throw new IllegalArgumentException("duplicate binary field id " + slot.id + " in " + type.getName());
+            }
+            ids[slot.id] = slot;
+        }
+        constructor = compileConstructor(type);
+    }
+
+    /**
+     * 获取类的编解码器，同一个类只生成一次
+     *
+     * @param type 类
+     * @param <T> 类型
+     *
+     * @return {@link BinaryCodec}
+     */
+    @SuppressWarnings("unchecked")
+    public static <T> BinaryCodec<T> of(Class<T> type) {
+        return (BinaryCodec<T>) CODECS.get(type);
+    }
+
+    /**
+     * 写入对象的全部字段和结束标记
+     *
+     * @param bean 对象
+     * @param out 输出
+     */
+    public void write(T bean, BinaryOutput out) {
+        writeFields(bean, out, 0);
+    }
+
+    /**
+     * 读取字段直到结束标记，创建新的对象
+     *
+     * @param in 输入
+     *
+     * @return 对象
+     */
+    public T read(BinaryInput in) {
+        return readFields(in, 0);
+    }
+
+    /**
+     * 获取类
+     *
+     * @return {@link Class}
+     */
+    public Class<T> getType() {
+        return type;
+    }
+
+    /**
+     * 获取序列化的字段名，按写入顺序排列
+     *
+     * @return 字段名
+     */
+    public String[] getFieldNames() {
+        String[] names = new String[slots.length];
+        for (int i = 0; i < slots.length; i++) {
+            names[i] = slots[i].name;
+        }
+        return names;
+    }
+
+    void writeFields(Object bean, BinaryOutput out, int depth) {
+        for (Slot slot : slots) {
+            if (Checker.isNull(slot.getter)) {
+                throw new IllegalStateException("field " + slot.name + " of " + type.getName() + " is not readable");
+            }
+            Object value = slot.getter.apply(bean);
+            if (Checker.isNull(value)) {
+                continue;
+            }
+            ValueType actual = slot.type.resolve(value);
+            out.writeVarint((long) slot.id << 4 | actual.code(value));
+            actual.writePayload(value, out, slot.type.getRaw(), depth);
+        }
+        out.write(0);
+    }
+
+    T readFields(BinaryInput in, int depth) {
+        T bean = newInstance();
+        while (true) {
+            long tag = in.readVarint();
+            if (tag == 0) {
+                return bean;
+            }
+            int code = (int) (tag & 0xF);
+            long id = tag >>> 4;
+            Slot slot = id < ids.length ? ids[(int) id] : null;
+            if (Checker.isNull(slot) || Checker.isNull(slot.setter)) {
+                ValueType.skip(code, in, depth);
+                continue;
+            }
+            Object value = slot.type.read(code, in, depth);
+            if (Checker.isNotNull(value) || !slot.type.isPrimitive()) {
+                slot.setter.accept(bean, value);
+            }
+        }
+    }
+
+    /**
+     * 跳过一个Bean的全部字段
+     *
+     * @param in 输入
+     * @param depth 嵌套层数
+     */
+    static void skipFields(BinaryInput in, int depth) {
+        while (true) {
+            long tag = in.readVarint();
+            if (tag == 0) {
+                return;
+            }
+            ValueType.skip((int) (tag & 0xF), in, depth);
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private T newInstance() {
+        if (Checker.isNull(constructor)) {
+            throw new IllegalStateException(type.getName() + " has no accessible no-arg constructor");
+        }
+        try {
+            Object bean = (Object) constructor.invokeExact();
+            return (T) bean;
+        } catch (RuntimeException | Error e) {
+            throw e;
+        } catch (Throwable e) {
+            throw new IllegalStateException("cannot create " + type.getName(), e);
+        }
+    }
+
+    private static MethodHandle compileConstructor(Class<?> type) {
+        if (type.isInterface() || Modifier.isAbstract(type.getModifiers())) {
+            return null;
+        }
+        try {
+            Constructor<?> constructor = type.getDeclaredConstructor();
+            constructor.setAccessible(true);
+            return MethodHandles.lookup().unreflectConstructor(constructor).asType(MethodType.methodType(Object
+                    .class));
+        } catch (ReflectiveOperationException | RuntimeException e) {
+            // 只写入时不需要构造器
+            return null;
+        }
+    }
+
+    /**
+     * 一个字段的编号、编码方式和访问器
+     */
+    private static final class Slot {
+
+        private final int id;
+
+        private final String name;
+
+        private final ValueType type;
+
+        private final Function<Object, Object> getter;
+
+        private final BiConsumer<Object, Object> setter;
+
+        Slot(int id, String name, ValueType type, Function<Object, Object> getter, BiConsumer<Object, Object>
+                setter) {
+            this.id = id;
+            this.name = name;
+            this.type = type;
+            this.getter = getter;
+            this.setter = setter;
+        }
+    }
+}
@@ -0,0 +1,202 @@
+package com.zhazhapan.util.binary;
+
+import java.nio.charset.StandardCharsets;
+
+/**
+ * 读取 {@link BinaryOutput} 写入的内容，数据不完整或格式错误时抛出 {@link IllegalArgumentException}
+ *
+ * @author pantao
+ * @since 1.1.0
+ */
+public class BinaryInput {
+
+    private final byte[] bytes;
+
+    private final int limit;
+
+    private int position;
+
+    /**
+     * 读取整个字节数组
+     *
+     * @param bytes 字节数组
+     */
+    public BinaryInput(byte[] bytes) {
+        this(bytes, 0, bytes.length);
+    }
+
+    /**
+     * 读取字节数组的一部分
+     *
+     * @param bytes 字节数组
+     * @param offset 开始下标
+     * @param length 长度
+     */
+    public BinaryInput(byte[] bytes, int offset, int length) {
+        if (offset < 0 || length < 0 || offset + length > bytes.length) {
+            throw new IndexOutOfBoundsException("offset: " + offset + ", length: " + length);
+        }
+        this.bytes = bytes;
+        this.position = offset;
+        this.limit = offset + length;
+    }
+
+    /**
+     * 读取一个字节
+     *
+     * @return 无符号的字节值
+     */
+    public int read() {
+        require(1);
+        return bytes[position++] & 0xFF;
+    }
+
+    /**
+     * 读取无符号的varint
+     *
+     * @return {@link Long}
+     */
+    public long readVarint() {
+        long value = 0;
+        for (int shift = 0; shift < 64; shift += 7) {
+            require(1);
+            byte b = bytes[position++];
+            value |= (long) (b & 0x7F) << shift;
+            if (b >= 0) {
+                return value;
+            }
+        }
+        throw new IllegalArgumentException("malformed varint at " + position);
+    }
+
+    /**
+     * 读取不超过int范围的长度或数量
+     *
+     * @return {@link Integer}
+     */
+    public int readLength() {
+        long value = readVarint();
+        if (value < 0 || value > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("illegal length " + value + " at " + position);
+        }
+        return (int) value;
+    }
+
+    /**
+     * 读取zigzag编码的有符号整数
+     *
+     * @return {@link Long}
+     */
+    public long readSigned() {
+        long value = readVarint();
+        return value >>> 1 ^ -(value & 1);
+    }
+
+    /**
+     * 读取小端序的8个字节
+     *
+     * @return {@link Long}
+     */
+    public long readFixed64() {
+        require(8);
+        long value = 0;
+        for (int i = 0; i < 8; i++) {
+            value |= (bytes[position++] & 0xFFL) << (i << 3);
+        }
+        return value;
+    }
+
+    /**
+     * 读取小端序的4个字节
+     *
+     * @return {@link Integer}
+     */
+    public int readFixed32() {
+        require(4);
+        int value = 0;
+        for (int i = 0; i < 4; i++) {
+            value |= (bytes[position++] & 0xFF) << (i << 3);
+        }
+        return value;
+    }
+
+    /**
+     * 读取字符串
+     *
+     * @return {@link String}
+     */
+    public String readString() {
+        int length = readLength();
+        require(length);
+        int start = position;
+        position += length;
+        // ASCII字符串直接构造，省去解码器
+        for (int i = start; i < position; i++) {
+            if (bytes[i] < 0) {
+                return new String(bytes, start, length, StandardCharsets.UTF_8);
+            }
+        }
+        char[] chars = new char[length];
+        for (int i = 0; i < length; i++) {
+            chars[i] = (char) bytes[start + i];
+        }
+        return new String(chars);
+    }
+
+    /**
+     * 读取字节数组
+     *
+     * @return 字节数组
+     */
+    public byte[] readBytes() {
+        int length = readLength();
+        require(length);
+        byte[] dst = new byte[length];
+        System.arraycopy(bytes, position, dst, 0, length);
+        position += length;
+        return dst;
+    }
+
+    /**
+     * 跳过字节
+     *
+     * @param count 字节数
+     */
+    public void skip(int count) {
+        require(count);
+        position += count;
+    }
+
+    /**
+     * 是否还有未读取的内容
+     *
+     * @return {@link Boolean}
+     */
+    public boolean hasRemaining() {
+        return position < limit;
+    }
+
+    /**
+     * 获取未读取的字节数
+     *
+     * @return {@link Integer}
+     */
+    public int remaining() {
+        return limit - position;
+    }
+
+    /**
+     * 获取当前位置
+     *
+     * @return {@link Integer}
+     */
+    public int position() {
+        return position;
+    }
+
+    private void require(int count) {
+        if (count > limit - position) {
+            throw new IllegalArgumentException("unexpected end of data at " + position);
+        }
+    }
+}
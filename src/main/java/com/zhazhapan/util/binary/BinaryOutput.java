@@ -0,0 +1,282 @@
+package com.zhazhapan.util.binary;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Arrays;
+
+/**
+ * 可复用的二进制输出缓冲区，整数使用varint编码，字符串使用UTF-8编码
+ * <p>
+ * 通过 {@link #acquire()} 获取当前线程的缓冲区，用完后调用 {@link #release()} 归还；嵌套使用时会临时创建新的缓冲区
+ *
+ * @author pantao
+ * @since 1.1.0
+ */
+public class BinaryOutput {
+
+    /**
+     * 归还时超过这个大小的缓冲区会被丢弃
+     */
+    private static final int MAX_RETAINED = 1 << 20;
+
+    private static final ThreadLocal<BinaryOutput> LOCAL = ThreadLocal.withInitial(() -> new BinaryOutput(1024));
+
+    private byte[] bytes;
+
+    private int size;
+
+    private boolean inUse;
+
+    /**
+     * 新建缓冲区
+     *
+     * @param capacity 初始容量
+     */
+    public BinaryOutput(int capacity) {
+        bytes = new byte[Math.max(16, capacity)];
+    }
+
+    /**
+     * 获取当前线程可复用的缓冲区，内容为空
+     *
+     * @return {@link BinaryOutput}
+     */
+    public static BinaryOutput acquire() {
+        BinaryOutput output = LOCAL.get();
+        if (output.inUse) {
+            return new BinaryOutput(256);
+        }
+        output.inUse = true;
+        output.size = 0;
+        return output;
+    }
+
+    /**
+     * 归还通过 {@link #acquire()} 获取的缓冲区，归还后不能再使用
+     */
+    public void release() {
+        inUse = false;
+        if (bytes.length > MAX_RETAINED && LOCAL.get() == this) {
+            LOCAL.remove();
+        }
+    }
+
+    /**
+     * 写入一个字节
+     *
+     * @param b 字节
+     *
+     * @return {@link BinaryOutput}
+     */
+    public BinaryOutput write(int b) {
+        ensure(1);
+        bytes[size++] = (byte) b;
+        return this;
+    }
+
+    /**
+     * 写入字节数组
+     *
+     * @param src 字节数组
+     * @param offset 开始下标
+     * @param length 长度
+     *
+     * @return {@link BinaryOutput}
+     */
+    public BinaryOutput write(byte[] src, int offset, int length) {
+        ensure(length);
+        System.arraycopy(src, offset, bytes, size, length);
+        size += length;
+        return this;
+    }
+
+    /**
+     * 写入另一个缓冲区的内容
+     *
+     * @param other 缓冲区
+     *
+     * @return {@link BinaryOutput}
+     */
+    public BinaryOutput write(BinaryOutput other) {
+        return write(other.bytes, 0, other.size);
+    }
+
+    /**
+     * 写入无符号的varint，每个字节保存7位
+     *
+     * @param value 整数，负数按无符号处理（占10个字节）
+     *
+     * @return {@link BinaryOutput}
+     */
+    public BinaryOutput writeVarint(long value) {
+        ensure(10);
+        byte[] dst = bytes;
+        int pos = size;
+        while ((value & ~0x7FL) != 0) {
+            dst[pos++] = (byte) (value & 0x7F | 0x80);
+            value >>>= 7;
+        }
+        dst[pos++] = (byte) value;
+        size = pos;
+        return this;
+    }
+
+    /**
+     * 写入有符号整数，先做zigzag编码，绝对值小的负数也只占很少的字节
+     *
+     * @param value 整数
+     *
+     * @return {@link BinaryOutput}
+     */
+    public BinaryOutput writeSigned(long value) {
+        return writeVarint(value << 1 ^ value >> 63);
+    }
+
+    /**
+     * 以小端序写入8个字节
+     *
+     * @param value 整数
+     *
+     * @return {@link BinaryOutput}
+     */
+    public BinaryOutput writeFixed64(long value) {
+        ensure(8);
+        for (int i = 0; i < 8; i++) {
+            bytes[size++] = (byte) (value >>> (i << 3));
+        }
+        return this;
+    }
+
+    /**
+     * 以小端序写入4个字节
+     *
+     * @param value 整数
+     *
+     * @return {@link BinaryOutput}
+     */
+    public BinaryOutput writeFixed32(int value) {
+        ensure(4);
+        for (int i = 0; i < 4; i++) {
+            bytes[size++] = (byte) (value >>> (i << 3));
+        }
+        return this;
+    }
+
+    /**
+     * 写入字符串：UTF-8编码的字节数（varint）和内容
+     *
+     * @param text 字符串
+     *
+     * @return {@link BinaryOutput}
+     */
+    public BinaryOutput writeString(CharSequence text) {
+        int length = text.length();
+        // 先假设字节数的varint只占1个字节（长度小于128的ASCII字符串），不对时再移动内容
+        int start = size;
+        ensure(length * 3 + 5);
+        size++;
+        int pos = size;
+        byte[] dst = bytes;
+        for (int i = 0; i < length; i++) {
+            char c = text.charAt(i);
+            if (c < 0x80) {
+                dst[pos++] = (byte) c;
+            } else if (c < 0x800) {
+                dst[pos++] = (byte) (0xC0 | c >> 6);
+                dst[pos++] = (byte) (0x80 | c & 0x3F);
+            } else if (Character.isHighSurrogate(c) && i + 1 < length && Character.isLowSurrogate(text.charAt(i +
+                    1))) {
+                int code = Character.toCodePoint(c, text.charAt(++i));
+                dst[pos++] = (byte) (0xF0 | code >> 18);
+                dst[pos++] = (byte) (0x80 | code >> 12 & 0x3F);
+                dst[pos++] = (byte) (0x80 | code >> 6 & 0x3F);
+                dst[pos++] = (byte) (0x80 | code & 0x3F);
+            } else if (Character.isSurrogate(c)) {
+                dst[pos++] = '?';
+            } else {
+                dst[pos++] = (byte) (0xE0 | c >> 12);
+                dst[pos++] = (byte) (0x80 | c >> 6 & 0x3F);
+                dst[pos++] = (byte) (0x80 | c & 0x3F);
+            }
+        }
+        int count = pos - size;
+        int prefix = varintSize(count);
+        if (prefix > 1) {
+            System.arraycopy(dst, size, dst, start + prefix, count);
+        }
+        size = start;
+        writeVarint(count);
+        size += count;
+        return this;
+    }
+
+    /**
+     * 写入字节数组：长度（varint）和内容
+     *
+     * @param src 字节数组
+     *
+     * @return {@link BinaryOutput}
+     */
+    public BinaryOutput writeBytes(byte[] src) {
+        writeVarint(src.length);
+        return write(src, 0, src.length);
+    }
+
+    /**
+     * 获取已写入的字节数
+     *
+     * @return {@link Integer}
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * 清空内容
+     */
+    public void reset() {
+        size = 0;
+    }
+
+    /**
+     * 把内容写入输出流
+     *
+     * @param out 输出流
+     *
+     * @throws IOException 写入失败
+     */
+    public void writeTo(OutputStream out) throws IOException {
+        out.write(bytes, 0, size);
+    }
+
+    /**
+     * 复制内容
+     *
+     * @return 字节数组
+     */
+    public byte[] toByteArray() {
+        return Arrays.copyOf(bytes, size);
+    }
+
+    /**
+     * 计算varint编码后的字节数
+     *
+     * @param value 整数
+     *
+     * @return 字节数
+     */
+    public static int varintSize(long value) {
+        int count = 1;
+        while ((value & ~0x7FL) != 0) {
+            value >>>= 7;
+            count++;
+        }
+        return count;
+    }
+
+    private void ensure(int extra) {
+        if (size + extra > bytes.length) {
+            bytes = Arrays.copyOf(bytes, Math.max(bytes.length << 1, size + extra));
+        }
+    }
+}
@@ -0,0 +1,320 @@
+package com.zhazhapan.util.binary;
+
+import com.zhazhapan.util.Checker;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * 紧凑的二进制序列化，不要求实现 {@link java.io.Serializable}
+ * <p>
+ * 整数使用varint编码，字段以编号标识（见 {@link BinaryCodec}），不写入类名和字段名，所以数据通常只有Java序列化的几分之一，
+ * 速度也快得多。支持基本类型及其包装类、字符串、byte[]、枚举（按名称）、{@link java.util.Date}、BigDecimal、BigInteger、
+ * 数组、集合、Map和Bean，集合和Map的元素类型来自字段的泛型参数；声明类型为 {@link Object} 或接口时写入值的类型，
+ * Bean和枚举会写入类名
+ * <p>
+ * 读取时只接受声明类型本身，以及声明类型（非 {@link Object}、非接口、非JDK的类）的子类；声明类型为 {@link Object}
+ * 或接口的字段中的Bean和枚举必须先通过 {@link #registerType(Class[])} 注册，避免不可信的数据加载并实例化任意类
+ * <p>
+ * 字节数组接口（{@link #toBytes(Object)}）只包含对象本身；流接口（{@link #write(Object, OutputStream)}）
+ * 在每个对象前写入长度，同一个流中可以连续写入多个对象，逐个读出
+ *
+ * @author pantao
+ * @since 1.1.0
+ */
+public class BinarySerializer {
+
+    /**
+     * 流式写入时缓冲区超过这个大小时写出
+     */
+    private static final int FLUSH_SIZE = 8192;
+
+    private BinarySerializer() {}
+
+    /**
+     * 注册允许按数据中的类名读取的Bean和枚举，用于声明类型为 {@link Object} 或接口的字段
+     *
+     * @param types 类
+     */
+    public static void registerType(Class<?>... types) {
+        for (Class<?> type : types) {
+            ValueType.register(type);
+        }
+    }
+
+    /**
+     * 取消注册
+     *
+     * @param types 类
+     */
+    public static void unregisterType(Class<?>... types) {
+        for (Class<?> type : types) {
+            ValueType.unregister(type);
+        }
+    }
+
+    /**
+     * 序列化对象
+     *
+     * @param object 对象，可以为null
+     *
+     * @return 字节数组
+     */
+    public static byte[] toBytes(Object object) {
+        BinaryOutput out = BinaryOutput.acquire();
+        try {
+            write(object, out);
+            return out.toByteArray();
+        } finally {
+            out.release();
+        }
+    }
+
+    /**
+     * 序列化对象到缓冲区
+     *
+     * @param object 对象，可以为null
+     * @param out 缓冲区
+     */
+    public static void write(Object object, BinaryOutput out) {
+        if (Checker.isNull(object)) {
+            out.write(ValueType.NULL);
+        } else {
+            ValueType.of(object.getClass()).writeValue(object, out, 0);
+        }
+    }
+
+    /**
+     * 反序列化对象
+     *
+     * @param bytes 字节数组
+     * @param type 类
+     * @param <T> 类型
+     *
+     * @return 对象
+     */
+    public static <T> T fromBytes(byte[] bytes, Class<T> type) {
+        return read(new BinaryInput(bytes), type);
+    }
+
+    /**
+     * 从缓冲区反序列化对象
+     *
+     * @param in 输入
+     * @param type 类
+     * @param <T> 类型
+     *
+     * @return 对象
+     */
+    @SuppressWarnings("unchecked")
+    public static <T> T read(BinaryInput in, Class<T> type) {
+        return (T) ValueType.of(type).readValue(in, 0);
+    }
+
+    /**
+     * 批量序列化同一个类的对象，每个对象只比单独序列化多一个类型码
+     *
+     * @param list 对象列表
+     * @param type 元素的类
+     * @param <T> 类型
+     *
+     * @return 字节数组
+     */
+    public static <T> byte[] toBytes(List<? extends T> list, Class<T> type) {
+        BinaryOutput out = BinaryOutput.acquire();
+        try {
+            ValueType element = ValueType.of(type);
+            out.writeVarint(list.size());
+            for (T object : list) {
+                element.writeValue(object, out, 0);
+            }
+            return out.toByteArray();
+        } finally {
+            out.release();
+        }
+    }
+
+    /**
+     * 批量反序列化 {@link #toBytes(List, Class)} 的结果
+     *
+     * @param bytes 字节数组
+     * @param type 元素的类
+     * @param <T> 类型
+     *
+     * @return {@link ArrayList}
+     */
+    @SuppressWarnings("unchecked")
+    public static <T> List<T> listFromBytes(byte[] bytes, Class<T> type) {
+        BinaryInput in = new BinaryInput(bytes);
+        int count = in.readLength();
+        if (count > in.remaining()) {
+            throw new IllegalArgumentException("illegal count " + count);
+        }
+        ValueType element = ValueType.of(type);
+        List<T> list = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            list.add((T) element.readValue(in, 0));
+        }
+        return list;
+    }
+
+    /**
+     * 写入输出流：长度和序列化的内容，不会关闭输出流
+     *
+     * @param object 对象，可以为null
+     * @param out 输出流
+     *
+     * @throws IOException 写入失败
+     */
+    public static void write(Object object, OutputStream out) throws IOException {
+        BinaryOutput buffer = BinaryOutput.acquire();
+        try {
+            write(object, buffer);
+            writeVarint(out, buffer.size());
+            buffer.writeTo(out);
+        } finally {
+            buffer.release();
+        }
+    }
+
+    /**
+     * 从输入流读取一个 {@link #write(Object, OutputStream)} 写入的对象
+     *
+     * @param in 输入流
+     * @param type 类
+     * @param <T> 类型
+     *
+     * @return 对象，输入流已经结束时返回null
+     *
+     * @throws IOException 读取失败或数据不完整
+     */
+    public static <T> T read(InputStream in, Class<T> type) throws IOException {
+        byte[] bytes = readFrame(in, true);
+        return Checker.isNull(bytes) ? null : fromBytes(bytes, type);
+    }
+
+    /**
+     * 批量写入输出流：数量和每个对象（与 {@link #write(Object, OutputStream)} 的格式相同），不会关闭输出流
+     *
+     * @param list 对象列表
+     * @param type 元素的类
+     * @param out 输出流
+     * @param <T> 类型
+     *
+     * @throws IOException 写入失败
+     */
+    public static <T> void writeList(List<? extends T> list, Class<T> type, OutputStream out) throws IOException {
+        ValueType element = ValueType.of(type);
+        BinaryOutput frame = BinaryOutput.acquire();
+        BinaryOutput buffer = BinaryOutput.acquire();
+        try {
+            buffer.writeVarint(list.size());
+            for (T object : list) {
+                frame.reset();
+                element.writeValue(object, frame, 0);
+                frame(frame, buffer);
+                if (buffer.size() >= FLUSH_SIZE) {
+                    buffer.writeTo(out);
+                    buffer.reset();
+                }
+            }
+            buffer.writeTo(out);
+        } finally {
+            buffer.release();
+            frame.release();
+        }
+    }
+
+    /**
+     * 从输入流读取 {@link #writeList(List, Class, OutputStream)} 写入的列表
+     *
+     * @param in 输入流
+     * @param type 元素的类
+     * @param <T> 类型
+     *
+     * @return {@link ArrayList}，输入流已经结束时返回null
+     *
+     * @throws IOException 读取失败或数据不完整
+     */
+    @SuppressWarnings("unchecked")
+    public static <T> List<T> readList(InputStream in, Class<T> type) throws IOException {
+        long count = readVarint(in, true);
+        if (count < 0) {
+            return null;
+        }
+        ValueType element = ValueType.of(type);
+        // 数量来自数据，不按它预先分配
+        List<T> list = new ArrayList<>();
+        for (long i = 0; i < count; i++) {
+            list.add((T) element.readValue(new BinaryInput(readFrame(in, false)), 0));
+        }
+        return list;
+    }
+
+    private static void frame(BinaryOutput frame, BinaryOutput buffer) {
+        buffer.writeVarint(frame.size()).write(frame);
+    }
+
+    private static void writeVarint(OutputStream out, int value) throws IOException {
+        while ((value & ~0x7F) != 0) {
+            out.write(value & 0x7F | 0x80);
+            value >>>= 7;
+        }
+        out.write(value);
+    }
+
+    private static byte[] readFrame(InputStream in, boolean eofAllowed) throws IOException {
+        long length = readVarint(in, eofAllowed);
+        if (length < 0) {
+            return null;
+        }
+        if (length > Integer.MAX_VALUE - 8) {
+            throw new IOException("illegal frame length " + length);
+        }
+        // 按块读取，长度错误时不会一次分配过多内存
+        byte[] bytes = new byte[(int) Math.min(length, FLUSH_SIZE)];
+        int read = 0;
+        while (read < length) {
+            if (read == bytes.length) {
+                bytes = Arrays.copyOf(bytes, (int) Math.min(length, (long) bytes.length << 1));
+            }
+            int n = in.read(bytes, read, bytes.length - read);
+            if (n < 0) {
+                throw new EOFException("unexpected end of stream");
+            }
+            read += n;
+        }
+        return bytes;
+    }
+
+    /**
+     * 读取varint
+     *
+     * @return 流在第一个字节之前结束并且允许时返回-1
+     */
+    private static long readVarint(InputStream in, boolean eofAllowed) throws IOException {
+        long value = 0;
+        for (int shift = 0; shift < 64; shift += 7) {
+            int b = in.read();
+            if (b < 0) {
+                if (shift == 0 && eofAllowed) {
+                    return -1;
+                }
+                throw new EOFException("unexpected end of stream");
+            }
+            value |= (long) (b & 0x7F) << shift;
+            if (b < 0x80) {
+                if (value < 0) {
+                    throw new IOException("illegal varint " + value);
+                }
+                return value;
+            }
+        }
+        throw new IOException("malformed varint");
+    }
+}
@@ -0,0 +1,784 @@
+package com.zhazhapan.util.binary;
+
+import com.zhazhapan.util.Checker;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.*;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+
+/**
+ * 声明类型的编码方式，由字段类型（包括泛型参数）分析得到
+ * <p>
+ * 每个值以4位的类型码开头（字段中与字段编号合并为一个varint），类型码决定了值的格式，所以读取时可以跳过不认识的字段；
+ * 读取时按声明类型转换，如int字段可以读取原来写入的long，声明类型为 {@link Object} 时按类型码还原
+ *
+ * @author pantao
+ * @since 1.1.0
+ */
+final class ValueType {
+
+    static final int NULL = 0;
+
+    static final int FALSE = 1;
+
+    static final int TRUE = 2;
+
+    static final int INT = 3;
+
+    static final int LONG = 4;
+
+    static final int FLOAT = 5;
+
+    static final int DOUBLE = 6;
+
+    static final int STRING = 7;
+
+    static final int BYTES = 8;
+
+    static final int CHAR = 9;
+
+    static final int ENUM = 10;
+
+    static final int DATE = 11;
+
+    static final int DECIMAL = 12;
+
+    static final int LIST = 13;
+
+    static final int MAP = 14;
+
+    static final int BEAN = 15;
+
+    /**
+     * 最大嵌套层数，超过时认为存在循环引用
+     */
+    static final int MAX_DEPTH = 64;
+
+    private static final int K_BOOLEAN = 0;
+
+    private static final int K_BYTE = 1;
+
+    private static final int K_SHORT = 2;
+
+    private static final int K_INT = 3;
+
+    private static final int K_LONG = 4;
+
+    private static final int K_FLOAT = 5;
+
+    private static final int K_DOUBLE = 6;
+
+    private static final int K_CHAR = 7;
+
+    private static final int K_STRING = 8;
+
+    private static final int K_BYTES = 9;
+
+    private static final int K_ENUM = 10;
+
+    private static final int K_DATE = 11;
+
+    private static final int K_BIG_DECIMAL = 12;
+
+    private static final int K_BIG_INTEGER = 13;
+
+    private static final int K_ARRAY = 14;
+
+    private static final int K_COLLECTION = 15;
+
+    private static final int K_MAP = 16;
+
+    private static final int K_BEAN = 17;
+
+    private static final int K_DYNAMIC = 18;
+
+    static final ValueType DYNAMIC = new ValueType(K_DYNAMIC, Object.class, null, null);
+
+    private static final ClassValue<ValueType> TYPES = new ClassValue<ValueType>() {
+        @Override
+        protected ValueType computeValue(Class<?> type) {
+            return classify(type);
+        }
+    };
+
+    /**
+     * 通过 {@link BinarySerializer#registerType(Class[])} 允许按类名读取的类
+     */
+    private static final ConcurrentMap<String, Class<?>> REGISTERED = new ConcurrentHashMap<>();
+
+    /**
+     * 按声明类型缓存已经加载过的子类，随声明类型的类加载器一起回收
+     */
+    private static final ClassValue<ConcurrentMap<String, Class<?>>> SUBTYPES = new ClassValue<ConcurrentMap<String,
+            Class<?>>>() {
+        @Override
+        protected ConcurrentMap<String, Class<?>> computeValue(Class<?> type) {
+            return new ConcurrentHashMap<>(4);
+        }
+    };
+
+    private final int kind;
+
+    private final Class<?> raw;
+
+    /**
+     * 数组、集合的元素类型，或Map的键类型
+     */
+    private final ValueType element;
+
+    /**
+     * Map的值类型
+     */
+    private final ValueType value;
+
+    /**
+     * 集合和Map的构造器，Date子类的 (long) 构造器
+     */
+    private final MethodHandle factory;
+
+    private ValueType(int kind, Class<?> raw, ValueType element, ValueType value) {
+        this.kind = kind;
+        this.raw = raw;
+        this.element = element;
+        this.value = value;
+        this.factory = factory(kind, raw);
+    }
+
+    /**
+     * 分析声明类型
+     *
+     * @param type 字段的泛型类型
+     *
+     * @return {@link ValueType}
+     */
+    static ValueType of(Type type) {
+        if (type instanceof Class) {
+            return TYPES.get((Class<?>) type);
+        }
+        if (type instanceof ParameterizedType) {
+            Class<?> raw = (Class<?>) ((ParameterizedType) type).getRawType();
+            Type[] arguments = ((ParameterizedType) type).getActualTypeArguments();
+            if (Collection.class.isAssignableFrom(raw) && arguments.length == 1) {
+                return new ValueType(K_COLLECTION, raw, of(arguments[0]), null);
+            }
+            if (Map.class.isAssignableFrom(raw) && arguments.length == 2) {
+                return new ValueType(K_MAP, raw, of(arguments[0]), of(arguments[1]));
+            }
+            return TYPES.get(raw);
+        }
+        if (type instanceof GenericArrayType) {
+            ValueType component = of(((GenericArrayType) type).getGenericComponentType());
+            return new ValueType(K_ARRAY, Array.newInstance(component.raw, 0).getClass(), component, null);
+        }
+        if (type instanceof WildcardType) {
+            return of(((WildcardType) type).getUpperBounds()[0]);
+        }
+        if (type instanceof TypeVariable) {
+            return of(((TypeVariable<?>) type).getBounds()[0]);
+        }
+        return DYNAMIC;
+    }
+
+    private static ValueType classify(Class<?> type) {
+        if (type == boolean.class || type == Boolean.class) {
+            return new ValueType(K_BOOLEAN, type, null, null);
+        }
+        if (type == byte.class || type == Byte.class) {
+            return new ValueType(K_BYTE, type, null, null);
+        }
+        if (type == short.class || type == Short.class) {
+            return new ValueType(K_SHORT, type, null, null);
+        }
+        if (type == int.class || type == Integer.class) {
+            return new ValueType(K_INT, type, null, null);
+        }
+        if (type == long.class || type == Long.class) {
+            return new ValueType(K_LONG, type, null, null);
+        }
+        if (type == float.class || type == Float.class) {
+            return new ValueType(K_FLOAT, type, null, null);
+        }
+        if (type == double.class || type == Double.class) {
+            return new ValueType(K_DOUBLE, type, null, null);
+        }
+        if (type == char.class || type == Character.class) {
+            return new ValueType(K_CHAR, type, null, null);
+        }
+        if (type == String.class || CharSequence.class.isAssignableFrom(type) && !type.isInterface()) {
+            return new ValueType(K_STRING, type, null, null);
+        }
+        if (type == byte[].class) {
+            return new ValueType(K_BYTES, type, null, null);
+        }
+        if (type.isArray()) {
+            return new ValueType(K_ARRAY, type, TYPES.get(type.getComponentType()), null);
+        }
+        if (Enum.class.isAssignableFrom(type) && type != Enum.class) {
+            Class<?> enumType = type.isEnum() ? type : type.getSuperclass();
+            return enumType == type ? new ValueType(K_ENUM, type, null, null) : TYPES.get(enumType);
+        }
+        if (Date.class.isAssignableFrom(type)) {
+            return new ValueType(K_DATE, type, null, null);
+        }
+        if (type == BigDecimal.class) {
+            return new ValueType(K_BIG_DECIMAL, type, null, null);
+        }
+        if (type == BigInteger.class) {
+            return new ValueType(K_BIG_INTEGER, type, null, null);
+        }
+        if (Collection.class.isAssignableFrom(type)) {
+            return new ValueType(K_COLLECTION, type, DYNAMIC, null);
+        }
+        if (Map.class.isAssignableFrom(type)) {
+            return new ValueType(K_MAP, type, DYNAMIC, DYNAMIC);
+        }
+        if (type == Object.class || type.isInterface() || Modifier.isAbstract(type.getModifiers())) {
+            return DYNAMIC;
+        }
+        String name = type.getName();
+        if (type.isPrimitive() || name.startsWith("java.") || name.startsWith("javax.")) {
+            throw new IllegalArgumentException("unsupported type " + name);
+        }
+        return new ValueType(K_BEAN, type, null, null);
+    }
+
+    /**
+     * 获取声明的类
+     *
+     * @return {@link Class}
+     */
+    Class<?> getRaw() {
+        return raw;
+    }
+
+    /**
+     * 是否是基本类型，基本类型的字段不能设置为null
+     *
+     * @return {@link Boolean}
+     */
+    boolean isPrimitive() {
+        return raw.isPrimitive();
+    }
+
+    /**
+     * 写入值：类型码和内容
+     *
+     * @param object 值，可以为null
+     * @param out 输出
+     * @param depth 嵌套层数
+     */
+    void writeValue(Object object, BinaryOutput out, int depth) {
+        if (Checker.isNull(object)) {
+            out.write(NULL);
+            return;
+        }
+        ValueType actual = resolve(object);
+        out.write(actual.code(object));
+        actual.writePayload(object, out, raw, depth);
+    }
+
+    /**
+     * 获取值实际使用的类型：声明类型为 {@link Object}、接口或值是Bean的子类时按值的类型
+     *
+     * @param object 值，不为null
+     *
+     * @return {@link ValueType}
+     */
+    ValueType resolve(Object object) {
+        return kind == K_DYNAMIC || kind == K_BEAN && object.getClass() != raw ? TYPES.get(object.getClass()) : this;
+    }
+
+    /**
+     * 获取值的类型码
+     *
+     * @param object 值，不为null
+     *
+     * @return 类型码
+     */
+    int code(Object object) {
+        switch (kind) {
+            case K_BOOLEAN:
+                return (Boolean) object ? TRUE : FALSE;
+            case K_BYTE:
+            case K_SHORT:
+            case K_INT:
+                return INT;
+            case K_LONG:
+                return LONG;
+            case K_FLOAT:
+                return FLOAT;
+            case K_DOUBLE:
+                return DOUBLE;
+            case K_CHAR:
+                return CHAR;
+            case K_STRING:
+                return STRING;
+            case K_BYTES:
+                return BYTES;
+            case K_ENUM:
+                return ENUM;
+            case K_DATE:
+                return DATE;
+            case K_BIG_DECIMAL:
+            case K_BIG_INTEGER:
+                return DECIMAL;
+            case K_ARRAY:
+            case K_COLLECTION:
+                return LIST;
+            case K_MAP:
+                return MAP;
+            case K_BEAN:
+                return BEAN;
+            default:
+                return TYPES.get(object.getClass()).code(object);
+        }
+    }
+
+    /**
+     * 写入值的内容（不包括类型码）
+     *
+     * @param object 值，不为null，类型必须与 {@link #resolve(Object)} 的结果一致
+     * @param out 输出
+     * @param declared 声明的类，与值的类不同时写入类名
+     * @param depth 嵌套层数
+     */
+    void writePayload(Object object, BinaryOutput out, Class<?> declared, int depth) {
+        switch (kind) {
+            case K_BOOLEAN:
+                break;
+            case K_BYTE:
+            case K_SHORT:
+            case K_INT:
+            case K_LONG:
+                out.writeSigned(((Number) object).longValue());
+                break;
+            case K_FLOAT:
+                out.writeFixed32(Float.floatToRawIntBits((Float) object));
+                break;
+            case K_DOUBLE:
+                out.writeFixed64(Double.doubleToRawLongBits((Double) object));
+                break;
+            case K_CHAR:
+                out.writeVarint((Character) object);
+                break;
+            case K_STRING:
+                out.writeString((CharSequence) object);
+                break;
+            case K_BYTES:
+                out.writeBytes((byte[]) object);
+                break;
+            case K_ENUM:
+                out.writeString(raw == declared ? "" : raw.getName()).writeString(((Enum<?>) object).name());
+                break;
+            case K_DATE:
+                out.writeSigned(((Date) object).getTime());
+                break;
+            case K_BIG_DECIMAL:
+            case K_BIG_INTEGER:
+                out.writeString(object.toString());
+                break;
+            case K_ARRAY:
+                checkDepth(depth);
+                int length = Array.getLength(object);
+                out.writeVarint(length);
+                for (int i = 0; i < length; i++) {
+                    element.writeValue(Array.get(object, i), out, depth + 1);
+                }
+                break;
+            case K_COLLECTION:
+                checkDepth(depth);
+                // 先复制，避免并发修改时数量与内容不一致
+                Object[] elements = ((Collection<?>) object).toArray();
+                out.writeVarint(elements.length);
+                for (Object e : elements) {
+                    element.writeValue(e, out, depth + 1);
+                }
+                break;
+            case K_MAP:
+                checkDepth(depth);
+                Object[] entries = ((Map<?, ?>) object).entrySet().toArray();
+                out.writeVarint(entries.length);
+                for (Object entry : entries) {
+                    element.writeValue(((Map.Entry<?, ?>) entry).getKey(), out, depth + 1);
+                    value.writeValue(((Map.Entry<?, ?>) entry).getValue(), out, depth + 1);
+                }
+                break;
+            case K_BEAN:
+                checkDepth(depth);
+                out.writeString(raw == declared ? "" : raw.getName());
+                BinaryCodec.of(raw).writeFields(object, out, depth + 1);
+                break;
+            default:
+                throw new IllegalStateException("dynamic type must be resolved before writing");
+        }
+    }
+
+    /**
+     * 读取值：类型码和内容
+     *
+     * @param in 输入
+     * @param depth 嵌套层数
+     *
+     * @return 按声明类型转换后的值
+     */
+    Object readValue(BinaryInput in, int depth) {
+        return read(in.read(), in, depth);
+    }
+
+    /**
+     * 读取值的内容并按声明类型转换
+     *
+     * @param code 类型码
+     * @param in 输入
+     * @param depth 嵌套层数
+     *
+     * @return 值
+     */
+    Object read(int code, BinaryInput in, int depth) {
+        switch (code) {
+            case NULL:
+                return null;
+            case FALSE:
+            case TRUE:
+                return expect(Boolean.valueOf(code == TRUE), K_BOOLEAN);
+            case INT:
+            case LONG:
+                return number(in.readSigned(), code);
+            case FLOAT:
+                return number(Float.intBitsToFloat(in.readFixed32()), code);
+            case DOUBLE:
+                return number(Double.longBitsToDouble(in.readFixed64()), code);
+            case CHAR:
+                char c = (char) in.readVarint();
+                return kind == K_STRING ? String.valueOf(c) : expect(c, K_CHAR);
+            case STRING:
+                String text = in.readString();
+                return kind == K_CHAR && text.length() == 1 ? (Object) text.charAt(0) : expect(text, K_STRING);
+            case BYTES:
+                return expect(in.readBytes(), K_BYTES);
+            case ENUM:
+                return readEnum(in);
+            case DATE:
+                return readDate(in.readSigned());
+            case DECIMAL:
+                return number(new BigDecimal(in.readString()), code);
+            case LIST:
+                checkDepth(depth);
+                return readList(in, depth);
+            case MAP:
+                checkDepth(depth);
+                return readMap(in, depth);
+            case BEAN:
+                checkDepth(depth);
+                return readBean(in, depth);
+            default:
+                throw new IllegalArgumentException("unknown type code " + code + " at " + in.position());
+        }
+    }
+
+    /**
+     * 跳过值的内容
+     *
+     * @param code 类型码
+     * @param in 输入
+     * @param depth 嵌套层数
+     */
+    static void skip(int code, BinaryInput in, int depth) {
+        checkDepth(depth);
+        switch (code) {
+            case NULL:
+            case FALSE:
+            case TRUE:
+                break;
+            case INT:
+            case LONG:
+            case CHAR:
+            case DATE:
+                in.readVarint();
+                break;
+            case FLOAT:
+                in.skip(4);
+                break;
+            case DOUBLE:
+                in.skip(8);
+                break;
+            case STRING:
+            case BYTES:
+            case DECIMAL:
+                in.skip(in.readLength());
+                break;
+            case ENUM:
+                in.skip(in.readLength());
+                in.skip(in.readLength());
+                break;
+            case LIST:
+            case MAP:
+                long count = in.readLength() * (code == MAP ? 2L : 1L);
+                for (long i = 0; i < count; i++) {
+                    skip(in.read(), in, depth + 1);
+                }
+                break;
+            case BEAN:
+                in.skip(in.readLength());
+                BinaryCodec.skipFields(in, depth + 1);
+                break;
+            default:
+                throw new IllegalArgumentException("unknown type code " + code + " at " + in.position());
+        }
+    }
+
+    private Object number(Object number, int code) {
+        Number n = (Number) number;
+        switch (kind) {
+            case K_BYTE:
+                return n.byteValue();
+            case K_SHORT:
+                return n.shortValue();
+            case K_INT:
+                return n.intValue();
+            case K_LONG:
+                return n.longValue();
+            case K_FLOAT:
+                return n.floatValue();
+            case K_DOUBLE:
+                return n.doubleValue();
+            case K_BIG_DECIMAL:
+                return number instanceof BigDecimal ? number : new BigDecimal(n.toString());
+            case K_BIG_INTEGER:
+                return number instanceof BigDecimal ? ((BigDecimal) number).toBigInteger() : BigInteger.valueOf(n
+                        .longValue());
+            case K_CHAR:
+                return (char) n.intValue();
+            case K_DYNAMIC:
+                return code == INT ? (Object) n.intValue() : number;
+            default:
+                throw mismatch(number);
+        }
+    }
+
+    private Object expect(Object object, int expected) {
+        if (kind == expected || kind == K_DYNAMIC) {
+            return object;
+        }
+        throw mismatch(object);
+    }
+
+    private IllegalArgumentException mismatch(Object object) {
+        return new IllegalArgumentException("cannot read " + object.getClass().getName() + " as " + raw.getName());
+    }
+
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    private Object readEnum(BinaryInput in) {
+        String name = in.readString();
+        String constant = in.readString();
+        Class<?> type = name.isEmpty() ? raw : load(name);
+        if (!type.isEnum() || !raw.isAssignableFrom(type) || kind != K_ENUM && kind != K_DYNAMIC) {
+            throw mismatch(constant);
+        }
+        try {
+            return Enum.valueOf((Class) type, constant);
+        } catch (IllegalArgumentException e) {
+            // 删除了的枚举值读取为null
+            return null;
+        }
+    }
+
+    private Object readDate(long millis) {
+        if (kind == K_DYNAMIC || raw == Date.class) {
+            return new Date(millis);
+        }
+        if (kind != K_DATE || Checker.isNull(factory)) {
+            throw mismatch(millis);
+        }
+        try {
+            return factory.invoke(millis);
+        } catch (Throwable e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private Object readList(BinaryInput in, int depth) {
+        // 每个元素至少占一个字节，数量超过剩余字节数时数据一定有误，避免按错误的数量分配内存
+        int count = readCount(in, 1);
+        if (kind == K_ARRAY) {
+            Object array = Array.newInstance(raw.getComponentType(), count);
+            for (int i = 0; i < count; i++) {
+                Object e = element.readValue(in, depth + 1);
+                if (Checker.isNotNull(e)) {
+                    Array.set(array, i, e);
+                }
+            }
+            return array;
+        }
+        Collection<Object> collection;
+        if (kind == K_COLLECTION) {
+            collection = (Collection<Object>) newInstance(count);
+        } else if (kind == K_DYNAMIC) {
+            collection = new ArrayList<>(count);
+        } else {
+            throw new IllegalArgumentException("cannot read list as " + raw.getName());
+        }
+        ValueType type = Checker.isNull(element) ? DYNAMIC : element;
+        for (int i = 0; i < count; i++) {
+            collection.add(type.readValue(in, depth + 1));
+        }
+        return collection;
+    }
+
+    @SuppressWarnings("unchecked")
+    private Object readMap(BinaryInput in, int depth) {
+        int count = readCount(in, 2);
+        Map<Object, Object> map;
+        if (kind == K_MAP) {
+            map = (Map<Object, Object>) newInstance(count);
+        } else if (kind == K_DYNAMIC) {
+            map = new LinkedHashMap<>();
+        } else {
+            throw new IllegalArgumentException("cannot read map as " + raw.getName());
+        }
+        ValueType keyType = Checker.isNull(element) ? DYNAMIC : element;
+        ValueType valueType = Checker.isNull(value) ? DYNAMIC : value;
+        for (int i = 0; i < count; i++) {
+            Object key = keyType.readValue(in, depth + 1);
+            map.put(key, valueType.readValue(in, depth + 1));
+        }
+        return map;
+    }
+
+    private Object readBean(BinaryInput in, int depth) {
+        String name = in.readString();
+        Class<?> type;
+        if (name.isEmpty()) {
+            if (kind != K_BEAN) {
+                throw new IllegalArgumentException("bean class is missing for " + raw.getName());
+            }
+            type = raw;
+        } else {
+            type = load(name);
+            if (!raw.isAssignableFrom(type)) {
+                throw new IllegalArgumentException("cannot read " + name + " as " + raw.getName());
+            }
+        }
+        return BinaryCodec.of(type).readFields(in, depth + 1);
+    }
+
+    private static int readCount(BinaryInput in, int minSize) {
+        int count = in.readLength();
+        if ((long) count * minSize > in.remaining()) {
+            throw new IllegalArgumentException("illegal count " + count + " at " + in.position());
+        }
+        return count;
+    }
+
+    private Object newInstance(int capacity) {
+        try {
+            return Checker.isNull(factory) ? (kind == K_MAP ? new LinkedHashMap<>() : new ArrayList<>(capacity)) :
+                    factory.invoke();
+        } catch (Throwable e) {
+            throw new IllegalStateException("cannot create " + raw.getName(), e);
+        }
+    }
+
+    private static MethodHandle factory(int kind, Class<?> raw) {
+        Class<?> target = raw;
+        if (kind == K_COLLECTION || kind == K_MAP) {
+            if (raw.isInterface() || Modifier.isAbstract(raw.getModifiers())) {
+                target = defaultImplementation(raw);
+            }
+        } else if (kind != K_DATE || raw == Date.class) {
+            return null;
+        }
+        try {
+            MethodType type = kind == K_DATE ? MethodType.methodType(void.class, long.class) : MethodType
+                    .methodType(void.class);
+            Constructor<?> constructor = target.getDeclaredConstructor(type.parameterArray());
+            constructor.setAccessible(true);
+            MethodHandle handle = MethodHandles.lookup().unreflectConstructor(constructor);
+            return handle.asType(handle.type().changeReturnType(Object.class));
+        } catch (ReflectiveOperationException | RuntimeException e) {
+            // 没有可用的构造器时使用默认实现，读取时再检查类型
+            return null;
+        }
+    }
+
+    private static Class<?> defaultImplementation(Class<?> type) {
+        if (Map.class.isAssignableFrom(type)) {
+            if (ConcurrentMap.class.isAssignableFrom(type)) {
+                return SortedMap.class.isAssignableFrom(type) ? ConcurrentSkipListMap.class : ConcurrentHashMap.class;
+            }
+            return SortedMap.class.isAssignableFrom(type) ? TreeMap.class : LinkedHashMap.class;
+        }
+        if (SortedSet.class.isAssignableFrom(type)) {
+            return TreeSet.class;
+        }
+        if (Set.class.isAssignableFrom(type)) {
+            return LinkedHashSet.class;
+        }
+        if (Queue.class.isAssignableFrom(type)) {
+            return ArrayDeque.class;
+        }
+        return ArrayList.class;
+    }
+
+    /**
+     * 按数据中的类名取得类：注册过的类，或者声明类型（非 {@link Object}、非接口、非JDK的类）的子类；
+     * 其他类名一律拒绝，不会加载数据指定的任意类
+     */
+    private Class<?> load(String name) {
+        Class<?> type = REGISTERED.get(name);
+        if (Checker.isNotNull(type)) {
+            return type;
+        }
+        ClassLoader loader = raw.getClassLoader();
+        if (raw == Object.class || raw.isInterface() || Checker.isNull(loader)) {
+            throw new IllegalArgumentException("class " + name + " is not registered, cannot read it as " + raw
+                    .getName() + " (see BinarySerializer.registerType)");
+        }
+        ConcurrentMap<String, Class<?>> subtypes = SUBTYPES.get(raw);
+        type = subtypes.get(name);
+        if (Checker.isNull(type)) {
+            try {
+                type = Class.forName(name, false, loader);
+            } catch (ClassNotFoundException e) {
+                throw new IllegalArgumentException("class not found: " + name, e);
+            }
+            if (!raw.isAssignableFrom(type)) {
+                throw new IllegalArgumentException("cannot read " + name + " as " + raw.getName());
+            }
+            subtypes.putIfAbsent(name, type);
+        }
+        return type;
+    }
+
+    /**
+     * 注册允许按类名读取的类
+     *
+     * @param type 类
+     */
+    static void register(Class<?> type) {
+        REGISTERED.put(type.getName(), type);
+    }
+
+    /**
+     * 取消注册
+     *
+     * @param type 类
+     */
+    static void unregister(Class<?> type) {
+        REGISTERED.remove(type.getName(), type);
+    }
+
+    private static void checkDepth(int depth) {
+        if (depth > MAX_DEPTH) {
+            throw new IllegalStateException("nesting deeper than " + MAX_DEPTH + ", circular reference?");
+        }
+    }
+}
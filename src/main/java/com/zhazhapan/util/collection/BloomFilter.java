@@ -0,0 +1,122 @@
+package com.zhazhapan.util.collection;
+
+/**
+ * 布隆过滤器：不存在时一定返回false，存在时可能误判
+ * <p>
+ * 位数组长度为2的幂，由一个64位哈希值拆成两个32位哈希值，使用双重哈希生成k个位置
+ *
+ * @author pantao
+ * @since 1.1.0
+ */
+public class BloomFilter {
+
+    private final long[] bits;
+
+    private final int mask;
+
+    private final int hashes;
+
+    /**
+     * 新建布隆过滤器
+     *
+     * @param expectedSize 预计的元素个数
+     * @param falsePositiveRate 期望的误判率，介于0和1之间
+     */
+    public BloomFilter(int expectedSize, double falsePositiveRate) {
+        if (falsePositiveRate <= 0 || falsePositiveRate >= 1) {
+            throw new IllegalArgumentException("false positive rate must be between 0 and 1");
+        }
+        int size = Math.max(1, expectedSize);
+        double ln2 = Math.log(2);
+        long optimal = (long) Math.ceil(-size * Math.log(falsePositiveRate) / (ln2 * ln2));
+        int length = Integer.highestOneBit((int) Math.min(1 << 30, Math.max(64, optimal)) - 1) << 1;
+        bits = new long[length >>> 6];
+        mask = length - 1;
+        hashes = Math.max(1, (int) Math.round((double) length / size * ln2));
+    }
+
+    /**
+     * 添加对象，对象的 {@link Object#hashCode()} 必须与 {@link Object#equals(Object)} 一致
+     *
+     * @param value 对象，不能为null
+     */
+    public void put(Object value) {
+        put((long) value.hashCode());
+    }
+
+    /**
+     * 添加整数
+     *
+     * @param value 整数
+     */
+    public void put(long value) {
+        long hash = mix(value);
+        int first = (int) hash;
+        int second = (int) (hash >>> 32) | 1;
+        for (int i = 0; i < hashes; i++) {
+            int index = (first + i * second) & mask;
+            bits[index >>> 6] |= 1L << index;
+        }
+    }
+
+    /**
+     * 对象是否可能存在
+     *
+     * @param value 对象
+     *
+     * @return 返回false时一定不存在
+     */
+    public boolean mightContain(Object value) {
+        return value != null && mightContain((long) value.hashCode());
+    }
+
+    /**
+     * 整数是否可能存在
+     *
+     * @param value 整数
+     *
+     * @return 返回false时一定不存在
+     */
+    public boolean mightContain(long value) {
+        long hash = mix(value);
+        int first = (int) hash;
+        int second = (int) (hash >>> 32) | 1;
+        for (int i = 0; i < hashes; i++) {
+            int index = (first + i * second) & mask;
+            if ((bits[index >>> 6] & 1L << index) == 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * 获取位数组的长度
+     *
+     * @return {@link Integer}
+     */
+    public int getBitSize() {
+        return mask + 1;
+    }
+
+    /**
+     * 获取哈希函数的个数
+     *
+     * @return {@link Integer}
+     */
+    public int getHashCount() {
+        return hashes;
+    }
+
+    /**
+     * 64位混合函数（MurmurHash3 的 fmix64），使相近的值分散到整个位数组
+     */
+    static long mix(long value) {
+        long hash = value;
+        hash ^= hash >>> 33;
+        hash *= 0xff51afd7ed558ccdL;
+        hash ^= hash >>> 33;
+        hash *= 0xc4ceb9fe1a85ec53L;
+        return hash ^ hash >>> 33;
+    }
+}
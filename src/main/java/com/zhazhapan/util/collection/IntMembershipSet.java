@@ -0,0 +1,154 @@
+package com.zhazhapan.util.collection;
+
+/**
+ * 只读的整数成员集合，判断时不装箱
+ * <p>
+ * 取值范围较集中时使用以 (值 - 最小值) 为下标的位图（相当于完美哈希），否则使用开放寻址（线性探测）的哈希表
+ *
+ * @author pantao
+ * @since 1.1.0
+ */
+public abstract class IntMembershipSet {
+
+    /**
+     * 位图的长度不超过元素个数的倍数，超过时改用哈希表
+     */
+    private static final int DENSE_FACTOR = 64;
+
+    IntMembershipSet() {}
+
+    /**
+     * 创建整数成员集合
+     *
+     * @param values 元素，可以重复
+     *
+     * @return {@link IntMembershipSet}
+     */
+    public static IntMembershipSet of(int... values) {
+        if (values.length == 0) {
+            return new Hashed(values);
+        }
+        int min = Integer.MAX_VALUE;
+        int max = Integer.MIN_VALUE;
+        for (int value : values) {
+            min = Math.min(min, value);
+            max = Math.max(max, value);
+        }
+        long range = (long) max - min + 1;
+        return range <= Math.max(Long.SIZE, (long) values.length * DENSE_FACTOR) ? new Dense(values, min, (int) range)
+                : new Hashed(values);
+    }
+
+    /**
+     * 是否包含整数
+     *
+     * @param value 整数
+     *
+     * @return {@link Boolean}
+     */
+    public abstract boolean contains(int value);
+
+    /**
+     * 获取元素个数（不含重复）
+     *
+     * @return {@link Integer}
+     */
+    public abstract int size();
+
+    /**
+     * 位图
+     */
+    private static final class Dense extends IntMembershipSet {
+
+        private final long[] bits;
+
+        private final int min;
+
+        private final int range;
+
+        private final int size;
+
+        Dense(int[] values, int min, int range) {
+            this.min = min;
+            this.range = range;
+            bits = new long[(range + 63) >>> 6];
+            for (int value : values) {
+                int offset = value - min;
+                bits[offset >>> 6] |= 1L << offset;
+            }
+            int count = 0;
+            for (long word : bits) {
+                count += Long.bitCount(word);
+            }
+            size = count;
+        }
+
+        @Override
+        public boolean contains(int value) {
+            // 转成无符号数后，小于min的值也会超出范围
+            int offset = value - min;
+            return Integer.compareUnsigned(offset, range) < 0 && (bits[offset >>> 6] & 1L << offset) != 0;
+        }
+
+        @Override
+        public int size() {
+            return size;
+        }
+    }
+
+    /**
+     * 开放寻址的哈希表，0作为空槽位的标记，是否包含0单独记录
+     */
+    private static final class Hashed extends IntMembershipSet {
+
+        private final int[] table;
+
+        private final int mask;
+
+        private final boolean zero;
+
+        private final int size;
+
+        Hashed(int[] values) {
+            table = new int[MembershipSet.tableSize(values.length)];
+            mask = table.length - 1;
+            boolean hasZero = false;
+            int count = 0;
+            for (int value : values) {
+                if (value == 0) {
+                    count += hasZero ? 0 : 1;
+                    hasZero = true;
+                    continue;
+                }
+                int index = MembershipSet.spread(value) & mask;
+                while (table[index] != 0 && table[index] != value) {
+                    index = (index + 1) & mask;
+                }
+                count += table[index] == 0 ? 1 : 0;
+                table[index] = value;
+            }
+            zero = hasZero;
+            size = count;
+        }
+
+        @Override
+        public boolean contains(int value) {
+            if (value == 0) {
+                return zero;
+            }
+            int index = MembershipSet.spread(value) & mask;
+            for (int key = table[index]; key != 0; key = table[index]) {
+                if (key == value) {
+                    return true;
+                }
+                index = (index + 1) & mask;
+            }
+            return false;
+        }
+
+        @Override
+        public int size() {
+            return size;
+        }
+    }
+}
@@ -0,0 +1,85 @@
+package com.zhazhapan.util.collection;
+
+/**
+ * 只读的长整数成员集合，使用开放寻址（线性探测）的哈希表，判断时不装箱
+ *
+ * @author pantao
+ * @since 1.1.0
+ */
+public class LongMembershipSet {
+
+    private final long[] table;
+
+    private final int mask;
+
+    private final boolean zero;
+
+    private final int size;
+
+    private LongMembershipSet(long[] values) {
+        table = new long[MembershipSet.tableSize(values.length)];
+        mask = table.length - 1;
+        boolean hasZero = false;
+        int count = 0;
+        for (long value : values) {
+            if (value == 0) {
+                count += hasZero ? 0 : 1;
+                hasZero = true;
+                continue;
+            }
+            int index = index(value);
+            while (table[index] != 0 && table[index] != value) {
+                index = (index + 1) & mask;
+            }
+            count += table[index] == 0 ? 1 : 0;
+            table[index] = value;
+        }
+        zero = hasZero;
+        size = count;
+    }
+
+    /**
+     * 创建长整数成员集合
+     *
+     * @param values 元素，可以重复
+     *
+     * @return {@link LongMembershipSet}
+     */
+    public static LongMembershipSet of(long... values) {
+        return new LongMembershipSet(values);
+    }
+
+    /**
+     * 是否包含长整数
+     *
+     * @param value 长整数
+     *
+     * @return {@link Boolean}
+     */
+    public boolean contains(long value) {
+        if (value == 0) {
+            return zero;
+        }
+        int index = index(value);
+        for (long key = table[index]; key != 0; key = table[index]) {
+            if (key == value) {
+                return true;
+            }
+            index = (index + 1) & mask;
+        }
+        return false;
+    }
+
+    /**
+     * 获取元素个数（不含重复）
+     *
+     * @return {@link Integer}
+     */
+    public int size() {
+        return size;
+    }
+
+    private int index(long value) {
+        return (int) BloomFilter.mix(value) & mask;
+    }
+}
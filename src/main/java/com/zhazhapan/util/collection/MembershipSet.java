@@ -0,0 +1,324 @@
+package com.zhazhapan.util.collection;
+
+import java.util.*;
+import java.util.function.Consumer;
+
+/**
+ * 只读的成员集合，用于反复判断对象是否在同一批候选值中，如白名单
+ * <p>
+ * 通过 {@link #of(Collection)} 创建，根据元素类型选择实现：枚举使用按序号的位图，字符串使用缓存了哈希值的开放寻址表，
+ * 其他对象使用开放寻址表（线性探测，负载因子不超过0.5）；判断的时间复杂度为O(1)，不会产生任何对象。
+ * 整数请使用 {@link IntMembershipSet} 和 {@link LongMembershipSet}，避免装箱
+ * <p>
+ * 元素的 {@link Object#hashCode()} 必须与 {@link Object#equals(Object)} 一致，集合中的null会被忽略
+ *
+ * @param <T> 元素类型
+ *
+ * @author pantao
+ * @since 1.1.0
+ */
+public abstract class MembershipSet<T> {
+
+    private static final MembershipSet<Object> EMPTY = new Hashed<>(Collections.emptySet());
+
+    MembershipSet() {}
+
+    /**
+     * 创建成员集合
+     *
+     * @param values 元素
+     * @param <T> 元素类型
+     *
+     * @return {@link MembershipSet}
+     */
+    @SafeVarargs
+    public static <T> MembershipSet<T> of(T... values) {
+        // 不把可变参数数组再传给其他可变参数方法（如Arrays.asList），避免[varargs]警告
+        List<T> list = new ArrayList<>(values.length);
+        for (T value : values) {
+            list.add(value);
+        }
+        return of(list);
+    }
+
+    /**
+     * 创建成员集合
+     *
+     * @param values 元素
+     * @param <T> 元素类型
+     *
+     * @return {@link MembershipSet}
+     */
+    @SuppressWarnings("unchecked")
+    public static <T> MembershipSet<T> of(Collection<? extends T> values) {
+        Set<T> distinct = new LinkedHashSet<>(values);
+        distinct.remove(null);
+        if (distinct.isEmpty()) {
+            return (MembershipSet<T>) EMPTY;
+        }
+        Class<?> enumType = enumType(distinct.iterator().next());
+        boolean strings = true;
+        for (T value : distinct) {
+            strings &= value instanceof String;
+            if (enumType != enumType(value)) {
+                enumType = null;
+            }
+        }
+        if (strings) {
+            return (MembershipSet<T>) new Strings((Set<String>) distinct);
+        }
+        if (enumType != null) {
+            return new Enums<>(enumType, distinct);
+        }
+        return new Hashed<>(distinct);
+    }
+
+    /**
+     * 是否包含对象
+     *
+     * @param value 对象
+     *
+     * @return {@link Boolean}，对象为null时返回false
+     */
+    public abstract boolean contains(Object value);
+
+    /**
+     * 获取元素个数
+     *
+     * @return {@link Integer}
+     */
+    public abstract int size();
+
+    /**
+     * 遍历所有元素
+     *
+     * @param action 操作
+     */
+    public abstract void forEach(Consumer<? super T> action);
+
+    /**
+     * 在当前集合之前加一层布隆过滤器，适合元素很多、并且大部分待判断的对象都不在集合中的情况，
+     * 不在集合中的对象通常只需要计算哈希值、读取几个位就可以返回，不再调用 {@link Object#equals(Object)}
+     *
+     * @param falsePositiveRate 布隆过滤器的误判率，误判只会多做一次精确判断，不影响结果
+     *
+     * @return {@link MembershipSet}
+     */
+    public MembershipSet<T> withBloomFilter(double falsePositiveRate) {
+        BloomFilter filter = new BloomFilter(size(), falsePositiveRate);
+        forEach(filter::put);
+        return new BloomFiltered<>(this, filter);
+    }
+
+    private static Class<?> enumType(Object value) {
+        return value instanceof Enum ? ((Enum<?>) value).getDeclaringClass() : null;
+    }
+
+    /**
+     * 把哈希值打散到低位，使连续的哈希值（如短字符串、小整数）不会聚集在一起
+     */
+    static int spread(int hash) {
+        int h = hash * 0x9E3779B9;
+        return h ^ (h >>> 16);
+    }
+
+    /**
+     * 不小于 size * 2 的2的幂，即负载因子不超过0.5
+     */
+    static int tableSize(int size) {
+        return Math.max(4, Integer.highestOneBit(size) << 2);
+    }
+
+    /**
+     * 开放寻址（线性探测）的哈希表
+     */
+    private static final class Hashed<T> extends MembershipSet<T> {
+
+        private final Object[] table;
+
+        private final int mask;
+
+        private final int size;
+
+        Hashed(Set<? extends T> values) {
+            table = new Object[tableSize(values.size())];
+            mask = table.length - 1;
+            size = values.size();
+            for (T value : values) {
+                int index = spread(value.hashCode()) & mask;
+                while (table[index] != null) {
+                    index = (index + 1) & mask;
+                }
+                table[index] = value;
+            }
+        }
+
+        @Override
+        public boolean contains(Object value) {
+            if (value == null) {
+                return false;
+            }
+            int index = spread(value.hashCode()) & mask;
+            for (Object key = table[index]; key != null; key = table[index]) {
+                if (key == value || key.equals(value)) {
+                    return true;
+                }
+                index = (index + 1) & mask;
+            }
+            return false;
+        }
+
+        @Override
+        public int size() {
+            return size;
+        }
+
+        @Override
+        @SuppressWarnings("unchecked")
+        public void forEach(Consumer<? super T> action) {
+            for (Object key : table) {
+                if (key != null) {
+                    action.accept((T) key);
+                }
+            }
+        }
+    }
+
+    /**
+     * 字符串的开放寻址表，额外保存每个槽位的哈希值，先比较哈希值再调用 {@link String#equals(Object)}
+     * <p>
+     * {@link String#hashCode()} 会缓存在字符串中，因此同一个字符串反复判断时不会重复计算哈希值
+     */
+    private static final class Strings extends MembershipSet<String> {
+
+        private final String[] keys;
+
+        private final int[] hashes;
+
+        private final int mask;
+
+        private final int size;
+
+        Strings(Set<String> values) {
+            keys = new String[tableSize(values.size())];
+            hashes = new int[keys.length];
+            mask = keys.length - 1;
+            size = values.size();
+            for (String value : values) {
+                int hash = value.hashCode();
+                int index = spread(hash) & mask;
+                while (keys[index] != null) {
+                    index = (index + 1) & mask;
+                }
+                keys[index] = value;
+                hashes[index] = hash;
+            }
+        }
+
+        @Override
+        public boolean contains(Object value) {
+            if (!(value instanceof String)) {
+                return false;
+            }
+            int hash = value.hashCode();
+            int index = spread(hash) & mask;
+            for (String key = keys[index]; key != null; key = keys[index]) {
+                if (hashes[index] == hash && key.equals(value)) {
+                    return true;
+                }
+                index = (index + 1) & mask;
+            }
+            return false;
+        }
+
+        @Override
+        public int size() {
+            return size;
+        }
+
+        @Override
+        public void forEach(Consumer<? super String> action) {
+            for (String key : keys) {
+                if (key != null) {
+                    action.accept(key);
+                }
+            }
+        }
+    }
+
+    /**
+     * 同一种枚举的集合，以序号为下标的位图，相当于完美哈希
+     */
+    private static final class Enums<T> extends MembershipSet<T> {
+
+        private final Class<?> type;
+
+        private final long[] bits;
+
+        private final List<T> values;
+
+        Enums(Class<?> type, Set<T> values) {
+            this.type = type;
+            this.values = new ArrayList<>(values);
+            bits = new long[(type.getEnumConstants().length + 63) >>> 6];
+            for (T value : values) {
+                int ordinal = ((Enum<?>) value).ordinal();
+                bits[ordinal >>> 6] |= 1L << ordinal;
+            }
+        }
+
+        @Override
+        public boolean contains(Object value) {
+            if (!(value instanceof Enum) || ((Enum<?>) value).getDeclaringClass() != type) {
+                return false;
+            }
+            int ordinal = ((Enum<?>) value).ordinal();
+            return (bits[ordinal >>> 6] & 1L << ordinal) != 0;
+        }
+
+        @Override
+        public int size() {
+            return values.size();
+        }
+
+        @Override
+        public void forEach(Consumer<? super T> action) {
+            values.forEach(action);
+        }
+    }
+
+    /**
+     * 先经过布隆过滤器再精确判断
+     */
+    private static final class BloomFiltered<T> extends MembershipSet<T> {
+
+        private final MembershipSet<T> delegate;
+
+        private final BloomFilter filter;
+
+        BloomFiltered(MembershipSet<T> delegate, BloomFilter filter) {
+            this.delegate = delegate;
+            this.filter = filter;
+        }
+
+        @Override
+        public boolean contains(Object value) {
+            return filter.mightContain(value) && delegate.contains(value);
+        }
+
+        @Override
+        public int size() {
+            return delegate.size();
+        }
+
+        @Override
+        public void forEach(Consumer<? super T> action) {
+            delegate.forEach(action);
+        }
+
+        @Override
+        public MembershipSet<T> withBloomFilter(double falsePositiveRate) {
+            return delegate.withBloomFilter(falsePositiveRate);
+        }
+    }
+}
@@ -0,0 +1,343 @@
+package com.zhazhapan.util.concurrent;
+
+import com.zhazhapan.util.Checker;
+import com.zhazhapan.util.enums.PoolAdjustment;
+import com.zhazhapan.util.model.PoolDecision;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.concurrent.*;
+
+/**
+ * 自适应线程数控制器，定期采样吞吐量、排队耗时和执行耗时，在上下限之间调整 {@link ThreadPoolExecutor} 的线程数
+ * <p>
+ * 有积压时，按利特尔法则（并发数 = 到达速率 × 执行耗时）估算所需线程数并扩大；扩大后吞吐量没有明显提升（如远端已是瓶颈）时回退，
+ * 即爬山法；线程利用率低时逐步缩小。适合下载、发送邮件等最佳线程数随远端耗时漂移的IO密集型任务
+ * <p>
+ * 控制器接管线程数后，核心线程数与最大线程数保持一致；执行耗时和排队耗时只有 {@link MonitoredThreadPoolExecutor} 才能采集到
+ *
+ * @author pantao
+ * @since 1.1.0
+ */
+public class AdaptivePoolController implements AutoCloseable {
+
+    /**
+     * 默认的采样间隔（毫秒）
+     */
+    public static final long DEFAULT_INTERVAL = 1000;
+
+    /**
+     * 保留的最近决策数量
+     */
+    public static final int HISTORY_SIZE = 64;
+
+    private static final ScheduledExecutorService TIMER = Executors.newSingleThreadScheduledExecutor(
+            new NamedThreadFactory("adaptive-pool"));
+
+    private final ThreadPoolExecutor executor;
+
+    private final int minSize;
+
+    private final int maxSize;
+
+    private final Deque<PoolDecision> history = new ArrayDeque<>(HISTORY_SIZE);
+
+    private double waitThreshold = 5;
+
+    private double minGain = 0.05;
+
+    private ScheduledFuture<?> future = null;
+
+    private long lastTime;
+
+    private long lastCompleted;
+
+    private long lastTasks;
+
+    private long lastLatencyCount;
+
+    private long lastLatencySum;
+
+    private long lastWaitCount;
+
+    private long lastWaitSum;
+
+    private double lastThroughput = 0;
+
+    private PoolAdjustment lastAdjustment = PoolAdjustment.HOLD;
+
+    private int lastStep = 0;
+
+    private long grows = 0;
+
+    private long shrinks = 0;
+
+    private long reverts = 0;
+
+    /**
+     * 新建控制器，线程数立即被限制在上下限之间
+     *
+     * @param executor {@link ThreadPoolExecutor}
+     * @param minSize 最小线程数
+     * @param maxSize 最大线程数
+     */
+    public AdaptivePoolController(ThreadPoolExecutor executor, int minSize, int maxSize) {
+        if (minSize <= 0 || maxSize < minSize) {
+            throw new IllegalArgumentException("illegal bounds: min " + minSize + ", max " + maxSize);
+        }
+        this.executor = executor;
+        this.minSize = minSize;
+        this.maxSize = maxSize;
+        int size = Math.min(maxSize, Math.max(minSize, executor.getCorePoolSize()));
+        ExecutorRegistry.resize(executor, size, size);
+        snapshot(System.nanoTime());
+    }
+
+    /**
+     * 以默认间隔开始定期调整
+     *
+     * @return {@link AdaptivePoolController}
+     */
+    public AdaptivePoolController start() {
+        return start(DEFAULT_INTERVAL, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * 开始定期调整，线程池关闭后自动停止
+     *
+     * @param interval 采样间隔
+     * @param unit 时间单位
+     *
+     * @return {@link AdaptivePoolController}
+     */
+    public synchronized AdaptivePoolController start(long interval, TimeUnit unit) {
+        if (Checker.isNull(future)) {
+            snapshot(System.nanoTime());
+            future = TIMER.scheduleWithFixedDelay(() -> {
+                if (executor.isShutdown()) {
+                    close();
+                } else {
+                    adjust();
+                }
+            }, interval, interval, unit);
+        }
+        return this;
+    }
+
+    /**
+     * 停止定期调整，线程数保持当前值
+     */
+    @Override
+    public synchronized void close() {
+        if (Checker.isNotNull(future)) {
+            future.cancel(false);
+            future = null;
+        }
+    }
+
+    /**
+     * 采样并做一次调整决策，通常由定时器调用，也可由外部的调度器调用
+     *
+     * @return {@link PoolDecision}
+     */
+    public PoolDecision adjust() {
+        return adjust(System.nanoTime());
+    }
+
+    /**
+     * 以指定时间采样并做一次调整决策
+     *
+     * @param now 当前时间（纳秒，与 {@link System#nanoTime()} 一致）
+     *
+     * @return {@link PoolDecision}
+     */
+    synchronized PoolDecision adjust(long now) {
+        double seconds = Math.max(1, now - lastTime) / 1e9;
+        long completed = executor.getCompletedTaskCount();
+        long tasks = executor.getTaskCount();
+        PoolDecision decision = new PoolDecision();
+        decision.sizeBefore = executor.getCorePoolSize();
+        decision.throughput = (completed - lastCompleted) / seconds;
+        decision.arrivalRate = (tasks - lastTasks) / seconds;
+        decision.queueDepth = executor.getQueue().size();
+        if (executor instanceof MonitoredThreadPoolExecutor) {
+            MonitoredThreadPoolExecutor monitored = (MonitoredThreadPoolExecutor) executor;
+            LatencyHistogram latency = monitored.getTaskLatency();
+            LatencyHistogram wait = monitored.getQueueWait();
+            decision.serviceTime = windowMean(latency.getSum() - lastLatencySum, latency.getCount() -
+                    lastLatencyCount);
+            decision.queueWait = windowMean(wait.getSum() - lastWaitSum, wait.getCount() - lastWaitCount);
+        }
+        // 积压时到达速率可能为0（任务已全部提交），此时用吞吐量估算当前实际需要的并发数
+        double demand = Math.max(decision.arrivalRate, decision.throughput);
+        decision.estimatedSize = (int) Math.ceil(demand * decision.serviceTime / 1000);
+        decide(decision, executor.getActiveCount());
+        if (decision.sizeAfter != decision.sizeBefore) {
+            ExecutorRegistry.resize(executor, decision.sizeAfter, decision.sizeAfter);
+        }
+        lastThroughput = decision.throughput;
+        snapshot(now);
+        record(decision);
+        return decision;
+    }
+
+    private void decide(PoolDecision decision, int active) {
+        int size = decision.sizeBefore;
+        boolean backlog = decision.queueDepth > 0 || decision.queueWait > waitThreshold;
+        decision.adjustment = PoolAdjustment.HOLD;
+        decision.sizeAfter = size;
+        if (backlog) {
+            if (lastAdjustment == PoolAdjustment.GROW && decision.throughput <= lastThroughput * (1 + minGain)) {
+                decision.adjustment = PoolAdjustment.REVERT;
+                decision.sizeAfter = clamp(size - lastStep);
+                decision.reason = "no throughput gain after growing";
+            } else if (lastAdjustment == PoolAdjustment.REVERT) {
+                decision.reason = "cooling down after revert";
+            } else if (size < maxSize) {
+                int target = Math.max(size + Math.max(1, size / 4), Math.min(decision.estimatedSize, size * 2));
+                decision.adjustment = PoolAdjustment.GROW;
+                decision.sizeAfter = clamp(target);
+                decision.reason = "backlog";
+            } else {
+                decision.reason = "backlog at upper bound";
+            }
+        } else if (active < size / 2 && size > minSize) {
+            int target = Math.max(Math.max(active + 1, decision.estimatedSize), size - Math.max(1, size / 4));
+            target = Math.min(size, target);
+            decision.adjustment = PoolAdjustment.SHRINK;
+            decision.sizeAfter = clamp(target);
+            decision.reason = "low utilization";
+        } else {
+            decision.reason = "steady";
+        }
+        if (decision.sizeAfter == size && decision.adjustment != PoolAdjustment.HOLD) {
+            decision.adjustment = PoolAdjustment.HOLD;
+        }
+        lastStep = Math.abs(decision.sizeAfter - size);
+        lastAdjustment = decision.adjustment;
+        switch (decision.adjustment) {
+            case GROW:
+                grows++;
+                break;
+            case SHRINK:
+                shrinks++;
+                break;
+            case REVERT:
+                reverts++;
+                break;
+            default:
+                break;
+        }
+    }
+
+    private int clamp(int size) {
+        return Math.min(maxSize, Math.max(minSize, size));
+    }
+
+    private static double windowMean(long sumNanos, long count) {
+        return count <= 0 ? 0 : sumNanos / 1e6 / count;
+    }
+
+    private void snapshot(long now) {
+        lastTime = now;
+        lastCompleted = executor.getCompletedTaskCount();
+        lastTasks = executor.getTaskCount();
+        if (executor instanceof MonitoredThreadPoolExecutor) {
+            MonitoredThreadPoolExecutor monitored = (MonitoredThreadPoolExecutor) executor;
+            lastLatencyCount = monitored.getTaskLatency().getCount();
+            lastLatencySum = monitored.getTaskLatency().getSum();
+            lastWaitCount = monitored.getQueueWait().getCount();
+            lastWaitSum = monitored.getQueueWait().getSum();
+        }
+    }
+
+    private void record(PoolDecision decision) {
+        if (history.size() >= HISTORY_SIZE) {
+            history.removeFirst();
+        }
+        history.addLast(decision);
+    }
+
+    /**
+     * 获取最近的调整决策，按时间先后排列
+     *
+     * @return {@link List}
+     */
+    public synchronized List<PoolDecision> getDecisions() {
+        return new ArrayList<>(history);
+    }
+
+    /**
+     * 获取最后一次调整决策，没有时返回null
+     *
+     * @return {@link PoolDecision}
+     */
+    public synchronized PoolDecision getLastDecision() {
+        return history.peekLast();
+    }
+
+    /**
+     * 获取扩大次数
+     *
+     * @return {@link Long}
+     */
+    public synchronized long getGrowCount() {
+        return grows;
+    }
+
+    /**
+     * 获取缩小次数
+     *
+     * @return {@link Long}
+     */
+    public synchronized long getShrinkCount() {
+        return shrinks;
+    }
+
+    /**
+     * 获取回退次数
+     *
+     * @return {@link Long}
+     */
+    public synchronized long getRevertCount() {
+        return reverts;
+    }
+
+    /**
+     * 获取当前线程数
+     *
+     * @return {@link Integer}
+     */
+    public int getCurrentSize() {
+        return executor.getCorePoolSize();
+    }
+
+    /**
+     * 设置判定为积压的平均排队耗时（毫秒），默认5毫秒
+     *
+     * @param waitThreshold 排队耗时
+     */
+    public synchronized void setWaitThreshold(double waitThreshold) {
+        this.waitThreshold = waitThreshold;
+    }
+
+    /**
+     * 设置扩大后吞吐量的最小提升比例，低于该比例时回退，默认0.05
+     *
+     * @param minGain 提升比例
+     */
+    public synchronized void setMinGain(double minGain) {
+        this.minGain = minGain;
+    }
+
+    /**
+     * 获取被控制的线程池
+     *
+     * @return {@link ThreadPoolExecutor}
+     */
+    public ThreadPoolExecutor getExecutor() {
+        return executor;
+    }
+}
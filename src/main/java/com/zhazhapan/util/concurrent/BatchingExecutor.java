@@ -0,0 +1,300 @@
+package com.zhazhapan.util.concurrent;
+
+import com.zhazhapan.util.Checker;
+import com.zhazhapan.util.ThreadPool;
+import com.zhazhapan.util.interfaces.IBatchHandler;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 微批执行器，把提交的元素按数量或等待时长攒成一批，再交给批处理函数在工作线程中执行，适合写日志、发邮件、逐行写Excel等单次开销小但次数多的任务
+ * <p>
+ * 缓冲区满时提交线程会被阻塞（背压）；每个元素都有一个 {@link CompletableFuture}，在其所在的批次处理完成后结束
+ *
+ * @param <T> 元素类型
+ *
+ * @author pantao
+ * @since 1.1.0
+ */
+public class BatchingExecutor<T> implements AutoCloseable {
+
+    /**
+     * 默认的缓冲区容量
+     */
+    public static final int DEFAULT_CAPACITY = 4096;
+
+    private final IBatchHandler<T> handler;
+
+    private final Executor workers;
+
+    private final int batchSize;
+
+    private final long lingerNanos;
+
+    private final BlockingQueue<Entry<T>> buffer;
+
+    private final Semaphore inFlight;
+
+    private final int maxInFlight;
+
+    private final Thread dispatcher;
+
+    private final LongAdder batches = new LongAdder();
+
+    private final LongAdder items = new LongAdder();
+
+    private volatile boolean closed = false;
+
+    /**
+     * 使用 {@link ThreadPool#getExecutor()} 执行批处理，同时最多执行一批
+     *
+     * @param name 名称，用作调度线程名
+     * @param batchSize 每批最大元素数
+     * @param linger 第一个元素到达后最长等待时长（毫秒）
+     * @param handler 批处理函数
+     */
+    public BatchingExecutor(String name, int batchSize, long linger, IBatchHandler<T> handler) {
+        this(name, batchSize, linger, TimeUnit.MILLISECONDS, DEFAULT_CAPACITY, 1, handler, ThreadPool.getExecutor());
+    }
+
+    /**
+     * 新建微批执行器
+     *
+     * @param name 名称，用作调度线程名
+     * @param batchSize 每批最大元素数
+     * @param linger 第一个元素到达后最长等待时长
+     * @param unit 时间单位
+     * @param capacity 缓冲区容量，缓冲区满时提交线程阻塞
+     * @param maxInFlight 同时执行的最大批次数，达到上限后不再出队，缓冲区随之积压
+     * @param handler 批处理函数
+     * @param workers 执行批处理的线程池
+     */
+    public BatchingExecutor(String name, int batchSize, long linger, TimeUnit unit, int capacity, int maxInFlight,
+                            IBatchHandler<T> handler, Executor workers) {
+        if (batchSize <= 0 || capacity <= 0 || maxInFlight <= 0) {
+            throw new IllegalArgumentException("batch size, capacity and max in flight must be positive");
+        }
+        this.handler = handler;
+        this.workers = workers;
+        this.batchSize = batchSize;
+        this.lingerNanos = unit.toNanos(Math.max(0, linger));
+        this.buffer = new ArrayBlockingQueue<>(capacity);
+        this.maxInFlight = maxInFlight;
+        this.inFlight = new Semaphore(maxInFlight);
+        this.dispatcher = new NamedThreadFactory(name + "-batcher").newThread(this::dispatch);
+        this.dispatcher.start();
+    }
+
+    /**
+     * 提交元素，缓冲区满时阻塞
+     *
+     * @param item 元素
+     *
+     * @return 所在批次处理完成时结束的 {@link CompletableFuture}
+     *
+     * @throws InterruptedException 等待时被中断
+     * @throws RejectedExecutionException 已关闭
+     */
+    public CompletableFuture<Void> submit(T item) throws InterruptedException {
+        Entry<T> entry = newEntry(item);
+        buffer.put(entry);
+        return afterEnqueue(entry);
+    }
+
+    /**
+     * 提交元素，缓冲区满时最多等待指定时长
+     *
+     * @param item 元素
+     * @param timeout 等待时长
+     * @param unit 时间单位
+     *
+     * @return 所在批次处理完成时结束的 {@link CompletableFuture}
+     *
+     * @throws InterruptedException 等待时被中断
+     * @throws RejectedExecutionException 已关闭，或者超时后缓冲区仍然是满的
+     */
+    public CompletableFuture<Void> offer(T item, long timeout, TimeUnit unit) throws InterruptedException {
+        Entry<T> entry = newEntry(item);
+        if (!buffer.offer(entry, timeout, unit)) {
+            throw new RejectedExecutionException("batch buffer is full");
+        }
+        return afterEnqueue(entry);
+    }
+
+    private Entry<T> newEntry(T item) {
+        if (closed) {
+            throw new RejectedExecutionException("batching executor has been closed");
+        }
+        return new Entry<>(item);
+    }
+
+    private CompletableFuture<Void> afterEnqueue(Entry<T> entry) {
+        // 入队时恰好关闭，调度线程可能已经退出，由提交线程负责结束
+        if (closed && !dispatcher.isAlive() && buffer.remove(entry)) {
+            entry.future.completeExceptionally(new RejectedExecutionException("batching executor has been closed"));
+        }
+        return entry.future;
+    }
+
+    private void dispatch() {
+        List<Entry<T>> batch = new ArrayList<>(batchSize);
+        try {
+            while (!closed || !buffer.isEmpty()) {
+                Entry<T> first = buffer.poll(100, TimeUnit.MILLISECONDS);
+                if (Checker.isNull(first)) {
+                    continue;
+                }
+                batch.add(first);
+                long deadline = System.nanoTime() + lingerNanos;
+                while (batch.size() < batchSize) {
+                    if (buffer.drainTo(batch, batchSize - batch.size()) > 0) {
+                        continue;
+                    }
+                    long remaining = deadline - System.nanoTime();
+                    Entry<T> next = remaining > 0 && !closed ? buffer.poll(remaining, TimeUnit.NANOSECONDS) : null;
+                    if (Checker.isNull(next)) {
+                        break;
+                    }
+                    batch.add(next);
+                }
+                inFlight.acquire();
+                execute(batch);
+                batch = new ArrayList<>(batchSize);
+            }
+        } catch (InterruptedException e) {
+            Exception error = new CancellationException("batching executor was interrupted");
+            batch.forEach(entry -> entry.future.completeExceptionally(error));
+            List<Entry<T>> left = new ArrayList<>();
+            buffer.drainTo(left);
+            left.forEach(entry -> entry.future.completeExceptionally(error));
+        }
+    }
+
+    private void execute(List<Entry<T>> batch) {
+        try {
+            workers.execute(() -> run(batch));
+        } catch (RejectedExecutionException e) {
+            inFlight.release();
+            batch.forEach(entry -> entry.future.completeExceptionally(e));
+        }
+    }
+
+    private void run(List<Entry<T>> batch) {
+        try {
+            List<T> elements = new ArrayList<>(batch.size());
+            batch.forEach(entry -> elements.add(entry.item));
+            handler.handle(elements);
+            batch.forEach(entry -> entry.future.complete(null));
+        } catch (Throwable e) {
+            batch.forEach(entry -> entry.future.completeExceptionally(e));
+        } finally {
+            batches.increment();
+            items.add(batch.size());
+            inFlight.release();
+        }
+    }
+
+    /**
+     * 停止接收新元素，等待缓冲区中的元素处理完成
+     *
+     * @param timeout 等待时长
+     * @param unit 时间单位
+     *
+     * @return 是否在等待时长内处理完成
+     *
+     * @throws InterruptedException 等待时被中断
+     */
+    public boolean close(long timeout, TimeUnit unit) throws InterruptedException {
+        closed = true;
+        long deadline = System.nanoTime() + unit.toNanos(timeout);
+        dispatcher.join(Math.max(1, TimeUnit.NANOSECONDS.toMillis(deadline - System.nanoTime())));
+        if (dispatcher.isAlive()) {
+            return false;
+        }
+        failLeft();
+        long remaining = deadline - System.nanoTime();
+        if (inFlight.tryAcquire(maxInFlight, Math.max(0, remaining), TimeUnit.NANOSECONDS)) {
+            inFlight.release(maxInFlight);
+            return true;
+        }
+        return false;
+    }
+
+    private void failLeft() {
+        List<Entry<T>> left = new ArrayList<>();
+        buffer.drainTo(left);
+        Exception error = new RejectedExecutionException("batching executor has been closed");
+        left.forEach(entry -> entry.future.completeExceptionally(error));
+    }
+
+    /**
+     * 停止接收新元素，等待缓冲区中的元素处理完成
+     */
+    @Override
+    public void close() {
+        closed = true;
+        try {
+            dispatcher.join();
+            failLeft();
+            inFlight.acquire(maxInFlight);
+            inFlight.release(maxInFlight);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            dispatcher.interrupt();
+        }
+    }
+
+    /**
+     * 获取缓冲区中等待的元素数
+     *
+     * @return {@link Integer}
+     */
+    public int getPendingCount() {
+        return buffer.size();
+    }
+
+    /**
+     * 获取已处理的批次数
+     *
+     * @return {@link Long}
+     */
+    public long getBatchCount() {
+        return batches.sum();
+    }
+
+    /**
+     * 获取已处理的元素数
+     *
+     * @return {@link Long}
+     */
+    public long getItemCount() {
+        return items.sum();
+    }
+
+    /**
+     * 获取平均每批的元素数
+     *
+     * @return {@link Double}
+     */
+    public double getAverageBatchSize() {
+        long count = batches.sum();
+        return count == 0 ? 0 : (double) items.sum() / count;
+    }
+
+    /**
+     * 缓冲区中的元素
+     */
+    private static class Entry<T> {
+
+        private final T item;
+
+        private final CompletableFuture<Void> future = new CompletableFuture<>();
+
+        private Entry(T item) {
+            this.item = item;
+        }
+    }
+}
@@ -0,0 +1,48 @@
+package com.zhazhapan.util.concurrent;
+
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.RejectedExecutionHandler;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 队列已满时阻塞提交线程，直到队列有空位，超时后抛出 {@link RejectedExecutionException}
+ *
+ * @author pantao
+ * @since 1.1.0
+ */
+public class BlockingRejectedExecutionHandler implements RejectedExecutionHandler {
+
+    private final long timeout;
+
+    private final TimeUnit unit;
+
+    /**
+     * 新建阻塞拒绝策略
+     *
+     * @param timeout 最长等待时长
+     * @param unit 时间单位
+     */
+    public BlockingRejectedExecutionHandler(long timeout, TimeUnit unit) {
+        this.timeout = timeout;
+        this.unit = unit;
+    }
+
+    @Override
+    public void rejectedExecution(Runnable runnable, ThreadPoolExecutor executor) {
+        if (executor.isShutdown()) {
+            throw new RejectedExecutionException("executor has been shutdown");
+        }
+        try {
+            if (!executor.getQueue().offer(runnable, timeout, unit)) {
+                throw new RejectedExecutionException("queue is still full after waiting " + timeout + " " + unit);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RejectedExecutionException("interrupted while waiting for queue", e);
+        }
+        if (executor.isShutdown() && executor.remove(runnable)) {
+            throw new RejectedExecutionException("executor has been shutdown");
+        }
+    }
+}
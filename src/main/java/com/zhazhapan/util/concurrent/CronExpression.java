@@ -0,0 +1,158 @@
+package com.zhazhapan.util.concurrent;
+
+import com.zhazhapan.util.Checker;
+
+import java.time.ZonedDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.BitSet;
+
+/**
+ * 简单的cron表达式，5个字段：分 时 日 月 周，如：{@code 0/15 9-18 * * 1-5}
+ * <p>
+ * 每个字段支持 *、数字、范围（a-b）、列表（a,b）和步长（*&#47;n、a/n、a-b/n）；周的0和7都表示周日；日和周都不是 * 时，满足任意一个即可
+ *
+ * @author pantao
+ * @since 1.1.0
+ */
+public final class CronExpression {
+
+    private static final int MAX_YEARS = 8;
+
+    private final String expression;
+
+    private final BitSet minutes;
+
+    private final BitSet hours;
+
+    private final BitSet days;
+
+    private final BitSet months;
+
+    private final BitSet weekdays;
+
+    private final boolean anyDay;
+
+    private final boolean anyWeekday;
+
+    private CronExpression(String expression) {
+        String[] fields = expression.trim().split("\\s+");
+        if (fields.length != 5) {
+            throw new IllegalArgumentException("cron expression must have 5 fields: " + expression);
+        }
+        this.expression = expression;
+        this.minutes = parseField(fields[0], 0, 59);
+        this.hours = parseField(fields[1], 0, 23);
+        this.days = parseField(fields[2], 1, 31);
+        this.months = parseField(fields[3], 1, 12);
+        this.weekdays = parseField(fields[4], 0, 7);
+        if (weekdays.get(7)) {
+            weekdays.set(0);
+        }
+        this.anyDay = "*".equals(fields[2]) || "?".equals(fields[2]);
+        this.anyWeekday = "*".equals(fields[4]) || "?".equals(fields[4]);
+    }
+
+    /**
+     * 解析cron表达式
+     *
+     * @param expression 表达式
+     *
+     * @return {@link CronExpression}
+     *
+     * @throws IllegalArgumentException 表达式格式不正确
+     */
+    public static CronExpression parse(String expression) {
+        if (Checker.isEmpty(expression)) {
+            throw new IllegalArgumentException("cron expression must not be empty");
+        }
+        return new CronExpression(expression);
+    }
+
+    private static BitSet parseField(String field, int min, int max) {
+        BitSet bits = new BitSet(max + 1);
+        for (String part : field.split(",")) {
+            int step = 1;
+            int slash = part.indexOf('/');
+            if (slash >= 0) {
+                step = parseNumber(part.substring(slash + 1), 1, max);
+                part = part.substring(0, slash);
+            }
+            int from;
+            int to;
+            if ("*".equals(part) || "?".equals(part)) {
+                from = min;
+                to = max;
+            } else {
+                int dash = part.indexOf('-');
+                if (dash > 0) {
+                    from = parseNumber(part.substring(0, dash), min, max);
+                    to = parseNumber(part.substring(dash + 1), min, max);
+                } else {
+                    from = parseNumber(part, min, max);
+                    // a/n 表示从a开始到最大值
+                    to = slash >= 0 ? max : from;
+                }
+            }
+            if (from > to) {
+                throw new IllegalArgumentException("illegal range in cron field: " + field);
+            }
+            for (int i = from; i <= to; i += step) {
+                bits.set(i);
+            }
+        }
+        return bits;
+    }
+
+    private static int parseNumber(String value, int min, int max) {
+        try {
+            int number = Integer.parseInt(value);
+            if (number < min || number > max) {
+                String range = "[" + min + ", " + max + "]";
+                throw new IllegalArgumentException("cron value " + number + " out of range " + range);
+            }
+            return number;
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("illegal cron value: " + value);
+        }
+    }
+
+    /**
+     * 计算指定时间之后（不含）的下一个触发时间，精确到分钟
+     *
+     * @param after 起始时间
+     *
+     * @return 下一个触发时间，在若干年内都不会触发时返回null（如：2月30日）
+     */
+    public ZonedDateTime next(ZonedDateTime after) {
+        ZonedDateTime time = after.truncatedTo(ChronoUnit.MINUTES).plusMinutes(1);
+        ZonedDateTime limit = time.plusYears(MAX_YEARS);
+        while (time.isBefore(limit)) {
+            if (!months.get(time.getMonthValue())) {
+                time = time.withDayOfMonth(1).truncatedTo(ChronoUnit.DAYS).plusMonths(1);
+            } else if (!matchesDay(time)) {
+                time = time.truncatedTo(ChronoUnit.DAYS).plusDays(1);
+            } else if (!hours.get(time.getHour())) {
+                time = time.truncatedTo(ChronoUnit.HOURS).plusHours(1);
+            } else if (!minutes.get(time.getMinute())) {
+                time = time.plusMinutes(1);
+            } else {
+                return time;
+            }
+        }
+        return null;
+    }
+
+    private boolean matchesDay(ZonedDateTime time) {
+        boolean day = days.get(time.getDayOfMonth());
+        boolean weekday = weekdays.get(time.getDayOfWeek().getValue() % 7);
+        if (anyDay || anyWeekday) {
+            return day && weekday;
+        }
+        return day || weekday;
+    }
+
+    @Override
+    public String toString() {
+        return expression;
+    }
+}
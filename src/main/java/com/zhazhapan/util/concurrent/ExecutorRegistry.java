@@ -0,0 +1,262 @@
+package com.zhazhapan.util.concurrent;
+
+import com.zhazhapan.util.Checker;
+import com.zhazhapan.util.model.PoolMetrics;
+import org.apache.log4j.Logger;
+
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.function.Function;
+
+/**
+ * 按名称隔离的执行器注册表，不同类型的任务使用各自的执行器，避免慢IO占满CPU任务的线程
+ * <p>
+ * 支持在截止时间内优雅关闭（先停止接收新任务，等待已提交的任务完成，超时后再中断）、运行时调整线程数，以及在JVM退出时自动关闭
+ *
+ * @author pantao
+ * @since 1.1.0
+ */
+public class ExecutorRegistry {
+
+    /**
+     * 默认的关闭等待时长（毫秒）
+     */
+    public static final long DEFAULT_DRAIN_TIMEOUT = 30000;
+
+    private static Logger logger = Logger.getLogger(ExecutorRegistry.class);
+
+    private final Map<String, ExecutorService> executors = new ConcurrentHashMap<>(8);
+
+    private final Function<String, ExecutorService> factory;
+
+    private volatile long drainTimeout = DEFAULT_DRAIN_TIMEOUT;
+
+    private Thread shutdownHook = null;
+
+    /**
+     * 新建注册表
+     *
+     * @param factory 执行器不存在时按名称新建执行器
+     */
+    public ExecutorRegistry(Function<String, ExecutorService> factory) {
+        this.factory = factory;
+    }
+
+    /**
+     * 优雅关闭执行器：停止接收新任务，在截止时间前等待已提交的任务完成，超时后中断正在执行的任务
+     *
+     * @param executor {@link ExecutorService}
+     * @param timeout 等待时长
+     * @param unit 时间单位
+     *
+     * @return 是否在截止时间前执行完所有任务
+     */
+    public static boolean shutdownGracefully(ExecutorService executor, long timeout, TimeUnit unit) {
+        executor.shutdown();
+        return awaitOrForce(executor, System.nanoTime() + unit.toNanos(timeout));
+    }
+
+    private static boolean awaitOrForce(ExecutorService executor, long deadline) {
+        try {
+            if (executor.awaitTermination(Math.max(0, deadline - System.nanoTime()), TimeUnit.NANOSECONDS)) {
+                return true;
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        List<Runnable> dropped = executor.shutdownNow();
+        if (!dropped.isEmpty()) {
+            logger.warn(dropped.size() + " tasks were dropped when shutting down executor");
+        }
+        return false;
+    }
+
+    /**
+     * 获取执行器，不存在时新建
+     *
+     * @param name 执行器名称
+     *
+     * @return {@link ExecutorService}
+     */
+    public ExecutorService get(String name) {
+        return executors.computeIfAbsent(name, factory);
+    }
+
+    /**
+     * 查找执行器，不存在时返回null
+     *
+     * @param name 执行器名称
+     *
+     * @return {@link ExecutorService}
+     */
+    public ExecutorService find(String name) {
+        return executors.get(name);
+    }
+
+    /**
+     * 注册执行器，返回被替换的执行器（不会关闭它）
+     *
+     * @param name 执行器名称
+     * @param executor {@link ExecutorService}
+     *
+     * @return 被替换的执行器，没有时返回null
+     */
+    public ExecutorService register(String name, ExecutorService executor) {
+        return executors.put(name, executor);
+    }
+
+    /**
+     * 移除执行器（不会关闭它）
+     *
+     * @param name 执行器名称
+     *
+     * @return 被移除的执行器，没有时返回null
+     */
+    public ExecutorService remove(String name) {
+        return executors.remove(name);
+    }
+
+    /**
+     * 获取所有已创建的执行器名称
+     *
+     * @return {@link Set}
+     */
+    public Set<String> names() {
+        return Collections.unmodifiableSet(new TreeSet<>(executors.keySet()));
+    }
+
+    /**
+     * 运行时调整线程数，只支持 {@link ThreadPoolExecutor}
+     *
+     * @param name 执行器名称
+     * @param core 核心线程数
+     * @param maximum 最大线程数
+     *
+     * @throws UnsupportedOperationException 执行器不是 {@link ThreadPoolExecutor} 时抛出
+     */
+    public void resize(String name, int core, int maximum) {
+        ExecutorService executor = get(name);
+        if (!(executor instanceof ThreadPoolExecutor)) {
+            String type = executor.getClass().getName();
+            throw new UnsupportedOperationException("executor '" + name + "' can't be resized: " + type);
+        }
+        resize((ThreadPoolExecutor) executor, core, maximum);
+    }
+
+    /**
+     * 调整线程数，按扩大或缩小的方向决定设置顺序，保证任何时刻核心线程数都不大于最大线程数
+     *
+     * @param executor {@link ThreadPoolExecutor}
+     * @param core 核心线程数
+     * @param maximum 最大线程数
+     */
+    public static void resize(ThreadPoolExecutor executor, int core, int maximum) {
+        if (core < 0 || maximum <= 0 || maximum < core) {
+            throw new IllegalArgumentException("illegal pool size: core " + core + ", max " + maximum);
+        }
+        if (maximum >= executor.getMaximumPoolSize()) {
+            executor.setMaximumPoolSize(maximum);
+            executor.setCorePoolSize(core);
+        } else {
+            executor.setCorePoolSize(core);
+            executor.setMaximumPoolSize(maximum);
+        }
+    }
+
+    /**
+     * 优雅关闭并移除执行器
+     *
+     * @param name 执行器名称
+     * @param timeout 等待时长
+     * @param unit 时间单位
+     *
+     * @return 是否在截止时间前执行完所有任务，执行器不存在时返回true
+     */
+    public boolean shutdown(String name, long timeout, TimeUnit unit) {
+        ExecutorService executor = executors.remove(name);
+        return Checker.isNull(executor) || shutdownGracefully(executor, timeout, unit);
+    }
+
+    /**
+     * 同时关闭并移除所有执行器，所有执行器共用同一个截止时间
+     *
+     * @param timeout 等待时长
+     * @param unit 时间单位
+     *
+     * @return 每个执行器是否在截止时间前执行完所有任务
+     */
+    public Map<String, Boolean> shutdownAll(long timeout, TimeUnit unit) {
+        long deadline = System.nanoTime() + unit.toNanos(timeout);
+        Map<String, ExecutorService> removed = new TreeMap<>();
+        for (String name : new ArrayList<>(executors.keySet())) {
+            ExecutorService executor = executors.remove(name);
+            if (Checker.isNotNull(executor)) {
+                executor.shutdown();
+                removed.put(name, executor);
+            }
+        }
+        Map<String, Boolean> drained = new TreeMap<>();
+        removed.forEach((name, executor) -> drained.put(name, awaitOrForce(executor, deadline)));
+        return drained;
+    }
+
+    /**
+     * 获取所有 {@link ThreadPoolExecutor} 的运行指标
+     *
+     * @return 执行器名称与指标的映射
+     */
+    public Map<String, PoolMetrics> getMetrics() {
+        Map<String, PoolMetrics> metrics = new TreeMap<>();
+        executors.forEach((name, executor) -> {
+            if (executor instanceof ThreadPoolExecutor) {
+                PoolMetrics metric = MonitoredThreadPoolExecutor.metricsOf((ThreadPoolExecutor) executor);
+                metric.name = name;
+                metrics.put(name, metric);
+            }
+        });
+        return metrics;
+    }
+
+    /**
+     * 注册JVM关闭钩子，退出时在 {@link #getDrainTimeout()} 内关闭所有执行器，重复调用无效
+     */
+    public synchronized void installShutdownHook() {
+        if (Checker.isNull(shutdownHook)) {
+            Runnable hook = () -> shutdownAll(drainTimeout, TimeUnit.MILLISECONDS);
+            shutdownHook = new Thread(hook, "executor-registry-shutdown");
+            Runtime.getRuntime().addShutdownHook(shutdownHook);
+        }
+    }
+
+    /**
+     * 移除JVM关闭钩子
+     */
+    public synchronized void removeShutdownHook() {
+        if (Checker.isNotNull(shutdownHook)) {
+            try {
+                Runtime.getRuntime().removeShutdownHook(shutdownHook);
+            } catch (IllegalStateException e) {
+                // JVM正在退出
+            }
+            shutdownHook = null;
+        }
+    }
+
+    /**
+     * 获取JVM退出时的关闭等待时长（毫秒）
+     *
+     * @return {@link Long}
+     */
+    public long getDrainTimeout() {
+        return drainTimeout;
+    }
+
+    /**
+     * 设置JVM退出时的关闭等待时长（毫秒）
+     *
+     * @param drainTimeout 等待时长
+     */
+    public void setDrainTimeout(long drainTimeout) {
+        this.drainTimeout = drainTimeout;
+    }
+}
@@ -0,0 +1,355 @@
+package com.zhazhapan.util.concurrent;
+
+import com.zhazhapan.util.Checker;
+import org.apache.log4j.Logger;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * 时间轮定时器，适合大量的延时任务（如重试、超时），添加和取消都是O(1)，精度为一个刻度
+ * <p>
+ * {@link ScheduledThreadPoolExecutor} 使用堆，任务数很大时入队出队都是O(log n)并且需要加锁；时间轮把任务按到期的刻度放进环形数组的
+ * 槽位中，延时超过一圈的任务记录剩余圈数，由单个工作线程每个刻度处理一个槽位
+ *
+ * @author pantao
+ * @since 1.1.0
+ */
+public class HashedWheelTimer implements AutoCloseable {
+
+    /**
+     * 默认的刻度时长（毫秒）
+     */
+    public static final long DEFAULT_TICK = 10;
+
+    /**
+     * 默认的槽位数
+     */
+    public static final int DEFAULT_WHEEL_SIZE = 512;
+
+    private static Logger logger = Logger.getLogger(HashedWheelTimer.class);
+
+    private final long tickNanos;
+
+    private final Bucket[] wheel;
+
+    private final int mask;
+
+    private final Executor executor;
+
+    private final Queue<Timeout> pending = new ConcurrentLinkedQueue<>();
+
+    private final Queue<Timeout> cancelled = new ConcurrentLinkedQueue<>();
+
+    private final LongAdder pendingCount = new LongAdder();
+
+    private final long startTime = System.nanoTime();
+
+    private final Thread worker;
+
+    private volatile boolean closed = false;
+
+    private long tick = 0;
+
+    /**
+     * 使用默认的刻度和槽位数，到期的任务在定时器线程中执行
+     *
+     * @param name 定时器线程名
+     */
+    public HashedWheelTimer(String name) {
+        this(name, DEFAULT_TICK, TimeUnit.MILLISECONDS, DEFAULT_WHEEL_SIZE, null);
+    }
+
+    /**
+     * 新建时间轮定时器
+     *
+     * @param name 定时器线程名
+     * @param tick 刻度时长
+     * @param unit 时间单位
+     * @param wheelSize 槽位数，会向上取整为2的幂
+     * @param executor 执行到期任务的线程池，为null时在定时器线程中执行（任务需要足够快）
+     */
+    public HashedWheelTimer(String name, long tick, TimeUnit unit, int wheelSize, Executor executor) {
+        if (tick <= 0 || wheelSize <= 0) {
+            throw new IllegalArgumentException("tick and wheel size must be positive");
+        }
+        this.tickNanos = Math.max(TimeUnit.MILLISECONDS.toNanos(1), unit.toNanos(tick));
+        int size = Integer.highestOneBit(Math.min(1 << 30, wheelSize));
+        size = size < wheelSize ? size << 1 : size;
+        this.wheel = new Bucket[size];
+        for (int i = 0; i < size; i++) {
+            wheel[i] = new Bucket();
+        }
+        this.mask = size - 1;
+        this.executor = executor;
+        this.worker = new NamedThreadFactory(name).newThread(this::work);
+        this.worker.start();
+    }
+
+    /**
+     * 添加延时任务
+     *
+     * @param task 任务
+     * @param delay 延时
+     * @param unit 时间单位
+     *
+     * @return {@link Timeout}
+     *
+     * @throws RejectedExecutionException 定时器已关闭
+     */
+    public Timeout newTimeout(Runnable task, long delay, TimeUnit unit) {
+        if (closed) {
+            throw new RejectedExecutionException("timer has been closed");
+        }
+        long deadline = System.nanoTime() - startTime + unit.toNanos(Math.max(0, delay));
+        // 防止溢出
+        Timeout timeout = new Timeout(task, deadline < 0 ? Long.MAX_VALUE : deadline);
+        pendingCount.increment();
+        pending.add(timeout);
+        return timeout;
+    }
+
+    /**
+     * 获取未到期的任务数
+     *
+     * @return {@link Long}
+     */
+    public long getPendingCount() {
+        return pendingCount.sum();
+    }
+
+    /**
+     * 停止定时器，未到期的任务不再执行
+     *
+     * @return 未执行的任务
+     */
+    public List<Runnable> stop() {
+        closed = true;
+        LockSupport.unpark(worker);
+        if (Thread.currentThread() != worker) {
+            try {
+                worker.join();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        List<Runnable> tasks = new ArrayList<>();
+        for (Bucket bucket : wheel) {
+            bucket.drain(tasks);
+        }
+        for (Timeout timeout = pending.poll(); Checker.isNotNull(timeout); timeout = pending.poll()) {
+            if (timeout.state.get() == Timeout.INIT) {
+                tasks.add(timeout.task);
+            }
+        }
+        return tasks;
+    }
+
+    @Override
+    public void close() {
+        stop();
+    }
+
+    private void work() {
+        while (!closed) {
+            long deadline = waitForNextTick();
+            if (closed) {
+                break;
+            }
+            removeCancelled();
+            transferPending();
+            wheel[(int) (tick & mask)].expire(deadline);
+            tick++;
+        }
+    }
+
+    private long waitForNextTick() {
+        long deadline = tickNanos * (tick + 1);
+        long sleep = deadline - (System.nanoTime() - startTime);
+        while (sleep > 0 && !closed) {
+            LockSupport.parkNanos(this, sleep);
+            sleep = deadline - (System.nanoTime() - startTime);
+        }
+        return deadline;
+    }
+
+    private void removeCancelled() {
+        for (Timeout timeout = cancelled.poll(); Checker.isNotNull(timeout); timeout = cancelled.poll()) {
+            if (Checker.isNotNull(timeout.bucket)) {
+                timeout.bucket.remove(timeout);
+            }
+        }
+    }
+
+    private void transferPending() {
+        // 每个刻度最多转移一定数量，避免一次性大量添加时阻塞太久
+        for (int i = 0; i < 100000; i++) {
+            Timeout timeout = pending.poll();
+            if (Checker.isNull(timeout)) {
+                break;
+            }
+            if (timeout.state.get() != Timeout.INIT) {
+                continue;
+            }
+            long calculated = timeout.deadline / tickNanos;
+            timeout.remainingRounds = (calculated - tick) / wheel.length;
+            wheel[(int) (Math.max(calculated, tick) & mask)].add(timeout);
+        }
+    }
+
+    private void run(Timeout timeout) {
+        try {
+            if (Checker.isNull(executor)) {
+                timeout.task.run();
+            } else {
+                executor.execute(timeout.task);
+            }
+        } catch (Throwable e) {
+            logger.error("timer task failed: " + e.getMessage(), e);
+        }
+    }
+
+    /**
+     * 延时任务的句柄
+     */
+    public final class Timeout {
+
+        private static final int INIT = 0;
+
+        private static final int CANCELLED = 1;
+
+        private static final int EXPIRED = 2;
+
+        private final Runnable task;
+
+        private final long deadline;
+
+        private final AtomicInteger state = new AtomicInteger(INIT);
+
+        private long remainingRounds;
+
+        private Bucket bucket;
+
+        private Timeout next;
+
+        private Timeout prev;
+
+        private Timeout(Runnable task, long deadline) {
+            this.task = task;
+            this.deadline = deadline;
+        }
+
+        /**
+         * 取消任务
+         *
+         * @return 是否取消成功，已到期或已取消时返回false
+         */
+        public boolean cancel() {
+            if (!state.compareAndSet(INIT, CANCELLED)) {
+                return false;
+            }
+            pendingCount.decrement();
+            cancelled.add(this);
+            return true;
+        }
+
+        /**
+         * 是否已取消
+         *
+         * @return {@link Boolean}
+         */
+        public boolean isCancelled() {
+            return state.get() == CANCELLED;
+        }
+
+        /**
+         * 是否已到期
+         *
+         * @return {@link Boolean}
+         */
+        public boolean isExpired() {
+            return state.get() == EXPIRED;
+        }
+
+        /**
+         * 获取任务
+         *
+         * @return {@link Runnable}
+         */
+        public Runnable getTask() {
+            return task;
+        }
+    }
+
+    /**
+     * 槽位，双向链表，只由工作线程访问
+     */
+    private final class Bucket {
+
+        private Timeout head;
+
+        private Timeout tail;
+
+        private void add(Timeout timeout) {
+            timeout.bucket = this;
+            if (Checker.isNull(head)) {
+                head = tail = timeout;
+            } else {
+                tail.next = timeout;
+                timeout.prev = tail;
+                tail = timeout;
+            }
+        }
+
+        private Timeout remove(Timeout timeout) {
+            Timeout next = timeout.next;
+            if (Checker.isNotNull(timeout.prev)) {
+                timeout.prev.next = next;
+            }
+            if (Checker.isNotNull(next)) {
+                next.prev = timeout.prev;
+            }
+            if (timeout == head) {
+                head = next;
+            }
+            if (timeout == tail) {
+                tail = timeout.prev;
+            }
+            timeout.prev = null;
+            timeout.next = null;
+            timeout.bucket = null;
+            return next;
+        }
+
+        private void expire(long deadline) {
+            Timeout timeout = head;
+            while (Checker.isNotNull(timeout)) {
+                if (timeout.remainingRounds > 0 || timeout.deadline > deadline) {
+                    timeout.remainingRounds--;
+                    timeout = timeout.next;
+                    continue;
+                }
+                Timeout next = remove(timeout);
+                if (timeout.state.compareAndSet(Timeout.INIT, Timeout.EXPIRED)) {
+                    pendingCount.decrement();
+                    run(timeout);
+                }
+                timeout = next;
+            }
+        }
+
+        private void drain(List<Runnable> tasks) {
+            for (Timeout timeout = head; Checker.isNotNull(timeout); timeout = timeout.next) {
+                if (timeout.state.get() == Timeout.INIT) {
+                    tasks.add(timeout.task);
+                }
+            }
+            head = tail = null;
+        }
+    }
+}
@@ -0,0 +1,117 @@
+package com.zhazhapan.util.concurrent;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 无锁的耗时直方图，按2的幂划分桶（纳秒），分位数的误差不超过一倍，适合在线统计
+ *
+ * @author pantao
+ * @since 1.1.0
+ */
+public class LatencyHistogram {
+
+    private static final int BUCKETS = 64;
+
+    private final AtomicLongArray buckets = new AtomicLongArray(BUCKETS);
+
+    private final LongAdder count = new LongAdder();
+
+    private final LongAdder sum = new LongAdder();
+
+    private final AtomicLong max = new AtomicLong();
+
+    /**
+     * 记录一次耗时
+     *
+     * @param nanos 耗时（纳秒）
+     */
+    public void record(long nanos) {
+        if (nanos < 0) {
+            nanos = 0;
+        }
+        // 第i个桶存放 [2^(i-1), 2^i) 范围内的值，0单独放在第0个桶
+        buckets.incrementAndGet(Long.SIZE - Long.numberOfLeadingZeros(nanos));
+        count.increment();
+        sum.add(nanos);
+        max.accumulateAndGet(nanos, Math::max);
+    }
+
+    /**
+     * 获取记录次数
+     *
+     * @return {@link Long}
+     */
+    public long getCount() {
+        return count.sum();
+    }
+
+    /**
+     * 获取耗时总和（纳秒）
+     *
+     * @return {@link Long}
+     */
+    public long getSum() {
+        return sum.sum();
+    }
+
+    /**
+     * 获取平均耗时（纳秒）
+     *
+     * @return {@link Double}
+     */
+    public double getMean() {
+        long n = count.sum();
+        return n == 0 ? 0 : (double) sum.sum() / n;
+    }
+
+    /**
+     * 获取最大耗时（纳秒）
+     *
+     * @return {@link Long}
+     */
+    public long getMax() {
+        return max.get();
+    }
+
+    /**
+     * 获取分位数（纳秒），返回所在桶的上界
+     *
+     * @param quantile 分位，如：0.99
+     *
+     * @return {@link Long}
+     */
+    public long getPercentile(double quantile) {
+        long total = 0;
+        long[] snapshot = new long[BUCKETS];
+        for (int i = 0; i < BUCKETS; i++) {
+            snapshot[i] = buckets.get(i);
+            total += snapshot[i];
+        }
+        if (total == 0) {
+            return 0;
+        }
+        long rank = (long) Math.ceil(Math.min(1, Math.max(0, quantile)) * total);
+        long seen = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            seen += snapshot[i];
+            if (seen >= rank && snapshot[i] > 0) {
+                return Math.min(i == 0 ? 0 : (1L << i) - 1, max.get());
+            }
+        }
+        return max.get();
+    }
+
+    /**
+     * 清空记录
+     */
+    public void reset() {
+        for (int i = 0; i < BUCKETS; i++) {
+            buckets.set(i, 0);
+        }
+        count.reset();
+        sum.reset();
+        max.set(0);
+    }
+}
@@ -0,0 +1,88 @@
+package com.zhazhapan.util.concurrent;
+
+import com.zhazhapan.util.interfaces.IRateLimiter;
+
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 漏桶限流器：请求以恒定的间隔流出，不允许突发；桶中最多容纳 capacity 个等待中的请求，溢出时拒绝
+ *
+ * @author pantao
+ * @since 1.1.0
+ */
+public class LeakyBucketRateLimiter implements IRateLimiter {
+
+    private final double intervalNanos;
+
+    private final int capacity;
+
+    private long nextFreeTime;
+
+    /**
+     * 新建漏桶限流器
+     *
+     * @param permitsPerSecond 每秒流出的请求数
+     * @param capacity 桶容量（最多等待的请求数）
+     */
+    public LeakyBucketRateLimiter(double permitsPerSecond, int capacity) {
+        if (permitsPerSecond <= 0 || capacity < 0) {
+            throw new IllegalArgumentException("rate must be positive and capacity must not be negative");
+        }
+        this.intervalNanos = TimeUnit.SECONDS.toNanos(1) / permitsPerSecond;
+        this.capacity = capacity;
+        this.nextFreeTime = System.nanoTime();
+    }
+
+    /**
+     * 预定许可
+     *
+     * @param permits 许可数
+     *
+     * @return 需要等待的时长（纳秒）
+     *
+     * @throws RejectedExecutionException 桶已满
+     */
+    @Override
+    public synchronized long reserve(int permits) {
+        long now = System.nanoTime();
+        long wait = waitTime(now);
+        if (wait > capacity * intervalNanos) {
+            throw new RejectedExecutionException("leaky bucket overflow");
+        }
+        nextFreeTime = Math.max(nextFreeTime, now) + (long) (permits * intervalNanos);
+        return wait;
+    }
+
+    @Override
+    public boolean tryAcquire(int permits, long timeout, TimeUnit unit) throws InterruptedException {
+        long wait;
+        synchronized (this) {
+            long current = waitTime(System.nanoTime());
+            if (current > unit.toNanos(timeout) || current > capacity * intervalNanos) {
+                return false;
+            }
+            wait = reserve(permits);
+        }
+        TimeUnit.NANOSECONDS.sleep(wait);
+        return true;
+    }
+
+    private long waitTime(long now) {
+        return Math.max(0, nextFreeTime - now);
+    }
+
+    @Override
+    public double getRate() {
+        return TimeUnit.SECONDS.toNanos(1) / intervalNanos;
+    }
+
+    /**
+     * 获取桶中等待的请求数
+     *
+     * @return {@link Integer}
+     */
+    public synchronized int getQueued() {
+        return (int) Math.ceil(waitTime(System.nanoTime()) / intervalNanos);
+    }
+}
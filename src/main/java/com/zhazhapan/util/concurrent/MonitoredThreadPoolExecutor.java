@@ -0,0 +1,292 @@
+package com.zhazhapan.util.concurrent;
+
+import com.zhazhapan.util.Checker;
+import com.zhazhapan.util.model.PoolMetrics;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 可观测的线程池，记录任务的排队耗时、执行耗时以及被拒绝的次数
+ * <p>
+ * 提交的任务会被包装后放入队列，所以 {@link #getQueue()} 中的元素不是原始任务，{@link #remove(Runnable)} 和
+ * {@link #shutdownNow()} 已做处理
+ * <p>
+ * 使用没有比较器的 {@link PriorityBlockingQueue} 时按原始任务（{@link #submit(Callable)} 提交的Callable或Runnable）排序，
+ * 原始任务必须实现 {@link Comparable}，否则提交时抛出 {@link IllegalArgumentException}；使用比较器时见 {@link #unwrap(Runnable)}
+ *
+ * @author pantao
+ * @since 1.1.0
+ */
+public class MonitoredThreadPoolExecutor extends ThreadPoolExecutor {
+
+    private final String name;
+
+    private final LatencyHistogram taskLatency = new LatencyHistogram();
+
+    private final LatencyHistogram queueWait = new LatencyHistogram();
+
+    private final LongAdder rejected = new LongAdder();
+
+    private final boolean comparableRequired;
+
+    /**
+     * 新建线程池
+     *
+     * @param name 线程池名称
+     * @param corePoolSize 核心线程数
+     * @param maximumPoolSize 最大线程数
+     * @param keepAliveTime 空闲线程存活时长
+     * @param unit 时间单位
+     * @param workQueue 任务队列
+     * @param threadFactory 线程工厂
+     * @param handler 拒绝策略
+     */
+    public MonitoredThreadPoolExecutor(String name, int corePoolSize, int maximumPoolSize, long keepAliveTime,
+                                       TimeUnit unit, BlockingQueue<Runnable> workQueue, ThreadFactory threadFactory,
+                                       RejectedExecutionHandler handler) {
+        super(corePoolSize, maximumPoolSize, keepAliveTime, unit, workQueue, threadFactory, new AbortPolicy());
+        this.name = name;
+        this.comparableRequired = workQueue instanceof PriorityBlockingQueue && Checker.isNull((
+                (PriorityBlockingQueue<Runnable>) workQueue).comparator());
+        setRejectedExecutionHandler(handler);
+    }
+
+    /**
+     * 获取队列元素对应的原始任务：去掉统计包装，{@link #submit(Callable)} 等方法提交的任务返回提交时的Callable或Runnable，
+     * 可用于优先级队列的比较器
+     *
+     * @param queued 队列中的元素或提交的任务
+     *
+     * @return 原始任务
+     */
+    public static Object unwrap(Runnable queued) {
+        Runnable task = queued instanceof TimedTask ? ((TimedTask) queued).task : queued;
+        return task instanceof SourceFutureTask ? ((SourceFutureTask<?>) task).source : task;
+    }
+
+    /**
+     * 获取任意线程池的运行指标，非 {@link MonitoredThreadPoolExecutor} 没有耗时和拒绝统计
+     *
+     * @param executor {@link ThreadPoolExecutor}
+     *
+     * @return {@link PoolMetrics}
+     */
+    public static PoolMetrics metricsOf(ThreadPoolExecutor executor) {
+        if (executor instanceof MonitoredThreadPoolExecutor) {
+            return ((MonitoredThreadPoolExecutor) executor).getMetrics();
+        }
+        PoolMetrics metrics = new PoolMetrics();
+        fill(metrics, executor);
+        return metrics;
+    }
+
+    private static void fill(PoolMetrics metrics, ThreadPoolExecutor executor) {
+        metrics.poolSize = executor.getPoolSize();
+        metrics.corePoolSize = executor.getCorePoolSize();
+        metrics.maximumPoolSize = executor.getMaximumPoolSize();
+        metrics.largestPoolSize = executor.getLargestPoolSize();
+        metrics.activeThreads = executor.getActiveCount();
+        metrics.queueDepth = executor.getQueue().size();
+        metrics.queueRemainingCapacity = executor.getQueue().remainingCapacity();
+        metrics.completedTasks = executor.getCompletedTaskCount();
+    }
+
+    @Override
+    public void execute(Runnable command) {
+        if (Checker.isNull(command)) {
+            throw new NullPointerException();
+        }
+        if (comparableRequired && !(unwrap(command) instanceof Comparable)) {
+            throw new IllegalArgumentException("task in priority queue must implement Comparable, or build the pool " +
+                    "with a comparator: " + unwrap(command).getClass().getName());
+        }
+        super.execute(command instanceof TimedTask ? command : new TimedTask(command));
+    }
+
+    @Override
+    protected <T> RunnableFuture<T> newTaskFor(Runnable runnable, T value) {
+        return new SourceFutureTask<>(runnable, value);
+    }
+
+    @Override
+    protected <T> RunnableFuture<T> newTaskFor(Callable<T> callable) {
+        return new SourceFutureTask<>(callable);
+    }
+
+    @Override
+    public boolean remove(Runnable task) {
+        for (Runnable queued : getQueue()) {
+            if (queued instanceof TimedTask && ((TimedTask) queued).task == task) {
+                return super.remove(queued);
+            }
+        }
+        return super.remove(task);
+    }
+
+    /**
+     * 取出队列中所有未执行的任务，去掉统计包装，可以提交到其他线程池
+     *
+     * @return 未执行的任务，{@link #submit(Callable)} 等方法提交的任务为对应的 {@link Future}
+     */
+    public List<Runnable> drainQueue() {
+        List<Runnable> pending = new ArrayList<>();
+        getQueue().drainTo(pending);
+        pending.replaceAll(runnable -> runnable instanceof TimedTask ? ((TimedTask) runnable).task : runnable);
+        return pending;
+    }
+
+    @Override
+    public List<Runnable> shutdownNow() {
+        List<Runnable> pending = super.shutdownNow();
+        List<Runnable> tasks = new ArrayList<>(pending.size());
+        for (Runnable runnable : pending) {
+            tasks.add(runnable instanceof TimedTask ? ((TimedTask) runnable).task : runnable);
+        }
+        return tasks;
+    }
+
+    @Override
+    public void setRejectedExecutionHandler(RejectedExecutionHandler handler) {
+        super.setRejectedExecutionHandler(handler instanceof CountingHandler ? handler : new CountingHandler(handler));
+    }
+
+    @Override
+    public RejectedExecutionHandler getRejectedExecutionHandler() {
+        return ((CountingHandler) super.getRejectedExecutionHandler()).delegate;
+    }
+
+    /**
+     * 获取当前的运行指标
+     *
+     * @return {@link PoolMetrics}
+     */
+    public PoolMetrics getMetrics() {
+        PoolMetrics metrics = new PoolMetrics();
+        metrics.name = name;
+        fill(metrics, this);
+        metrics.rejectedTasks = rejected.sum();
+        metrics.taskLatencyMean = taskLatency.getMean();
+        metrics.taskLatencyP50 = taskLatency.getPercentile(0.5);
+        metrics.taskLatencyP99 = taskLatency.getPercentile(0.99);
+        metrics.taskLatencyMax = taskLatency.getMax();
+        metrics.queueWaitP50 = queueWait.getPercentile(0.5);
+        metrics.queueWaitP99 = queueWait.getPercentile(0.99);
+        return metrics;
+    }
+
+    /**
+     * 获取任务执行耗时的直方图
+     *
+     * @return {@link LatencyHistogram}
+     */
+    public LatencyHistogram getTaskLatency() {
+        return taskLatency;
+    }
+
+    /**
+     * 获取任务排队耗时的直方图
+     *
+     * @return {@link LatencyHistogram}
+     */
+    public LatencyHistogram getQueueWait() {
+        return queueWait;
+    }
+
+    /**
+     * 获取被拒绝的任务数
+     *
+     * @return {@link Long}
+     */
+    public long getRejectedCount() {
+        return rejected.sum();
+    }
+
+    /**
+     * 获取线程池名称
+     *
+     * @return {@link String}
+     */
+    public String getName() {
+        return name;
+    }
+
+    @Override
+    public String toString() {
+        return getMetrics().toString();
+    }
+
+    /**
+     * 统计拒绝次数的拒绝策略
+     */
+    private class CountingHandler implements RejectedExecutionHandler {
+
+        private final RejectedExecutionHandler delegate;
+
+        private CountingHandler(RejectedExecutionHandler delegate) {
+            this.delegate = Checker.isNull(delegate) ? new AbortPolicy() : delegate;
+        }
+
+        @Override
+        public void rejectedExecution(Runnable runnable, ThreadPoolExecutor executor) {
+            rejected.increment();
+            delegate.rejectedExecution(runnable, executor);
+        }
+    }
+
+    /**
+     * 保留原始任务的 {@link FutureTask}，优先级队列按原始任务比较
+     */
+    private static class SourceFutureTask<T> extends FutureTask<T> {
+
+        private final Object source;
+
+        private SourceFutureTask(Callable<T> callable) {
+            super(callable);
+            this.source = callable;
+        }
+
+        private SourceFutureTask(Runnable runnable, T value) {
+            super(runnable, value);
+            this.source = runnable;
+        }
+    }
+
+    /**
+     * 记录入队时间的任务，优先级队列中按原始任务比较
+     */
+    private class TimedTask implements Runnable, Comparable<TimedTask> {
+
+        private final Runnable task;
+
+        private final long enqueuedAt = System.nanoTime();
+
+        private TimedTask(Runnable task) {
+            this.task = task;
+        }
+
+        @Override
+        public void run() {
+            long start = System.nanoTime();
+            queueWait.record(start - enqueuedAt);
+            try {
+                task.run();
+            } finally {
+                taskLatency.record(System.nanoTime() - start);
+            }
+        }
+
+        @Override
+        @SuppressWarnings("unchecked")
+        public int compareTo(TimedTask other) {
+            return ((Comparable<Object>) unwrap(task)).compareTo(unwrap(other.task));
+        }
+
+        @Override
+        public String toString() {
+            return task.toString();
+        }
+    }
+}
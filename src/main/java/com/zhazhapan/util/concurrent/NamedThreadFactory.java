@@ -0,0 +1,65 @@
+package com.zhazhapan.util.concurrent;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinWorkerThread;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 带名称前缀的线程工厂，线程名如：io-1、io-2，同时可作为 {@link ForkJoinPool} 的线程工厂
+ *
+ * @author pantao
+ * @since 1.1.0
+ */
+public class NamedThreadFactory implements ThreadFactory, ForkJoinPool.ForkJoinWorkerThreadFactory {
+
+    private final String prefix;
+
+    private final boolean daemon;
+
+    private final AtomicInteger count = new AtomicInteger(0);
+
+    /**
+     * 新建守护线程工厂
+     *
+     * @param prefix 线程名前缀
+     */
+    public NamedThreadFactory(String prefix) {
+        this(prefix, true);
+    }
+
+    /**
+     * 新建线程工厂
+     *
+     * @param prefix 线程名前缀
+     * @param daemon 是否为守护线程
+     */
+    public NamedThreadFactory(String prefix, boolean daemon) {
+        this.prefix = prefix;
+        this.daemon = daemon;
+    }
+
+    @Override
+    public Thread newThread(Runnable runnable) {
+        Thread thread = new Thread(runnable, prefix + "-" + count.incrementAndGet());
+        thread.setDaemon(daemon);
+        return thread;
+    }
+
+    @Override
+    public ForkJoinWorkerThread newThread(ForkJoinPool pool) {
+        ForkJoinWorkerThread thread = ForkJoinPool.defaultForkJoinWorkerThreadFactory.newThread(pool);
+        thread.setName(prefix + "-" + count.incrementAndGet());
+        thread.setDaemon(daemon);
+        return thread;
+    }
+
+    /**
+     * 获取线程名前缀
+     *
+     * @return {@link String}
+     */
+    public String getPrefix() {
+        return prefix;
+    }
+}
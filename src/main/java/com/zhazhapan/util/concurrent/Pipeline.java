@@ -0,0 +1,495 @@
+package com.zhazhapan.util.concurrent;
+
+import com.zhazhapan.util.Checker;
+import com.zhazhapan.util.interfaces.IStageFunction;
+import com.zhazhapan.util.model.StageMetrics;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 流水线，由数据源和若干阶段串联而成，相邻阶段之间用有界队列连接，每个阶段可以有多个并行的工作线程
+ * <p>
+ * 下游处理不过来时队列被填满，上游随之阻塞（背压）；任意阶段抛出异常时整条流水线被取消。如：扫描文件夹、并行计算哈希、批量复制：
+ * {@code Pipeline.from("copy", FileExecutor.scanFolder(folder)).map("hash", 4, path -> hash(path)).batch("group", 32,
+ * 100, TimeUnit.MILLISECONDS).map("copy", 2, batch -> copy(batch)).run()}
+ * <p>
+ * 工作线程大部分时间阻塞在队列上，所以每个阶段使用独立的线程，不占用 {@link com.zhazhapan.util.ThreadPool} 中的线程，避免互相等待
+ *
+ * @param <T> 当前最后一个阶段的输出类型
+ *
+ * @author pantao
+ * @since 1.1.0
+ */
+public class Pipeline<T> {
+
+    /**
+     * 默认的队列容量
+     */
+    public static final int DEFAULT_BUFFER = 256;
+
+    /**
+     * 数据源阶段的名称
+     */
+    public static final String SOURCE = "source";
+
+    private static final Object END = new Object();
+
+    private final String name;
+
+    private final List<Stage> stages = new ArrayList<>();
+
+    private Pipeline(String name, Iterable<?> source) {
+        this.name = name;
+        Stage stage = new Stage(SOURCE, StageType.SOURCE, 1);
+        stage.source = source;
+        stages.add(stage);
+    }
+
+    /**
+     * 以可迭代对象为数据源新建流水线，数据源在单独的线程中迭代
+     *
+     * @param name 名称，用作线程名前缀
+     * @param source 数据源
+     * @param <T> 元素类型
+     *
+     * @return {@link Pipeline}
+     */
+    public static <T> Pipeline<T> from(String name, Iterable<T> source) {
+        if (Checker.isNull(source)) {
+            throw new IllegalArgumentException("source must not be null");
+        }
+        return new Pipeline<>(name, source);
+    }
+
+    /**
+     * 添加转换阶段
+     *
+     * @param name 阶段名称
+     * @param parallelism 并行数，大于1时输出顺序不确定
+     * @param function 处理函数，返回null时不向下游传递
+     * @param <R> 输出类型
+     *
+     * @return {@link Pipeline}
+     */
+    public <R> Pipeline<R> map(String name, int parallelism, IStageFunction<? super T, ? extends R> function) {
+        return add(new Stage(name, StageType.MAP, parallelism), function);
+    }
+
+    /**
+     * 添加展开阶段，处理函数返回的每个元素分别传递给下游
+     *
+     * @param name 阶段名称
+     * @param parallelism 并行数
+     * @param function 处理函数，返回null时不向下游传递
+     * @param <R> 输出类型
+     *
+     * @return {@link Pipeline}
+     */
+    public <R> Pipeline<R> flatMap(String name, int parallelism,
+                                   IStageFunction<? super T, ? extends Iterable<? extends R>> function) {
+        return add(new Stage(name, StageType.FLAT_MAP, parallelism), function);
+    }
+
+    /**
+     * 添加分批阶段，按数量或等待时长把元素攒成一批，适合批量写入、批量复制等
+     *
+     * @param name 阶段名称
+     * @param batchSize 每批最大元素数
+     * @param linger 第一个元素到达后最长等待时长
+     * @param unit 时间单位
+     *
+     * @return {@link Pipeline}
+     */
+    public Pipeline<List<T>> batch(String name, int batchSize, long linger, TimeUnit unit) {
+        if (batchSize <= 0) {
+            throw new IllegalArgumentException("batch size must be positive");
+        }
+        Stage stage = new Stage(name, StageType.BATCH, 1);
+        stage.batchSize = batchSize;
+        stage.lingerNanos = unit.toNanos(Math.max(0, linger));
+        return add(stage, null);
+    }
+
+    /**
+     * 设置最后一个阶段输出队列的容量，默认为 {@link #DEFAULT_BUFFER}
+     *
+     * @param capacity 容量
+     *
+     * @return {@link Pipeline}
+     */
+    public Pipeline<T> buffer(int capacity) {
+        if (capacity <= 0) {
+            throw new IllegalArgumentException("buffer capacity must be positive");
+        }
+        stages.get(stages.size() - 1).buffer = capacity;
+        return this;
+    }
+
+    @SuppressWarnings("unchecked")
+    private <R> Pipeline<R> add(Stage stage, IStageFunction<?, ?> function) {
+        stage.function = (IStageFunction<Object, Object>) function;
+        stages.add(stage);
+        return (Pipeline<R>) this;
+    }
+
+    /**
+     * 启动流水线，同一条流水线可以多次启动，每次都会重新迭代数据源
+     *
+     * @return {@link Execution}
+     */
+    public Execution start() {
+        return new Execution(name, stages).start();
+    }
+
+    /**
+     * 启动流水线并等待执行完成
+     *
+     * @throws InterruptedException 等待时被中断
+     * @throws ExecutionException 某个阶段抛出了异常
+     */
+    public void run() throws InterruptedException, ExecutionException {
+        start().get();
+    }
+
+    /**
+     * 阶段类型
+     */
+    private enum StageType {
+        /**
+         * 数据源
+         */
+        SOURCE,
+        /**
+         * 转换
+         */
+        MAP,
+        /**
+         * 展开
+         */
+        FLAT_MAP,
+        /**
+         * 分批
+         */
+        BATCH
+    }
+
+    /**
+     * 阶段定义
+     */
+    private static class Stage {
+
+        private final String name;
+
+        private final StageType type;
+
+        private final int parallelism;
+
+        private int buffer = DEFAULT_BUFFER;
+
+        private Iterable<?> source;
+
+        private IStageFunction<Object, Object> function;
+
+        private int batchSize;
+
+        private long lingerNanos;
+
+        private Stage(String name, StageType type, int parallelism) {
+            if (Checker.isEmpty(name) || parallelism <= 0) {
+                throw new IllegalArgumentException("stage name must not be empty and parallelism must be positive");
+            }
+            this.name = name;
+            this.type = type;
+            this.parallelism = parallelism;
+        }
+    }
+
+    /**
+     * 阶段的运行状态
+     */
+    private static class StageRun {
+
+        private final Stage stage;
+
+        private final BlockingQueue<Object> in;
+
+        private final LongAdder received = new LongAdder();
+
+        private final LongAdder emitted = new LongAdder();
+
+        private final LongAdder busyNanos = new LongAdder();
+
+        private final LongAdder blockedNanos = new LongAdder();
+
+        private final AtomicInteger running;
+
+        private BlockingQueue<Object> out;
+
+        private volatile long endTime = 0;
+
+        private StageRun(Stage stage, BlockingQueue<Object> in) {
+            this.stage = stage;
+            this.in = in;
+            this.running = new AtomicInteger(stage.parallelism);
+        }
+    }
+
+    /**
+     * 流水线的一次执行
+     */
+    public static final class Execution {
+
+        private final String name;
+
+        private final List<StageRun> runs = new ArrayList<>();
+
+        private final List<Thread> threads = new ArrayList<>();
+
+        private final CompletableFuture<Void> future = new CompletableFuture<>();
+
+        private final long startTime = System.nanoTime();
+
+        private volatile String failedStage = null;
+
+        private Execution(String name, List<Stage> stages) {
+            this.name = name;
+            BlockingQueue<Object> in = null;
+            for (Stage stage : stages) {
+                StageRun run = new StageRun(stage, in);
+                if (!runs.isEmpty()) {
+                    runs.get(runs.size() - 1).out = in;
+                }
+                runs.add(run);
+                in = new ArrayBlockingQueue<>(stage.buffer);
+            }
+        }
+
+        private Execution start() {
+            for (StageRun run : runs) {
+                ThreadFactory factory = new NamedThreadFactory(name + "-" + run.stage.name);
+                for (int i = 0; i < run.stage.parallelism; i++) {
+                    threads.add(factory.newThread(() -> work(run)));
+                }
+            }
+            threads.forEach(Thread::start);
+            return this;
+        }
+
+        private void work(StageRun run) {
+            try {
+                switch (run.stage.type) {
+                    case SOURCE:
+                        produce(run);
+                        break;
+                    case BATCH:
+                        group(run);
+                        break;
+                    default:
+                        transform(run);
+                        break;
+                }
+            } catch (Throwable e) {
+                fail(run.stage.name, e);
+            } finally {
+                if (run.running.decrementAndGet() == 0) {
+                    if (Checker.isNotNull(run.in)) {
+                        run.in.remove(END);
+                    }
+                    run.endTime = System.nanoTime();
+                    finish(run);
+                }
+            }
+        }
+
+        private void produce(StageRun run) throws InterruptedException {
+            for (Object item : run.stage.source) {
+                if (future.isDone()) {
+                    return;
+                }
+                run.received.increment();
+                emit(run, item);
+            }
+        }
+
+        private void transform(StageRun run) throws Exception {
+            while (true) {
+                Object item = run.in.take();
+                if (item == END) {
+                    // 放回结束标记，让同阶段的其他线程也能结束
+                    run.in.put(END);
+                    return;
+                }
+                run.received.increment();
+                long start = System.nanoTime();
+                Object result = run.stage.function.apply(item);
+                run.busyNanos.add(System.nanoTime() - start);
+                if (Checker.isNull(result)) {
+                    continue;
+                }
+                if (run.stage.type == StageType.FLAT_MAP) {
+                    for (Object element : (Iterable<?>) result) {
+                        emit(run, element);
+                    }
+                } else {
+                    emit(run, result);
+                }
+            }
+        }
+
+        private void group(StageRun run) throws InterruptedException {
+            boolean ended = false;
+            while (!ended) {
+                Object first = run.in.take();
+                if (first == END) {
+                    return;
+                }
+                List<Object> batch = new ArrayList<>(run.stage.batchSize);
+                batch.add(first);
+                long deadline = System.nanoTime() + run.stage.lingerNanos;
+                while (batch.size() < run.stage.batchSize) {
+                    long remaining = deadline - System.nanoTime();
+                    Object next = remaining > 0 ? run.in.poll(remaining, TimeUnit.NANOSECONDS) : run.in.poll();
+                    if (Checker.isNull(next)) {
+                        break;
+                    }
+                    if (next == END) {
+                        ended = true;
+                        break;
+                    }
+                    batch.add(next);
+                }
+                run.received.add(batch.size());
+                emit(run, batch);
+            }
+        }
+
+        private void emit(StageRun run, Object item) throws InterruptedException {
+            if (Checker.isNotNull(run.out) && !run.out.offer(item)) {
+                long start = System.nanoTime();
+                run.out.put(item);
+                run.blockedNanos.add(System.nanoTime() - start);
+            }
+            run.emitted.increment();
+        }
+
+        private void finish(StageRun run) {
+            if (future.isDone()) {
+                return;
+            }
+            if (Checker.isNull(run.out)) {
+                future.complete(null);
+                return;
+            }
+            try {
+                run.out.put(END);
+            } catch (InterruptedException e) {
+                fail(run.stage.name, e);
+            }
+        }
+
+        private synchronized void fail(String stage, Throwable e) {
+            if (!future.isDone()) {
+                failedStage = stage;
+                future.completeExceptionally(e);
+                interruptAll();
+            }
+        }
+
+        private void interruptAll() {
+            for (Thread thread : threads) {
+                if (thread != Thread.currentThread()) {
+                    thread.interrupt();
+                }
+            }
+        }
+
+        /**
+         * 取消执行，中断所有工作线程
+         *
+         * @return 是否取消成功，已结束时返回false
+         */
+        public synchronized boolean cancel() {
+            if (!future.isDone() && future.cancel(false)) {
+                interruptAll();
+                return true;
+            }
+            return false;
+        }
+
+        /**
+         * 等待执行完成
+         *
+         * @throws InterruptedException 等待时被中断
+         * @throws ExecutionException 某个阶段抛出了异常
+         * @throws CancellationException 已被取消
+         */
+        public void get() throws InterruptedException, ExecutionException {
+            future.get();
+        }
+
+        /**
+         * 等待执行完成，最多等待指定时长
+         *
+         * @param timeout 等待时长
+         * @param unit 时间单位
+         *
+         * @throws InterruptedException 等待时被中断
+         * @throws ExecutionException 某个阶段抛出了异常
+         * @throws TimeoutException 超时
+         */
+        public void get(long timeout, TimeUnit unit) throws InterruptedException, ExecutionException,
+                TimeoutException {
+            future.get(timeout, unit);
+        }
+
+        /**
+         * 是否已结束（完成、失败或取消）
+         *
+         * @return {@link Boolean}
+         */
+        public boolean isDone() {
+            return future.isDone();
+        }
+
+        /**
+         * 获取失败的阶段名称，没有失败时返回null
+         *
+         * @return {@link String}
+         */
+        public String getFailedStage() {
+            return failedStage;
+        }
+
+        /**
+         * 获取每个阶段的运行指标，按阶段顺序排列，第一个为数据源
+         *
+         * @return {@link List}
+         */
+        public List<StageMetrics> getMetrics() {
+            List<StageMetrics> list = new ArrayList<>(runs.size());
+            long now = System.nanoTime();
+            for (StageRun run : runs) {
+                StageMetrics metrics = new StageMetrics();
+                metrics.name = run.stage.name;
+                metrics.parallelism = run.stage.parallelism;
+                metrics.received = run.received.sum();
+                metrics.emitted = run.emitted.sum();
+                if (Checker.isNotNull(run.in)) {
+                    metrics.queueDepth = run.in.size();
+                    metrics.queueCapacity = run.in.size() + run.in.remainingCapacity();
+                }
+                long end = run.endTime > 0 ? run.endTime : now;
+                metrics.throughput = metrics.received / (Math.max(1, end - startTime) / 1e9);
+                metrics.busyTime = run.busyNanos.sum() / 1e6;
+                metrics.blockedTime = run.blockedNanos.sum() / 1e6;
+                metrics.finished = run.endTime > 0;
+                list.add(metrics);
+            }
+            return list;
+        }
+    }
+}
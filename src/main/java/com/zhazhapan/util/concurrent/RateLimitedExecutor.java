@@ -0,0 +1,89 @@
+package com.zhazhapan.util.concurrent;
+
+import com.zhazhapan.util.interfaces.IRateLimiter;
+import org.apache.log4j.Logger;
+
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 限流执行器，按限流器的速率把任务交给被包装的执行器，需要等待的任务交给调度器延时提交，提交线程不会被阻塞
+ * <p>
+ * 延时提交在调度器的执行器中进行，不占用时间轮线程（被包装的执行器使用CALLER_RUNS策略时任务也不会在时间轮线程中执行）。
+ * 延时提交时已经返回给调用者，被包装的执行器拒绝的任务只能记录日志并计入 {@link #getRejectedCount()}
+ *
+ * @author pantao
+ * @since 1.1.0
+ */
+public class RateLimitedExecutor implements Executor {
+
+    private static Logger logger = Logger.getLogger(RateLimitedExecutor.class);
+
+    private final Executor delegate;
+
+    private final IRateLimiter limiter;
+
+    private final TaskScheduler scheduler;
+
+    private final AtomicLong rejectedCount = new AtomicLong(0);
+
+    /**
+     * 新建限流执行器
+     *
+     * @param delegate 被包装的执行器
+     * @param limiter 限流器
+     * @param scheduler 用于延时提交的调度器
+     */
+    public RateLimitedExecutor(Executor delegate, IRateLimiter limiter, TaskScheduler scheduler) {
+        this.delegate = delegate;
+        this.limiter = limiter;
+        this.scheduler = scheduler;
+    }
+
+    /**
+     * 提交任务
+     *
+     * @param task 任务
+     *
+     * @throws RejectedExecutionException 限流器溢出（如漏桶已满）、调度器已关闭或被包装的执行器立即拒绝；延时提交时被拒绝见
+     * {@link #getRejectedCount()}
+     */
+    @Override
+    public void execute(Runnable task) {
+        long wait = limiter.reserve(1);
+        if (wait <= 0) {
+            delegate.execute(task);
+        } else {
+            scheduler.schedule(() -> submit(task), wait, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    private void submit(Runnable task) {
+        try {
+            delegate.execute(task);
+        } catch (RejectedExecutionException e) {
+            rejectedCount.incrementAndGet();
+            logger.error("rate limited task was rejected: " + e.getMessage());
+        }
+    }
+
+    /**
+     * 获取限流器
+     *
+     * @return {@link IRateLimiter}
+     */
+    public IRateLimiter getLimiter() {
+        return limiter;
+    }
+
+    /**
+     * 获取延时提交时被拒绝的任务数
+     *
+     * @return {@link Long}
+     */
+    public long getRejectedCount() {
+        return rejectedCount.get();
+    }
+}
@@ -0,0 +1,265 @@
+package com.zhazhapan.util.concurrent;
+
+import com.zhazhapan.util.Checker;
+import org.apache.log4j.Logger;
+
+import java.time.ZoneId;
+import java.time.ZonedDateTime;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 基于时间轮的任务调度器，支持延时、固定频率、固定延时和cron调度，任务在指定的线程池中执行
+ * <p>
+ * 周期任务在上一次执行完成后才会安排下一次，不会重叠执行；任务抛出异常时记录日志并继续调度
+ *
+ * @author pantao
+ * @since 1.1.0
+ */
+public class TaskScheduler implements AutoCloseable {
+
+    private static Logger logger = Logger.getLogger(TaskScheduler.class);
+
+    private final HashedWheelTimer timer;
+
+    private final Executor executor;
+
+    /**
+     * 新建调度器
+     *
+     * @param name 时间轮线程名
+     * @param executor 执行任务的线程池
+     */
+    public TaskScheduler(String name, Executor executor) {
+        this(new HashedWheelTimer(name), executor);
+    }
+
+    /**
+     * 使用已有的时间轮新建调度器
+     *
+     * @param timer {@link HashedWheelTimer}
+     * @param executor 执行任务的线程池
+     */
+    public TaskScheduler(HashedWheelTimer timer, Executor executor) {
+        this.timer = timer;
+        this.executor = executor;
+    }
+
+    /**
+     * 延时执行一次
+     *
+     * @param task 任务
+     * @param delay 延时
+     * @param unit 时间单位
+     *
+     * @return {@link ScheduledTask}
+     */
+    public ScheduledTask schedule(Runnable task, long delay, TimeUnit unit) {
+        ScheduledTask scheduled = new ScheduledTask(task, (run, now) -> -1);
+        scheduled.arm(unit.toNanos(delay));
+        return scheduled;
+    }
+
+    /**
+     * 按固定频率执行，第n次的计划时间为：首次时间 + n × 周期，执行耗时超过周期时下一次立即执行
+     *
+     * @param task 任务
+     * @param initialDelay 首次延时
+     * @param period 周期
+     * @param unit 时间单位
+     *
+     * @return {@link ScheduledTask}
+     */
+    public ScheduledTask scheduleAtFixedRate(Runnable task, long initialDelay, long period, TimeUnit unit) {
+        checkPeriod(period);
+        long first = System.nanoTime() + unit.toNanos(initialDelay);
+        long periodNanos = unit.toNanos(period);
+        NextDelay nextDelay = (run, now) -> Math.max(0, first + run * periodNanos - now);
+        ScheduledTask scheduled = new ScheduledTask(task, nextDelay);
+        scheduled.arm(unit.toNanos(initialDelay));
+        return scheduled;
+    }
+
+    /**
+     * 按固定延时执行，每次执行完成后等待指定延时再执行下一次
+     *
+     * @param task 任务
+     * @param initialDelay 首次延时
+     * @param delay 延时
+     * @param unit 时间单位
+     *
+     * @return {@link ScheduledTask}
+     */
+    public ScheduledTask scheduleWithFixedDelay(Runnable task, long initialDelay, long delay, TimeUnit unit) {
+        checkPeriod(delay);
+        long delayNanos = unit.toNanos(delay);
+        ScheduledTask scheduled = new ScheduledTask(task, (run, now) -> delayNanos);
+        scheduled.arm(unit.toNanos(initialDelay));
+        return scheduled;
+    }
+
+    /**
+     * 按cron表达式执行，使用系统默认时区
+     *
+     * @param task 任务
+     * @param cron cron表达式，见 {@link CronExpression}
+     *
+     * @return {@link ScheduledTask}
+     */
+    public ScheduledTask schedule(Runnable task, String cron) {
+        return schedule(task, CronExpression.parse(cron), ZoneId.systemDefault());
+    }
+
+    /**
+     * 按cron表达式执行
+     *
+     * @param task 任务
+     * @param cron {@link CronExpression}
+     * @param zone 时区
+     *
+     * @return {@link ScheduledTask}
+     */
+    public ScheduledTask schedule(Runnable task, CronExpression cron, ZoneId zone) {
+        ScheduledTask scheduled = new ScheduledTask(task, (run, now) -> untilNext(cron, zone));
+        long first = untilNext(cron, zone);
+        if (first >= 0) {
+            scheduled.arm(first);
+        }
+        return scheduled;
+    }
+
+    private static long untilNext(CronExpression cron, ZoneId zone) {
+        ZonedDateTime now = ZonedDateTime.now(zone);
+        ZonedDateTime next = cron.next(now);
+        if (Checker.isNull(next)) {
+            return -1;
+        }
+        return TimeUnit.MILLISECONDS.toNanos(next.toInstant().toEpochMilli() - now.toInstant().toEpochMilli());
+    }
+
+    private static void checkPeriod(long period) {
+        if (period <= 0) {
+            throw new IllegalArgumentException("period must be positive");
+        }
+    }
+
+    /**
+     * 获取时间轮
+     *
+     * @return {@link HashedWheelTimer}
+     */
+    public HashedWheelTimer getTimer() {
+        return timer;
+    }
+
+    /**
+     * 停止调度，未到期的任务不再执行
+     */
+    @Override
+    public void close() {
+        timer.stop();
+    }
+
+    /**
+     * 计算下一次执行的延时
+     */
+    private interface NextDelay {
+
+        /**
+         * 计算下一次执行的延时
+         *
+         * @param run 已执行次数
+         * @param now 当前时间（纳秒）
+         *
+         * @return 延时（纳秒），小于0时不再执行
+         */
+        long next(long run, long now);
+    }
+
+    /**
+     * 调度中的任务
+     */
+    public final class ScheduledTask {
+
+        private final Runnable task;
+
+        private final NextDelay nextDelay;
+
+        private final AtomicLong runs = new AtomicLong();
+
+        private volatile HashedWheelTimer.Timeout timeout;
+
+        private volatile boolean cancelled = false;
+
+        private ScheduledTask(Runnable task, NextDelay nextDelay) {
+            this.task = task;
+            this.nextDelay = nextDelay;
+        }
+
+        private void arm(long delayNanos) {
+            if (!cancelled) {
+                timeout = timer.newTimeout(this::dispatch, delayNanos, TimeUnit.NANOSECONDS);
+            }
+        }
+
+        private void dispatch() {
+            if (cancelled) {
+                return;
+            }
+            try {
+                executor.execute(this::run);
+            } catch (RejectedExecutionException e) {
+                logger.error("scheduled task was rejected: " + e.getMessage());
+            }
+        }
+
+        private void run() {
+            try {
+                task.run();
+            } catch (Throwable e) {
+                logger.error("scheduled task failed: " + e.getMessage(), e);
+            } finally {
+                long delay = nextDelay.next(runs.incrementAndGet(), System.nanoTime());
+                if (delay >= 0) {
+                    try {
+                        arm(delay);
+                    } catch (RejectedExecutionException e) {
+                        // 调度器已关闭
+                        cancelled = true;
+                    }
+                }
+            }
+        }
+
+        /**
+         * 取消调度，正在执行的任务不受影响
+         */
+        public void cancel() {
+            cancelled = true;
+            HashedWheelTimer.Timeout current = timeout;
+            if (Checker.isNotNull(current)) {
+                current.cancel();
+            }
+        }
+
+        /**
+         * 是否已取消
+         *
+         * @return {@link Boolean}
+         */
+        public boolean isCancelled() {
+            return cancelled;
+        }
+
+        /**
+         * 获取已执行次数
+         *
+         * @return {@link Long}
+         */
+        public long getRunCount() {
+            return runs.get();
+        }
+    }
+}
@@ -0,0 +1,340 @@
+package com.zhazhapan.util.concurrent;
+
+import com.zhazhapan.util.Checker;
+import com.zhazhapan.util.enums.ExecutionMode;
+import com.zhazhapan.util.enums.QueueType;
+import com.zhazhapan.util.enums.RejectPolicy;
+
+import java.util.Comparator;
+import java.util.concurrent.*;
+
+/**
+ * 线程池构建器，默认：核心线程数和最大线程数为CPU核数，容量为1024的有界队列，命名的守护线程，队列满时由调用线程执行
+ * <p>
+ * 注意：{@link ThreadPoolExecutor} 只有在队列已满时才会创建超过核心数的线程，所以无界队列下最大线程数不生效
+ *
+ * @author pantao
+ * @since 1.1.0
+ */
+public class ThreadPoolBuilder {
+
+    /**
+     * 默认队列容量
+     */
+    public static final int DEFAULT_QUEUE_CAPACITY = 1024;
+
+    /**
+     * 阻塞策略默认的等待时长（毫秒）
+     */
+    public static final long DEFAULT_BLOCK_TIMEOUT = 60000;
+
+    private final String name;
+
+    private int corePoolSize = Runtime.getRuntime().availableProcessors();
+
+    private int maximumPoolSize = corePoolSize;
+
+    private long keepAliveTime = 60;
+
+    private TimeUnit keepAliveUnit = TimeUnit.SECONDS;
+
+    private boolean allowCoreThreadTimeOut = false;
+
+    private QueueType queueType = QueueType.LINKED;
+
+    private int queueCapacity = DEFAULT_QUEUE_CAPACITY;
+
+    private BlockingQueue<Runnable> workQueue = null;
+
+    private Comparator<Object> priority = null;
+
+    private boolean daemon = true;
+
+    private ThreadFactory threadFactory = null;
+
+    private RejectPolicy rejectPolicy = RejectPolicy.CALLER_RUNS;
+
+    private long blockTimeout = DEFAULT_BLOCK_TIMEOUT;
+
+    private TimeUnit blockUnit = TimeUnit.MILLISECONDS;
+
+    private RejectedExecutionHandler rejectedHandler = null;
+
+    private boolean prestart = false;
+
+    private ExecutionMode mode = ExecutionMode.THREAD_POOL;
+
+    /**
+     * 新建构建器
+     *
+     * @param name 线程池名称，同时作为线程名前缀
+     */
+    public ThreadPoolBuilder(String name) {
+        this.name = name;
+    }
+
+    /**
+     * 设置核心线程数
+     *
+     * @param corePoolSize 核心线程数
+     *
+     * @return {@link ThreadPoolBuilder}
+     */
+    public ThreadPoolBuilder corePoolSize(int corePoolSize) {
+        this.corePoolSize = corePoolSize;
+        return this;
+    }
+
+    /**
+     * 设置最大线程数
+     *
+     * @param maximumPoolSize 最大线程数
+     *
+     * @return {@link ThreadPoolBuilder}
+     */
+    public ThreadPoolBuilder maximumPoolSize(int maximumPoolSize) {
+        this.maximumPoolSize = maximumPoolSize;
+        return this;
+    }
+
+    /**
+     * 同时设置核心线程数和最大线程数
+     *
+     * @param core 核心线程数
+     * @param maximum 最大线程数
+     *
+     * @return {@link ThreadPoolBuilder}
+     */
+    public ThreadPoolBuilder poolSize(int core, int maximum) {
+        return corePoolSize(core).maximumPoolSize(maximum);
+    }
+
+    /**
+     * 设置空闲线程的存活时长
+     *
+     * @param keepAliveTime 存活时长
+     * @param unit 时间单位
+     *
+     * @return {@link ThreadPoolBuilder}
+     */
+    public ThreadPoolBuilder keepAlive(long keepAliveTime, TimeUnit unit) {
+        this.keepAliveTime = keepAliveTime;
+        this.keepAliveUnit = unit;
+        return this;
+    }
+
+    /**
+     * 设置核心线程空闲时是否回收
+     *
+     * @param allowCoreThreadTimeOut 是否回收
+     *
+     * @return {@link ThreadPoolBuilder}
+     */
+    public ThreadPoolBuilder allowCoreThreadTimeOut(boolean allowCoreThreadTimeOut) {
+        this.allowCoreThreadTimeOut = allowCoreThreadTimeOut;
+        return this;
+    }
+
+    /**
+     * 设置队列类型和容量
+     *
+     * @param queueType {@link QueueType}
+     * @param capacity 容量，小于等于0时无界（{@link QueueType#ARRAY} 除外）
+     *
+     * @return {@link ThreadPoolBuilder}
+     */
+    public ThreadPoolBuilder queue(QueueType queueType, int capacity) {
+        this.queueType = queueType;
+        this.queueCapacity = capacity;
+        this.workQueue = null;
+        this.priority = null;
+        return this;
+    }
+
+    /**
+     * 使用按比较器排序的无界优先级队列，任务不需要实现 {@link Comparable}
+     *
+     * @param comparator 比较提交时的原始任务（Runnable或Callable），见 {@link MonitoredThreadPoolExecutor#unwrap(Runnable)}
+     *
+     * @return {@link ThreadPoolBuilder}
+     */
+    public ThreadPoolBuilder priorityQueue(Comparator<Object> comparator) {
+        queue(QueueType.PRIORITY, 0);
+        this.priority = comparator;
+        return this;
+    }
+
+    /**
+     * 使用自定义的队列，每个线程池必须使用独立的队列实例
+     *
+     * @param workQueue {@link BlockingQueue}
+     *
+     * @return {@link ThreadPoolBuilder}
+     */
+    public ThreadPoolBuilder queue(BlockingQueue<Runnable> workQueue) {
+        this.workQueue = workQueue;
+        return this;
+    }
+
+    /**
+     * 设置是否为守护线程，使用自定义线程工厂时无效
+     *
+     * @param daemon 是否为守护线程
+     *
+     * @return {@link ThreadPoolBuilder}
+     */
+    public ThreadPoolBuilder daemon(boolean daemon) {
+        this.daemon = daemon;
+        return this;
+    }
+
+    /**
+     * 使用自定义的线程工厂
+     *
+     * @param threadFactory {@link ThreadFactory}
+     *
+     * @return {@link ThreadPoolBuilder}
+     */
+    public ThreadPoolBuilder threadFactory(ThreadFactory threadFactory) {
+        this.threadFactory = threadFactory;
+        return this;
+    }
+
+    /**
+     * 设置拒绝策略
+     *
+     * @param rejectPolicy {@link RejectPolicy}
+     *
+     * @return {@link ThreadPoolBuilder}
+     */
+    public ThreadPoolBuilder rejectPolicy(RejectPolicy rejectPolicy) {
+        this.rejectPolicy = rejectPolicy;
+        this.rejectedHandler = null;
+        return this;
+    }
+
+    /**
+     * 使用阻塞拒绝策略，并设置最长等待时长
+     *
+     * @param timeout 等待时长
+     * @param unit 时间单位
+     *
+     * @return {@link ThreadPoolBuilder}
+     */
+    public ThreadPoolBuilder blockWhenFull(long timeout, TimeUnit unit) {
+        this.blockTimeout = timeout;
+        this.blockUnit = unit;
+        return rejectPolicy(RejectPolicy.BLOCK);
+    }
+
+    /**
+     * 使用自定义的拒绝策略
+     *
+     * @param handler {@link RejectedExecutionHandler}
+     *
+     * @return {@link ThreadPoolBuilder}
+     */
+    public ThreadPoolBuilder rejectedExecutionHandler(RejectedExecutionHandler handler) {
+        this.rejectedHandler = handler;
+        return this;
+    }
+
+    /**
+     * 设置是否预先启动所有核心线程
+     *
+     * @param prestart 是否预先启动
+     *
+     * @return {@link ThreadPoolBuilder}
+     */
+    public ThreadPoolBuilder prestart(boolean prestart) {
+        this.prestart = prestart;
+        return this;
+    }
+
+    /**
+     * 设置执行模式，只对 {@link #buildExecutorService()} 生效
+     *
+     * @param mode {@link ExecutionMode}
+     *
+     * @return {@link ThreadPoolBuilder}
+     */
+    public ThreadPoolBuilder mode(ExecutionMode mode) {
+        this.mode = mode;
+        return this;
+    }
+
+    /**
+     * 按执行模式构建执行器：{@link ExecutionMode#WORK_STEALING} 返回并行度为核心线程数的 {@link ForkJoinPool}，
+     * {@link ExecutionMode#VIRTUAL_THREAD} 在支持虚拟线程时返回每个任务一个虚拟线程的执行器，否则与
+     * {@link ExecutionMode#THREAD_POOL} 一样返回 {@link MonitoredThreadPoolExecutor}
+     *
+     * @return {@link ExecutorService}
+     */
+    public ExecutorService buildExecutorService() {
+        if (mode == ExecutionMode.WORK_STEALING) {
+            return new ForkJoinPool(Math.max(1, corePoolSize), new NamedThreadFactory(name, daemon), null, false);
+        }
+        if (mode == ExecutionMode.VIRTUAL_THREAD) {
+            ExecutorService executor = VirtualThreads.newThreadPerTaskExecutor(name);
+            if (Checker.isNotNull(executor)) {
+                return executor;
+            }
+        }
+        return build();
+    }
+
+    /**
+     * 构建线程池，忽略执行模式
+     *
+     * @return {@link MonitoredThreadPoolExecutor}
+     */
+    public MonitoredThreadPoolExecutor build() {
+        if (corePoolSize < 0 || maximumPoolSize <= 0 || maximumPoolSize < corePoolSize) {
+            throw new IllegalArgumentException("illegal pool size: core " + corePoolSize + ", max " +
+                    maximumPoolSize);
+        }
+        ThreadFactory factory = Checker.isNull(threadFactory) ? new NamedThreadFactory(name, daemon) : threadFactory;
+        MonitoredThreadPoolExecutor executor = new MonitoredThreadPoolExecutor(name, corePoolSize, maximumPoolSize,
+                keepAliveTime, keepAliveUnit, Checker.isNull(workQueue) ? newQueue() : workQueue, factory,
+                Checker.isNull(rejectedHandler) ? newHandler() : rejectedHandler);
+        if (allowCoreThreadTimeOut && keepAliveTime > 0) {
+            executor.allowCoreThreadTimeOut(true);
+        }
+        if (prestart) {
+            executor.prestartAllCoreThreads();
+        }
+        return executor;
+    }
+
+    private BlockingQueue<Runnable> newQueue() {
+        switch (queueType) {
+            case ARRAY:
+                return new ArrayBlockingQueue<>(Math.max(1, queueCapacity));
+            case SYNCHRONOUS:
+                return new SynchronousQueue<>();
+            case PRIORITY:
+                if (Checker.isNull(priority)) {
+                    return new PriorityBlockingQueue<>();
+                }
+                return new PriorityBlockingQueue<>(11, (a, b) -> priority.compare(MonitoredThreadPoolExecutor.unwrap
+                        (a), MonitoredThreadPoolExecutor.unwrap(b)));
+            default:
+                return queueCapacity > 0 ? new LinkedBlockingQueue<>(queueCapacity) : new LinkedBlockingQueue<>();
+        }
+    }
+
+    private RejectedExecutionHandler newHandler() {
+        switch (rejectPolicy) {
+            case ABORT:
+                return new ThreadPoolExecutor.AbortPolicy();
+            case BLOCK:
+                return new BlockingRejectedExecutionHandler(blockTimeout, blockUnit);
+            case DISCARD:
+                return new ThreadPoolExecutor.DiscardPolicy();
+            case DISCARD_OLDEST:
+                return new ThreadPoolExecutor.DiscardOldestPolicy();
+            default:
+                return new ThreadPoolExecutor.CallerRunsPolicy();
+        }
+    }
+}
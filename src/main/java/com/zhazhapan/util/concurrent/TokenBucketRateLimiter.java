@@ -0,0 +1,88 @@
+package com.zhazhapan.util.concurrent;
+
+import com.zhazhapan.util.interfaces.IRateLimiter;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 令牌桶限流器：按固定速率生成令牌，空闲时最多积攒 burst 个令牌，因此允许短时的突发
+ * <p>
+ * 令牌不足时预定未来的令牌，等待时长由本次请求承担，不会拒绝请求
+ *
+ * @author pantao
+ * @since 1.1.0
+ */
+public class TokenBucketRateLimiter implements IRateLimiter {
+
+    private final double intervalNanos;
+
+    private final double burst;
+
+    private double storedPermits;
+
+    private long nextFreeTime;
+
+    /**
+     * 新建令牌桶限流器，初始时桶是满的
+     *
+     * @param permitsPerSecond 每秒生成的令牌数
+     * @param burst 桶容量（最多积攒的令牌数）
+     */
+    public TokenBucketRateLimiter(double permitsPerSecond, int burst) {
+        if (permitsPerSecond <= 0 || burst < 0) {
+            throw new IllegalArgumentException("rate must be positive and burst must not be negative");
+        }
+        this.intervalNanos = TimeUnit.SECONDS.toNanos(1) / permitsPerSecond;
+        this.burst = burst;
+        this.storedPermits = burst;
+        this.nextFreeTime = System.nanoTime();
+    }
+
+    @Override
+    public synchronized long reserve(int permits) {
+        long now = System.nanoTime();
+        refill(now);
+        long wait = Math.max(0, nextFreeTime - now);
+        double fromStored = Math.min(permits, storedPermits);
+        storedPermits -= fromStored;
+        nextFreeTime += (long) ((permits - fromStored) * intervalNanos);
+        return wait;
+    }
+
+    @Override
+    public boolean tryAcquire(int permits, long timeout, TimeUnit unit) throws InterruptedException {
+        long wait;
+        synchronized (this) {
+            long now = System.nanoTime();
+            refill(now);
+            if (nextFreeTime - now > unit.toNanos(timeout)) {
+                return false;
+            }
+            wait = reserve(permits);
+        }
+        TimeUnit.NANOSECONDS.sleep(wait);
+        return true;
+    }
+
+    private void refill(long now) {
+        if (now > nextFreeTime) {
+            storedPermits = Math.min(burst, storedPermits + (now - nextFreeTime) / intervalNanos);
+            nextFreeTime = now;
+        }
+    }
+
+    @Override
+    public double getRate() {
+        return TimeUnit.SECONDS.toNanos(1) / intervalNanos;
+    }
+
+    /**
+     * 获取当前积攒的令牌数
+     *
+     * @return {@link Double}
+     */
+    public synchronized double getStoredPermits() {
+        refill(System.nanoTime());
+        return storedPermits;
+    }
+}
@@ -0,0 +1,93 @@
+package com.zhazhapan.util.concurrent;
+
+import com.zhazhapan.util.Checker;
+import org.apache.log4j.Logger;
+
+import java.lang.reflect.Method;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+
+/**
+ * 虚拟线程支持，通过反射调用JDK 21+的API，编译目标仍为Java 8
+ *
+ * @author pantao
+ * @since 1.1.0
+ */
+public class VirtualThreads {
+
+    private static Logger logger = Logger.getLogger(VirtualThreads.class);
+
+    private static final boolean SUPPORTED = probe();
+
+    private VirtualThreads() {}
+
+    /**
+     * 当前JDK是否支持虚拟线程
+     *
+     * @return {@link Boolean}
+     */
+    public static boolean isSupported() {
+        return SUPPORTED;
+    }
+
+    /**
+     * 新建每个任务一个虚拟线程的执行器，不支持时返回null
+     *
+     * @param name 线程名前缀
+     *
+     * @return {@link ExecutorService}
+     */
+    public static ExecutorService newThreadPerTaskExecutor(String name) {
+        ThreadFactory factory = newFactory(name);
+        if (Checker.isNull(factory)) {
+            return null;
+        }
+        try {
+            Method method = Executors.class.getMethod("newThreadPerTaskExecutor", ThreadFactory.class);
+            return (ExecutorService) method.invoke(null, factory);
+        } catch (Exception e) {
+            logger.warn("can't create virtual thread executor: " + e.getMessage());
+            return null;
+        }
+    }
+
+    /**
+     * 新建虚拟线程工厂，线程名如：io-1、io-2，不支持时返回null
+     *
+     * @param name 线程名前缀
+     *
+     * @return {@link ThreadFactory}
+     */
+    public static ThreadFactory newFactory(String name) {
+        if (!SUPPORTED) {
+            return null;
+        }
+        return createFactory(name);
+    }
+
+    private static ThreadFactory createFactory(String name) {
+        try {
+            Object builder = Thread.class.getMethod("ofVirtual").invoke(null);
+            Class<?> builderClass = Class.forName("java.lang.Thread$Builder");
+            builder = builderClass.getMethod("name", String.class, long.class).invoke(builder, name + "-", 1L);
+            return (ThreadFactory) builderClass.getMethod("factory").invoke(builder);
+        } catch (Throwable e) {
+            return null;
+        }
+    }
+
+    private static boolean probe() {
+        ThreadFactory factory = createFactory("probe");
+        if (Checker.isNull(factory)) {
+            return false;
+        }
+        try {
+            // JDK 19、20中虚拟线程是预览特性，未开启时创建线程会抛出异常
+            factory.newThread(() -> {});
+            return true;
+        } catch (Throwable e) {
+            return false;
+        }
+    }
+}
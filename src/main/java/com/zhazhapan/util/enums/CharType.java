@@ -0,0 +1,35 @@
+package com.zhazhapan.util.enums;
+
+/**
+ * 批量字符分类的类型，只包含ASCII字符
+ *
+ * @author pantao
+ * @since 1.1.0
+ */
+public enum CharType {
+
+    /**
+     * 数字 0-9
+     */
+    NUMBER,
+
+    /**
+     * 字母 a-z、A-Z
+     */
+    LETTER,
+
+    /**
+     * 字母或数字
+     */
+    LETTER_OR_NUMBER,
+
+    /**
+     * 小写字母 a-z
+     */
+    LOWER_CASE,
+
+    /**
+     * 大写字母 A-Z
+     */
+    UPPER_CASE
+}
@@ -0,0 +1,25 @@
+package com.zhazhapan.util.enums;
+
+/**
+ * 线程池的执行模式
+ *
+ * @author pantao
+ * @since 1.1.0
+ */
+public enum ExecutionMode {
+
+    /**
+     * 经典的 {@link java.util.concurrent.ThreadPoolExecutor}，有界队列，适合一般任务
+     */
+    THREAD_POOL,
+
+    /**
+     * 工作窃取的 {@link java.util.concurrent.ForkJoinPool}，适合可拆分的CPU密集型任务，如排序、哈希计算
+     */
+    WORK_STEALING,
+
+    /**
+     * 每个任务一个虚拟线程，适合阻塞IO，如下载、网络请求、发送邮件；JDK不支持虚拟线程时退化为平台线程池
+     */
+    VIRTUAL_THREAD
+}
@@ -0,0 +1,30 @@
+package com.zhazhapan.util.enums;
+
+/**
+ * 自适应线程池的调整动作
+ *
+ * @author pantao
+ * @since 1.1.0
+ */
+public enum PoolAdjustment {
+
+    /**
+     * 扩大线程数
+     */
+    GROW,
+
+    /**
+     * 缩小线程数
+     */
+    SHRINK,
+
+    /**
+     * 上次扩大后吞吐量没有提升，回退到扩大前的线程数
+     */
+    REVERT,
+
+    /**
+     * 保持不变
+     */
+    HOLD
+}
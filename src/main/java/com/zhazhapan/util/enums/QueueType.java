@@ -0,0 +1,31 @@
+package com.zhazhapan.util.enums;
+
+/**
+ * 线程池的任务队列类型
+ *
+ * @author pantao
+ * @since 1.1.0
+ */
+public enum QueueType {
+
+    /**
+     * 基于链表的有界队列（{@link java.util.concurrent.LinkedBlockingQueue}），容量小于等于0时无界
+     */
+    LINKED,
+
+    /**
+     * 基于数组的有界队列（{@link java.util.concurrent.ArrayBlockingQueue}）
+     */
+    ARRAY,
+
+    /**
+     * 不存储任务的直接交付队列（{@link java.util.concurrent.SynchronousQueue}），任务总是直接交给空闲线程或新建线程
+     */
+    SYNCHRONOUS,
+
+    /**
+     * 无界优先级队列（{@link java.util.concurrent.PriorityBlockingQueue}），任务需实现 {@link Comparable}，
+     * 或者通过 {@link com.zhazhapan.util.concurrent.ThreadPoolBuilder#priorityQueue(java.util.Comparator)} 指定比较器
+     */
+    PRIORITY
+}
@@ -0,0 +1,35 @@
+package com.zhazhapan.util.enums;
+
+/**
+ * 线程池队列已满时的拒绝策略
+ *
+ * @author pantao
+ * @since 1.1.0
+ */
+public enum RejectPolicy {
+
+    /**
+     * 抛出 {@link java.util.concurrent.RejectedExecutionException}
+     */
+    ABORT,
+
+    /**
+     * 由提交任务的线程执行
+     */
+    CALLER_RUNS,
+
+    /**
+     * 阻塞提交线程，直到队列有空位或超时（超时后抛出 {@link java.util.concurrent.RejectedExecutionException}）
+     */
+    BLOCK,
+
+    /**
+     * 直接丢弃
+     */
+    DISCARD,
+
+    /**
+     * 丢弃队列中最早的任务
+     */
+    DISCARD_OLDEST
+}
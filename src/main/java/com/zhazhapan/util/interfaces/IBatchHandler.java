@@ -0,0 +1,23 @@
+package com.zhazhapan.util.interfaces;
+
+import java.util.List;
+
+/**
+ * 批处理函数
+ *
+ * @param <T> 元素类型
+ *
+ * @author pantao
+ * @since 1.1.0
+ */
+public interface IBatchHandler<T> {
+
+    /**
+     * 处理一批元素，抛出异常时这一批元素的Future都以该异常结束
+     *
+     * @param batch 一批元素
+     *
+     * @throws Exception 异常
+     */
+    void handle(List<T> batch) throws Exception;
+}
@@ -0,0 +1,54 @@
+package com.zhazhapan.util.interfaces;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 限流器
+ *
+ * @author pantao
+ * @since 1.1.0
+ */
+public interface IRateLimiter {
+
+    /**
+     * 预定许可，立即返回需要等待的时长，调用者应在等待之后再执行（或者交给定时器延时执行）
+     *
+     * @param permits 许可数
+     *
+     * @return 需要等待的时长（纳秒），0表示可以立即执行
+     *
+     * @throws java.util.concurrent.RejectedExecutionException 限流器无法容纳更多的等待时抛出
+     */
+    long reserve(int permits);
+
+    /**
+     * 在指定时长内获取许可，需要等待的时长超过指定时长时立即返回false，不会占用许可
+     *
+     * @param permits 许可数
+     * @param timeout 最长等待时长
+     * @param unit 时间单位
+     *
+     * @return 是否获取成功
+     *
+     * @throws InterruptedException 等待时被中断
+     */
+    boolean tryAcquire(int permits, long timeout, TimeUnit unit) throws InterruptedException;
+
+    /**
+     * 获取许可，必要时阻塞等待
+     *
+     * @param permits 许可数
+     *
+     * @throws InterruptedException 等待时被中断
+     */
+    default void acquire(int permits) throws InterruptedException {
+        TimeUnit.NANOSECONDS.sleep(reserve(permits));
+    }
+
+    /**
+     * 获取每秒的许可数
+     *
+     * @return {@link Double}
+     */
+    double getRate();
+}
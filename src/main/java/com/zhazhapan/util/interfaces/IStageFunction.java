@@ -0,0 +1,24 @@
+package com.zhazhapan.util.interfaces;
+
+/**
+ * 流水线阶段的处理函数
+ *
+ * @param <T> 输入类型
+ * @param <R> 输出类型
+ *
+ * @author pantao
+ * @since 1.1.0
+ */
+public interface IStageFunction<T, R> {
+
+    /**
+     * 处理一个元素，抛出异常时整条流水线被取消
+     *
+     * @param item 元素
+     *
+     * @return 输出，为null时不向下游传递
+     *
+     * @throws Exception 异常
+     */
+    R apply(T item) throws Exception;
+}
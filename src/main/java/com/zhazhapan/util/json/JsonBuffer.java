@@ -0,0 +1,308 @@
+package com.zhazhapan.util.json;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+/**
+ * 可复用的UTF-8字节缓冲区，用于拼接JSON
+ * <p>
+ * 通过 {@link #acquire()} 获取当前线程的缓冲区，用完后调用 {@link #release()} 归还；嵌套使用时（如序列化过程中
+ * 调用的toString方法又进行了序列化）会临时创建新的缓冲区，不会覆盖正在使用的内容
+ *
+ * @author pantao
+ * @since 1.1.0
+ */
+public class JsonBuffer {
+
+    /**
+     * 归还时超过这个大小的缓冲区会被丢弃，避免一次很大的序列化长期占用内存
+     */
+    private static final int MAX_RETAINED = 1 << 20;
+
+    private static final ThreadLocal<JsonBuffer> LOCAL = ThreadLocal.withInitial(() -> new JsonBuffer(1024));
+
+    private static final byte[] HEX = "0123456789abcdef".getBytes(StandardCharsets.US_ASCII);
+
+    private static final byte[] MIN_LONG = Long.toString(Long.MIN_VALUE).getBytes(StandardCharsets.US_ASCII);
+
+    private byte[] bytes;
+
+    private int size;
+
+    private boolean inUse;
+
+    /**
+     * 新建缓冲区
+     *
+     * @param capacity 初始容量
+     */
+    public JsonBuffer(int capacity) {
+        bytes = new byte[Math.max(16, capacity)];
+    }
+
+    /**
+     * 获取当前线程可复用的缓冲区，内容为空
+     *
+     * @return {@link JsonBuffer}
+     */
+    public static JsonBuffer acquire() {
+        JsonBuffer buffer = LOCAL.get();
+        if (buffer.inUse) {
+            return new JsonBuffer(256);
+        }
+        buffer.inUse = true;
+        buffer.size = 0;
+        return buffer;
+    }
+
+    /**
+     * 归还通过 {@link #acquire()} 获取的缓冲区，归还后不能再使用
+     */
+    public void release() {
+        inUse = false;
+        if (bytes.length > MAX_RETAINED && LOCAL.get() == this) {
+            LOCAL.remove();
+        }
+    }
+
+    /**
+     * 追加字节
+     *
+     * @param b 字节
+     *
+     * @return {@link JsonBuffer}
+     */
+    public JsonBuffer append(byte b) {
+        ensure(1);
+        bytes[size++] = b;
+        return this;
+    }
+
+    /**
+     * 追加已经编码好的字节，如预先编码的字段名
+     *
+     * @param src 字节数组
+     *
+     * @return {@link JsonBuffer}
+     */
+    public JsonBuffer append(byte[] src) {
+        ensure(src.length);
+        System.arraycopy(src, 0, bytes, size, src.length);
+        size += src.length;
+        return this;
+    }
+
+    /**
+     * 以UTF-8编码追加字符串，不做任何转义
+     *
+     * @param text 字符串
+     *
+     * @return {@link JsonBuffer}
+     */
+    public JsonBuffer append(CharSequence text) {
+        return append(text, 0, text.length());
+    }
+
+    /**
+     * 以UTF-8编码追加字符串的一部分，不做任何转义
+     *
+     * @param text 字符串
+     * @param from 开始下标（包含）
+     * @param to 结束下标（不包含）
+     *
+     * @return {@link JsonBuffer}
+     */
+    public JsonBuffer append(CharSequence text, int from, int to) {
+        // 每个char最多编码为3个字节，代理对的两个char共4个字节
+        ensure((to - from) * 3);
+        byte[] dst = bytes;
+        int pos = size;
+        for (int i = from; i < to; i++) {
+            char c = text.charAt(i);
+            if (c < 0x80) {
+                dst[pos++] = (byte) c;
+            } else if (c < 0x800) {
+                dst[pos++] = (byte) (0xC0 | c >> 6);
+                dst[pos++] = (byte) (0x80 | c & 0x3F);
+            } else if (Character.isHighSurrogate(c) && i + 1 < to && Character.isLowSurrogate(text.charAt(i + 1))) {
+                int code = Character.toCodePoint(c, text.charAt(++i));
+                dst[pos++] = (byte) (0xF0 | code >> 18);
+                dst[pos++] = (byte) (0x80 | code >> 12 & 0x3F);
+                dst[pos++] = (byte) (0x80 | code >> 6 & 0x3F);
+                dst[pos++] = (byte) (0x80 | code & 0x3F);
+            } else if (Character.isSurrogate(c)) {
+                // 与 String.getBytes 一致，不成对的代理字符编码为'?'
+                dst[pos++] = '?';
+            } else {
+                dst[pos++] = (byte) (0xE0 | c >> 12);
+                dst[pos++] = (byte) (0x80 | c >> 6 & 0x3F);
+                dst[pos++] = (byte) (0x80 | c & 0x3F);
+            }
+        }
+        size = pos;
+        return this;
+    }
+
+    /**
+     * 以JSON字符串的形式追加：加上双引号，转义引号、反斜杠和控制字符（以及JavaScript中的行分隔符 U+2028、U+2029）
+     *
+     * @param text 字符串
+     *
+     * @return {@link JsonBuffer}
+     */
+    public JsonBuffer appendQuoted(CharSequence text) {
+        append((byte) '"');
+        int length = text.length();
+        int start = 0;
+        for (int i = 0; i < length; i++) {
+            char c = text.charAt(i);
+            if (c >= 0x20 && c != '"' && c != '\\' && c != '\u2028' && c != '\u2029') {
+                continue;
+            }
+            append(text, start, i);
+            start = i + 1;
+            ensure(6);
+            bytes[size++] = '\\';
+            switch (c) {
+                case '"':
+                case '\\':
+                    bytes[size++] = (byte) c;
+                    break;
+                case '\n':
+                    bytes[size++] = 'n';
+                    break;
+                case '\r':
+                    bytes[size++] = 'r';
+                    break;
+                case '\t':
+                    bytes[size++] = 't';
+                    break;
+                case '\b':
+                    bytes[size++] = 'b';
+                    break;
+                case '\f':
+                    bytes[size++] = 'f';
+                    break;
+                default:
+                    bytes[size++] = 'u';
+                    bytes[size++] = HEX[c >> 12];
+                    bytes[size++] = HEX[c >> 8 & 0xF];
+                    bytes[size++] = HEX[c >> 4 & 0xF];
+                    bytes[size++] = HEX[c & 0xF];
+                    break;
+            }
+        }
+        return append(text, start, length).append((byte) '"');
+    }
+
+    /**
+     * 追加十进制整数，不创建字符串
+     *
+     * @param value 整数
+     *
+     * @return {@link JsonBuffer}
+     */
+    public JsonBuffer append(long value) {
+        if (value == Long.MIN_VALUE) {
+            return append(MIN_LONG);
+        }
+        ensure(20);
+        if (value < 0) {
+            bytes[size++] = '-';
+            value = -value;
+        }
+        int digits = 1;
+        for (long v = value; v >= 10; v /= 10) {
+            digits++;
+        }
+        int pos = size + digits;
+        do {
+            bytes[--pos] = (byte) ('0' + value % 10);
+            value /= 10;
+        } while (value > 0);
+        size += digits;
+        return this;
+    }
+
+    /**
+     * 删除末尾的字节
+     *
+     * @param count 字节数
+     *
+     * @return {@link JsonBuffer}
+     */
+    public JsonBuffer removeLast(int count) {
+        size = Math.max(0, size - count);
+        return this;
+    }
+
+    /**
+     * 获取已写入的字节数
+     *
+     * @return {@link Integer}
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * 清空内容
+     */
+    public void reset() {
+        size = 0;
+    }
+
+    /**
+     * 把内容写入输出流
+     *
+     * @param out 输出流
+     *
+     * @throws IOException 写入失败
+     */
+    public void writeTo(OutputStream out) throws IOException {
+        out.write(bytes, 0, size);
+    }
+
+    /**
+     * 把内容写入通道
+     *
+     * @param channel 通道
+     *
+     * @throws IOException 写入失败
+     */
+    public void writeTo(WritableByteChannel channel) throws IOException {
+        ByteBuffer buffer = ByteBuffer.wrap(bytes, 0, size);
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+    }
+
+    /**
+     * 复制内容
+     *
+     * @return 字节数组
+     */
+    public byte[] toByteArray() {
+        return Arrays.copyOf(bytes, size);
+    }
+
+    /**
+     * 按UTF-8解码为字符串
+     *
+     * @return {@link String}
+     */
+    @Override
+    public String toString() {
+        return new String(bytes, 0, size, StandardCharsets.UTF_8);
+    }
+
+    private void ensure(int extra) {
+        if (size + extra > bytes.length) {
+            bytes = Arrays.copyOf(bytes, Math.max(bytes.length << 1, size + extra));
+        }
+    }
+}
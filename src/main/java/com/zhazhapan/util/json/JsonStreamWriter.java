@@ -0,0 +1,338 @@
+package com.zhazhapan.util.json;
+
+import com.zhazhapan.util.enums.FieldModifier;
+import com.zhazhapan.util.enums.JsonMethod;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.lang.reflect.Array;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.nio.channels.WritableByteChannel;
+import java.util.Date;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 流式的Bean转JSON，以UTF-8编码直接写入 {@link OutputStream} 或 {@link WritableByteChannel}，不生成完整的字符串
+ * <p>
+ * 写入时使用当前线程可复用的 {@link JsonBuffer}，缓冲区超过 {@link #FLUSH_SIZE} 时写出一次，因此内存占用与JSON的大小无关；
+ * 格式化（缩进两个空格，与Gson的格式一致）是写入时的选项，不需要先生成紧凑的JSON再解析、重新输出
+ * <p>
+ * 值的转换规则：字符串、字符和枚举输出为转义后的字符串；数字和布尔值原样输出（NaN和无穷大输出为字符串）；
+ * {@link Date} 输出为毫秒数；{@link Iterable} 和数组输出为JSON数组；{@link Map} 输出为JSON对象（键为
+ * {@link String#valueOf(Object)}）；其他JDK类型输出为 toString 的字符串；其余对象按Bean输出声明的非静态、非transient字段
+ * <p>
+ * 配置完成后是只读的，可以在多个线程中共享
+ *
+ * @author pantao
+ * @since 1.1.0
+ */
+public class JsonStreamWriter {
+
+    /**
+     * 缓冲区超过这个大小时写出
+     */
+    public static final int FLUSH_SIZE = 8192;
+
+    /**
+     * 最大嵌套层数，超过时认为存在循环引用
+     */
+    public static final int MAX_DEPTH = 64;
+
+    private static final byte[] NULL = {'n', 'u', 'l', 'l'};
+
+    private static final byte[] TRUE = {'t', 'r', 'u', 'e'};
+
+    private static final byte[] FALSE = {'f', 'a', 'l', 's', 'e'};
+
+    private static final byte[] INDENT = {' ', ' '};
+
+    private boolean pretty = false;
+
+    private boolean serializeNulls = false;
+
+    private FieldModifier modifier = FieldModifier.ALL;
+
+    /**
+     * 是否格式化输出，默认为false
+     *
+     * @param pretty 是否格式化
+     *
+     * @return {@link JsonStreamWriter}
+     */
+    public JsonStreamWriter pretty(boolean pretty) {
+        this.pretty = pretty;
+        return this;
+    }
+
+    /**
+     * Bean字段和Map中值为null的项是否输出，默认为false（与fastjson一致），集合中的null始终输出
+     *
+     * @param serializeNulls 是否输出null
+     *
+     * @return {@link JsonStreamWriter}
+     */
+    public JsonStreamWriter serializeNulls(boolean serializeNulls) {
+        this.serializeNulls = serializeNulls;
+        return this;
+    }
+
+    /**
+     * 输出哪些权限修饰符的Bean字段，默认为 {@link FieldModifier#ALL}
+     *
+     * @param modifier 属性的权限修饰符
+     *
+     * @return {@link JsonStreamWriter}
+     */
+    public JsonStreamWriter modifier(FieldModifier modifier) {
+        this.modifier = modifier;
+        return this;
+    }
+
+    /**
+     * 写入输出流，不会关闭输出流
+     *
+     * @param value 对象
+     * @param out 输出流
+     *
+     * @throws IOException 写入失败
+     */
+    public void write(Object value, OutputStream out) throws IOException {
+        JsonBuffer buffer = JsonBuffer.acquire();
+        try {
+            new Output(buffer, out, null).value(value, 0);
+            buffer.writeTo(out);
+        } finally {
+            buffer.release();
+        }
+    }
+
+    /**
+     * 写入通道，不会关闭通道
+     *
+     * @param value 对象
+     * @param channel 通道
+     *
+     * @throws IOException 写入失败
+     */
+    public void write(Object value, WritableByteChannel channel) throws IOException {
+        JsonBuffer buffer = JsonBuffer.acquire();
+        try {
+            new Output(buffer, null, channel).value(value, 0);
+            buffer.writeTo(channel);
+        } finally {
+            buffer.release();
+        }
+    }
+
+    /**
+     * 写入缓冲区
+     *
+     * @param value 对象
+     * @param buffer 缓冲区
+     */
+    public void write(Object value, JsonBuffer buffer) {
+        try {
+            new Output(buffer, null, null).value(value, 0);
+        } catch (IOException e) {
+            // 没有输出目标时不会发生
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * 转换成JSON字符串
+     *
+     * @param value 对象
+     *
+     * @return {@link String}
+     */
+    public String toJson(Object value) {
+        JsonBuffer buffer = JsonBuffer.acquire();
+        try {
+            write(value, buffer);
+            return buffer.toString();
+        } finally {
+            buffer.release();
+        }
+    }
+
+    /**
+     * 一次写入的状态
+     */
+    private final class Output {
+
+        private final JsonBuffer buffer;
+
+        private final OutputStream out;
+
+        private final WritableByteChannel channel;
+
+        Output(JsonBuffer buffer, OutputStream out, WritableByteChannel channel) {
+            this.buffer = buffer;
+            this.out = out;
+            this.channel = channel;
+        }
+
+        void value(Object value, int depth) throws IOException {
+            if (depth > MAX_DEPTH) {
+                throw new IllegalStateException("json nesting deeper than " + MAX_DEPTH + ", circular reference?");
+            }
+            if (value == null) {
+                buffer.append(NULL);
+            } else if (value instanceof CharSequence) {
+                buffer.appendQuoted((CharSequence) value);
+            } else if (value instanceof Number) {
+                number((Number) value);
+            } else if (value instanceof Boolean) {
+                buffer.append((Boolean) value ? TRUE : FALSE);
+            } else if (value instanceof Character || value instanceof Enum) {
+                buffer.appendQuoted(value instanceof Enum ? ((Enum<?>) value).name() : value.toString());
+            } else if (value instanceof Date) {
+                buffer.append(((Date) value).getTime());
+            } else if (value instanceof Map) {
+                map((Map<?, ?>) value, depth);
+            } else if (value instanceof Iterable) {
+                array(((Iterable<?>) value).iterator(), depth);
+            } else if (value.getClass().isArray()) {
+                array(value, depth);
+            } else if (isJdkType(value.getClass())) {
+                buffer.appendQuoted(value.toString());
+            } else {
+                bean(value, depth);
+            }
+            if (buffer.size() >= FLUSH_SIZE) {
+                flush();
+            }
+        }
+
+        private void number(Number value) {
+            if (value instanceof Integer || value instanceof Long || value instanceof Short || value instanceof Byte ||
+                    value instanceof AtomicInteger || value instanceof AtomicLong) {
+                buffer.append(value.longValue());
+            } else if (value instanceof Double || value instanceof Float) {
+                double d = value.doubleValue();
+                if (Double.isNaN(d) || Double.isInfinite(d)) {
+                    buffer.appendQuoted(value.toString());
+                } else {
+                    buffer.append(value.toString());
+                }
+            } else if (value instanceof BigDecimal || value instanceof BigInteger) {
+                buffer.append(value.toString());
+            } else {
+                buffer.appendQuoted(value.toString());
+            }
+        }
+
+        private void map(Map<?, ?> map, int depth) throws IOException {
+            buffer.append((byte) '{');
+            boolean first = true;
+            for (Map.Entry<?, ?> entry : map.entrySet()) {
+                if (entry.getValue() == null && !serializeNulls) {
+                    continue;
+                }
+                first = separator(first, depth);
+                buffer.appendQuoted(String.valueOf(entry.getKey()));
+                colon();
+                value(entry.getValue(), depth + 1);
+            }
+            close('}', first, depth);
+        }
+
+        private void array(Iterator<?> iterator, int depth) throws IOException {
+            buffer.append((byte) '[');
+            boolean first = true;
+            while (iterator.hasNext()) {
+                first = separator(first, depth);
+                value(iterator.next(), depth + 1);
+            }
+            close(']', first, depth);
+        }
+
+        private void array(Object array, int depth) throws IOException {
+            buffer.append((byte) '[');
+            int length = Array.getLength(array);
+            for (int i = 0; i < length; i++) {
+                separator(i == 0, depth);
+                value(Array.get(array, i), depth + 1);
+            }
+            close(']', length == 0, depth);
+        }
+
+        private void bean(Object bean, int depth) throws IOException {
+            JsonWritePlan plan = JsonWritePlan.of(bean.getClass(), modifier, JsonMethod.AUTO);
+            buffer.append((byte) '{');
+            boolean first = true;
+            for (int index : plan.getMembers()) {
+                Object value;
+                try {
+                    value = plan.get(index, bean);
+                } catch (IllegalAccessException e) {
+                    throw new IllegalStateException(e);
+                }
+                if (value == null && !serializeNulls) {
+                    continue;
+                }
+                first = separator(first, depth);
+                buffer.append(plan.getKey(index));
+                colon();
+                value(value, depth + 1);
+            }
+            close('}', first, depth);
+        }
+
+        /**
+         * 写入元素之间的逗号（格式化时还有换行和缩进）
+         *
+         * @return 始终为false，即下一个元素不再是第一个
+         */
+        private boolean separator(boolean first, int depth) {
+            if (!first) {
+                buffer.append((byte) ',');
+            }
+            if (pretty) {
+                newLine(depth + 1);
+            }
+            return false;
+        }
+
+        private void colon() {
+            buffer.append((byte) ':');
+            if (pretty) {
+                buffer.append((byte) ' ');
+            }
+        }
+
+        private void close(char bracket, boolean empty, int depth) {
+            if (pretty && !empty) {
+                newLine(depth);
+            }
+            buffer.append((byte) bracket);
+        }
+
+        private void newLine(int depth) {
+            buffer.append((byte) '\n');
+            for (int i = 0; i < depth; i++) {
+                buffer.append(INDENT);
+            }
+        }
+
+        private void flush() throws IOException {
+            if (out != null) {
+                buffer.writeTo(out);
+                buffer.reset();
+            } else if (channel != null) {
+                buffer.writeTo(channel);
+                buffer.reset();
+            }
+        }
+    }
+
+    private static boolean isJdkType(Class<?> type) {
+        String name = type.getName();
+        return name.startsWith("java.") || name.startsWith("javax.");
+    }
+}
@@ -0,0 +1,276 @@
+package com.zhazhapan.util.json;
+
+import com.alibaba.fastjson.JSONObject;
+import com.zhazhapan.util.enums.FieldModifier;
+import com.zhazhapan.util.enums.JsonMethod;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Bean转JSON的写入计划，每个（类、修饰符、转换方式）只构建一次：字段列表、{@link MethodHandle}读取器和预先编码好的字段名
+ * <p>
+ * 手动方式（{@link JsonMethod#MANUAL}、{@link JsonMethod#HANDLE}）直接写入可复用的 {@link JsonBuffer}，
+ * 输出与 {@link com.zhazhapan.util.BeanUtils#toJsonString(Object, FieldModifier, JsonMethod)} 原来的实现完全一致；
+ * 自动方式仍然交给 {@link JSONObject}，只是省去了每次查找字段和设置访问权限
+ *
+ * @author pantao
+ * @since 1.1.0
+ */
+public final class JsonWritePlan {
+
+    private static final MethodType GETTER_TYPE = MethodType.methodType(Object.class, Object.class);
+
+    private static final int METHODS = 2;
+
+    private static final ClassValue<JsonWritePlan[]> PLANS = new ClassValue<JsonWritePlan[]>() {
+        @Override
+        protected JsonWritePlan[] computeValue(Class<?> type) {
+            return new JsonWritePlan[FieldModifier.values().length * METHODS];
+        }
+    };
+
+    private static final byte[] EMPTY_OBJECT = {'{', '}'};
+
+    private final boolean manual;
+
+    private final String[] names;
+
+    /**
+     * 手动方式下的字段前缀 "name":
+     */
+    private final byte[][] prefixes;
+
+    private final MethodHandle[] getters;
+
+    private final Field[] fields;
+
+    /**
+     * 转义并加上引号的字段名，供 {@link JsonStreamWriter} 使用
+     */
+    private final byte[][] keys;
+
+    /**
+     * 非静态、非transient字段的下标，供 {@link JsonStreamWriter} 使用
+     */
+    private final int[] members;
+
+    private JsonWritePlan(Class<?> type, FieldModifier modifier, boolean manual) {
+        this.manual = manual;
+        List<Field> selected = new ArrayList<>();
+        for (Field field : type.getDeclaredFields()) {
+            int mod = field.getModifiers();
+            boolean addable = modifier == FieldModifier.ALL || (modifier == FieldModifier.PRIVATE && Modifier
+                    .isPrivate(mod)) || (modifier == FieldModifier.PUBLIC && Modifier.isPublic(mod));
+            if (addable) {
+                selected.add(field);
+            }
+        }
+        fields = selected.toArray(new Field[0]);
+        names = new String[fields.length];
+        prefixes = new byte[fields.length][];
+        getters = new MethodHandle[fields.length];
+        keys = new byte[fields.length][];
+        int[] indexes = new int[fields.length];
+        int count = 0;
+        for (int i = 0; i < fields.length; i++) {
+            names[i] = fields[i].getName();
+            prefixes[i] = ("\"" + names[i] + "\":").getBytes(StandardCharsets.UTF_8);
+            keys[i] = new JsonBuffer(names[i].length() + 2).appendQuoted(names[i]).toByteArray();
+            getters[i] = compileGetter(fields[i]);
+            int mod = fields[i].getModifiers();
+            if (!Modifier.isStatic(mod) && !Modifier.isTransient(mod)) {
+                indexes[count++] = i;
+            }
+        }
+        members = Arrays.copyOf(indexes, count);
+    }
+
+    /**
+     * 获取写入计划，同一个类、修饰符和转换方式只构建一次
+     *
+     * @param type 类
+     * @param modifier 属性的权限修饰符
+     * @param method {@link JsonMethod}
+     *
+     * @return {@link JsonWritePlan}
+     */
+    public static JsonWritePlan of(Class<?> type, FieldModifier modifier, JsonMethod method) {
+        // MANUAL和已废弃的HANDLE都是手动方式，不直接引用HANDLE以免产生废弃警告
+        boolean manual = method != null && method != JsonMethod.AUTO;
+        JsonWritePlan[] plans = PLANS.get(type);
+        int index = modifier.ordinal() * METHODS + (manual ? 1 : 0);
+        JsonWritePlan plan = plans[index];
+        if (plan == null) {
+            // 并发时可能重复构建，计划是不可变的，任意一个都可以使用
+            plan = new JsonWritePlan(type, modifier, manual);
+            plans[index] = plan;
+        }
+        return plan;
+    }
+
+    /**
+     * 转换成JSON字符串
+     *
+     * @param bean Bean对象
+     *
+     * @return 没有格式化的JSON字符串
+     *
+     * @throws IllegalAccessException 字段无法访问
+     */
+    public String toJsonString(Object bean) throws IllegalAccessException {
+        if (!manual) {
+            return toJsonObject(bean).toString();
+        }
+        JsonBuffer buffer = JsonBuffer.acquire();
+        try {
+            write(bean, buffer);
+            return buffer.toString();
+        } finally {
+            buffer.release();
+        }
+    }
+
+    /**
+     * 以UTF-8编码写入输出流
+     *
+     * @param bean Bean对象
+     * @param out 输出流
+     *
+     * @throws IllegalAccessException 字段无法访问
+     * @throws IOException 写入失败
+     */
+    public void writeTo(Object bean, OutputStream out) throws IllegalAccessException, IOException {
+        JsonBuffer buffer = JsonBuffer.acquire();
+        try {
+            write(bean, buffer);
+            buffer.writeTo(out);
+        } finally {
+            buffer.release();
+        }
+    }
+
+    /**
+     * 写入缓冲区
+     *
+     * @param bean Bean对象
+     * @param buffer 缓冲区
+     *
+     * @throws IllegalAccessException 字段无法访问
+     */
+    public void write(Object bean, JsonBuffer buffer) throws IllegalAccessException {
+        if (!manual) {
+            buffer.append(toJsonObject(bean).toString());
+            return;
+        }
+        if (fields.length == 0) {
+            buffer.append(EMPTY_OBJECT);
+            return;
+        }
+        buffer.append((byte) '{');
+        for (int i = 0; i < fields.length; i++) {
+            Object value = get(i, bean);
+            if (value != null) {
+                buffer.append(prefixes[i]);
+                writeValue(buffer, value);
+            }
+        }
+        // 与原来的实现一致：去掉最后一个字符（逗号）再补上右括号
+        buffer.removeLast(1).append((byte) '}');
+    }
+
+    /**
+     * 获取字段名
+     *
+     * @return 字段名
+     */
+    public String[] getFieldNames() {
+        return names.clone();
+    }
+
+    private JSONObject toJsonObject(Object bean) throws IllegalAccessException {
+        JSONObject json = new JSONObject();
+        for (int i = 0; i < fields.length; i++) {
+            json.put(names[i], get(i, bean));
+        }
+        return json;
+    }
+
+    int[] getMembers() {
+        return members;
+    }
+
+    byte[] getKey(int index) {
+        return keys[index];
+    }
+
+    Object get(int index, Object bean) throws IllegalAccessException {
+        MethodHandle getter = getters[index];
+        if (getter == null) {
+            throw new IllegalAccessException("cannot access field " + fields[index]);
+        }
+        try {
+            return (Object) getter.invokeExact(bean);
+        } catch (RuntimeException | Error e) {
+            throw e;
+        } catch (Throwable e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * 写入值以及后面的逗号，列表和映射递归写入，其他对象写入带引号的 {@link String#valueOf(Object)}（不转义）
+     */
+    private static void writeValue(JsonBuffer buffer, Object value) {
+        if (value instanceof Collection) {
+            buffer.append((byte) '[');
+            for (Object element : (Collection<?>) value) {
+                writeValue(buffer, element);
+            }
+            buffer.removeLast(1).append((byte) ']').append((byte) ',');
+        } else if (value instanceof Map) {
+            buffer.append((byte) '{');
+            for (Map.Entry<?, ?> entry : ((Map<?, ?>) value).entrySet()) {
+                String key = entry.getKey().toString();
+                if (!key.isEmpty()) {
+                    buffer.append((byte) '"').append(key).append((byte) '"').append((byte) ':');
+                }
+                writeValue(buffer, entry.getValue());
+            }
+            buffer.removeLast(1).append((byte) '}').append((byte) ',');
+        } else {
+            buffer.append((byte) '"');
+            if (value instanceof Integer || value instanceof Long || value instanceof Short || value instanceof Byte) {
+                buffer.append(((Number) value).longValue());
+            } else {
+                buffer.append(String.valueOf(value));
+            }
+            buffer.append((byte) '"').append((byte) ',');
+        }
+    }
+
+    private static MethodHandle compileGetter(Field field) {
+        try {
+            field.setAccessible(true);
+            MethodHandle handle = MethodHandles.lookup().unreflectGetter(field);
+            if (Modifier.isStatic(field.getModifiers())) {
+                handle = MethodHandles.dropArguments(handle, 0, Object.class);
+            }
+            return handle.asType(GETTER_TYPE);
+        } catch (IllegalAccessException | RuntimeException e) {
+            // 无法访问的字段在写入时抛出 IllegalAccessException，与之前的行为一致
+            return null;
+        }
+    }
+}
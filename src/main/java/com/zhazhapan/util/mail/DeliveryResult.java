@@ -0,0 +1,45 @@
+package com.zhazhapan.util.mail;
+
+import com.zhazhapan.util.Checker;
+
+/**
+ * 单封邮件的投递结果
+ *
+ * @author pantao
+ * @since 1.1.0
+ */
+public class DeliveryResult {
+
+    /**
+     * 邮件
+     */
+    public final Mail mail;
+
+    /**
+     * 是否投递成功
+     */
+    public final boolean delivered;
+
+    /**
+     * 尝试次数
+     */
+    public final int attempts;
+
+    /**
+     * 最后一次失败的异常，投递成功时为null
+     */
+    public final Exception error;
+
+    public DeliveryResult(Mail mail, boolean delivered, int attempts, Exception error) {
+        this.mail = mail;
+        this.delivered = delivered;
+        this.attempts = attempts;
+        this.error = error;
+    }
+
+    @Override
+    public String toString() {
+        String status = delivered ? "delivered" : "failed";
+        return mail.to + "," + status + "," + attempts + (Checker.isNull(error) ? "" : "," + error.getMessage());
+    }
+}
@@ -0,0 +1,36 @@
+package com.zhazhapan.util.mail;
+
+/**
+ * 待发送的邮件
+ *
+ * @author pantao
+ * @since 1.1.0
+ */
+public class Mail {
+
+    /**
+     * 收件箱
+     */
+    public String to;
+
+    /**
+     * 标题
+     */
+    public String title;
+
+    /**
+     * 内容（HTML）
+     */
+    public String content;
+
+    public Mail(String to, String title, String content) {
+        this.to = to;
+        this.title = title;
+        this.content = content;
+    }
+
+    @Override
+    public String toString() {
+        return to + "," + title;
+    }
+}
@@ -0,0 +1,501 @@
+package com.zhazhapan.util.mail;
+
+import com.sun.mail.util.MailSSLSocketFactory;
+import com.zhazhapan.util.Checker;
+import org.apache.log4j.Logger;
+
+import javax.mail.*;
+import javax.mail.internet.AddressException;
+import javax.mail.internet.InternetAddress;
+import javax.mail.internet.MimeMessage;
+import java.io.Closeable;
+import java.io.UnsupportedEncodingException;
+import java.security.GeneralSecurityException;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.Properties;
+import java.util.Set;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 邮件投递引擎，适合大批量发送
+ * <p>
+ * 每个工作线程持有一个已认证的 {@link Transport} 连接，从队列中批量取出邮件并通过同一个连接发送，避免每封邮件都重新进行 TCP、TLS
+ * 握手和认证；连接发送一定数量的邮件后会重建。发送失败的邮件按指数退避重试，每封邮件的最终结果通过 {@link CompletableFuture} 返回。
+ * {@link Session} 使用独立的 {@link Properties}，不会修改系统属性
+ *
+ * @author pantao
+ * @since 1.1.0
+ */
+public class MailDeliveryEngine implements Closeable {
+
+    /**
+     * 默认每批发送的邮件数
+     */
+    public static final int DEFAULT_BATCH_SIZE = 20;
+
+    /**
+     * 默认每个连接最多发送的邮件数，超过后重建连接（多数邮件服务器会限制单个会话的邮件数）
+     */
+    public static final int DEFAULT_MESSAGES_PER_CONNECTION = 100;
+
+    /**
+     * 默认最多尝试次数
+     */
+    public static final int DEFAULT_MAX_ATTEMPTS = 3;
+
+    /**
+     * 默认首次重试的等待时长（毫秒），之后每次翻倍
+     */
+    public static final long DEFAULT_RETRY_BACKOFF = 1000;
+
+    /**
+     * 默认等待队列容量，队列满时 {@link #submit(Mail)} 会阻塞
+     */
+    public static final int DEFAULT_QUEUE_CAPACITY = 10000;
+
+    private static final Logger logger = Logger.getLogger(MailDeliveryEngine.class);
+
+    private static final AtomicInteger ENGINE_COUNT = new AtomicInteger(0);
+
+    private final Session session;
+
+    private final InternetAddress fromAddress;
+
+    private final BlockingQueue<Delivery> queue = new LinkedBlockingQueue<>();
+
+    private final Semaphore capacity;
+
+    private final Set<Delivery> unfinished = ConcurrentHashMap.newKeySet();
+
+    private final ExecutorService workers;
+
+    private final ScheduledExecutorService retryTimer;
+
+    private final AtomicLong deliveredCount = new AtomicLong(0);
+
+    private final AtomicLong failedCount = new AtomicLong(0);
+
+    private final AtomicLong retryCount = new AtomicLong(0);
+
+    private volatile int batchSize = DEFAULT_BATCH_SIZE;
+
+    private volatile int messagesPerConnection = DEFAULT_MESSAGES_PER_CONNECTION;
+
+    private volatile int maxAttempts = DEFAULT_MAX_ATTEMPTS;
+
+    private volatile long retryBackoff = DEFAULT_RETRY_BACKOFF;
+
+    private volatile boolean closed = false;
+
+    /**
+     * 新建投递引擎
+     *
+     * @param host 邮件服务器
+     * @param port 端口，小于等于0时使用默认端口
+     * @param sslEnable 是否开启SSL
+     * @param personal 个人名称
+     * @param from 发件箱
+     * @param key 密码
+     * @param connections 连接数（同时也是工作线程数）
+     *
+     * @throws GeneralSecurityException 异常
+     * @throws UnsupportedEncodingException 异常
+     */
+    public MailDeliveryEngine(String host, int port, boolean sslEnable, String personal, String from, String key,
+                              int connections) throws GeneralSecurityException, UnsupportedEncodingException {
+        this(host, port, sslEnable, personal, from, key, connections, DEFAULT_QUEUE_CAPACITY);
+    }
+
+    /**
+     * 新建投递引擎
+     *
+     * @param host 邮件服务器
+     * @param port 端口，小于等于0时使用默认端口
+     * @param sslEnable 是否开启SSL
+     * @param personal 个人名称
+     * @param from 发件箱
+     * @param key 密码
+     * @param connections 连接数（同时也是工作线程数）
+     * @param queueCapacity 等待队列容量
+     *
+     * @throws GeneralSecurityException 异常
+     * @throws UnsupportedEncodingException 异常
+     */
+    public MailDeliveryEngine(String host, int port, boolean sslEnable, String personal, String from, String key,
+                              int connections, int queueCapacity) throws GeneralSecurityException,
+            UnsupportedEncodingException {
+        this(createSession(host, port, sslEnable, from, key), new InternetAddress(from, personal, "UTF-8"),
+                connections, queueCapacity);
+    }
+
+    /**
+     * 使用指定的 {@link Session} 新建投递引擎
+     *
+     * @param session {@link Session}
+     * @param fromAddress 发件人
+     * @param connections 连接数（同时也是工作线程数）
+     * @param queueCapacity 等待队列容量
+     */
+    MailDeliveryEngine(Session session, InternetAddress fromAddress, int connections, int queueCapacity) {
+        if (connections < 1) {
+            throw new IllegalArgumentException("connections must be greater than 0");
+        }
+        this.session = session;
+        this.fromAddress = fromAddress;
+        capacity = new Semaphore(queueCapacity);
+        String prefix = "mail-delivery-" + ENGINE_COUNT.incrementAndGet();
+        AtomicInteger threadCount = new AtomicInteger(0);
+        workers = Executors.newFixedThreadPool(connections, r -> daemon(r, prefix + "-" + threadCount
+                .incrementAndGet()));
+        retryTimer = Executors.newSingleThreadScheduledExecutor(r -> daemon(r, prefix + "-retry"));
+        for (int i = 0; i < connections; i++) {
+            workers.execute(this::work);
+        }
+    }
+
+    private static Session createSession(String host, int port, boolean sslEnable, String from, String key) throws
+            GeneralSecurityException {
+        Properties properties = new Properties();
+        properties.setProperty("mail.transport.protocol", "smtp");
+        properties.setProperty("mail.smtp.host", host);
+        if (port > 0) {
+            properties.setProperty("mail.smtp.port", String.valueOf(port));
+        }
+        properties.put("mail.smtp.auth", "true");
+        properties.put("mail.smtp.connectiontimeout", "10000");
+        properties.put("mail.smtp.timeout", "30000");
+        MailSSLSocketFactory sf = new MailSSLSocketFactory();
+        sf.setTrustAllHosts(true);
+        properties.put("mail.smtp.ssl.enable", String.valueOf(sslEnable));
+        properties.put("mail.smtp.ssl.socketFactory", sf);
+        return Session.getInstance(properties, new Authenticator() {
+            @Override
+            public PasswordAuthentication getPasswordAuthentication() {
+                return new PasswordAuthentication(from, key);
+            }
+        });
+    }
+
+    private static Thread daemon(Runnable runnable, String name) {
+        Thread thread = new Thread(runnable, name);
+        thread.setDaemon(true);
+        return thread;
+    }
+
+    /**
+     * 提交一封邮件，队列已满时阻塞等待
+     *
+     * @param mail {@link Mail}
+     *
+     * @return 投递结果，邮件地址不合法时立即完成
+     *
+     * @throws InterruptedException 等待队列时被中断
+     * @throws RejectedExecutionException 引擎已关闭（包括在等待队列时关闭）
+     */
+    public CompletableFuture<DeliveryResult> submit(Mail mail) throws InterruptedException {
+        checkOpen();
+        Delivery delivery = new Delivery(mail);
+        if (!Checker.isEmail(mail.to)) {
+            failedCount.incrementAndGet();
+            delivery.future.complete(new DeliveryResult(mail, false, 0, new AddressException("this email address is" +
+                    " not valid", mail.to)));
+            return delivery.future;
+        }
+        capacity.acquire();
+        // 与shutdown互斥：关闭前入队的邮件一定在unfinished中，工作线程会等它投递完成后才退出
+        synchronized (capacity) {
+            if (closed) {
+                capacity.release();
+                checkOpen();
+            }
+            unfinished.add(delivery);
+            queue.add(delivery);
+        }
+        return delivery.future;
+    }
+
+    private void checkOpen() {
+        if (closed) {
+            throw new RejectedExecutionException("mail delivery engine has been closed");
+        }
+    }
+
+    /**
+     * 批量提交邮件
+     *
+     * @param mails 邮件
+     *
+     * @return 与mails顺序一致的投递结果
+     *
+     * @throws InterruptedException 等待队列时被中断
+     */
+    public List<CompletableFuture<DeliveryResult>> submitAll(List<Mail> mails) throws InterruptedException {
+        List<CompletableFuture<DeliveryResult>> futures = new ArrayList<>(mails.size());
+        for (Mail mail : mails) {
+            futures.add(submit(mail));
+        }
+        return futures;
+    }
+
+    /**
+     * 批量发送邮件并等待全部完成
+     *
+     * @param mails 邮件
+     *
+     * @return 与mails顺序一致的投递结果
+     *
+     * @throws InterruptedException 等待时被中断
+     */
+    public List<DeliveryResult> sendAll(List<Mail> mails) throws InterruptedException {
+        List<CompletableFuture<DeliveryResult>> futures = submitAll(mails);
+        List<DeliveryResult> results = new ArrayList<>(futures.size());
+        for (CompletableFuture<DeliveryResult> future : futures) {
+            try {
+                results.add(future.get());
+            } catch (ExecutionException e) {
+                throw new IllegalStateException(e.getCause());
+            }
+        }
+        return results;
+    }
+
+    private void work() {
+        Transport transport = null;
+        int sent = 0;
+        List<Delivery> batch = new ArrayList<>(batchSize);
+        try {
+            while (!closed || !unfinished.isEmpty()) {
+                Delivery first = queue.poll(1, TimeUnit.SECONDS);
+                if (Checker.isNull(first)) {
+                    // 空闲时释放连接，避免被服务器超时断开
+                    transport = closeQuietly(transport);
+                    continue;
+                }
+                batch.add(first);
+                queue.drainTo(batch, batchSize - 1);
+                for (Delivery delivery : batch) {
+                    if (delivery.future.isDone()) {
+                        finish(delivery, null);
+                        continue;
+                    }
+                    delivery.attempts++;
+                    try {
+                        if (Checker.isNull(transport) || !transport.isConnected() || sent >= messagesPerConnection) {
+                            closeQuietly(transport);
+                            transport = session.getTransport();
+                            transport.connect();
+                            sent = 0;
+                        }
+                        MimeMessage message = buildMessage(delivery.mail);
+                        transport.sendMessage(message, message.getAllRecipients());
+                        sent++;
+                        deliveredCount.incrementAndGet();
+                        finish(delivery, new DeliveryResult(delivery.mail, true, delivery.attempts, null));
+                    } catch (SendFailedException e) {
+                        // 收件地址被拒绝，只有存在未发送的有效地址时才重试
+                        retryOrFail(delivery, e, Checker.isNotEmpty(e.getValidUnsentAddresses()));
+                    } catch (AuthenticationFailedException e) {
+                        transport = closeQuietly(transport);
+                        retryOrFail(delivery, e, false);
+                    } catch (MessagingException e) {
+                        transport = closeQuietly(transport);
+                        retryOrFail(delivery, e, true);
+                    } catch (RuntimeException e) {
+                        // 传输实现或邮件构建的错误不是临时故障，不重试，连接状态未知所以重建
+                        transport = closeQuietly(transport);
+                        retryOrFail(delivery, e, false);
+                    }
+                }
+                batch.clear();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            closeQuietly(transport);
+        }
+    }
+
+    private MimeMessage buildMessage(Mail mail) throws MessagingException {
+        MimeMessage message = new MimeMessage(session);
+        message.setFrom(fromAddress);
+        message.addRecipient(Message.RecipientType.TO, new InternetAddress(mail.to));
+        message.setSubject(mail.title, "UTF-8");
+        message.setContent(mail.content, "text/html;charset=UTF-8");
+        message.setSentDate(new Date());
+        return message;
+    }
+
+    private void retryOrFail(Delivery delivery, Exception e, boolean retryable) {
+        if (retryable && delivery.attempts < maxAttempts && !retryTimer.isShutdown()) {
+            long delay = retryBackoff << Math.min(delivery.attempts - 1, 16);
+            try {
+                retryTimer.schedule(() -> queue.add(delivery), delay, TimeUnit.MILLISECONDS);
+                retryCount.incrementAndGet();
+                logger.warn("send mail to " + delivery.mail.to + " failed, retry after " + delay + "ms: " + e
+                        .getMessage());
+                return;
+            } catch (RejectedExecutionException rejected) {
+                // shutdown超时后重试定时器已关闭，直接返回失败结果
+                e.addSuppressed(rejected);
+            }
+        }
+        failedCount.incrementAndGet();
+        logger.error("send mail to " + delivery.mail.to + " failed after " + delivery.attempts + " attempts: " + e
+                .getMessage());
+        finish(delivery, new DeliveryResult(delivery.mail, false, delivery.attempts, e));
+    }
+
+    private void finish(Delivery delivery, DeliveryResult result) {
+        if (Checker.isNotNull(result)) {
+            delivery.future.complete(result);
+        }
+        if (unfinished.remove(delivery)) {
+            capacity.release();
+        }
+    }
+
+    private static Transport closeQuietly(Transport transport) {
+        if (Checker.isNotNull(transport)) {
+            try {
+                transport.close();
+            } catch (MessagingException e) {
+                logger.warn("close mail transport failed: " + e.getMessage());
+            }
+        }
+        return null;
+    }
+
+    /**
+     * 关闭引擎，不再接收新邮件（正在等待队列容量的提交也会被拒绝），已提交的邮件（包括等待重试的）会继续投递，最多等待指定时长
+     *
+     * @param timeout 等待时长
+     * @param unit 时间单位
+     *
+     * @return 是否全部投递完成
+     *
+     * @throws InterruptedException 等待时被中断
+     */
+    public boolean shutdown(long timeout, TimeUnit unit) throws InterruptedException {
+        synchronized (capacity) {
+            if (!closed) {
+                closed = true;
+                // 唤醒阻塞在队列容量上的提交者，它们会看到已关闭并被拒绝
+                capacity.release(Integer.MAX_VALUE / 2);
+            }
+        }
+        workers.shutdown();
+        boolean terminated = workers.awaitTermination(timeout, unit);
+        retryTimer.shutdownNow();
+        if (!terminated) {
+            workers.shutdownNow();
+            // 超时未投递的邮件直接返回失败结果
+            MessagingException e = new MessagingException("mail delivery engine has been closed");
+            for (Delivery delivery : unfinished) {
+                failedCount.incrementAndGet();
+                finish(delivery, new DeliveryResult(delivery.mail, false, delivery.attempts, e));
+            }
+        }
+        return terminated;
+    }
+
+    /**
+     * 关闭引擎，最多等待一分钟
+     */
+    @Override
+    public void close() {
+        try {
+            shutdown(1, TimeUnit.MINUTES);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * 获取投递成功的邮件数
+     *
+     * @return {@link Long}
+     */
+    public long getDeliveredCount() {
+        return deliveredCount.get();
+    }
+
+    /**
+     * 获取最终投递失败的邮件数
+     *
+     * @return {@link Long}
+     */
+    public long getFailedCount() {
+        return failedCount.get();
+    }
+
+    /**
+     * 获取重试次数
+     *
+     * @return {@link Long}
+     */
+    public long getRetryCount() {
+        return retryCount.get();
+    }
+
+    /**
+     * 获取尚未完成（等待中、发送中或等待重试）的邮件数
+     *
+     * @return {@link Integer}
+     */
+    public int getPendingCount() {
+        return unfinished.size();
+    }
+
+    /**
+     * 设置每批发送的邮件数
+     *
+     * @param batchSize 每批邮件数
+     */
+    public void setBatchSize(int batchSize) {
+        this.batchSize = Math.max(1, batchSize);
+    }
+
+    /**
+     * 设置每个连接最多发送的邮件数
+     *
+     * @param messagesPerConnection 邮件数
+     */
+    public void setMessagesPerConnection(int messagesPerConnection) {
+        this.messagesPerConnection = Math.max(1, messagesPerConnection);
+    }
+
+    /**
+     * 设置最多尝试次数
+     *
+     * @param maxAttempts 最多尝试次数
+     */
+    public void setMaxAttempts(int maxAttempts) {
+        this.maxAttempts = Math.max(1, maxAttempts);
+    }
+
+    /**
+     * 设置首次重试的等待时长（毫秒），之后每次翻倍
+     *
+     * @param retryBackoff 等待时长
+     */
+    public void setRetryBackoff(long retryBackoff) {
+        this.retryBackoff = Math.max(0, retryBackoff);
+    }
+
+    private static class Delivery {
+
+        private final Mail mail;
+
+        private final CompletableFuture<DeliveryResult> future = new CompletableFuture<>();
+
+        private int attempts = 0;
+
+        private Delivery(Mail mail) {
+            this.mail = mail;
+        }
+    }
+}
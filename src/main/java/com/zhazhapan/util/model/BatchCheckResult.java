@@ -0,0 +1,64 @@
+package com.zhazhapan.util.model;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * 批量校验的结果，只记录不通过的行：行号升序排列，与违例列表一一对应
+ *
+ * @author pantao
+ * @since 1.1.0
+ */
+public class BatchCheckResult {
+
+    /**
+     * 校验的总行数
+     */
+    public int total = 0;
+
+    /**
+     * 不通过的行号（从0开始），升序排列
+     */
+    public int[] invalidRows = new int[0];
+
+    /**
+     * 不通过的行对应的违例
+     */
+    public List<List<Violation>> violations = Collections.emptyList();
+
+    /**
+     * 是否全部通过
+     *
+     * @return {@link Boolean}
+     */
+    public boolean isPassed() {
+        return invalidRows.length == 0;
+    }
+
+    /**
+     * 获取不通过的行数
+     *
+     * @return {@link Integer}
+     */
+    public int getInvalidCount() {
+        return invalidRows.length;
+    }
+
+    /**
+     * 获取指定行的违例
+     *
+     * @param row 行号
+     *
+     * @return 违例，该行通过时返回空列表
+     */
+    public List<Violation> getViolations(int row) {
+        int index = Arrays.binarySearch(invalidRows, row);
+        return index < 0 ? Collections.emptyList() : violations.get(index);
+    }
+
+    @Override
+    public String toString() {
+        return "BatchCheckResult{total=" + total + ", invalid=" + invalidRows.length + "}";
+    }
+}
@@ -1,5 +1,7 @@
 package com.zhazhapan.util.model;
 
+import java.util.List;
+
 /**
  * @author pantao
  * @since 2018/7/17
@@ -9,4 +11,11 @@ public class CheckResult {
     public boolean passed = true;
 
     public ResultObject resultObject = null;
+
+    /**
+     * 所有不通过的字段，只在收集全部违例时设置，见 {@link com.zhazhapan.util.Checker#checkBean(Object, boolean)}
+     *
+     * @since 1.1.0
+     */
+    public List<Violation> violations = null;
 }
@@ -0,0 +1,73 @@
+package com.zhazhapan.util.model;
+
+import com.zhazhapan.util.enums.PoolAdjustment;
+
+/**
+ * 自适应线程池的一次调整决策及其依据
+ *
+ * @author pantao
+ * @since 1.1.0
+ */
+public class PoolDecision {
+
+    /**
+     * 决策时间（毫秒时间戳）
+     */
+    public long timestamp = System.currentTimeMillis();
+
+    /**
+     * 调整动作
+     */
+    public PoolAdjustment adjustment = PoolAdjustment.HOLD;
+
+    /**
+     * 调整前的线程数
+     */
+    public int sizeBefore = 0;
+
+    /**
+     * 调整后的线程数
+     */
+    public int sizeAfter = 0;
+
+    /**
+     * 采样周期内的吞吐量（任务数/秒）
+     */
+    public double throughput = 0;
+
+    /**
+     * 采样周期内的到达速率（任务数/秒）
+     */
+    public double arrivalRate = 0;
+
+    /**
+     * 采样周期内任务的平均执行耗时（毫秒）
+     */
+    public double serviceTime = 0;
+
+    /**
+     * 采样周期内任务的平均排队耗时（毫秒）
+     */
+    public double queueWait = 0;
+
+    /**
+     * 采样时的队列深度
+     */
+    public int queueDepth = 0;
+
+    /**
+     * 根据利特尔法则（并发数 = 到达速率 × 执行耗时）估算的线程数
+     */
+    public int estimatedSize = 0;
+
+    /**
+     * 决策原因
+     */
+    public String reason = "";
+
+    @Override
+    public String toString() {
+        return String.format("%s %d->%d (%s, throughput=%.1f/s, wait=%.2fms, queue=%d, estimated=%d)", adjustment,
+                sizeBefore, sizeAfter, reason, throughput, queueWait, queueDepth, estimatedSize);
+    }
+}
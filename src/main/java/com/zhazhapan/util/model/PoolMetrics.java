@@ -0,0 +1,97 @@
+package com.zhazhapan.util.model;
+
+/**
+ * 线程池某一时刻的运行指标，耗时单位均为纳秒
+ *
+ * @author pantao
+ * @since 1.1.0
+ */
+public class PoolMetrics {
+
+    /**
+     * 线程池名称
+     */
+    public String name = "";
+
+    /**
+     * 当前线程数
+     */
+    public int poolSize = 0;
+
+    /**
+     * 核心线程数
+     */
+    public int corePoolSize = 0;
+
+    /**
+     * 最大线程数
+     */
+    public int maximumPoolSize = 0;
+
+    /**
+     * 历史最大线程数
+     */
+    public int largestPoolSize = 0;
+
+    /**
+     * 正在执行任务的线程数
+     */
+    public int activeThreads = 0;
+
+    /**
+     * 队列中等待的任务数
+     */
+    public int queueDepth = 0;
+
+    /**
+     * 队列剩余容量
+     */
+    public int queueRemainingCapacity = 0;
+
+    /**
+     * 已完成的任务数
+     */
+    public long completedTasks = 0;
+
+    /**
+     * 被拒绝的任务数（包括由调用线程执行的任务）
+     */
+    public long rejectedTasks = 0;
+
+    /**
+     * 任务执行耗时的平均值
+     */
+    public double taskLatencyMean = 0;
+
+    /**
+     * 任务执行耗时的中位数
+     */
+    public long taskLatencyP50 = 0;
+
+    /**
+     * 任务执行耗时的99分位
+     */
+    public long taskLatencyP99 = 0;
+
+    /**
+     * 任务执行耗时的最大值
+     */
+    public long taskLatencyMax = 0;
+
+    /**
+     * 任务排队耗时的中位数
+     */
+    public long queueWaitP50 = 0;
+
+    /**
+     * 任务排队耗时的99分位
+     */
+    public long queueWaitP99 = 0;
+
+    @Override
+    public String toString() {
+        return name + "{pool=" + poolSize + "/" + maximumPoolSize + ", active=" + activeThreads + ", queue=" +
+                queueDepth + ", completed=" + completedTasks + ", rejected=" + rejectedTasks + ", p50=" +
+                taskLatencyP50 + "ns, p99=" + taskLatencyP99 + "ns, wait.p99=" + queueWaitP99 + "ns}";
+    }
+}
@@ -0,0 +1,67 @@
+package com.zhazhapan.util.model;
+
+/**
+ * 流水线阶段某一时刻的运行指标，耗时单位均为毫秒
+ *
+ * @author pantao
+ * @since 1.1.0
+ */
+public class StageMetrics {
+
+    /**
+     * 阶段名称
+     */
+    public String name = "";
+
+    /**
+     * 并行数
+     */
+    public int parallelism = 0;
+
+    /**
+     * 已接收的元素数
+     */
+    public long received = 0;
+
+    /**
+     * 已输出的元素数
+     */
+    public long emitted = 0;
+
+    /**
+     * 输入队列中等待的元素数
+     */
+    public int queueDepth = 0;
+
+    /**
+     * 输入队列容量
+     */
+    public int queueCapacity = 0;
+
+    /**
+     * 吞吐量（每秒接收的元素数）
+     */
+    public double throughput = 0;
+
+    /**
+     * 处理函数的累计耗时
+     */
+    public double busyTime = 0;
+
+    /**
+     * 因下游队列已满而阻塞的累计耗时，持续增长说明下游是瓶颈
+     */
+    public double blockedTime = 0;
+
+    /**
+     * 是否已结束
+     */
+    public boolean finished = false;
+
+    @Override
+    public String toString() {
+        return String.format("%s{parallelism=%d, received=%d, emitted=%d, queue=%d/%d, throughput=%.1f/s, " +
+                "busy=%.1fms, blocked=%.1fms}", name, parallelism, received, emitted, queueDepth, queueCapacity,
+                throughput, busyTime, blockedTime);
+    }
+}
@@ -0,0 +1,50 @@
+package com.zhazhapan.util.model;
+
+/**
+ * 字段校验不通过的信息，同一条规则的所有违例共用一个实例，因此字段都是只读的
+ *
+ * @author pantao
+ * @since 1.1.0
+ */
+public class Violation {
+
+    /**
+     * 字段名，字段无法访问时为null
+     */
+    public final String field;
+
+    /**
+     * 校验码
+     */
+    public final int code;
+
+    /**
+     * 提示消息
+     */
+    public final String message;
+
+    /**
+     * 状态
+     */
+    public final String status;
+
+    /**
+     * 新建违例
+     *
+     * @param field 字段名
+     * @param code 校验码
+     * @param message 提示消息
+     * @param status 状态
+     */
+    public Violation(String field, int code, String message, String status) {
+        this.field = field;
+        this.code = code;
+        this.message = message;
+        this.status = status;
+    }
+
+    @Override
+    public String toString() {
+        return field + "{code=" + code + ", message=" + message + "}";
+    }
+}
@@ -0,0 +1,306 @@
+package com.zhazhapan.util.net;
+
+import com.zhazhapan.util.Checker;
+import com.zhazhapan.util.NetUtils;
+import org.apache.commons.io.IOUtils;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.HttpURLConnection;
+import java.net.URL;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Function;
+
+/**
+ * 异步抓取网页内容，所有请求返回 {@link CompletableFuture}，调用线程不会被阻塞
+ * <p>
+ * 同时进行中的请求数量受 maxInFlight 限制，超出部分进入等待队列；每个请求都支持连接超时、读取超时、总超时以及通过 {@link
+ * CompletableFuture#cancel(boolean)} 取消（取消时会断开底层连接）。{@link CompletableFuture#thenApply(Function)}
+ * 派生的Future被取消时不会取消原请求，需要转换结果时使用 {@link #thenApply(CompletableFuture, Function)}
+ *
+ * @author pantao
+ * @since 1.1.0
+ */
+public class AsyncHttpFetcher implements Closeable {
+
+    /**
+     * 默认同时进行中的请求数
+     */
+    public static final int DEFAULT_MAX_IN_FLIGHT = 16;
+
+    /**
+     * 默认连接超时（毫秒）
+     */
+    public static final int DEFAULT_CONNECT_TIMEOUT = 1000 * 6;
+
+    /**
+     * 默认读取超时（毫秒）
+     */
+    public static final int DEFAULT_READ_TIMEOUT = 1000 * 15;
+
+    /**
+     * 默认总超时（毫秒）
+     */
+    public static final long DEFAULT_TIMEOUT = 1000 * 30;
+
+    private static final AtomicInteger FETCHER_COUNT = new AtomicInteger(0);
+
+    private final ThreadPoolExecutor executor;
+
+    private final ScheduledExecutorService timer;
+
+    private final int connectTimeout;
+
+    private final int readTimeout;
+
+    private final long timeout;
+
+    /**
+     * 使用默认配置
+     */
+    public AsyncHttpFetcher() {
+        this(DEFAULT_MAX_IN_FLIGHT);
+    }
+
+    /**
+     * 指定同时进行中的请求数
+     *
+     * @param maxInFlight 同时进行中的最大请求数
+     */
+    public AsyncHttpFetcher(int maxInFlight) {
+        this(maxInFlight, DEFAULT_CONNECT_TIMEOUT, DEFAULT_READ_TIMEOUT, DEFAULT_TIMEOUT);
+    }
+
+    /**
+     * 新建异步抓取器
+     *
+     * @param maxInFlight 同时进行中的最大请求数
+     * @param connectTimeout 连接超时（毫秒）
+     * @param readTimeout 读取超时（毫秒）
+     * @param timeout 单个请求的总超时（毫秒），小于等于0时不限制
+     */
+    public AsyncHttpFetcher(int maxInFlight, int connectTimeout, int readTimeout, long timeout) {
+        if (maxInFlight < 1) {
+            throw new IllegalArgumentException("maxInFlight must be greater than 0");
+        }
+        this.connectTimeout = connectTimeout;
+        this.readTimeout = readTimeout;
+        this.timeout = timeout;
+        String prefix = "async-fetcher-" + FETCHER_COUNT.incrementAndGet();
+        AtomicInteger threadCount = new AtomicInteger(0);
+        executor = new ThreadPoolExecutor(maxInFlight, maxInFlight, 60, TimeUnit.SECONDS, new
+                LinkedBlockingQueue<>(), r -> daemon(r, prefix + "-io-" + threadCount.incrementAndGet()));
+        executor.allowCoreThreadTimeOut(true);
+        timer = Executors.newSingleThreadScheduledExecutor(r -> daemon(r, prefix + "-timer"));
+    }
+
+    private static Thread daemon(Runnable runnable, String name) {
+        Thread thread = new Thread(runnable, name);
+        thread.setDaemon(true);
+        return thread;
+    }
+
+    /**
+     * 异步获取URL的全部字节
+     *
+     * @param url 网络链接
+     *
+     * @return {@link CompletableFuture}
+     */
+    public CompletableFuture<byte[]> fetchBytes(URL url) {
+        return fetch(url, (connection, in) -> IOUtils.toByteArray(in));
+    }
+
+    /**
+     * 异步获取URL的内容，字符集取自响应头，没有时使用UTF-8
+     *
+     * @param url 网络链接
+     *
+     * @return {@link CompletableFuture}
+     */
+    public CompletableFuture<String> fetchString(URL url) {
+        return fetch(url, (connection, in) -> new String(IOUtils.toByteArray(in), getCharset(connection)));
+    }
+
+    /**
+     * 异步请求URL，并使用自定义的处理器处理响应
+     *
+     * @param url 网络链接
+     * @param handler 响应处理器，在IO线程中执行
+     * @param <T> 结果类型
+     *
+     * @return {@link CompletableFuture}，已关闭时以 {@link RejectedExecutionException} 异常完成，不会直接抛出
+     */
+    public <T> CompletableFuture<T> fetch(URL url, ResponseHandler<T> handler) {
+        CompletableFuture<T> future = new CompletableFuture<>();
+        if (executor.isShutdown()) {
+            future.completeExceptionally(new RejectedExecutionException("fetcher has been closed"));
+            return future;
+        }
+        AtomicReference<HttpURLConnection> connection = new AtomicReference<>();
+        Future<?> task;
+        try {
+            task = submit(url, handler, future, connection);
+        } catch (RejectedExecutionException e) {
+            // 检查之后被并发关闭
+            future.completeExceptionally(e);
+            return future;
+        }
+        ScheduledFuture<?> timeoutTask = null;
+        if (timeout > 0) {
+            try {
+                timeoutTask = timer.schedule(() -> future.completeExceptionally(new TimeoutException("fetch " + url +
+                        " timed out after " + timeout + "ms")), timeout, TimeUnit.MILLISECONDS);
+            } catch (RejectedExecutionException e) {
+                future.completeExceptionally(e);
+            }
+        }
+        ScheduledFuture<?> scheduled = timeoutTask;
+        future.whenComplete((result, throwable) -> {
+            if (Checker.isNotNull(scheduled)) {
+                scheduled.cancel(false);
+            }
+            if (Checker.isNotNull(throwable)) {
+                // 取消或超时，断开连接让IO线程尽快释放
+                task.cancel(true);
+                HttpURLConnection conn = connection.get();
+                if (Checker.isNotNull(conn)) {
+                    conn.disconnect();
+                }
+            }
+        });
+        return future;
+    }
+
+    private <T> Future<?> submit(URL url, ResponseHandler<T> handler, CompletableFuture<T> future,
+                                 AtomicReference<HttpURLConnection> connection) {
+        return executor.submit(() -> {
+            if (future.isDone()) {
+                // 排队期间已取消或超时
+                return;
+            }
+            try {
+                HttpURLConnection conn = (HttpURLConnection) url.openConnection();
+                connection.set(conn);
+                conn.setConnectTimeout(connectTimeout);
+                conn.setReadTimeout(readTimeout);
+                NetUtils.setDefaultRequestProperties(conn);
+                if (future.isDone()) {
+                    return;
+                }
+                try (InputStream in = conn.getInputStream()) {
+                    future.complete(handler.handle(conn, in));
+                }
+            } catch (Throwable e) {
+                future.completeExceptionally(e);
+            } finally {
+                HttpURLConnection conn = connection.get();
+                if (Checker.isNotNull(conn)) {
+                    conn.disconnect();
+                }
+            }
+        });
+    }
+
+    /**
+     * 转换请求的结果，返回的 {@link CompletableFuture} 被取消时同时取消原请求
+     *
+     * @param source 原请求
+     * @param fn 转换函数
+     * @param <T> 原结果类型
+     * @param <R> 转换后的结果类型
+     *
+     * @return {@link CompletableFuture}
+     */
+    public static <T, R> CompletableFuture<R> thenApply(CompletableFuture<T> source, Function<? super T, ? extends
+            R> fn) {
+        CompletableFuture<R> derived = source.thenApply(fn);
+        derived.whenComplete((result, throwable) -> {
+            if (derived.isCancelled()) {
+                source.cancel(true);
+            }
+        });
+        return derived;
+    }
+
+    /**
+     * 获取正在进行中的请求数
+     *
+     * @return {@link Integer}
+     */
+    public int getInFlightCount() {
+        return executor.getActiveCount();
+    }
+
+    /**
+     * 获取等待中的请求数
+     *
+     * @return {@link Integer}
+     */
+    public int getPendingCount() {
+        return executor.getQueue().size();
+    }
+
+    /**
+     * 关闭抓取器，进行中的请求会继续执行完毕
+     */
+    @Override
+    public void close() {
+        executor.shutdown();
+        timer.shutdown();
+    }
+
+    private static Charset getCharset(HttpURLConnection connection) {
+        return parseCharset(connection.getContentType(), StandardCharsets.UTF_8);
+    }
+
+    /**
+     * 从Content-Type中解析字符集
+     *
+     * @param contentType Content-Type
+     * @param defaultCharset 解析失败时使用的字符集
+     *
+     * @return {@link Charset}
+     */
+    static Charset parseCharset(String contentType, Charset defaultCharset) {
+        if (Checker.isNotEmpty(contentType)) {
+            for (String part : contentType.split(";")) {
+                part = part.trim();
+                if (part.toLowerCase().startsWith("charset=")) {
+                    try {
+                        return Charset.forName(part.substring(8).replace("\"", "").trim());
+                    } catch (IllegalArgumentException e) {
+                        break;
+                    }
+                }
+            }
+        }
+        return defaultCharset;
+    }
+
+    /**
+     * 响应处理器
+     *
+     * @param <T> 结果类型
+     */
+    @FunctionalInterface
+    public interface ResponseHandler<T> {
+
+        /**
+         * 处理响应
+         *
+         * @param connection 链接对象
+         * @param in 响应输入流，处理完毕后会自动关闭
+         *
+         * @return 处理结果
+         *
+         * @throws IOException 异常
+         */
+        T handle(HttpURLConnection connection, InputStream in) throws IOException;
+    }
+}
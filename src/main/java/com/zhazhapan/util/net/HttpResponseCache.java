@@ -0,0 +1,552 @@
+package com.zhazhapan.util.net;
+
+import com.google.common.hash.Hashing;
+import com.zhazhapan.modules.constant.HttpHeaders;
+import com.zhazhapan.modules.constant.ValueConsts;
+import com.zhazhapan.util.Checker;
+import com.zhazhapan.util.NetUtils;
+import org.apache.commons.io.IOUtils;
+import org.apache.log4j.Logger;
+
+import java.io.*;
+import java.net.HttpURLConnection;
+import java.net.URL;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.text.SimpleDateFormat;
+import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * HTTP响应缓存，内存缓存加可选的磁盘缓存
+ * <p>
+ * 遵循 Cache-Control（no-store、no-cache、max-age）和 Expires 响应头判断是否新鲜，过期后使用 If-None-Match、If-Modified-Since
+ * 进行条件请求，服务器返回304时直接复用缓存内容。内存和磁盘均按字节大小淘汰最久未使用的条目，同一URL的并发请求只会发起一次网络请求
+ *
+ * @author pantao
+ * @since 1.1.0
+ */
+public class HttpResponseCache {
+
+    private static final Logger logger = Logger.getLogger(HttpResponseCache.class);
+
+    private static final int DISK_MAGIC = 0x48524331;
+
+    private static final String DISK_SUFFIX = ".cache";
+
+    private static final String HTTP_DATE_PATTERN = "EEE, dd MMM yyyy HH:mm:ss zzz";
+
+    private final LinkedHashMap<String, CachedResponse> memory = new LinkedHashMap<>(16, 0.75f, true);
+
+    private final LinkedHashMap<String, Long> diskIndex = new LinkedHashMap<>(16, 0.75f, true);
+
+    private final ConcurrentHashMap<String, CompletableFuture<CachedResponse>> inFlight = new ConcurrentHashMap<>();
+
+    private final long maxMemoryBytes;
+
+    private final File directory;
+
+    private final long maxDiskBytes;
+
+    private final AtomicLong hitCount = new AtomicLong(0);
+
+    private final AtomicLong revalidateCount = new AtomicLong(0);
+
+    private final AtomicLong missCount = new AtomicLong(0);
+
+    private long memoryBytes = 0;
+
+    private long diskBytes = 0;
+
+    private int connectTimeout = AsyncHttpFetcher.DEFAULT_CONNECT_TIMEOUT;
+
+    private int readTimeout = AsyncHttpFetcher.DEFAULT_READ_TIMEOUT;
+
+    /**
+     * 只使用内存缓存
+     *
+     * @param maxMemoryBytes 内存缓存的最大字节数
+     */
+    public HttpResponseCache(long maxMemoryBytes) {
+        this(maxMemoryBytes, null, 0);
+    }
+
+    /**
+     * 使用内存缓存和磁盘缓存
+     *
+     * @param maxMemoryBytes 内存缓存的最大字节数
+     * @param directory 磁盘缓存目录，为null时不使用磁盘缓存
+     * @param maxDiskBytes 磁盘缓存的最大字节数
+     */
+    public HttpResponseCache(long maxMemoryBytes, File directory, long maxDiskBytes) {
+        this.maxMemoryBytes = maxMemoryBytes;
+        this.directory = directory;
+        this.maxDiskBytes = maxDiskBytes;
+        if (Checker.isNotNull(directory)) {
+            if (!directory.exists() && !directory.mkdirs()) {
+                throw new IllegalArgumentException("can't create cache directory: " + directory.getAbsolutePath());
+            }
+            loadDiskIndex();
+        }
+    }
+
+    /**
+     * 获取URL的内容，优先使用缓存
+     *
+     * @param url 网络链接
+     *
+     * @return {@link String}
+     *
+     * @throws IOException 异常
+     */
+    public String getString(URL url) throws IOException {
+        return get(url).getString();
+    }
+
+    /**
+     * 获取URL的响应，优先使用缓存
+     *
+     * @param url 网络链接
+     *
+     * @return {@link CachedResponse}
+     *
+     * @throws IOException 异常
+     */
+    public CachedResponse get(URL url) throws IOException {
+        String key = url.toString();
+        CachedResponse cached = lookup(key);
+        if (Checker.isNotNull(cached) && cached.isFresh()) {
+            hitCount.incrementAndGet();
+            return cached;
+        }
+        CompletableFuture<CachedResponse> future = new CompletableFuture<>();
+        CompletableFuture<CachedResponse> running = inFlight.putIfAbsent(key, future);
+        if (Checker.isNotNull(running)) {
+            // 已有相同的请求正在进行，等待其结果
+            return await(running);
+        }
+        try {
+            // 另一个相同的请求可能刚刚完成
+            cached = lookup(key);
+            if (Checker.isNotNull(cached) && cached.isFresh()) {
+                hitCount.incrementAndGet();
+                future.complete(cached);
+                return cached;
+            }
+            CachedResponse response = load(url, key, cached);
+            future.complete(response);
+            return response;
+        } catch (IOException | RuntimeException e) {
+            future.completeExceptionally(e);
+            throw e;
+        } finally {
+            inFlight.remove(key, future);
+        }
+    }
+
+    /**
+     * 删除指定URL的缓存
+     *
+     * @param url 网络链接
+     */
+    public void remove(URL url) {
+        String key = url.toString();
+        synchronized (this) {
+            CachedResponse removed = memory.remove(key);
+            if (Checker.isNotNull(removed)) {
+                memoryBytes -= removed.size();
+            }
+            if (Checker.isNotNull(directory)) {
+                removeFromDisk(fileName(key));
+            }
+        }
+    }
+
+    /**
+     * 清空缓存
+     */
+    public synchronized void clear() {
+        memory.clear();
+        memoryBytes = 0;
+        if (Checker.isNotNull(directory)) {
+            for (String name : new ArrayList<>(diskIndex.keySet())) {
+                removeFromDisk(name);
+            }
+        }
+    }
+
+    private CachedResponse load(URL url, String key, CachedResponse cached) throws IOException {
+        HttpURLConnection connection = (HttpURLConnection) url.openConnection();
+        try {
+            connection.setConnectTimeout(connectTimeout);
+            connection.setReadTimeout(readTimeout);
+            NetUtils.setDefaultRequestProperties(connection);
+            if (Checker.isNotNull(cached)) {
+                if (Checker.isNotEmpty(cached.etag)) {
+                    connection.setRequestProperty(HttpHeaders.IF_NONE_MATCH, cached.etag);
+                }
+                if (cached.lastModified > 0) {
+                    connection.setRequestProperty(HttpHeaders.IF_MODIFIED_SINCE, formatHttpDate(cached.lastModified));
+                }
+            }
+            int code = connection.getResponseCode();
+            long now = System.currentTimeMillis();
+            if (code == HttpURLConnection.HTTP_NOT_MODIFIED && Checker.isNotNull(cached)) {
+                revalidateCount.incrementAndGet();
+                CachedResponse refreshed = new CachedResponse(key, cached.body, cached.contentType, Checker.checkNull
+                        (connection.getHeaderField(HttpHeaders.ETAG), cached.etag), cached.lastModified, getExpiresAt
+                        (connection, now));
+                store(refreshed);
+                return refreshed;
+            }
+            missCount.incrementAndGet();
+            byte[] body;
+            try (InputStream in = connection.getInputStream()) {
+                body = IOUtils.toByteArray(in);
+            }
+            CachedResponse response = new CachedResponse(key, body, connection.getContentType(), connection
+                    .getHeaderField(HttpHeaders.ETAG), connection.getLastModified(), getExpiresAt(connection, now));
+            if (code == ValueConsts.RESPONSE_OK && isStorable(connection, response)) {
+                store(response);
+            } else if (Checker.isNotNull(cached)) {
+                remove(url);
+            }
+            return response;
+        } finally {
+            connection.disconnect();
+        }
+    }
+
+    private static CachedResponse await(CompletableFuture<CachedResponse> future) throws IOException {
+        try {
+            return future.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException(e.getMessage());
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof IOException) {
+                throw (IOException) cause;
+            }
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+            throw new IOException(cause);
+        }
+    }
+
+    private static boolean isStorable(HttpURLConnection connection, CachedResponse response) {
+        String cacheControl = Checker.checkNull(connection.getHeaderField(HttpHeaders.CACHE_CONTROL)).toLowerCase();
+        if (cacheControl.contains("no-store")) {
+            return false;
+        }
+        // 没有过期时间也没有校验信息的响应缓存后无法复用
+        return response.isFresh() || Checker.isNotEmpty(response.etag) || response.lastModified > 0;
+    }
+
+    private static long getExpiresAt(HttpURLConnection connection, long now) {
+        String cacheControl = connection.getHeaderField(HttpHeaders.CACHE_CONTROL);
+        if (Checker.isNotEmpty(cacheControl)) {
+            long maxAge = -1;
+            for (String directive : cacheControl.toLowerCase().split(ValueConsts.COMMA_SIGN)) {
+                directive = directive.trim();
+                if (directive.startsWith("no-cache") || directive.startsWith("no-store")) {
+                    return now;
+                }
+                if (directive.startsWith("max-age=")) {
+                    try {
+                        maxAge = Long.parseLong(directive.substring(8).replace("\"", "").trim());
+                    } catch (NumberFormatException e) {
+                        maxAge = 0;
+                    }
+                }
+            }
+            if (maxAge >= 0) {
+                return now + maxAge * 1000;
+            }
+        }
+        if (Checker.checkNull(connection.getHeaderField(HttpHeaders.PRAGMA)).toLowerCase().contains("no-cache")) {
+            return now;
+        }
+        long expires = connection.getExpiration();
+        return expires > 0 ? expires : now;
+    }
+
+    private static String formatHttpDate(long time) {
+        SimpleDateFormat format = new SimpleDateFormat(HTTP_DATE_PATTERN, Locale.US);
+        format.setTimeZone(TimeZone.getTimeZone("GMT"));
+        return format.format(new Date(time));
+    }
+
+    private CachedResponse lookup(String key) {
+        synchronized (this) {
+            CachedResponse response = memory.get(key);
+            if (Checker.isNotNull(response) || Checker.isNull(directory)) {
+                return response;
+            }
+        }
+        CachedResponse response = readFromDisk(key);
+        if (Checker.isNotNull(response)) {
+            putInMemory(response);
+        }
+        return response;
+    }
+
+    private void store(CachedResponse response) {
+        putInMemory(response);
+        if (Checker.isNotNull(directory)) {
+            writeToDisk(response);
+        }
+    }
+
+    private synchronized void putInMemory(CachedResponse response) {
+        CachedResponse old = memory.remove(response.url);
+        if (Checker.isNotNull(old)) {
+            memoryBytes -= old.size();
+        }
+        if (response.size() > maxMemoryBytes) {
+            return;
+        }
+        memory.put(response.url, response);
+        memoryBytes += response.size();
+        Iterator<CachedResponse> iterator = memory.values().iterator();
+        while (memoryBytes > maxMemoryBytes && iterator.hasNext()) {
+            memoryBytes -= iterator.next().size();
+            iterator.remove();
+        }
+    }
+
+    private String fileName(String key) {
+        return Hashing.sha256().hashString(key, StandardCharsets.UTF_8).toString() + DISK_SUFFIX;
+    }
+
+    private synchronized void loadDiskIndex() {
+        File[] files = directory.listFiles((dir, name) -> name.endsWith(DISK_SUFFIX));
+        if (Checker.isNotNull(files)) {
+            Arrays.sort(files, Comparator.comparingLong(File::lastModified));
+            for (File file : files) {
+                diskIndex.put(file.getName(), file.length());
+                diskBytes += file.length();
+            }
+        }
+    }
+
+    private CachedResponse readFromDisk(String key) {
+        String name = fileName(key);
+        synchronized (this) {
+            if (Checker.isNull(diskIndex.get(name))) {
+                return null;
+            }
+        }
+        File file = new File(directory, name);
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(file)))) {
+            if (in.readInt() != DISK_MAGIC || !key.equals(in.readUTF())) {
+                return null;
+            }
+            String contentType = in.readUTF();
+            String etag = in.readUTF();
+            long lastModified = in.readLong();
+            long expiresAt = in.readLong();
+            byte[] body = new byte[in.readInt()];
+            in.readFully(body);
+            return new CachedResponse(key, body, contentType, etag, lastModified, expiresAt);
+        } catch (IOException e) {
+            logger.warn("read http cache file '" + file.getAbsolutePath() + "' failed: " + e.getMessage());
+            synchronized (this) {
+                removeFromDisk(name);
+            }
+            return null;
+        }
+    }
+
+    private void writeToDisk(CachedResponse response) {
+        if (response.size() > maxDiskBytes) {
+            return;
+        }
+        String name = fileName(response.url);
+        File tmp = new File(directory, name + ".tmp");
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(tmp)))) {
+            out.writeInt(DISK_MAGIC);
+            out.writeUTF(response.url);
+            out.writeUTF(Checker.checkNull(response.contentType));
+            out.writeUTF(Checker.checkNull(response.etag));
+            out.writeLong(response.lastModified);
+            out.writeLong(response.expiresAt);
+            out.writeInt(response.body.length);
+            out.write(response.body);
+        } catch (IOException e) {
+            logger.warn("write http cache file '" + tmp.getAbsolutePath() + "' failed: " + e.getMessage());
+            tmp.delete();
+            return;
+        }
+        synchronized (this) {
+            removeFromDisk(name);
+            File file = new File(directory, name);
+            if (!tmp.renameTo(file)) {
+                tmp.delete();
+                return;
+            }
+            diskIndex.put(name, file.length());
+            diskBytes += file.length();
+            Iterator<Map.Entry<String, Long>> iterator = diskIndex.entrySet().iterator();
+            while (diskBytes > maxDiskBytes && iterator.hasNext()) {
+                Map.Entry<String, Long> entry = iterator.next();
+                new File(directory, entry.getKey()).delete();
+                diskBytes -= entry.getValue();
+                iterator.remove();
+            }
+        }
+    }
+
+    private void removeFromDisk(String name) {
+        Long size = diskIndex.remove(name);
+        if (Checker.isNotNull(size)) {
+            diskBytes -= size;
+        }
+        new File(directory, name).delete();
+    }
+
+    /**
+     * 获取缓存命中次数
+     *
+     * @return {@link Long}
+     */
+    public long getHitCount() {
+        return hitCount.get();
+    }
+
+    /**
+     * 获取条件请求返回304的次数
+     *
+     * @return {@link Long}
+     */
+    public long getRevalidateCount() {
+        return revalidateCount.get();
+    }
+
+    /**
+     * 获取完整请求的次数
+     *
+     * @return {@link Long}
+     */
+    public long getMissCount() {
+        return missCount.get();
+    }
+
+    /**
+     * 获取内存缓存占用的字节数
+     *
+     * @return {@link Long}
+     */
+    public synchronized long getMemoryBytes() {
+        return memoryBytes;
+    }
+
+    /**
+     * 获取磁盘缓存占用的字节数
+     *
+     * @return {@link Long}
+     */
+    public synchronized long getDiskBytes() {
+        return diskBytes;
+    }
+
+    /**
+     * 设置连接超时（毫秒）
+     *
+     * @param connectTimeout 连接超时
+     */
+    public void setConnectTimeout(int connectTimeout) {
+        this.connectTimeout = connectTimeout;
+    }
+
+    /**
+     * 设置读取超时（毫秒）
+     *
+     * @param readTimeout 读取超时
+     */
+    public void setReadTimeout(int readTimeout) {
+        this.readTimeout = readTimeout;
+    }
+
+    /**
+     * 缓存的响应
+     */
+    public static class CachedResponse {
+
+        private final String url;
+
+        private final byte[] body;
+
+        private final String contentType;
+
+        private final String etag;
+
+        private final long lastModified;
+
+        private final long expiresAt;
+
+        CachedResponse(String url, byte[] body, String contentType, String etag, long lastModified, long expiresAt) {
+            this.url = url;
+            this.body = body;
+            this.contentType = Checker.isEmpty(contentType) ? null : contentType;
+            this.etag = Checker.isEmpty(etag) ? null : etag;
+            this.lastModified = lastModified;
+            this.expiresAt = expiresAt;
+        }
+
+        /**
+         * 是否未过期
+         *
+         * @return {@link Boolean}
+         */
+        public boolean isFresh() {
+            return expiresAt > System.currentTimeMillis();
+        }
+
+        /**
+         * 获取响应内容，字符集取自响应头，没有时使用系统默认字符集（与 {@link NetUtils#getDataOfUrl(URL)} 保持一致）
+         *
+         * @return {@link String}
+         */
+        public String getString() {
+            return new String(body, AsyncHttpFetcher.parseCharset(contentType, Charset.defaultCharset()));
+        }
+
+        /**
+         * 获取响应内容的副本
+         *
+         * @return 字节数组
+         */
+        public byte[] getBody() {
+            return body.clone();
+        }
+
+        public String getUrl() {
+            return url;
+        }
+
+        public String getContentType() {
+            return contentType;
+        }
+
+        public String getEtag() {
+            return etag;
+        }
+
+        public long getLastModified() {
+            return lastModified;
+        }
+
+        public long getExpiresAt() {
+            return expiresAt;
+        }
+
+        long size() {
+            return body.length + url.length() * 2L;
+        }
+    }
+}
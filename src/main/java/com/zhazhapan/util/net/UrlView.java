@@ -0,0 +1,473 @@
+package com.zhazhapan.util.net;
+
+import com.zhazhapan.modules.constant.ValueConsts;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+import java.util.function.BiConsumer;
+
+/**
+ * URL视图，一次扫描解析出协议、主机、端口、路径、查询参数和锚点在原字符串中的位置，只在调用对应的get方法时才截取字符串
+ * <p>
+ * 查询参数通过 {@link QueryCursor} 按需遍历和解码，支持同名多值参数以及没有等号的参数（值为空字符串）
+ *
+ * @author pantao
+ * @since 1.1.0
+ */
+public final class UrlView {
+
+    private static final int NONE = -1;
+
+    private final String url;
+
+    private final int schemeEnd;
+
+    private final int authorityStart;
+
+    private final int hostStart;
+
+    private final int hostEnd;
+
+    private final int authorityEnd;
+
+    private final int queryStart;
+
+    private final int queryEnd;
+
+    private final int fragmentStart;
+
+    private UrlView(String url, int schemeEnd, int authorityStart, int hostStart, int hostEnd, int authorityEnd, int
+            queryStart, int queryEnd, int fragmentStart) {
+        this.url = url;
+        this.schemeEnd = schemeEnd;
+        this.authorityStart = authorityStart;
+        this.hostStart = hostStart;
+        this.hostEnd = hostEnd;
+        this.authorityEnd = authorityEnd;
+        this.queryStart = queryStart;
+        this.queryEnd = queryEnd;
+        this.fragmentStart = fragmentStart;
+    }
+
+    /**
+     * 解析URL，没有协议时从主机开始解析，如：127.0.0.1:8080/index.html
+     *
+     * @param url 链接
+     *
+     * @return {@link UrlView}
+     */
+    public static UrlView parse(String url) {
+        int len = url.length();
+        int schemeEnd = NONE;
+        int i = 0;
+        // 协议：第一个分隔符是“://”时才认为有协议
+        for (; i < len; i++) {
+            char c = url.charAt(i);
+            if (c == ':') {
+                if (url.startsWith("//", i + 1)) {
+                    schemeEnd = i;
+                }
+                break;
+            }
+            if (c == '/' || c == '?' || c == '#') {
+                break;
+            }
+        }
+        int authorityStart = schemeEnd == NONE ? 0 : schemeEnd + 3;
+        int hostStart = authorityStart;
+        int portColon = NONE;
+        boolean inBracket = false;
+        i = authorityStart;
+        // 主机和端口
+        for (; i < len; i++) {
+            char c = url.charAt(i);
+            if (c == '/' || c == '?' || c == '#') {
+                break;
+            }
+            if (c == '@') {
+                hostStart = i + 1;
+                portColon = NONE;
+            } else if (c == '[') {
+                inBracket = true;
+            } else if (c == ']') {
+                inBracket = false;
+            } else if (c == ':' && !inBracket) {
+                portColon = i;
+            }
+        }
+        int authorityEnd = i;
+        int hostEnd = portColon == NONE ? authorityEnd : portColon;
+        int queryStart = NONE;
+        int queryEnd = NONE;
+        int fragmentStart = NONE;
+        // 路径、参数和锚点
+        for (; i < len; i++) {
+            char c = url.charAt(i);
+            if (c == '?' && queryStart == NONE) {
+                queryStart = i + 1;
+            } else if (c == '#') {
+                fragmentStart = i + 1;
+                break;
+            }
+        }
+        if (queryStart != NONE) {
+            queryEnd = fragmentStart == NONE ? len : fragmentStart - 1;
+        }
+        return new UrlView(url, schemeEnd, authorityStart, hostStart, hostEnd, authorityEnd, queryStart, queryEnd,
+                fragmentStart);
+    }
+
+    /**
+     * 获取原始URL
+     *
+     * @return {@link String}
+     */
+    public String getUrl() {
+        return url;
+    }
+
+    /**
+     * 获取协议，没有时返回空字符串
+     *
+     * @return {@link String}
+     */
+    public String getProtocol() {
+        return schemeEnd == NONE ? ValueConsts.EMPTY_STRING : url.substring(0, schemeEnd);
+    }
+
+    /**
+     * 获取认证信息、主机和端口（如：user@127.0.0.1:8080）
+     *
+     * @return {@link String}
+     */
+    public String getAuthority() {
+        return url.substring(authorityStart, authorityEnd);
+    }
+
+    /**
+     * 获取主机（不含端口）
+     *
+     * @return {@link String}
+     */
+    public String getHost() {
+        return url.substring(hostStart, hostEnd);
+    }
+
+    /**
+     * 获取端口，没有指定或端口不合法时返回-1
+     *
+     * @return {@link Integer}
+     */
+    public int getPort() {
+        if (hostEnd == authorityEnd || hostEnd + 1 == authorityEnd) {
+            return NONE;
+        }
+        int port = 0;
+        for (int i = hostEnd + 1; i < authorityEnd; i++) {
+            char c = url.charAt(i);
+            if (c < '0' || c > '9' || port > 0xFFFF) {
+                return NONE;
+            }
+            port = port * 10 + (c - '0');
+        }
+        return port > 0xFFFF ? NONE : port;
+    }
+
+    /**
+     * 获取路径（以/开头，没有时返回空字符串）
+     *
+     * @return {@link String}
+     */
+    public String getPath() {
+        return url.substring(authorityEnd, getPathEnd());
+    }
+
+    /**
+     * 获取原始的查询字符串（不含?），没有时返回null
+     *
+     * @return {@link String}
+     */
+    public String getQuery() {
+        return queryStart == NONE ? null : url.substring(queryStart, queryEnd);
+    }
+
+    /**
+     * 获取锚点（不含#），没有时返回null
+     *
+     * @return {@link String}
+     */
+    public String getFragment() {
+        return fragmentStart == NONE ? null : url.substring(fragmentStart);
+    }
+
+    /**
+     * 路径起始位置
+     *
+     * @return {@link Integer}
+     */
+    public int getPathStart() {
+        return authorityEnd;
+    }
+
+    /**
+     * 路径结束位置（不含）
+     *
+     * @return {@link Integer}
+     */
+    public int getPathEnd() {
+        if (queryStart != NONE) {
+            return queryStart - 1;
+        }
+        return fragmentStart == NONE ? url.length() : fragmentStart - 1;
+    }
+
+    /**
+     * 获取第一个指定名称的参数值（已解码），不存在时返回null
+     *
+     * @param name 参数名
+     *
+     * @return {@link String}
+     */
+    public String getParameter(String name) {
+        QueryCursor cursor = cursor();
+        while (cursor.next()) {
+            if (cursor.nameEquals(name)) {
+                return cursor.getValue();
+            }
+        }
+        return null;
+    }
+
+    /**
+     * 获取指定名称的所有参数值（已解码）
+     *
+     * @param name 参数名
+     *
+     * @return {@link List}
+     */
+    public List<String> getParameters(String name) {
+        List<String> values = new ArrayList<>(2);
+        QueryCursor cursor = cursor();
+        while (cursor.next()) {
+            if (cursor.nameEquals(name)) {
+                values.add(cursor.getValue());
+            }
+        }
+        return values;
+    }
+
+    /**
+     * 获取所有参数（已解码），保持参数出现的顺序
+     *
+     * @return {@link Map}
+     */
+    public Map<String, List<String>> getParameterMap() {
+        Map<String, List<String>> map = new LinkedHashMap<>(8);
+        forEachParameter((name, value) -> map.computeIfAbsent(name, k -> new ArrayList<>(2)).add(value));
+        return map;
+    }
+
+    /**
+     * 遍历所有参数（已解码）
+     *
+     * @param consumer 参数名和参数值
+     */
+    public void forEachParameter(BiConsumer<String, String> consumer) {
+        QueryCursor cursor = cursor();
+        while (cursor.next()) {
+            consumer.accept(cursor.getName(), cursor.getValue());
+        }
+    }
+
+    /**
+     * 获取查询参数游标
+     *
+     * @return {@link QueryCursor}
+     */
+    public QueryCursor cursor() {
+        return new QueryCursor();
+    }
+
+    @Override
+    public String toString() {
+        return url;
+    }
+
+    /**
+     * 解码 application/x-www-form-urlencoded 格式的字符串，不合法的转义序列保持原样
+     *
+     * @param s 字符串
+     * @param start 起始位置
+     * @param end 结束位置（不含）
+     *
+     * @return 解码后的字符串
+     */
+    static String decode(String s, int start, int end) {
+        int i = start;
+        while (i < end) {
+            char c = s.charAt(i);
+            if (c == '%' || c == '+') {
+                break;
+            }
+            i++;
+        }
+        if (i == end) {
+            return s.substring(start, end);
+        }
+        StringBuilder builder = new StringBuilder(end - start);
+        builder.append(s, start, i);
+        ByteArrayOutputStream bytes = null;
+        while (i < end) {
+            char c = s.charAt(i);
+            if (c == '+') {
+                builder.append(' ');
+                i++;
+            } else if (isEscape(s, i, end)) {
+                if (bytes == null) {
+                    bytes = new ByteArrayOutputStream(8);
+                } else {
+                    bytes.reset();
+                }
+                while (isEscape(s, i, end)) {
+                    bytes.write((hex(s.charAt(i + 1)) << 4) | hex(s.charAt(i + 2)));
+                    i += 3;
+                }
+                builder.append(new String(bytes.toByteArray(), StandardCharsets.UTF_8));
+            } else {
+                builder.append(c);
+                i++;
+            }
+        }
+        return builder.toString();
+    }
+
+    private static boolean isEscape(String s, int i, int end) {
+        return i + 2 < end && s.charAt(i) == '%' && hex(s.charAt(i + 1)) >= 0 && hex(s.charAt(i + 2)) >= 0;
+    }
+
+    private static int hex(char c) {
+        if (c >= '0' && c <= '9') {
+            return c - '0';
+        }
+        if (c >= 'a' && c <= 'f') {
+            return c - 'a' + 10;
+        }
+        if (c >= 'A' && c <= 'F') {
+            return c - 'A' + 10;
+        }
+        return NONE;
+    }
+
+    /**
+     * 查询参数游标，调用 {@link #next()} 移动到下一个参数，名称和值只在被访问时才截取和解码
+     */
+    public final class QueryCursor {
+
+        private int nameStart = NONE;
+
+        private int nameEnd = NONE;
+
+        private int valueEnd = NONE;
+
+        private QueryCursor() {}
+
+        /**
+         * 移动到下一个参数（跳过空参数，如 a=1&&b=2 中间的空参数）
+         *
+         * @return 是否还有参数
+         */
+        public boolean next() {
+            if (queryStart == NONE) {
+                return false;
+            }
+            int i = valueEnd == NONE ? queryStart : valueEnd + 1;
+            while (i < queryEnd && url.charAt(i) == '&') {
+                i++;
+            }
+            if (i >= queryEnd) {
+                valueEnd = queryEnd;
+                return false;
+            }
+            nameStart = i;
+            nameEnd = NONE;
+            for (; i < queryEnd; i++) {
+                char c = url.charAt(i);
+                if (c == '&') {
+                    break;
+                }
+                if (c == '=' && nameEnd == NONE) {
+                    nameEnd = i;
+                }
+            }
+            valueEnd = i;
+            if (nameEnd == NONE) {
+                nameEnd = valueEnd;
+            }
+            return true;
+        }
+
+        /**
+         * 当前参数名解码后是否与指定名称相同，参数名中没有转义字符时直接比较，不创建字符串
+         *
+         * @param name 参数名（已解码）
+         *
+         * @return {@link Boolean}
+         */
+        public boolean nameEquals(String name) {
+            for (int i = nameStart; i < nameEnd; i++) {
+                char c = url.charAt(i);
+                if (c == '%' || c == '+') {
+                    return name.equals(getName());
+                }
+            }
+            int len = nameEnd - nameStart;
+            return name.length() == len && url.regionMatches(nameStart, name, 0, len);
+        }
+
+        /**
+         * 获取当前参数名（已解码）
+         *
+         * @return {@link String}
+         */
+        public String getName() {
+            return decode(url, nameStart, nameEnd);
+        }
+
+        /**
+         * 当前参数是否带有等号
+         *
+         * @return {@link Boolean}
+         */
+        public boolean hasValue() {
+            return nameEnd < valueEnd;
+        }
+
+        /**
+         * 获取当前参数值（已解码），没有等号时返回空字符串
+         *
+         * @return {@link String}
+         */
+        public String getValue() {
+            return hasValue() ? decode(url, nameEnd + 1, valueEnd) : ValueConsts.EMPTY_STRING;
+        }
+
+        /**
+         * 获取当前参数的原始值（未解码），没有等号时返回空字符串
+         *
+         * @return {@link String}
+         */
+        public String getRawValue() {
+            return hasValue() ? url.substring(nameEnd + 1, valueEnd) : ValueConsts.EMPTY_STRING;
+        }
+
+        /**
+         * 获取当前参数的原始名称（未解码）
+         *
+         * @return {@link String}
+         */
+        public String getRawName() {
+            return url.substring(nameStart, nameEnd);
+        }
+    }
+}
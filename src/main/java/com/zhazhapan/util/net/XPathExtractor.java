@@ -0,0 +1,269 @@
+package com.zhazhapan.util.net;
+
+import com.zhazhapan.util.Checker;
+import com.zhazhapan.util.ThreadPool;
+import org.htmlcleaner.CleanerProperties;
+import org.htmlcleaner.DomSerializer;
+import org.htmlcleaner.HtmlCleaner;
+import org.w3c.dom.Document;
+
+import javax.xml.parsers.ParserConfigurationException;
+import javax.xml.xpath.XPath;
+import javax.xml.xpath.XPathExpression;
+import javax.xml.xpath.XPathExpressionException;
+import javax.xml.xpath.XPathFactory;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.function.BiConsumer;
+
+/**
+ * XPath提取引擎，用于大量网页的内容提取
+ * <p>
+ * {@link HtmlCleaner}、{@link DomSerializer}、{@link XPath} 以及编译后的 {@link XPathExpression} 都不是线程安全的，这里为每个线程
+ * 各保留一份并复用，编译后的表达式按LRU缓存；一个文档只解析一次即可计算多个XPath；批量提取时限制同时处理的文档数量以控制内存占用
+ *
+ * @author pantao
+ * @since 1.1.0
+ */
+public class XPathExtractor {
+
+    /**
+     * 每个线程默认缓存的表达式数量
+     */
+    public static final int DEFAULT_CACHE_SIZE = 256;
+
+    private final int cacheSize;
+
+    private final ThreadLocal<Worker> workers;
+
+    /**
+     * 使用默认的表达式缓存大小
+     */
+    public XPathExtractor() {
+        this(DEFAULT_CACHE_SIZE);
+    }
+
+    /**
+     * 指定每个线程缓存的表达式数量
+     *
+     * @param cacheSize 表达式缓存数量
+     */
+    public XPathExtractor(int cacheSize) {
+        this.cacheSize = cacheSize;
+        this.workers = ThreadLocal.withInitial(Worker::new);
+    }
+
+    /**
+     * 解析HTML内容
+     *
+     * @param html html内容
+     *
+     * @return {@link Document}
+     *
+     * @throws ParserConfigurationException 异常
+     */
+    public Document parse(String html) throws ParserConfigurationException {
+        return workers.get().parse(html);
+    }
+
+    /**
+     * XPath解析HTML内容
+     *
+     * @param xpath xpath表达式
+     * @param html html内容
+     *
+     * @return 解析结果
+     *
+     * @throws XPathExpressionException 异常
+     * @throws ParserConfigurationException 异常
+     */
+    public String evaluate(String xpath, String html) throws XPathExpressionException, ParserConfigurationException {
+        Worker worker = workers.get();
+        return worker.compile(xpath).evaluate(worker.parse(html));
+    }
+
+    /**
+     * 在已解析的文档上计算XPath
+     *
+     * @param xpath xpath表达式
+     * @param document {@link Document}
+     *
+     * @return 解析结果
+     *
+     * @throws XPathExpressionException 异常
+     */
+    public String evaluate(String xpath, Document document) throws XPathExpressionException {
+        return workers.get().compile(xpath).evaluate(document);
+    }
+
+    /**
+     * 只解析一次HTML，计算多个XPath
+     *
+     * @param html html内容
+     * @param xpaths xpath表达式
+     *
+     * @return 与xpaths顺序一致的结果
+     *
+     * @throws XPathExpressionException 异常
+     * @throws ParserConfigurationException 异常
+     */
+    public List<String> extract(String html, List<String> xpaths) throws XPathExpressionException,
+            ParserConfigurationException {
+        Worker worker = workers.get();
+        Document document = worker.parse(html);
+        List<String> result = new ArrayList<>(xpaths.size());
+        for (String xpath : xpaths) {
+            result.add(worker.compile(xpath).evaluate(document));
+        }
+        return result;
+    }
+
+    /**
+     * 在 {@link ThreadPool#CPU} 执行器中并行提取多个文档，结果与文档顺序一致，适合文档数量不大的情况
+     *
+     * @param htmls html内容
+     * @param xpaths xpath表达式
+     * @param parallelism 并行数
+     *
+     * @return 每个文档的提取结果
+     *
+     * @throws XPathExpressionException 异常
+     * @throws ParserConfigurationException 异常
+     */
+    public List<List<String>> extractAll(List<String> htmls, List<String> xpaths, int parallelism) throws
+            XPathExpressionException, ParserConfigurationException {
+        List<List<String>> results = new ArrayList<>(Collections.nCopies(htmls.size(), null));
+        // 解析和提取是CPU密集型的，使用共享的CPU执行器，并行数由同时处理的文档数限制；在CPU执行器中调用时等待不会占满线程池
+        extractAll(htmls.iterator(), xpaths, ThreadPool.getExecutor(ThreadPool.CPU), parallelism, results::set);
+        return results;
+    }
+
+    /**
+     * 流式并行提取，同时处理（已读取但未完成）的文档不超过 maxInFlight 个，文档在处理完成后即可被回收
+     * <p>
+     * 任意一个文档提取失败时停止提交新文档，并在已提交的文档处理完后抛出第一个异常
+     *
+     * @param documents 文档迭代器，只在调用线程中读取
+     * @param xpaths xpath表达式
+     * @param executor 执行提取的线程池
+     * @param maxInFlight 同时处理的最大文档数
+     * @param consumer 结果回调（文档序号，提取结果），在工作线程中调用
+     *
+     * @throws XPathExpressionException 异常
+     * @throws ParserConfigurationException 异常
+     */
+    public void extractAll(Iterator<String> documents, List<String> xpaths, Executor executor, int maxInFlight,
+                           BiConsumer<Integer, List<String>> consumer) throws XPathExpressionException,
+            ParserConfigurationException {
+        int limit = Math.max(1, maxInFlight);
+        Semaphore permits = new Semaphore(limit);
+        List<Throwable> errors = Collections.synchronizedList(new ArrayList<>(1));
+        int submitted = 0;
+        try {
+            while (documents.hasNext() && errors.isEmpty()) {
+                acquire(permits, 1);
+                String html = documents.next();
+                int index = submitted++;
+                try {
+                    executor.execute(() -> {
+                        try {
+                            consumer.accept(index, extract(html, xpaths));
+                        } catch (Throwable e) {
+                            errors.add(e);
+                        } finally {
+                            permits.release();
+                        }
+                    });
+                } catch (RejectedExecutionException e) {
+                    permits.release();
+                    throw e;
+                }
+            }
+            // 等待所有已提交的文档处理完成
+            acquire(permits, limit);
+            permits.release(limit);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new CancellationException("extraction interrupted");
+        }
+        if (!errors.isEmpty()) {
+            Throwable error = errors.get(0);
+            if (error instanceof XPathExpressionException) {
+                throw (XPathExpressionException) error;
+            }
+            if (error instanceof ParserConfigurationException) {
+                throw (ParserConfigurationException) error;
+            }
+            if (error instanceof RuntimeException) {
+                throw (RuntimeException) error;
+            }
+            throw new CompletionException(error);
+        }
+    }
+
+    /**
+     * 等待许可，在 {@link ForkJoinPool} 的工作线程中调用时通过 {@link ForkJoinPool#managedBlock} 等待，线程池会补偿线程，
+     * 避免等待中的工作线程占满线程池而无法执行提取任务
+     */
+    private static void acquire(Semaphore semaphore, int permits) throws InterruptedException {
+        ForkJoinPool.managedBlock(new ForkJoinPool.ManagedBlocker() {
+            @Override
+            public boolean block() throws InterruptedException {
+                semaphore.acquire(permits);
+                return true;
+            }
+
+            @Override
+            public boolean isReleasable() {
+                return semaphore.tryAcquire(permits);
+            }
+        });
+    }
+
+    /**
+     * 按访问顺序淘汰的表达式缓存
+     */
+    private static class ExpressionLru extends LinkedHashMap<String, XPathExpression> {
+
+        private static final long serialVersionUID = 1L;
+
+        private final int capacity;
+
+        private ExpressionLru(int capacity) {
+            super(16, 0.75f, true);
+            this.capacity = capacity;
+        }
+
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, XPathExpression> eldest) {
+            return size() > capacity;
+        }
+    }
+
+    /**
+     * 每个线程独享的解析器和表达式缓存
+     */
+    private class Worker {
+
+        private final HtmlCleaner cleaner = new HtmlCleaner();
+
+        private final DomSerializer serializer = new DomSerializer(new CleanerProperties());
+
+        private final XPath xpath = XPathFactory.newInstance().newXPath();
+
+        private final Map<String, XPathExpression> expressions = new ExpressionLru(cacheSize);
+
+        private Document parse(String html) throws ParserConfigurationException {
+            return serializer.createDOM(cleaner.clean(html));
+        }
+
+        private XPathExpression compile(String expression) throws XPathExpressionException {
+            XPathExpression compiled = expressions.get(expression);
+            if (Checker.isNull(compiled)) {
+                compiled = xpath.compile(expression);
+                expressions.put(expression, compiled);
+            }
+            return compiled;
+        }
+    }
+}
@@ -0,0 +1,52 @@
+package com.zhazhapan.util.reflect;
+
+import java.lang.reflect.InvocationTargetException;
+
+/**
+ * 绑定了对象的 {@link MethodInvoker}，适合对同一个对象反复调用同一个方法
+ *
+ * @author pantao
+ * @since 1.1.0
+ */
+public final class BoundInvoker {
+
+    private final MethodInvoker invoker;
+
+    private final Object target;
+
+    BoundInvoker(MethodInvoker invoker, Object target) {
+        this.invoker = invoker;
+        this.target = target;
+    }
+
+    /**
+     * 调用方法
+     *
+     * @param arguments 参数，没有参数时可以为null
+     *
+     * @return 方法返回的结果，返回值为void时返回null
+     *
+     * @throws InvocationTargetException 方法抛出的异常
+     */
+    public Object invoke(Object... arguments) throws InvocationTargetException {
+        return invoker.invoke(target, arguments);
+    }
+
+    /**
+     * 获取绑定的对象
+     *
+     * @return 对象
+     */
+    public Object getTarget() {
+        return target;
+    }
+
+    /**
+     * 获取调用器
+     *
+     * @return {@link MethodInvoker}
+     */
+    public MethodInvoker getInvoker() {
+        return invoker;
+    }
+}
@@ -0,0 +1,240 @@
+package com.zhazhapan.util.reflect;
+
+import com.zhazhapan.util.Checker;
+
+import java.io.ByteArrayInputStream;
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * class文件解析，只读取常量池、类名、父类、接口和类注解，字段和方法直接跳过
+ *
+ * @author pantao
+ * @since 1.1.0
+ */
+final class ClassFileParser {
+
+    private static final int MAGIC = 0xCAFEBABE;
+
+    private static final String[] EMPTY = new String[0];
+
+    private final byte[] bytes;
+
+    private int pos;
+
+    /**
+     * 常量池中每一项的数据位置（在tag之后）
+     */
+    private int[] offsets;
+
+    private String[] strings;
+
+    private ClassFileParser(byte[] bytes) {
+        this.bytes = bytes;
+    }
+
+    /**
+     * 解析class文件
+     *
+     * @param bytes class文件的内容
+     *
+     * @return {@link ClassInfo}
+     *
+     * @throws IllegalArgumentException 不是合法的class文件
+     */
+    static ClassInfo parse(byte[] bytes) {
+        try {
+            return new ClassFileParser(bytes).parse();
+        } catch (ArrayIndexOutOfBoundsException e) {
+            throw new IllegalArgumentException("truncated class file", e);
+        }
+    }
+
+    private ClassInfo parse() {
+        if (u4() != MAGIC) {
+            throw new IllegalArgumentException("not a class file");
+        }
+        // minor_version, major_version
+        pos += 4;
+        readConstantPool();
+        int access = u2();
+        String name = className(u2());
+        int superIndex = u2();
+        String superName = superIndex == 0 ? null : className(superIndex);
+        int interfaceCount = u2();
+        String[] interfaces = interfaceCount == 0 ? EMPTY : new String[interfaceCount];
+        for (int i = 0; i < interfaceCount; i++) {
+            interfaces[i] = className(u2());
+        }
+        // fields、methods
+        skipMembers();
+        skipMembers();
+        List<String> annotations = null;
+        int attributeCount = u2();
+        for (int i = 0; i < attributeCount; i++) {
+            String attribute = utf8(u2());
+            int length = u4();
+            int end = pos + length;
+            if ("RuntimeVisibleAnnotations".equals(attribute) || "RuntimeInvisibleAnnotations".equals(attribute)) {
+                int count = u2();
+                if (Checker.isNull(annotations)) {
+                    annotations = new ArrayList<>(count);
+                }
+                for (int j = 0; j < count; j++) {
+                    annotations.add(descriptorToName(utf8(u2())));
+                    skipElementValuePairs();
+                }
+            }
+            pos = end;
+        }
+        return new ClassInfo(name, superName, access, interfaces, Checker.isNull(annotations) ? EMPTY : annotations
+                .toArray(EMPTY));
+    }
+
+    private void readConstantPool() {
+        int count = u2();
+        offsets = new int[count];
+        strings = new String[count];
+        for (int i = 1; i < count; i++) {
+            int tag = bytes[pos++];
+            offsets[i] = pos;
+            switch (tag) {
+                case 1:
+                    pos += 2 + u2(pos);
+                    break;
+                case 3:
+                case 4:
+                case 9:
+                case 10:
+                case 11:
+                case 12:
+                case 17:
+                case 18:
+                    pos += 4;
+                    break;
+                case 5:
+                case 6:
+                    // long和double占两项
+                    pos += 8;
+                    i++;
+                    break;
+                case 7:
+                case 8:
+                case 16:
+                case 19:
+                case 20:
+                    pos += 2;
+                    break;
+                case 15:
+                    pos += 3;
+                    break;
+                default:
+                    throw new IllegalArgumentException("illegal constant pool tag " + tag + " at " + i);
+            }
+        }
+    }
+
+    private void skipMembers() {
+        int count = u2();
+        for (int i = 0; i < count; i++) {
+            // access_flags, name_index, descriptor_index
+            pos += 6;
+            int attributeCount = u2();
+            for (int j = 0; j < attributeCount; j++) {
+                pos += 2;
+                int length = u4();
+                pos += length;
+            }
+        }
+    }
+
+    private void skipElementValuePairs() {
+        int count = u2();
+        for (int i = 0; i < count; i++) {
+            pos += 2;
+            skipElementValue();
+        }
+    }
+
+    private void skipElementValue() {
+        int tag = bytes[pos++];
+        switch (tag) {
+            case 'e':
+                pos += 4;
+                break;
+            case '@':
+                pos += 2;
+                skipElementValuePairs();
+                break;
+            case '[':
+                int count = u2();
+                for (int i = 0; i < count; i++) {
+                    skipElementValue();
+                }
+                break;
+            default:
+                // 基本类型、String和Class
+                pos += 2;
+                break;
+        }
+    }
+
+    private String className(int index) {
+        return utf8(u2(offsets[index])).replace('/', '.');
+    }
+
+    private String utf8(int index) {
+        String value = strings[index];
+        if (Checker.isNull(value)) {
+            int offset = offsets[index];
+            int length = u2(offset);
+            value = decode(offset + 2, length);
+            strings[index] = value;
+        }
+        return value;
+    }
+
+    /**
+     * 类名几乎都是ASCII，直接转换；其他情况按修改过的UTF-8解码
+     */
+    private String decode(int offset, int length) {
+        char[] chars = new char[length];
+        for (int i = 0; i < length; i++) {
+            int b = bytes[offset + i];
+            if (b <= 0) {
+                try {
+                    return new DataInputStream(new ByteArrayInputStream(bytes, offset - 2, length + 2)).readUTF();
+                } catch (IOException e) {
+                    throw new IllegalArgumentException("malformed utf8 constant", e);
+                }
+            }
+            chars[i] = (char) b;
+        }
+        return new String(chars);
+    }
+
+    private static String descriptorToName(String descriptor) {
+        // Lcom/example/Annotation;
+        return descriptor.length() > 2 && descriptor.charAt(0) == 'L' ? descriptor.substring(1, descriptor.length()
+                - 1).replace('/', '.') : descriptor;
+    }
+
+    private int u2() {
+        int value = u2(pos);
+        pos += 2;
+        return value;
+    }
+
+    private int u2(int offset) {
+        return (bytes[offset] & 0xFF) << 8 | bytes[offset + 1] & 0xFF;
+    }
+
+    private int u4() {
+        int value = (bytes[pos] & 0xFF) << 24 | (bytes[pos + 1] & 0xFF) << 16 | (bytes[pos + 2] & 0xFF) << 8 |
+                bytes[pos + 3] & 0xFF;
+        pos += 4;
+        return value;
+    }
+}
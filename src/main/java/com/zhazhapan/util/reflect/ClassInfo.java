@@ -0,0 +1,192 @@
+package com.zhazhapan.util.reflect;
+
+import com.zhazhapan.util.Checker;
+
+import java.lang.annotation.Annotation;
+import java.lang.reflect.Modifier;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * 从class文件中读取的类信息，不需要加载类
+ * <p>
+ * 类名都是 {@link Class#getName()} 的格式（如：com.example.Outer$Inner），注解包括运行时可见和编译期保留（CLASS）的类注解
+ *
+ * @author pantao
+ * @since 1.1.0
+ */
+public final class ClassInfo {
+
+    private static final int ACC_ANNOTATION = 0x2000;
+
+    private static final int ACC_ENUM = 0x4000;
+
+    private final String name;
+
+    private final String superName;
+
+    private final int access;
+
+    private final List<String> interfaces;
+
+    private final List<String> annotations;
+
+    ClassInfo(String name, String superName, int access, String[] interfaces, String[] annotations) {
+        this.name = name;
+        this.superName = superName;
+        this.access = access;
+        this.interfaces = Collections.unmodifiableList(Arrays.asList(interfaces));
+        this.annotations = Collections.unmodifiableList(Arrays.asList(annotations));
+    }
+
+    /**
+     * 获取类名
+     *
+     * @return 类名
+     */
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * 获取包名，默认包返回空字符串
+     *
+     * @return 包名
+     */
+    public String getPackageName() {
+        int index = name.lastIndexOf('.');
+        return index < 0 ? "" : name.substring(0, index);
+    }
+
+    /**
+     * 获取父类名
+     *
+     * @return 父类名，{@link Object} 和接口以外的类都有父类，{@link Object} 返回null
+     */
+    public String getSuperName() {
+        return superName;
+    }
+
+    /**
+     * 获取直接实现（或继承）的接口名
+     *
+     * @return 接口名
+     */
+    public List<String> getInterfaces() {
+        return interfaces;
+    }
+
+    /**
+     * 获取类上的注解的类名
+     *
+     * @return 注解的类名
+     */
+    public List<String> getAnnotations() {
+        return annotations;
+    }
+
+    /**
+     * 类上是否有指定的注解
+     *
+     * @param annotation 注解
+     *
+     * @return {@link Boolean}
+     */
+    public boolean hasAnnotation(Class<? extends Annotation> annotation) {
+        return annotations.contains(annotation.getName());
+    }
+
+    /**
+     * 类上是否有指定的注解
+     *
+     * @param annotationName 注解的类名
+     *
+     * @return {@link Boolean}
+     */
+    public boolean hasAnnotation(String annotationName) {
+        return annotations.contains(annotationName);
+    }
+
+    /**
+     * 获取访问标志，见 {@link Modifier}
+     *
+     * @return 访问标志
+     */
+    public int getAccess() {
+        return access;
+    }
+
+    /**
+     * 是否是公有类，内部类在class文件中只区分公有和包内可见（protected记为public，private记为包内可见）
+     *
+     * @return {@link Boolean}
+     */
+    public boolean isPublic() {
+        return Modifier.isPublic(access);
+    }
+
+    /**
+     * 是否是接口（包括注解）
+     *
+     * @return {@link Boolean}
+     */
+    public boolean isInterface() {
+        return Modifier.isInterface(access);
+    }
+
+    /**
+     * 是否是抽象类或接口
+     *
+     * @return {@link Boolean}
+     */
+    public boolean isAbstract() {
+        return Modifier.isAbstract(access);
+    }
+
+    /**
+     * 是否是注解
+     *
+     * @return {@link Boolean}
+     */
+    public boolean isAnnotation() {
+        return (access & ACC_ANNOTATION) != 0;
+    }
+
+    /**
+     * 是否是枚举
+     *
+     * @return {@link Boolean}
+     */
+    public boolean isEnum() {
+        return (access & ACC_ENUM) != 0;
+    }
+
+    /**
+     * 是否是内部类（包括匿名类）
+     *
+     * @return {@link Boolean}
+     */
+    public boolean isInnerClass() {
+        return name.indexOf('$') > 0;
+    }
+
+    /**
+     * 加载类，不会执行静态初始化
+     *
+     * @param loader 类加载器，为null时使用当前线程的上下文类加载器
+     *
+     * @return {@link Class}
+     *
+     * @throws ClassNotFoundException 类加载器找不到这个类
+     */
+    public Class<?> load(ClassLoader loader) throws ClassNotFoundException {
+        return Class.forName(name, false, Checker.isNull(loader) ? Thread.currentThread().getContextClassLoader() :
+                loader);
+    }
+
+    @Override
+    public String toString() {
+        return name;
+    }
+}
@@ -0,0 +1,430 @@
+package com.zhazhapan.util.reflect;
+
+import com.zhazhapan.util.Checker;
+import com.zhazhapan.util.ThreadPool;
+import org.apache.commons.io.IOUtils;
+import org.apache.log4j.Logger;
+
+import java.io.*;
+import java.net.JarURLConnection;
+import java.net.URL;
+import java.net.URLDecoder;
+import java.nio.file.Files;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.jar.JarEntry;
+import java.util.jar.JarFile;
+import java.util.zip.CRC32;
+
+/**
+ * 类路径扫描，直接解析class文件（见 {@link ClassInfo}），不加载类，也不会执行静态初始化
+ * <p>
+ * 包含目标包的jar会被完整解析一次，结果按文件路径缓存在内存中；指定索引目录时还会按jar的路径写入磁盘索引，
+ * 之后的进程（例如再次启动）在jar的大小和修改时间不变时直接读取索引，不用再解压和解析，变化时才计算CRC32校验和判断内容是否真的改变。
+ * 多个jar和目录由调用线程和 {@link ThreadPool#IO} 执行器共同并行扫描，调用线程自己也会领取任务，所以在IO执行器的任务中调用也不会死锁。
+ * 目录中的class文件经常变化，每次都重新解析。包所在的jar通过 {@link ClassLoader#getResources(String)} 查找，没有目录条目的jar找不到
+ *
+ * @author pantao
+ * @since 1.1.0
+ */
+public class ClassScanner {
+
+    private static final Logger logger = Logger.getLogger(ClassScanner.class);
+
+    private static final int INDEX_MAGIC = 0x43494458;
+
+    private static final int INDEX_VERSION = 2;
+
+    private static final String INDEX_SUFFIX = ".idx";
+
+    private static final String CLASS_SUFFIX = ".class";
+
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    private final File indexDirectory;
+
+    private final Map<String, JarIndex> jars = new ConcurrentHashMap<>(16);
+
+    /**
+     * 只使用内存缓存
+     */
+    public ClassScanner() {
+        this(null);
+    }
+
+    /**
+     * 使用内存缓存和磁盘索引
+     *
+     * @param indexDirectory 索引目录，为null时不使用磁盘索引
+     */
+    public ClassScanner(File indexDirectory) {
+        this.indexDirectory = indexDirectory;
+        if (Checker.isNotNull(indexDirectory) && !indexDirectory.exists() && !indexDirectory.mkdirs()) {
+            throw new IllegalArgumentException("can't create index directory: " + indexDirectory.getAbsolutePath());
+        }
+    }
+
+    /**
+     * 通过当前线程的上下文类加载器扫描包（包括子包）中的类
+     *
+     * @param packages 包名
+     *
+     * @return 类信息，同名的类只保留类路径中的第一个
+     *
+     * @throws IOException 读取类路径失败
+     */
+    public List<ClassInfo> scan(String... packages) throws IOException {
+        return scan(Thread.currentThread().getContextClassLoader(), packages);
+    }
+
+    /**
+     * 扫描包（包括子包）中的类
+     *
+     * @param loader 类加载器，用于查找包所在的目录和jar
+     * @param packages 包名
+     *
+     * @return 类信息，同名的类只保留类路径中的第一个
+     *
+     * @throws IOException 读取类路径失败
+     */
+    public List<ClassInfo> scan(ClassLoader loader, String... packages) throws IOException {
+        Map<String, Callable<List<ClassInfo>>> roots = new LinkedHashMap<>(16);
+        for (String pkg : packages) {
+            String path = pkg.replace('.', '/');
+            Enumeration<URL> urls = loader.getResources(path);
+            while (urls.hasMoreElements()) {
+                URL url = urls.nextElement();
+                if ("file".equals(url.getProtocol())) {
+                    File directory = new File(URLDecoder.decode(url.getFile(), "UTF-8"));
+                    roots.putIfAbsent(directory.getAbsolutePath(), () -> scanDirectory(directory));
+                } else if ("jar".equals(url.getProtocol())) {
+                    JarURLConnection connection = (JarURLConnection) url.openConnection();
+                    URL jarUrl = connection.getJarFileURL();
+                    if ("file".equals(jarUrl.getProtocol())) {
+                        File jar = new File(URLDecoder.decode(jarUrl.getFile(), "UTF-8"));
+                        roots.putIfAbsent(jar.getAbsolutePath(), () -> scanJar(jar));
+                    } else {
+                        // 嵌套的jar等无法按文件缓存的情况
+                        roots.putIfAbsent(url.toString(), () -> parseJar(connection.getJarFile()));
+                    }
+                }
+            }
+        }
+        Map<String, ClassInfo> classes = new LinkedHashMap<>(256);
+        for (List<ClassInfo> list : execute(new ArrayList<>(roots.values()))) {
+            for (ClassInfo info : list) {
+                if (isInPackages(info.getName(), packages)) {
+                    classes.putIfAbsent(info.getName(), info);
+                }
+            }
+        }
+        return new ArrayList<>(classes.values());
+    }
+
+    /**
+     * 清空内存缓存，磁盘索引不受影响
+     */
+    public void clear() {
+        jars.clear();
+    }
+
+    /**
+     * 并行执行扫描任务：调用线程和IO执行器中的线程从同一个计数器领取任务，只等待已经被领取的任务，
+     * 即使IO执行器已满（或者当前就在IO执行器中）也能由调用线程执行完所有任务
+     */
+    private List<List<ClassInfo>> execute(List<Callable<List<ClassInfo>>> tasks) throws IOException {
+        int size = tasks.size();
+        Object[] results = new Object[size];
+        AtomicInteger next = new AtomicInteger(0);
+        CountDownLatch done = new CountDownLatch(size);
+        Runnable worker = () -> {
+            int i;
+            while ((i = next.getAndIncrement()) < size) {
+                try {
+                    results[i] = tasks.get(i).call();
+                } catch (Throwable e) {
+                    results[i] = e;
+                } finally {
+                    done.countDown();
+                }
+            }
+        };
+        if (size > 1) {
+            Executor executor = ThreadPool.getExecutor(ThreadPool.IO);
+            for (int i = 1; i < size; i++) {
+                try {
+                    executor.execute(worker);
+                } catch (RejectedExecutionException e) {
+                    break;
+                }
+            }
+        }
+        worker.run();
+        try {
+            done.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("class scanning was interrupted");
+        }
+        List<List<ClassInfo>> lists = new ArrayList<>(size);
+        for (Object result : results) {
+            if (result instanceof IOException) {
+                throw (IOException) result;
+            }
+            if (result instanceof RuntimeException) {
+                throw (RuntimeException) result;
+            }
+            if (result instanceof Error) {
+                throw (Error) result;
+            }
+            if (result instanceof Throwable) {
+                throw new IOException((Throwable) result);
+            }
+            @SuppressWarnings("unchecked")
+            List<ClassInfo> list = (List<ClassInfo>) result;
+            lists.add(list);
+        }
+        return lists;
+    }
+
+    private List<ClassInfo> scanJar(File jar) throws IOException {
+        String key = jar.getAbsolutePath();
+        long length = jar.length();
+        long modified = jar.lastModified();
+        JarIndex cached = jars.get(key);
+        if (Checker.isNotNull(cached) && cached.length == length && cached.modified == modified) {
+            return cached.classes;
+        }
+        List<ClassInfo> classes = null;
+        File index = null;
+        int checksum = 0;
+        if (Checker.isNotNull(indexDirectory)) {
+            index = new File(indexDirectory, String.format("%s-%08x%s", jar.getName(), key.hashCode(), INDEX_SUFFIX));
+            IndexHeader header = readHeader(index, key);
+            if (Checker.isNotNull(header) && header.length == length) {
+                if (header.modified == modified) {
+                    classes = readClasses(index);
+                } else {
+                    // 修改时间变了（例如重新复制），内容相同时只更新索引中的修改时间
+                    checksum = checksum(jar);
+                    if (header.checksum == checksum) {
+                        classes = readClasses(index);
+                        if (Checker.isNotNull(classes)) {
+                            writeIndex(index, key, length, modified, checksum, classes);
+                        }
+                    }
+                }
+            }
+            if (Checker.isNull(classes) && checksum == 0) {
+                checksum = checksum(jar);
+            }
+        }
+        if (Checker.isNull(classes)) {
+            try (JarFile file = new JarFile(jar)) {
+                classes = parseJar(file);
+            }
+            if (Checker.isNotNull(index)) {
+                writeIndex(index, key, length, modified, checksum, classes);
+            }
+        }
+        jars.put(key, new JarIndex(length, modified, classes));
+        return classes;
+    }
+
+    private static List<ClassInfo> parseJar(JarFile jar) throws IOException {
+        List<ClassInfo> classes = new ArrayList<>();
+        Enumeration<JarEntry> entries = jar.entries();
+        while (entries.hasMoreElements()) {
+            JarEntry entry = entries.nextElement();
+            String name = entry.getName();
+            if (entry.isDirectory() || !isClassFile(name) || name.startsWith("META-INF/")) {
+                continue;
+            }
+            try (InputStream in = jar.getInputStream(entry)) {
+                parse(name, IOUtils.toByteArray(in), classes);
+            }
+        }
+        return classes;
+    }
+
+    private static List<ClassInfo> scanDirectory(File directory) throws IOException {
+        List<ClassInfo> classes = new ArrayList<>();
+        scanDirectory(directory, classes);
+        return classes;
+    }
+
+    private static void scanDirectory(File directory, List<ClassInfo> classes) throws IOException {
+        File[] files = directory.listFiles(file -> file.isDirectory() || isClassFile(file.getName()));
+        if (Checker.isNull(files)) {
+            return;
+        }
+        Arrays.sort(files);
+        for (File file : files) {
+            if (file.isDirectory()) {
+                scanDirectory(file, classes);
+            } else {
+                parse(file.getPath(), Files.readAllBytes(file.toPath()), classes);
+            }
+        }
+    }
+
+    private static void parse(String source, byte[] bytes, List<ClassInfo> classes) {
+        try {
+            classes.add(ClassFileParser.parse(bytes));
+        } catch (IllegalArgumentException e) {
+            logger.warn("skip class file '" + source + "': " + e.getMessage());
+        }
+    }
+
+    private static boolean isClassFile(String name) {
+        return name.endsWith(CLASS_SUFFIX) && !name.endsWith("module-info.class") && !name.endsWith("package-info" +
+                ".class");
+    }
+
+    private static boolean isInPackages(String className, String[] packages) {
+        for (String pkg : packages) {
+            if (pkg.isEmpty() || (className.startsWith(pkg) && className.length() > pkg.length() && className.charAt
+                    (pkg.length()) == '.')) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static int checksum(File file) throws IOException {
+        CRC32 crc = new CRC32();
+        byte[] buffer = new byte[BUFFER_SIZE];
+        try (InputStream in = new FileInputStream(file)) {
+            int n;
+            while ((n = in.read(buffer)) > 0) {
+                crc.update(buffer, 0, n);
+            }
+        }
+        return (int) crc.getValue();
+    }
+
+    private static IndexHeader readHeader(File index, String path) {
+        if (!index.exists()) {
+            return null;
+        }
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(index), 1024))) {
+            if (in.readInt() != INDEX_MAGIC || in.readInt() != INDEX_VERSION || !path.equals(in.readUTF())) {
+                return null;
+            }
+            return new IndexHeader(in.readLong(), in.readLong(), in.readInt());
+        } catch (IOException e) {
+            logger.warn("read class index '" + index.getAbsolutePath() + "' failed: " + e.getMessage());
+            return null;
+        }
+    }
+
+    private static List<ClassInfo> readClasses(File index) {
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(index),
+                BUFFER_SIZE))) {
+            // 跳过已经校验过的头部：magic、version、path、length、modified、checksum
+            in.readInt();
+            in.readInt();
+            in.readUTF();
+            in.readLong();
+            in.readLong();
+            in.readInt();
+            int count = in.readInt();
+            List<ClassInfo> classes = new ArrayList<>(Math.min(count, BUFFER_SIZE));
+            for (int i = 0; i < count; i++) {
+                String name = in.readUTF();
+                String superName = in.readUTF();
+                int access = in.readInt();
+                String[] interfaces = readNames(in);
+                String[] annotations = readNames(in);
+                classes.add(new ClassInfo(name, superName.isEmpty() ? null : superName, access, interfaces,
+                        annotations));
+            }
+            return classes;
+        } catch (IOException e) {
+            logger.warn("read class index '" + index.getAbsolutePath() + "' failed: " + e.getMessage());
+            return null;
+        }
+    }
+
+    private static String[] readNames(DataInputStream in) throws IOException {
+        String[] names = new String[in.readUnsignedShort()];
+        for (int i = 0; i < names.length; i++) {
+            names[i] = in.readUTF();
+        }
+        return names;
+    }
+
+    private static void writeIndex(File index, String path, long length, long modified, int checksum,
+                                   List<ClassInfo> classes) {
+        File tmp = new File(index.getParentFile(), index.getName() + "." + Thread.currentThread().getId() + ".tmp");
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(tmp),
+                BUFFER_SIZE))) {
+            out.writeInt(INDEX_MAGIC);
+            out.writeInt(INDEX_VERSION);
+            out.writeUTF(path);
+            out.writeLong(length);
+            out.writeLong(modified);
+            out.writeInt(checksum);
+            out.writeInt(classes.size());
+            for (ClassInfo info : classes) {
+                out.writeUTF(info.getName());
+                out.writeUTF(Checker.checkNull(info.getSuperName()));
+                out.writeInt(info.getAccess());
+                writeNames(out, info.getInterfaces());
+                writeNames(out, info.getAnnotations());
+            }
+        } catch (IOException e) {
+            logger.warn("write class index '" + tmp.getAbsolutePath() + "' failed: " + e.getMessage());
+            tmp.delete();
+            return;
+        }
+        index.delete();
+        if (!tmp.renameTo(index)) {
+            tmp.delete();
+        }
+    }
+
+    private static void writeNames(DataOutputStream out, List<String> names) throws IOException {
+        out.writeShort(names.size());
+        for (String name : names) {
+            out.writeUTF(name);
+        }
+    }
+
+    /**
+     * 磁盘索引的头部，记录生成索引时jar的大小、修改时间和CRC32校验和
+     */
+    private static final class IndexHeader {
+
+        private final long length;
+
+        private final long modified;
+
+        private final int checksum;
+
+        IndexHeader(long length, long modified, int checksum) {
+            this.length = length;
+            this.modified = modified;
+            this.checksum = checksum;
+        }
+    }
+
+    /**
+     * 一个jar的扫描结果，文件大小和修改时间不变时直接复用
+     */
+    private static final class JarIndex {
+
+        private final long length;
+
+        private final long modified;
+
+        private final List<ClassInfo> classes;
+
+        JarIndex(long length, long modified, List<ClassInfo> classes) {
+            this.length = length;
+            this.modified = modified;
+            this.classes = classes;
+        }
+    }
+}
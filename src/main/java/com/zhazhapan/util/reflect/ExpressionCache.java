@@ -0,0 +1,131 @@
+package com.zhazhapan.util.reflect;
+
+import com.zhazhapan.util.Checker;
+import org.apache.commons.jexl3.JexlEngine;
+import org.apache.commons.jexl3.JexlExpression;
+import org.apache.commons.jexl3.JexlScript;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.Function;
+
+/**
+ * 编译后的JEXL表达式和脚本的缓存，按源码查找，超过容量时淘汰最久未使用的
+ * <p>
+ * {@link JexlExpression} 和 {@link JexlScript} 是不可变的，可以被多个线程同时执行；编译在锁外进行，
+ * 并发编译同一段源码时可能编译多次，但只保留一个结果
+ *
+ * @author pantao
+ * @since 1.1.0
+ */
+public final class ExpressionCache {
+
+    private final JexlEngine engine;
+
+    private final Map<String, JexlExpression> expressions;
+
+    private final Map<String, JexlScript> scripts;
+
+    /**
+     * 新建缓存
+     *
+     * @param engine JEXL引擎
+     * @param capacity 表达式和脚本各自最多缓存的数量
+     */
+    public ExpressionCache(JexlEngine engine, int capacity) {
+        if (capacity <= 0) {
+            throw new IllegalArgumentException("capacity must be positive: " + capacity);
+        }
+        this.engine = engine;
+        this.expressions = lru(capacity);
+        this.scripts = lru(capacity);
+    }
+
+    /**
+     * 获取编译后的表达式
+     *
+     * @param expression 表达式
+     *
+     * @return {@link JexlExpression}
+     */
+    public JexlExpression getExpression(String expression) {
+        return compile(expressions, expression, engine::createExpression);
+    }
+
+    /**
+     * 获取编译后的脚本
+     *
+     * @param script 脚本
+     *
+     * @return {@link JexlScript}
+     */
+    public JexlScript getScript(String script) {
+        return compile(scripts, script, engine::createScript);
+    }
+
+    /**
+     * 获取缓存的表达式和脚本数量
+     *
+     * @return 数量
+     */
+    public int size() {
+        int size;
+        synchronized (expressions) {
+            size = expressions.size();
+        }
+        synchronized (scripts) {
+            return size + scripts.size();
+        }
+    }
+
+    /**
+     * 清空缓存
+     */
+    public void clear() {
+        synchronized (expressions) {
+            expressions.clear();
+        }
+        synchronized (scripts) {
+            scripts.clear();
+        }
+    }
+
+    private static <V> V compile(Map<String, V> cache, String source, Function<String, V> compiler) {
+        V compiled;
+        synchronized (cache) {
+            compiled = cache.get(source);
+        }
+        if (Checker.isNull(compiled)) {
+            compiled = compiler.apply(source);
+            synchronized (cache) {
+                V previous = cache.putIfAbsent(source, compiled);
+                compiled = Checker.isNull(previous) ? compiled : previous;
+            }
+        }
+        return compiled;
+    }
+
+    private static <V> Map<String, V> lru(int capacity) {
+        return new Lru<>(capacity);
+    }
+
+    /**
+     * 按访问顺序淘汰的缓存
+     */
+    private static class Lru<V> extends LinkedHashMap<String, V> {
+
+        private static final long serialVersionUID = 1L;
+
+        private final int capacity;
+
+        private Lru(int capacity) {
+            super(16, 0.75f, true);
+            this.capacity = capacity;
+        }
+
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, V> eldest) {
+            return size() > capacity;
+        }
+    }
+}
@@ -0,0 +1,353 @@
+package com.zhazhapan.util.reflect;
+
+import com.zhazhapan.util.Checker;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 预先解析的方法调用器，按 (类, 方法名, 参数类型) 缓存，同一个签名只解析一次
+ * <p>
+ * 解析规则与编译器选择重载方法相近：参数类型可以是子类、基本类型可以拓宽（如int匹配long、double）、包装类和基本类型可以互相转换，
+ * null（参数值为null）匹配任意引用类型，有多个方法匹配时选择参数类型最具体的一个；不支持可变参数。
+ * 方法通过 {@link MethodHandles.Lookup} 转成 {@link MethodHandle}，调用时不再做反射的访问检查和参数装箱以外的处理
+ *
+ * @author pantao
+ * @since 1.1.0
+ */
+public final class MethodInvoker {
+
+    private static final Object[] NO_ARGUMENTS = new Object[0];
+
+    private static final Map<Class<?>, Class<?>> WRAPPERS = new HashMap<>(16);
+
+    /**
+     * 基本类型可以拓宽到的类型
+     */
+    private static final Map<Class<?>, Set<Class<?>>> WIDENINGS = new HashMap<>(16);
+
+    private static final ClassValue<Map<Signature, MethodInvoker>> CACHE = new ClassValue<Map<Signature,
+            MethodInvoker>>() {
+        @Override
+        protected Map<Signature, MethodInvoker> computeValue(Class<?> type) {
+            return new ConcurrentHashMap<>(16);
+        }
+    };
+
+    static {
+        WRAPPERS.put(boolean.class, Boolean.class);
+        WRAPPERS.put(byte.class, Byte.class);
+        WRAPPERS.put(short.class, Short.class);
+        WRAPPERS.put(char.class, Character.class);
+        WRAPPERS.put(int.class, Integer.class);
+        WRAPPERS.put(long.class, Long.class);
+        WRAPPERS.put(float.class, Float.class);
+        WRAPPERS.put(double.class, Double.class);
+        WRAPPERS.put(void.class, Void.class);
+        WIDENINGS.put(byte.class, types(short.class, int.class, long.class, float.class, double.class));
+        WIDENINGS.put(short.class, types(int.class, long.class, float.class, double.class));
+        WIDENINGS.put(char.class, types(int.class, long.class, float.class, double.class));
+        WIDENINGS.put(int.class, types(long.class, float.class, double.class));
+        WIDENINGS.put(long.class, types(float.class, double.class));
+        WIDENINGS.put(float.class, types(double.class));
+    }
+
+    private final Method method;
+
+    private final boolean isStatic;
+
+    /**
+     * 类型为 (Object, Object[])Object，静态方法忽略第一个参数
+     */
+    private final MethodHandle handle;
+
+    private final int parameterCount;
+
+    private MethodInvoker(Method method, MethodHandle handle) {
+        this.method = method;
+        this.isStatic = Modifier.isStatic(method.getModifiers());
+        this.parameterCount = method.getParameterCount();
+        MethodHandle target = handle.asType(MethodType.genericMethodType(handle.type().parameterCount()));
+        if (isStatic) {
+            target = MethodHandles.dropArguments(target, 0, Object.class);
+        }
+        this.handle = target.asSpreader(Object[].class, parameterCount);
+    }
+
+    /**
+     * 获取类的公有方法的调用器，同一个签名只解析一次
+     *
+     * @param type 类
+     * @param methodName 方法名
+     * @param parameterTypes 参数类型，可以是基本类型，为null的元素匹配任意引用类型；没有参数时可以为null
+     *
+     * @return {@link MethodInvoker}
+     *
+     * @throws NoSuchMethodException 没有匹配的方法，或者匹配的方法不止一个
+     * @throws IllegalAccessException 方法不能访问
+     */
+    public static MethodInvoker of(Class<?> type, String methodName, Class<?>... parameterTypes) throws
+            NoSuchMethodException, IllegalAccessException {
+        Map<Signature, MethodInvoker> invokers = CACHE.get(type);
+        Signature signature = new Signature(methodName, Checker.isNull(parameterTypes) ? new Class<?>[0] :
+                parameterTypes);
+        MethodInvoker invoker = invokers.get(signature);
+        if (Checker.isNull(invoker)) {
+            Method method = resolve(type, methodName, signature.parameterTypes);
+            invoker = new MethodInvoker(method, unreflect(method));
+            // 参数类型数组来自调用方，缓存时复制一份
+            MethodInvoker previous = invokers.putIfAbsent(signature.copy(), invoker);
+            invoker = Checker.isNull(previous) ? invoker : previous;
+        }
+        return invoker;
+    }
+
+    /**
+     * 调用方法
+     *
+     * @param target 对象，静态方法可以为null
+     * @param arguments 参数，没有参数时可以为null
+     *
+     * @return 方法返回的结果，返回值为void时返回null
+     *
+     * @throws InvocationTargetException 方法抛出的异常
+     */
+    public Object invoke(Object target, Object... arguments) throws InvocationTargetException {
+        if (Checker.isNull(arguments)) {
+            arguments = NO_ARGUMENTS;
+        }
+        if (arguments.length != parameterCount) {
+            throw new IllegalArgumentException("wrong number of arguments: expected " + parameterCount + ", got " +
+                    arguments.length);
+        }
+        try {
+            return (Object) handle.invokeExact(target, arguments);
+        } catch (ClassCastException | NullPointerException e) {
+            // 参数转换失败时与 Method.invoke 一致，否则是方法本身抛出的异常
+            checkArguments(target, arguments);
+            throw new InvocationTargetException(e);
+        } catch (Throwable e) {
+            throw new InvocationTargetException(e);
+        }
+    }
+
+    /**
+     * 绑定对象，之后调用时只需要传入参数
+     *
+     * @param target 对象，静态方法可以为null
+     *
+     * @return {@link BoundInvoker}
+     */
+    public BoundInvoker bindTo(Object target) {
+        if (!isStatic) {
+            checkTarget(target);
+        }
+        return new BoundInvoker(this, target);
+    }
+
+    /**
+     * 获取解析到的方法
+     *
+     * @return {@link Method}
+     */
+    public Method getMethod() {
+        return method;
+    }
+
+    private void checkArguments(Object target, Object[] arguments) {
+        if (!isStatic) {
+            checkTarget(target);
+        }
+        Class<?>[] types = method.getParameterTypes();
+        for (int i = 0; i < types.length; i++) {
+            Object argument = arguments[i];
+            if (Checker.isNull(argument) ? types[i].isPrimitive() : !isConvertible(argument.getClass(), types[i])) {
+                throw new IllegalArgumentException("argument type mismatch at " + i + ": " + (Checker.isNull
+                        (argument) ? "null" : argument.getClass().getName()) + " cannot be converted to " +
+                        types[i].getName());
+            }
+        }
+    }
+
+    private void checkTarget(Object target) {
+        if (Checker.isNull(target)) {
+            throw new NullPointerException("target of " + method + " is null");
+        }
+        if (!method.getDeclaringClass().isInstance(target)) {
+            throw new IllegalArgumentException("object is not an instance of " + method.getDeclaringClass()
+                    .getName());
+        }
+    }
+
+    private static Method resolve(Class<?> type, String methodName, Class<?>[] parameterTypes) throws
+            NoSuchMethodException {
+        if (Arrays.stream(parameterTypes).allMatch(Objects::nonNull)) {
+            try {
+                return type.getMethod(methodName, parameterTypes);
+            } catch (NoSuchMethodException e) {
+                // 没有完全一致的方法，按转换规则查找
+            }
+        }
+        List<Method> candidates = new ArrayList<>();
+        for (Method method : type.getMethods()) {
+            if (method.getName().equals(methodName) && !method.isBridge() && isApplicable(method.getParameterTypes(),
+                    parameterTypes)) {
+                candidates.add(method);
+            }
+        }
+        Method best = null;
+        for (Method candidate : candidates) {
+            boolean mostSpecific = true;
+            for (Method other : candidates) {
+                if (other != candidate && !isApplicable(other.getParameterTypes(), candidate.getParameterTypes())) {
+                    mostSpecific = false;
+                    break;
+                }
+            }
+            if (mostSpecific) {
+                // 参数类型相同的方法（如接口和实现类中的同一个方法）取第一个
+                best = Checker.isNull(best) ? candidate : best;
+            }
+        }
+        if (Checker.isNull(best)) {
+            throw new NoSuchMethodException((candidates.isEmpty() ? "no method " : "ambiguous method ") + type
+                    .getName() + "." + methodName + Arrays.toString(parameterTypes) + (candidates.isEmpty() ? "" :
+                    ": " + candidates));
+        }
+        return best;
+    }
+
+    /**
+     * 方法声明在非公有的类中时（例如私有内部类实现的公有接口），改用公有的父类或接口中的同一个方法
+     */
+    private static MethodHandle unreflect(Method method) throws IllegalAccessException {
+        MethodHandles.Lookup lookup = MethodHandles.lookup();
+        try {
+            return lookup.unreflect(method);
+        } catch (IllegalAccessException e) {
+            Method overridden = findPublicOverridden(method.getDeclaringClass(), method);
+            if (Checker.isNotNull(overridden)) {
+                return lookup.unreflect(overridden);
+            }
+            try {
+                method.setAccessible(true);
+            } catch (RuntimeException ex) {
+                throw e;
+            }
+            return lookup.unreflect(method);
+        }
+    }
+
+    private static Method findPublicOverridden(Class<?> type, Method method) {
+        if (Checker.isNull(type)) {
+            return null;
+        }
+        if (type != method.getDeclaringClass() && Modifier.isPublic(type.getModifiers())) {
+            try {
+                return type.getMethod(method.getName(), method.getParameterTypes());
+            } catch (NoSuchMethodException e) {
+                // 继续查找父类和接口
+            }
+        }
+        for (Class<?> face : type.getInterfaces()) {
+            Method found = findPublicOverridden(face, method);
+            if (Checker.isNotNull(found)) {
+                return found;
+            }
+        }
+        return findPublicOverridden(type.getSuperclass(), method);
+    }
+
+    private static boolean isApplicable(Class<?>[] declared, Class<?>[] actual) {
+        if (declared.length != actual.length) {
+            return false;
+        }
+        for (int i = 0; i < declared.length; i++) {
+            if (Checker.isNull(actual[i]) ? declared[i].isPrimitive() : !isConvertible(actual[i], declared[i])) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * 是否可以通过子类、基本类型拓宽、装箱和拆箱转换
+     */
+    private static boolean isConvertible(Class<?> from, Class<?> to) {
+        if (to.isAssignableFrom(from)) {
+            return true;
+        }
+        if (from.isPrimitive()) {
+            return to.isPrimitive() ? isWidening(from, to) : to.isAssignableFrom(WRAPPERS.get(from));
+        }
+        if (to.isPrimitive()) {
+            Class<?> primitive = unwrap(from);
+            return Checker.isNotNull(primitive) && (primitive == to || isWidening(primitive, to));
+        }
+        return false;
+    }
+
+    private static boolean isWidening(Class<?> from, Class<?> to) {
+        Set<Class<?>> targets = WIDENINGS.get(from);
+        return Checker.isNotNull(targets) && targets.contains(to);
+    }
+
+    private static Class<?> unwrap(Class<?> wrapper) {
+        for (Map.Entry<Class<?>, Class<?>> entry : WRAPPERS.entrySet()) {
+            if (entry.getValue() == wrapper) {
+                return entry.getKey();
+            }
+        }
+        return null;
+    }
+
+    private static Set<Class<?>> types(Class<?>... types) {
+        return new HashSet<>(Arrays.asList(types));
+    }
+
+    /**
+     * 缓存的键：方法名和参数类型
+     */
+    private static final class Signature {
+
+        private final String name;
+
+        private final Class<?>[] parameterTypes;
+
+        private final int hash;
+
+        Signature(String name, Class<?>[] parameterTypes) {
+            this.name = name;
+            this.parameterTypes = parameterTypes;
+            this.hash = name.hashCode() * 31 + Arrays.hashCode(parameterTypes);
+        }
+
+        Signature copy() {
+            return new Signature(name, parameterTypes.clone());
+        }
+
+        @Override
+        public int hashCode() {
+            return hash;
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            if (this == obj) {
+                return true;
+            }
+            if (!(obj instanceof Signature)) {
+                return false;
+            }
+            Signature other = (Signature) obj;
+            return hash == other.hash && name.equals(other.name) && Arrays.equals(parameterTypes, other
+                    .parameterTypes);
+        }
+    }
+}
@@ -0,0 +1,325 @@
+package com.zhazhapan.util.text;
+
+import com.zhazhapan.util.enums.CharType;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.BitSet;
+import java.util.List;
+import java.util.RandomAccess;
+
+/**
+ * 批量字符分类，把多个字符装进一个long中同时判断（SWAR），适合对大量文本或整列数据做格式判断
+ * <p>
+ * 每一步判断8个字符（char）或16个字节（byte），字节数组可以是Latin-1或UTF-8编码：所有分类都只包含ASCII字符，
+ * 因此任何大于0x7F的字节（包括UTF-8多字节字符的每一个字节）都不匹配
+ * <p>
+ * 判断过程没有分支，字母和数字混合出现时不会因为分支预测失败而变慢；JDK 8 不支持 Vector API，所以没有使用
+ *
+ * @author pantao
+ * @since 1.1.0
+ */
+public class CharClassifier {
+
+    /**
+     * 每种类型的两个字符区间 {lo1, hi1, fold, lo2, hi2}，第二个区间先把字符与fold按位或（用于忽略大小写），
+     * 区间 [0x80, 0x7F] 表示空区间
+     */
+    private static final int[][] RANGES = new int[CharType.values().length][];
+
+    private static final Masks[] CHAR_MASKS = new Masks[RANGES.length];
+
+    private static final Masks[] BYTE_MASKS = new Masks[RANGES.length];
+
+    private static final long CHAR_LANES = 0x0001000100010001L;
+
+    private static final long BYTE_LANES = 0x0101010101010101L;
+
+    /**
+     * 复制字符串时使用的缓冲区大小
+     */
+    private static final int CHUNK = 512;
+
+    private static final ThreadLocal<char[]> BUFFER = ThreadLocal.withInitial(() -> new char[CHUNK]);
+
+    static {
+        RANGES[CharType.NUMBER.ordinal()] = new int[]{'0', '9', 0, 0x80, 0x7F};
+        RANGES[CharType.LETTER.ordinal()] = new int[]{0x80, 0x7F, 0x20, 'a', 'z'};
+        RANGES[CharType.LETTER_OR_NUMBER.ordinal()] = new int[]{'0', '9', 0x20, 'a', 'z'};
+        RANGES[CharType.LOWER_CASE.ordinal()] = new int[]{'a', 'z', 0, 0x80, 0x7F};
+        RANGES[CharType.UPPER_CASE.ordinal()] = new int[]{'A', 'Z', 0, 0x80, 0x7F};
+        for (int i = 0; i < RANGES.length; i++) {
+            CHAR_MASKS[i] = new Masks(RANGES[i], CHAR_LANES, CHAR_LANES * 0xFF80);
+            BYTE_MASKS[i] = new Masks(RANGES[i], BYTE_LANES, BYTE_LANES * 0x80);
+        }
+    }
+
+    private CharClassifier() {}
+
+    /**
+     * 字符是否属于某个类型
+     *
+     * @param type 类型
+     * @param c 字符
+     *
+     * @return {@link Boolean}
+     */
+    public static boolean test(CharType type, char c) {
+        return test(RANGES[type.ordinal()], c);
+    }
+
+    /**
+     * 字符串是否不为空且全部由某个类型的字符组成
+     *
+     * @param type 类型
+     * @param text 字符串
+     *
+     * @return {@link Boolean}
+     */
+    public static boolean matches(CharType type, CharSequence text) {
+        return text != null && text.length() > 0 && indexOfMismatch(type, text) < 0;
+    }
+
+    /**
+     * 字符数组是否不为空且全部由某个类型的字符组成
+     *
+     * @param type 类型
+     * @param chars 字符数组
+     *
+     * @return {@link Boolean}
+     */
+    public static boolean matches(CharType type, char[] chars) {
+        return chars != null && chars.length > 0 && indexOfMismatch(type, chars, 0, chars.length) < 0;
+    }
+
+    /**
+     * 字节数组（Latin-1或UTF-8编码）是否不为空且全部由某个类型的字符组成
+     *
+     * @param type 类型
+     * @param bytes 字节数组
+     *
+     * @return {@link Boolean}
+     */
+    public static boolean matches(CharType type, byte[] bytes) {
+        return bytes != null && bytes.length > 0 && indexOfMismatch(type, bytes, 0, bytes.length) < 0;
+    }
+
+    /**
+     * 第一个不属于某个类型的字符的下标
+     *
+     * @param type 类型
+     * @param text 字符串
+     *
+     * @return 下标，全部匹配时返回-1
+     */
+    public static int indexOfMismatch(CharType type, CharSequence text) {
+        if (text instanceof String) {
+            return indexOfMismatch(type, (String) text);
+        }
+        int length = text.length();
+        boolean copyable = text instanceof StringBuilder || text instanceof StringBuffer;
+        if (!copyable || length < CHUNK) {
+            return scan(RANGES[type.ordinal()], text, 0, length);
+        }
+        // 分段复制到缓冲区中再判断
+        char[] buffer = BUFFER.get();
+        for (int from = 0; from < length; from += CHUNK) {
+            int to = Math.min(length, from + CHUNK);
+            if (text instanceof StringBuilder) {
+                ((StringBuilder) text).getChars(from, to, buffer, 0);
+            } else {
+                ((StringBuffer) text).getChars(from, to, buffer, 0);
+            }
+            int index = indexOfMismatch(type, buffer, 0, to - from);
+            if (index >= 0) {
+                return from + index;
+            }
+        }
+        return -1;
+    }
+
+    private static int indexOfMismatch(CharType type, String text) {
+        Masks masks = CHAR_MASKS[type.ordinal()];
+        int length = text.length();
+        int i = 0;
+        for (; i + Masks.CHARS_PER_STEP <= length; i += Masks.CHARS_PER_STEP) {
+            if (!masks.matches(pack(text, i), pack(text, i + 4))) {
+                break;
+            }
+        }
+        return scan(RANGES[type.ordinal()], text, i, length);
+    }
+
+    /**
+     * 第一个不属于某个类型的字符的下标
+     *
+     * @param type 类型
+     * @param chars 字符数组
+     * @param from 开始下标（包含）
+     * @param to 结束下标（不包含）
+     *
+     * @return 下标，全部匹配时返回-1
+     */
+    public static int indexOfMismatch(CharType type, char[] chars, int from, int to) {
+        Masks masks = CHAR_MASKS[type.ordinal()];
+        int i = from;
+        for (; i + Masks.CHARS_PER_STEP <= to; i += Masks.CHARS_PER_STEP) {
+            long first = chars[i] | (long) chars[i + 1] << 16 | (long) chars[i + 2] << 32 | (long) chars[i + 3] << 48;
+            long second = chars[i + 4] | (long) chars[i + 5] << 16 | (long) chars[i + 6] << 32 |
+                    (long) chars[i + 7] << 48;
+            if (!masks.matches(first, second)) {
+                break;
+            }
+        }
+        int[] range = RANGES[type.ordinal()];
+        for (; i < to; i++) {
+            if (!test(range, chars[i])) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * 第一个不属于某个类型的字节的下标
+     *
+     * @param type 类型
+     * @param bytes 字节数组（Latin-1或UTF-8编码）
+     * @param from 开始下标（包含）
+     * @param to 结束下标（不包含）
+     *
+     * @return 下标，全部匹配时返回-1
+     */
+    public static int indexOfMismatch(CharType type, byte[] bytes, int from, int to) {
+        Masks masks = BYTE_MASKS[type.ordinal()];
+        int i = from;
+        if (to - from >= Masks.BYTES_PER_STEP) {
+            ByteBuffer buffer = ByteBuffer.wrap(bytes).order(ByteOrder.nativeOrder());
+            for (; i + Masks.BYTES_PER_STEP <= to; i += Masks.BYTES_PER_STEP) {
+                if (!masks.matches(buffer.getLong(i), buffer.getLong(i + 8))) {
+                    break;
+                }
+            }
+        }
+        int[] range = RANGES[type.ordinal()];
+        for (; i < to; i++) {
+            if (!test(range, (char) (bytes[i] & 0xFF))) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * 判断一整列数据，返回所有不为空且全部由某个类型的字符组成的行
+     *
+     * @param type 类型
+     * @param column 列数据，可以包含null
+     *
+     * @return 匹配的行号
+     */
+    public static BitSet matchRows(CharType type, List<? extends CharSequence> column) {
+        BitSet rows = new BitSet(column.size());
+        if (column instanceof RandomAccess) {
+            for (int i = 0; i < column.size(); i++) {
+                rows.set(i, matches(type, column.get(i)));
+            }
+        } else {
+            int i = 0;
+            for (CharSequence text : column) {
+                rows.set(i++, matches(type, text));
+            }
+        }
+        return rows;
+    }
+
+    /**
+     * 判断一整列数据，返回所有不为空且全部由某个类型的字符组成的行
+     *
+     * @param type 类型
+     * @param column 列数据，每行为Latin-1或UTF-8编码的字节数组，可以包含null
+     *
+     * @return 匹配的行号
+     */
+    public static BitSet matchRows(CharType type, byte[][] column) {
+        BitSet rows = new BitSet(column.length);
+        for (int i = 0; i < column.length; i++) {
+            rows.set(i, matches(type, column[i]));
+        }
+        return rows;
+    }
+
+    private static long pack(String text, int index) {
+        return text.charAt(index) | (long) text.charAt(index + 1) << 16 | (long) text.charAt(index + 2) << 32 |
+                (long) text.charAt(index + 3) << 48;
+    }
+
+    private static int scan(int[] range, CharSequence text, int from, int to) {
+        for (int i = from; i < to; i++) {
+            if (!test(range, text.charAt(i))) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    private static boolean test(int[] range, char c) {
+        int folded = c | range[2];
+        return c < 0x80 && ((c >= range[0] && c <= range[1]) || (folded >= range[3] && folded <= range[4]));
+    }
+
+    /**
+     * 某个类型在某种通道宽度（char为16位，byte为8位）下的掩码
+     * <p>
+     * 每个通道的值都小于0x80时，x + (0x80 - lo) 的第7位表示 x &gt;= lo，x + (0x7F - hi) 的第7位表示 x &gt; hi，
+     * 并且都不会向相邻通道进位
+     */
+    private static final class Masks {
+
+        static final int CHARS_PER_STEP = 8;
+
+        static final int BYTES_PER_STEP = 16;
+
+        private final long low;
+
+        private final long high;
+
+        private final long fold;
+
+        private final long foldedLow;
+
+        private final long foldedHigh;
+
+        private final long flag;
+
+        private final long nonAscii;
+
+        /**
+         * 第二个区间是否为空，为空时只判断第一个区间
+         */
+        private final boolean single;
+
+        Masks(int[] range, long lanes, long nonAscii) {
+            low = lanes * (0x80 - range[0]);
+            high = lanes * (0x7F - range[1]);
+            fold = lanes * range[2];
+            foldedLow = lanes * (0x80 - range[3]);
+            foldedHigh = lanes * (0x7F - range[4]);
+            flag = lanes * 0x80;
+            this.nonAscii = nonAscii;
+            single = range[3] > range[4];
+        }
+
+        boolean matches(long first, long second) {
+            return ((first | second) & nonAscii) == 0 && (lanes(first) & lanes(second)) == flag;
+        }
+
+        private long lanes(long x) {
+            if (single) {
+                return (x + low) & ~(x + high) & flag;
+            }
+            long folded = x | fold;
+            return ((x + low) & ~(x + high) | (folded + foldedLow) & ~(folded + foldedHigh)) & flag;
+        }
+    }
+}
@@ -0,0 +1,235 @@
+package com.zhazhapan.util.text;
+
+/**
+ * 不使用正则的格式判断，单次遍历、不分配内存，语义与 {@link com.zhazhapan.util.Checker} 中对应的正则完全一致
+ * <p>
+ * 正则只在大小写、字符类上忽略ASCII以外的字符（没有 UNICODE_CASE），这里同样只接受ASCII字母和数字
+ *
+ * @author pantao
+ * @since 1.1.0
+ */
+public class TextScanner {
+
+    /**
+     * 超链接的主机部分不允许出现的字符（不含空白字符）
+     */
+    private static final String HOST_FORBIDDEN = "&;\"':<>";
+
+    private TextScanner() {}
+
+    /**
+     * 是否为整数格式，等价于 {@code ^[0-9]+$}
+     *
+     * @param text 字符串
+     *
+     * @return {@link Boolean}
+     */
+    public static boolean isNumber(CharSequence text) {
+        int length = text.length();
+        if (length == 0) {
+            return false;
+        }
+        for (int i = 0; i < length; i++) {
+            if (!isDigit(text.charAt(i))) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * 是否为数字（含小数）格式，等价于 {@code ^[0-9]+(\.[0-9]+)?$}
+     *
+     * @param text 字符串
+     *
+     * @return {@link Boolean}
+     */
+    public static boolean isDecimal(CharSequence text) {
+        int length = text.length();
+        int dot = -1;
+        for (int i = 0; i < length; i++) {
+            char c = text.charAt(i);
+            if (c == '.') {
+                if (dot >= 0 || i == 0) {
+                    return false;
+                }
+                dot = i;
+            } else if (!isDigit(c)) {
+                return false;
+            }
+        }
+        return length > 0 && dot != length - 1;
+    }
+
+    /**
+     * 是否为日期格式，等价于 {@code ^[0-9]{4}-(0[1-9]|1[0-2])-(0[1-9]|[1-2][0-9]|3[0-1])$}，不校验每月的天数
+     *
+     * @param text 字符串
+     *
+     * @return {@link Boolean}
+     */
+    public static boolean isDate(CharSequence text) {
+        if (text.length() != 10 || text.charAt(4) != '-' || text.charAt(7) != '-') {
+            return false;
+        }
+        for (int i = 0; i < 4; i++) {
+            if (!isDigit(text.charAt(i))) {
+                return false;
+            }
+        }
+        char m1 = text.charAt(5);
+        char m2 = text.charAt(6);
+        char d1 = text.charAt(8);
+        char d2 = text.charAt(9);
+        if (!isDigit(m2) || !isDigit(d2)) {
+            return false;
+        }
+        boolean month = (m1 == '0' && m2 != '0') || (m1 == '1' && m2 <= '2');
+        boolean day = (d1 == '0' && d2 != '0') || d1 == '1' || d1 == '2' || (d1 == '3' && d2 <= '1');
+        return month && day;
+    }
+
+    /**
+     * 是否为邮箱格式，等价于（忽略大小写） {@code ^[0-9a-z\-]+([0-9a-z\-]|(\.[0-9a-z\-]+))*@[0-9a-z\-]+(\.[0-9a-z\-]+)+$}
+     * <p>
+     * 即：@前后都由字母、数字、连字符和点组成，点不能在开头结尾也不能相邻，并且@之后至少有一个点
+     *
+     * @param text 字符串
+     *
+     * @return {@link Boolean}
+     */
+    public static boolean isEmail(CharSequence text) {
+        int length = text.length();
+        int at = -1;
+        int domainDots = 0;
+        // 上一个字符是否为点或者@（包括开头）
+        boolean separated = true;
+        for (int i = 0; i < length; i++) {
+            char c = text.charAt(i);
+            if (c == '.' || c == '@') {
+                if (separated || (c == '@' && at >= 0)) {
+                    return false;
+                }
+                if (c == '@') {
+                    at = i;
+                } else if (at >= 0) {
+                    domainDots++;
+                }
+                separated = true;
+            } else if (isEmailChar(c)) {
+                separated = false;
+            } else {
+                return false;
+            }
+        }
+        return at > 0 && domainDots > 0 && !separated;
+    }
+
+    /**
+     * 是否为超链接，等价于（忽略大小写） {@code ^(https*://)?([^\s&;"':<>]+\.)+[a-z0-9]+(/[^\s]*)*$}
+     * <p>
+     * 即：可选的 http(s)://，主机部分的最后一个点之后是字母或数字、之前至少有一个字符，主机部分之后可以有以/开头的路径，整个链接不能有空白字符
+     *
+     * @param text 字符串
+     *
+     * @return {@link Boolean}
+     */
+    public static boolean isHyperLink(CharSequence text) {
+        int length = text.length();
+        int start = schemeLength(text);
+        // 主机部分的最后一个点，以及该点之后的字符是否全部是字母或数字
+        int dot = -1;
+        boolean alnum = false;
+        boolean hostEnded = false;
+        boolean matched = false;
+        for (int i = start; i < length; i++) {
+            char c = text.charAt(i);
+            if (isSpace(c)) {
+                return false;
+            }
+            if (hostEnded) {
+                continue;
+            }
+            if (c == '/' && isHostEnd(dot, alnum, i - start)) {
+                // 主机部分可以在任意一个满足条件的/处结束，之后的字符只要求不是空白字符
+                matched = true;
+            }
+            if (c == '.') {
+                dot = i - start;
+                alnum = true;
+            } else if (HOST_FORBIDDEN.indexOf(c) >= 0) {
+                hostEnded = true;
+            } else if (!isLetterOrDigit(c)) {
+                alnum = false;
+            }
+        }
+        return matched || (!hostEnded && isHostEnd(dot, alnum, length - start));
+    }
+
+    /**
+     * 主机部分 [0, end) 是否满足：最后一个点在下标1及之后，点之后至少一个字符且全部是字母或数字
+     */
+    private static boolean isHostEnd(int dot, boolean alnum, int end) {
+        return dot >= 1 && end - dot >= 2 && alnum;
+    }
+
+    private static int schemeLength(CharSequence text) {
+        int length = text.length();
+        if (length < 7 || !equalsIgnoreCase(text, 0, "http")) {
+            return 0;
+        }
+        int i = 4;
+        while (i < length && (text.charAt(i) | 0x20) == 's') {
+            i++;
+        }
+        return length - i >= 3 && text.charAt(i) == ':' && text.charAt(i + 1) == '/' && text.charAt(i + 2) == '/' ?
+                i + 3 : 0;
+    }
+
+    private static boolean equalsIgnoreCase(CharSequence text, int offset, String lower) {
+        for (int i = 0; i < lower.length(); i++) {
+            if ((text.charAt(offset + i) | 0x20) != lower.charAt(i)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * 是否为ASCII数字
+     *
+     * @param c 字符
+     *
+     * @return {@link Boolean}
+     */
+    public static boolean isDigit(char c) {
+        return c >= '0' && c <= '9';
+    }
+
+    /**
+     * 是否为ASCII字母或数字
+     *
+     * @param c 字符
+     *
+     * @return {@link Boolean}
+     */
+    public static boolean isLetterOrDigit(char c) {
+        char lower = (char) (c | 0x20);
+        return isDigit(c) || (lower >= 'a' && lower <= 'z');
+    }
+
+    private static boolean isEmailChar(char c) {
+        return c == '-' || isLetterOrDigit(c);
+    }
+
+    /**
+     * 是否为正则中的空白字符 {@code \s}，即 [ \t\n\x0B\f\r]
+     *
+     * @param c 字符
+     *
+     * @return {@link Boolean}
+     */
+    public static boolean isSpace(char c) {
+        return c == ' ' || (c >= '\t' && c <= '\r');
+    }
+}
@@ -0,0 +1,309 @@
+package com.zhazhapan.util.validation;
+
+import com.zhazhapan.modules.constant.ValueConsts;
+import com.zhazhapan.util.Checker;
+import com.zhazhapan.util.LoggerUtils;
+import com.zhazhapan.util.ThreadPool;
+import com.zhazhapan.util.annotation.FieldChecking;
+import com.zhazhapan.util.model.BatchCheckResult;
+import com.zhazhapan.util.model.CheckResult;
+import com.zhazhapan.util.model.Violation;
+import org.apache.commons.jexl3.JexlEngine;
+import org.apache.commons.jexl3.internal.Engine;
+
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.stream.Stream;
+
+/**
+ * 对象校验引擎，每个类的 {@link FieldChecking} 规则在第一次校验时编译成 {@link ValidationPlan} 并缓存：
+ * 字段访问器（包括私有字段）、正则和JEXL脚本都只创建一次
+ *
+ * @author pantao
+ * @since 1.1.0
+ */
+public class BeanValidator {
+
+    /**
+     * 批量校验时每个任务的最大行数
+     */
+    public static final int BATCH_SIZE = 4096;
+
+    /**
+     * 批量校验时行为null的违例
+     */
+    public static final Violation NULL_ROW = new Violation(null, 400, "行为null", ValueConsts.ERROR_EN);
+
+    private static final JexlEngine JEXL_ENGINE = new Engine();
+
+    private static final ClassValue<ValidationPlan> PLANS = new ClassValue<ValidationPlan>() {
+        @Override
+        protected ValidationPlan computeValue(Class<?> type) {
+            return new ValidationPlan(type, JEXL_ENGINE);
+        }
+    };
+
+    private static volatile boolean codeGeneration = false;
+
+    private BeanValidator() {}
+
+    /**
+     * 是否使用cglib生成的校验器，默认不使用
+     *
+     * @return {@link Boolean}
+     */
+    public static boolean isCodeGeneration() {
+        return codeGeneration;
+    }
+
+    /**
+     * 设置是否使用cglib生成的校验器，生成的校验器直接读取非私有字段，并内联默认的非空验证和正则匹配，适合校验频繁的场景
+     *
+     * @param codeGeneration 是否使用
+     */
+    public static void setCodeGeneration(boolean codeGeneration) {
+        BeanValidator.codeGeneration = codeGeneration;
+    }
+
+    /**
+     * 获取类的校验计划，不存在时编译
+     *
+     * @param type 类
+     *
+     * @return {@link ValidationPlan}
+     */
+    public static ValidationPlan planOf(Class<?> type) {
+        return PLANS.get(type);
+    }
+
+    /**
+     * 校验对象，结果与 {@link com.zhazhapan.util.Checker#checkBean(Object)} 一致
+     *
+     * @param bean 对象
+     *
+     * @return {@link CheckResult}
+     */
+    public static CheckResult check(Object bean) {
+        return PLANS.get(bean.getClass()).check(bean);
+    }
+
+    /**
+     * 校验对象的所有字段，收集全部违例，见 {@link ValidationPlan#checkAll(Object)}
+     *
+     * @param bean 对象
+     *
+     * @return {@link CheckResult}
+     */
+    public static CheckResult checkAll(Object bean) {
+        return PLANS.get(bean.getClass()).checkAll(bean);
+    }
+
+    /**
+     * 在 {@link ThreadPool#getForkJoinPool()} 中并行校验所有行，收集每一行的全部违例
+     *
+     * @param beans 行，可以是不同的类型
+     *
+     * @return {@link BatchCheckResult}
+     */
+    public static BatchCheckResult checkAll(List<?> beans) {
+        return checkAll(beans, ThreadPool.getForkJoinPool());
+    }
+
+    /**
+     * 在指定的 {@link ForkJoinPool} 中并行校验所有行，收集每一行的全部违例
+     *
+     * @param beans 行，可以是不同的类型
+     * @param pool {@link ForkJoinPool}
+     *
+     * @return {@link BatchCheckResult}
+     */
+    public static BatchCheckResult checkAll(List<?> beans, ForkJoinPool pool) {
+        List<?> rows = beans instanceof RandomAccess ? beans : new ArrayList<>(beans);
+        BatchTask task = new BatchTask(rows, 0, rows.size());
+        Chunk chunk = rows.size() <= BATCH_SIZE ? task.compute() : pool.invoke(task);
+        return chunk.toResult(rows.size());
+    }
+
+    /**
+     * 并行校验流中的所有行，行号为流中的顺序。流按 {@link #BATCH_SIZE} 分块读取，同时校验的块数有上限，适合逐行读取的大文件
+     *
+     * @param beans 行，校验完成后关闭
+     *
+     * @return {@link BatchCheckResult}
+     */
+    public static BatchCheckResult checkAll(Stream<?> beans) {
+        ForkJoinPool pool = ThreadPool.getForkJoinPool();
+        int maxInFlight = pool.getParallelism() * 2;
+        Deque<CompletableFuture<Chunk>> inFlight = new ArrayDeque<>(maxInFlight);
+        Chunk total = new Chunk();
+        int offset = 0;
+        try (Stream<?> stream = beans) {
+            Iterator<?> iterator = stream.iterator();
+            while (iterator.hasNext()) {
+                List<Object> rows = new ArrayList<>(BATCH_SIZE);
+                while (rows.size() < BATCH_SIZE && iterator.hasNext()) {
+                    rows.add(iterator.next());
+                }
+                int base = offset;
+                offset += rows.size();
+                inFlight.addLast(CompletableFuture.supplyAsync(() -> validate(rows, 0, rows.size(), base), pool));
+                if (inFlight.size() >= maxInFlight) {
+                    total.append(join(inFlight.removeFirst()));
+                }
+            }
+        }
+        while (!inFlight.isEmpty()) {
+            total.append(join(inFlight.removeFirst()));
+        }
+        return total.toResult(offset);
+    }
+
+    private static Chunk join(CompletableFuture<Chunk> future) {
+        try {
+            return future.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            throw e;
+        }
+    }
+
+    private static Chunk validate(List<?> beans, int from, int to, int base) {
+        Chunk chunk = new Chunk();
+        boolean generate = codeGeneration;
+        Class<?> lastType = null;
+        ValidationPlan plan = null;
+        FieldValidator validator = null;
+        int[] buffer = new int[0];
+        for (int i = from; i < to; i++) {
+            Object bean = beans.get(i);
+            if (Checker.isNull(bean)) {
+                chunk.add(base + i - from, Collections.singletonList(NULL_ROW));
+                continue;
+            }
+            List<Violation> violations;
+            try {
+                if (bean.getClass() != lastType) {
+                    // 先置空，编译计划失败时下一行重新获取
+                    lastType = null;
+                    plan = PLANS.get(bean.getClass());
+                    validator = plan.getValidator(generate);
+                    if (buffer.length < plan.getRuleCount()) {
+                        buffer = new int[plan.getRuleCount()];
+                    }
+                    lastType = bean.getClass();
+                }
+                violations = plan.violations(bean, validator, buffer);
+            } catch (RuntimeException e) {
+                // 一行的表达式异常只影响这一行
+                LoggerUtils.error("第{}行校验异常：{}", String.valueOf(base + i - from), e.getMessage());
+                violations = Collections.singletonList(new Violation(null, ValidationPlan.ACCESS_ERROR.code,
+                        ValidationPlan.ACCESS_ERROR.message + "：" + e.getMessage(), ValueConsts.ERROR_EN));
+            }
+            if (Checker.isNotNull(violations)) {
+                chunk.add(base + i - from, violations);
+            }
+        }
+        return chunk;
+    }
+
+    /**
+     * 在 {@link ThreadPool#getExecutor()} 中异步校验对象
+     *
+     * @param bean 对象
+     *
+     * @return {@link CompletableFuture}
+     */
+    public static CompletableFuture<CheckResult> checkAsync(Object bean) {
+        return checkAsync(bean, ThreadPool.getExecutor());
+    }
+
+    /**
+     * 在指定线程池中异步校验对象
+     *
+     * @param bean 对象
+     * @param executor 线程池
+     *
+     * @return {@link CompletableFuture}
+     */
+    public static CompletableFuture<CheckResult> checkAsync(Object bean, Executor executor) {
+        return CompletableFuture.supplyAsync(() -> check(bean), executor);
+    }
+
+    /**
+     * 一段连续行的校验结果
+     */
+    private static class Chunk {
+
+        private int[] rows = new int[16];
+
+        private int size = 0;
+
+        private final List<List<Violation>> violations = new ArrayList<>();
+
+        private void add(int row, List<Violation> list) {
+            if (size == rows.length) {
+                rows = Arrays.copyOf(rows, size << 1);
+            }
+            rows[size++] = row;
+            violations.add(list);
+        }
+
+        private Chunk append(Chunk other) {
+            for (int i = 0; i < other.size; i++) {
+                add(other.rows[i], other.violations.get(i));
+            }
+            return this;
+        }
+
+        private BatchCheckResult toResult(int total) {
+            BatchCheckResult result = new BatchCheckResult();
+            result.total = total;
+            result.invalidRows = Arrays.copyOf(rows, size);
+            result.violations = violations;
+            return result;
+        }
+    }
+
+    /**
+     * 按行号区间拆分的并行校验任务
+     */
+    private static class BatchTask extends RecursiveTask<Chunk> {
+
+        private static final long serialVersionUID = 1L;
+
+        private final List<?> beans;
+
+        private final int from;
+
+        private final int to;
+
+        private BatchTask(List<?> beans, int from, int to) {
+            this.beans = beans;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected Chunk compute() {
+            if (to - from <= BATCH_SIZE) {
+                return validate(beans, from, to, from);
+            }
+            int mid = (from + to) >>> 1;
+            BatchTask left = new BatchTask(beans, from, mid);
+            left.fork();
+            Chunk right = new BatchTask(beans, mid, to).compute();
+            return left.join().append(right);
+        }
+    }
+
+    /**
+     * 丢弃类的校验计划，下次校验时重新编译
+     *
+     * @param type 类
+     */
+    public static void invalidate(Class<?> type) {
+        PLANS.remove(type);
+    }
+}
@@ -0,0 +1,165 @@
+package com.zhazhapan.util.validation;
+
+import cn.hutool.core.util.StrUtil;
+import com.zhazhapan.modules.constant.ValueConsts;
+import com.zhazhapan.util.Checker;
+import com.zhazhapan.util.annotation.FieldChecking;
+import com.zhazhapan.util.bean.BeanIntrospector;
+import com.zhazhapan.util.bean.BeanProperty;
+import com.zhazhapan.util.model.Violation;
+import org.apache.commons.jexl3.JexlEngine;
+import org.apache.commons.jexl3.JexlScript;
+
+import java.lang.reflect.Field;
+import java.util.regex.Pattern;
+
+/**
+ * 字段的校验规则，由 {@link FieldChecking} 编译而来：正则和JEXL脚本只在编译时创建一次，字段访问器来自 {@link BeanIntrospector}
+ *
+ * @author pantao
+ * @since 1.1.0
+ */
+public final class FieldRule {
+
+    private final Field field;
+
+    private final String fieldName;
+
+    private final String expression;
+
+    private final int code;
+
+    private final String message;
+
+    private final String status;
+
+    private final BeanProperty property;
+
+    private final Violation violation;
+
+    private final Pattern pattern;
+
+    private final JexlScript script;
+
+    FieldRule(Field field, FieldChecking checking, JexlEngine engine) {
+        this.field = field;
+        this.fieldName = field.getName();
+        this.expression = checking.expression();
+        this.code = checking.code();
+        this.message = StrUtil.format(checking.message(), fieldName);
+        this.status = checking.status();
+        this.property = BeanIntrospector.of(field.getDeclaringClass()).getField(fieldName);
+        this.violation = new Violation(fieldName, code, message, status);
+        if (Checker.isEmpty(expression)) {
+            pattern = null;
+            script = null;
+        } else if (expression.startsWith(ValueConsts.COLON)) {
+            pattern = Pattern.compile(expression.substring(1));
+            script = null;
+        } else {
+            pattern = null;
+            script = engine.createScript(expression, "val");
+        }
+    }
+
+    /**
+     * 读取字段值
+     *
+     * @param bean 对象
+     *
+     * @return 字段值
+     *
+     * @throws IllegalAccessException 字段无法访问
+     */
+    Object get(Object bean) throws IllegalAccessException {
+        if (!property.isReadable()) {
+            throw new IllegalAccessException("field " + fieldName + " is not accessible");
+        }
+        return property.getGetter().apply(bean);
+    }
+
+    /**
+     * 校验字段值
+     *
+     * @param value 字段值
+     *
+     * @return 是否通过
+     */
+    boolean test(Object value) {
+        if (Checker.isNotNull(pattern)) {
+            return FieldValidator.matches(pattern, value);
+        }
+        if (Checker.isNotNull(script)) {
+            Object result = script.execute(JexlEngine.EMPTY_CONTEXT, value);
+            return result instanceof Boolean && (boolean) result;
+        }
+        // 默认进行不为空验证
+        return FieldValidator.notEmpty(value);
+    }
+
+    /**
+     * 获取校验失败时的违例，所有对象共用
+     *
+     * @return {@link Violation}
+     */
+    public Violation getViolation() {
+        return violation;
+    }
+
+    Field getField() {
+        return field;
+    }
+
+    Pattern getPattern() {
+        return pattern;
+    }
+
+    boolean isScript() {
+        return Checker.isNotNull(script);
+    }
+
+    /**
+     * 获取字段名
+     *
+     * @return {@link String}
+     */
+    public String getFieldName() {
+        return fieldName;
+    }
+
+    /**
+     * 获取校验表达式
+     *
+     * @return {@link String}
+     */
+    public String getExpression() {
+        return expression;
+    }
+
+    /**
+     * 获取校验失败时的校验码
+     *
+     * @return {@link Integer}
+     */
+    public int getCode() {
+        return code;
+    }
+
+    /**
+     * 获取校验失败时的提示消息（已替换字段名）
+     *
+     * @return {@link String}
+     */
+    public String getMessage() {
+        return message;
+    }
+
+    /**
+     * 获取校验失败时的状态
+     *
+     * @return {@link String}
+     */
+    public String getStatus() {
+        return status;
+    }
+}
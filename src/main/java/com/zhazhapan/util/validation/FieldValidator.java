@@ -0,0 +1,161 @@
+package com.zhazhapan.util.validation;
+
+import com.zhazhapan.util.Checker;
+
+import java.util.regex.Pattern;
+
+/**
+ * 字段校验器，返回第一个不通过的规则下标。默认实现通过 {@link FieldRule} 读取字段，开启代码生成后由 {@link ValidatorGenerator}
+ * 为每个类生成子类，直接读取字段并内联默认的非空验证和正则匹配
+ *
+ * @author pantao
+ * @since 1.1.0
+ */
+public abstract class FieldValidator {
+
+    /**
+     * 字段规则，按字段声明顺序排列
+     */
+    protected final FieldRule[] rules;
+
+    /**
+     * 每条规则对应的正则，不是正则规则时为null
+     */
+    protected final Pattern[] patterns;
+
+    /**
+     * 新建校验器
+     *
+     * @param rules 字段规则
+     */
+    protected FieldValidator(FieldRule[] rules) {
+        this.rules = rules;
+        this.patterns = new Pattern[rules.length];
+        for (int i = 0; i < rules.length; i++) {
+            patterns[i] = rules[i].getPattern();
+        }
+    }
+
+    /**
+     * 校验对象
+     *
+     * @param bean 对象
+     *
+     * @return 第一个不通过的规则下标，全部通过时返回-1
+     *
+     * @throws IllegalAccessException 字段无法访问
+     */
+    public abstract int validate(Object bean) throws IllegalAccessException;
+
+    /**
+     * 校验对象的所有规则
+     *
+     * @param bean 对象
+     * @param failed 用于保存不通过的规则下标，长度不小于规则数
+     *
+     * @return 不通过的规则数，下标按规则顺序保存在 failed 的前面
+     *
+     * @throws IllegalAccessException 字段无法访问
+     */
+    public abstract int validateAll(Object bean, int[] failed) throws IllegalAccessException;
+
+    /**
+     * 获取规则数
+     *
+     * @return {@link Integer}
+     */
+    public final int getRuleCount() {
+        return rules.length;
+    }
+
+    /**
+     * 通过规则读取字段值，用于生成的代码无法直接访问的字段（如私有字段）
+     *
+     * @param index 规则下标
+     * @param bean 对象
+     *
+     * @return 字段值
+     *
+     * @throws IllegalAccessException 字段无法访问
+     */
+    protected final Object read(int index, Object bean) throws IllegalAccessException {
+        return rules[index].get(bean);
+    }
+
+    /**
+     * 通过规则校验字段值，用于JEXL规则
+     *
+     * @param index 规则下标
+     * @param value 字段值
+     *
+     * @return 是否通过
+     */
+    protected final boolean evaluate(int index, Object value) {
+        return rules[index].test(value);
+    }
+
+    /**
+     * 默认的非空验证
+     *
+     * @param value 字段值
+     *
+     * @return 不为null并且toString()不为空字符串时返回true
+     */
+    public static boolean notEmpty(Object value) {
+        return Checker.isNotNull(value) && Checker.isNotEmpty(value.toString());
+    }
+
+    /**
+     * 字符串字段的非空验证
+     *
+     * @param value 字段值
+     *
+     * @return {@link Boolean}
+     */
+    public static boolean notEmpty(String value) {
+        return Checker.isNotEmpty(value);
+    }
+
+    /**
+     * 正则匹配，字段值为null时不通过
+     *
+     * @param pattern 正则
+     * @param value 字段值
+     *
+     * @return {@link Boolean}
+     */
+    public static boolean matches(Pattern pattern, Object value) {
+        return Checker.isNotNull(value) && pattern.matcher(value.toString()).matches();
+    }
+
+    /**
+     * 反射实现，通过 {@link FieldRule} 中的访问器读取字段
+     */
+    static final class Reflective extends FieldValidator {
+
+        Reflective(FieldRule[] rules) {
+            super(rules);
+        }
+
+        @Override
+        public int validate(Object bean) throws IllegalAccessException {
+            for (int i = 0; i < rules.length; i++) {
+                if (!rules[i].test(rules[i].get(bean))) {
+                    return i;
+                }
+            }
+            return -1;
+        }
+
+        @Override
+        public int validateAll(Object bean, int[] failed) throws IllegalAccessException {
+            int count = 0;
+            for (int i = 0; i < rules.length; i++) {
+                if (!rules[i].test(rules[i].get(bean))) {
+                    failed[count++] = i;
+                }
+            }
+            return count;
+        }
+    }
+}
@@ -0,0 +1,218 @@
+package com.zhazhapan.util.validation;
+
+import com.zhazhapan.modules.constant.ValueConsts;
+import com.zhazhapan.util.Checker;
+import com.zhazhapan.util.LoggerUtils;
+import com.zhazhapan.util.annotation.FieldChecking;
+import com.zhazhapan.util.model.CheckResult;
+import com.zhazhapan.util.model.ResultObject;
+import com.zhazhapan.util.model.Violation;
+import org.apache.commons.jexl3.JexlEngine;
+import org.apache.log4j.Logger;
+
+import java.lang.reflect.Field;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * 类的校验计划，按字段声明顺序保存编译好的 {@link FieldRule}，校验时不再有反射查找；可选地使用cglib生成的校验器
+ *
+ * @author pantao
+ * @since 1.1.0
+ */
+public final class ValidationPlan {
+
+    /**
+     * 字段无法访问时的违例
+     */
+    public static final Violation ACCESS_ERROR = new Violation(null, 501, "表达式异常", ValueConsts.ERROR_EN);
+
+    private static Logger logger = Logger.getLogger(ValidationPlan.class);
+
+    private final Class<?> type;
+
+    private final FieldRule[] rules;
+
+    private final FieldChecking passed;
+
+    private final FieldValidator reflective;
+
+    private volatile FieldValidator generated = null;
+
+    private volatile boolean generationFailed = false;
+
+    ValidationPlan(Class<?> type, JexlEngine engine) {
+        this.type = type;
+        List<FieldRule> list = new ArrayList<>();
+        for (Field field : type.getDeclaredFields()) {
+            FieldChecking checking = field.getAnnotation(FieldChecking.class);
+            if (Checker.isNotNull(checking)) {
+                list.add(new FieldRule(field, checking, engine));
+            }
+        }
+        this.rules = list.toArray(new FieldRule[0]);
+        this.passed = type.getAnnotation(FieldChecking.class);
+        this.reflective = new FieldValidator.Reflective(rules);
+    }
+
+    /**
+     * 校验对象，遇到第一个不通过的字段时结束，开启代码生成（{@link BeanValidator#setCodeGeneration(boolean)}）时使用生成的校验器
+     *
+     * @param bean 对象，类型必须与计划一致
+     *
+     * @return {@link CheckResult}
+     */
+    public CheckResult check(Object bean) {
+        return check(bean, getValidator(BeanValidator.isCodeGeneration()));
+    }
+
+    /**
+     * 使用指定的校验器校验对象
+     *
+     * @param bean 对象，类型必须与计划一致
+     * @param validator {@link FieldValidator}
+     *
+     * @return {@link CheckResult}
+     */
+    public CheckResult check(Object bean, FieldValidator validator) {
+        try {
+            return result(validator.validate(bean));
+        } catch (IllegalAccessException e) {
+            LoggerUtils.error("字段无法访问：{}", e.getMessage());
+            return failure(ACCESS_ERROR);
+        }
+    }
+
+    private CheckResult result(int failed) {
+        if (failed >= 0) {
+            return failure(rules[failed].getViolation());
+        }
+        CheckResult result = new CheckResult();
+        ResultObject object = new ResultObject();
+        if (Checker.isNotNull(passed)) {
+            object.code = passed.code();
+            object.message = passed.message();
+            object.status = passed.status();
+        }
+        result.resultObject = object;
+        return result;
+    }
+
+    private static CheckResult failure(Violation violation) {
+        CheckResult result = new CheckResult();
+        ResultObject object = new ResultObject();
+        object.code = violation.code;
+        object.message = violation.message;
+        object.status = violation.status;
+        result.passed = false;
+        result.resultObject = object;
+        return result;
+    }
+
+    /**
+     * 校验对象的所有字段，收集全部违例
+     *
+     * @param bean 对象，类型必须与计划一致
+     *
+     * @return {@link CheckResult}，resultObject 为第一个违例（全部通过时与 {@link #check(Object)} 一致），violations 为全部违例
+     */
+    public CheckResult checkAll(Object bean) {
+        List<Violation> violations = violations(bean, getValidator(BeanValidator.isCodeGeneration()),
+                new int[rules.length]);
+        if (Checker.isNull(violations)) {
+            CheckResult result = result(-1);
+            result.violations = Collections.emptyList();
+            return result;
+        }
+        CheckResult result = failure(violations.get(0));
+        result.violations = violations;
+        return result;
+    }
+
+    /**
+     * 收集对象的全部违例
+     *
+     * @param bean 对象
+     * @param validator 校验器
+     * @param buffer 长度不小于规则数的缓冲区，可在同一线程中复用
+     *
+     * @return 违例，全部通过时返回null（不分配内存）
+     */
+    List<Violation> violations(Object bean, FieldValidator validator, int[] buffer) {
+        int count;
+        try {
+            count = validator.validateAll(bean, buffer);
+        } catch (IllegalAccessException e) {
+            LoggerUtils.error("字段无法访问：{}", e.getMessage());
+            return Collections.singletonList(ACCESS_ERROR);
+        }
+        if (count == 0) {
+            return null;
+        }
+        if (count == 1) {
+            return Collections.singletonList(rules[buffer[0]].getViolation());
+        }
+        Violation[] violations = new Violation[count];
+        for (int i = 0; i < count; i++) {
+            violations[i] = rules[buffer[i]].getViolation();
+        }
+        return Arrays.asList(violations);
+    }
+
+    /**
+     * 获取规则数
+     *
+     * @return {@link Integer}
+     */
+    public int getRuleCount() {
+        return rules.length;
+    }
+
+    /**
+     * 获取校验器，生成失败（如类加载器不可见）时使用反射实现
+     *
+     * @param generate 是否使用生成的校验器，第一次使用时生成
+     *
+     * @return {@link FieldValidator}
+     */
+    public FieldValidator getValidator(boolean generate) {
+        if (!generate || generationFailed) {
+            return reflective;
+        }
+        FieldValidator validator = generated;
+        if (Checker.isNull(validator)) {
+            synchronized (this) {
+                validator = generated;
+                if (Checker.isNull(validator) && !generationFailed) {
+                    try {
+                        validator = generated = ValidatorGenerator.generate(type, rules);
+                    } catch (RuntimeException | LinkageError e) {
+                        logger.warn("cannot generate validator for " + type.getName() + ": " + e.getMessage());
+                        generationFailed = true;
+                    }
+                }
+            }
+        }
+        return Checker.isNull(validator) ? reflective : validator;
+    }
+
+    /**
+     * 获取类
+     *
+     * @return {@link Class}
+     */
+    public Class<?> getType() {
+        return type;
+    }
+
+    /**
+     * 获取字段规则，按字段声明顺序排列
+     *
+     * @return {@link List}
+     */
+    public List<FieldRule> getRules() {
+        return Collections.unmodifiableList(Arrays.asList(rules));
+    }
+}
@@ -0,0 +1,215 @@
+package com.zhazhapan.util.validation;
+
+import net.sf.cglib.core.*;
+import org.objectweb.asm.ClassVisitor;
+import org.objectweb.asm.Label;
+import org.objectweb.asm.Type;
+
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.security.ProtectionDomain;
+import java.util.regex.Pattern;
+
+/**
+ * 使用cglib为类生成 {@link FieldValidator} 子类：非私有字段直接读取，基本类型字段的默认非空验证直接省略（一定通过），
+ * 正则规则直接调用 {@link FieldValidator#matches(Pattern, Object)}，只有JEXL规则和私有字段回到 {@link FieldRule}
+ * <p>
+ * 生成的类与被校验的类位于同一个包和类加载器中，因此可以访问包级私有的类和字段
+ *
+ * @author pantao
+ * @since 1.1.0
+ */
+final class ValidatorGenerator extends AbstractClassGenerator<Object> {
+
+    private static final Source SOURCE = new Source(FieldValidator.class.getName());
+
+    private static final Type VALIDATOR = Type.getType(FieldValidator.class);
+
+    private static final Signature CONSTRUCTOR = new Signature(Constants.CONSTRUCTOR_NAME, Type.VOID_TYPE,
+            new Type[]{Type.getType(FieldRule[].class)});
+
+    private static final Signature VALIDATE = TypeUtils.parseSignature("int validate(Object)");
+
+    private static final Signature VALIDATE_ALL = new Signature("validateAll", Type.INT_TYPE,
+            new Type[]{Constants.TYPE_OBJECT, Type.getType(int[].class)});
+
+    private static final Signature READ = TypeUtils.parseSignature("Object read(int, Object)");
+
+    private static final Signature EVALUATE = TypeUtils.parseSignature("boolean evaluate(int, Object)");
+
+    private static final Signature NOT_EMPTY = TypeUtils.parseSignature("boolean notEmpty(Object)");
+
+    private static final Signature NOT_EMPTY_STRING = TypeUtils.parseSignature("boolean notEmpty(String)");
+
+    private static final Signature MATCHES = TypeUtils.parseSignature("boolean matches(java.util.regex.Pattern, " +
+            "Object)");
+
+    private static final Type[] EXCEPTIONS = {Type.getType(IllegalAccessException.class)};
+
+    private final Class<?> type;
+
+    private final FieldRule[] rules;
+
+    private ValidatorGenerator(Class<?> type, FieldRule[] rules) {
+        super(SOURCE);
+        this.type = type;
+        this.rules = rules;
+        setNamePrefix(type.getName());
+        // 生成的类由 ValidationPlan 缓存
+        setUseCache(false);
+    }
+
+    /**
+     * 为类生成校验器
+     *
+     * @param type 类
+     * @param rules 字段规则
+     *
+     * @return {@link FieldValidator}
+     *
+     * @throws CodeGenerationException 生成失败
+     */
+    static FieldValidator generate(Class<?> type, FieldRule[] rules) {
+        return (FieldValidator) new ValidatorGenerator(type, rules).create(type.getName());
+    }
+
+    @Override
+    protected ClassLoader getDefaultClassLoader() {
+        return type.getClassLoader();
+    }
+
+    @Override
+    protected ProtectionDomain getProtectionDomain() {
+        return ReflectUtils.getProtectionDomain(type);
+    }
+
+    @Override
+    @SuppressWarnings("rawtypes")
+    protected Object firstInstance(Class type) throws Exception {
+        // cglib的方法签名使用原始类型，覆盖时不能改为Class<?>，转换后再调用以免产生unchecked警告
+        Class<?> generated = type;
+        return generated.getConstructor(FieldRule[].class).newInstance((Object) rules);
+    }
+
+    @Override
+    protected Object nextInstance(Object instance) throws Exception {
+        return firstInstance(instance.getClass());
+    }
+
+    @Override
+    public void generateClass(ClassVisitor visitor) {
+        ClassEmitter ce = new ClassEmitter(visitor);
+        ce.begin_class(Constants.V1_8, Constants.ACC_PUBLIC, getClassName(), VALIDATOR, null, Constants.SOURCE_FILE);
+        CodeEmitter e = ce.begin_method(Constants.ACC_PUBLIC, CONSTRUCTOR, null);
+        e.load_this();
+        e.load_arg(0);
+        e.super_invoke_constructor(CONSTRUCTOR);
+        e.return_value();
+        e.end_method();
+
+        e = ce.begin_method(Constants.ACC_PUBLIC, VALIDATE, EXCEPTIONS);
+        Local bean = castBean(e);
+        for (int i = 0; i < rules.length; i++) {
+            if (emitTest(e, bean, i)) {
+                Label next = e.make_label();
+                e.if_jump(CodeEmitter.NE, next);
+                e.push(i);
+                e.return_value();
+                e.mark(next);
+            }
+        }
+        e.push(-1);
+        e.return_value();
+        e.end_method();
+
+        e = ce.begin_method(Constants.ACC_PUBLIC, VALIDATE_ALL, EXCEPTIONS);
+        bean = castBean(e);
+        Local count = e.make_local(Type.INT_TYPE);
+        e.push(0);
+        e.store_local(count);
+        for (int i = 0; i < rules.length; i++) {
+            if (emitTest(e, bean, i)) {
+                // failed[count++] = i
+                Label next = e.make_label();
+                e.if_jump(CodeEmitter.NE, next);
+                e.load_arg(1);
+                e.load_local(count);
+                e.push(i);
+                e.array_store(Type.INT_TYPE);
+                e.iinc(count, 1);
+                e.mark(next);
+            }
+        }
+        e.load_local(count);
+        e.return_value();
+        e.end_method();
+        ce.end_class();
+    }
+
+    private Local castBean(CodeEmitter e) {
+        Type beanType = Type.getType(type);
+        Local bean = e.make_local(beanType);
+        e.load_arg(0);
+        e.checkcast(beanType);
+        e.store_local(bean);
+        return bean;
+    }
+
+    /**
+     * 生成校验第i条规则的代码，执行后栈顶为校验结果
+     *
+     * @return 是否生成了代码，一定通过的规则不生成
+     */
+    private boolean emitTest(CodeEmitter e, Local bean, int i) {
+        FieldRule rule = rules[i];
+        Field field = rule.getField();
+        boolean direct = !Modifier.isPrivate(field.getModifiers());
+        if (rule.isScript()) {
+            e.load_this();
+            e.push(i);
+            loadValue(e, bean, i, direct);
+            e.invoke_virtual(VALIDATOR, EVALUATE);
+        } else if (rule.getPattern() != null) {
+            e.load_this();
+            e.super_getfield("patterns", Type.getType(Pattern[].class));
+            e.push(i);
+            e.aaload();
+            loadValue(e, bean, i, direct);
+            e.invoke_static(VALIDATOR, MATCHES);
+        } else if (direct && field.getType().isPrimitive()) {
+            // 基本类型的值不会为null，toString()也不会为空字符串
+            return false;
+        } else if (direct && field.getType() == String.class) {
+            loadField(e, bean, field);
+            e.invoke_static(VALIDATOR, NOT_EMPTY_STRING);
+        } else {
+            loadValue(e, bean, i, direct);
+            e.invoke_static(VALIDATOR, NOT_EMPTY);
+        }
+        return true;
+    }
+
+    private void loadValue(CodeEmitter e, Local bean, int index, boolean direct) {
+        if (direct) {
+            Field field = rules[index].getField();
+            loadField(e, bean, field);
+            e.box(Type.getType(field.getType()));
+        } else {
+            e.load_this();
+            e.push(index);
+            e.load_local(bean);
+            e.invoke_virtual(VALIDATOR, READ);
+        }
+    }
+
+    private static void loadField(CodeEmitter e, Local bean, Field field) {
+        Type owner = Type.getType(field.getDeclaringClass());
+        Type fieldType = Type.getType(field.getType());
+        if (Modifier.isStatic(field.getModifiers())) {
+            e.getstatic(owner, field.getName(), fieldType);
+        } else {
+            e.load_local(bean);
+            e.getfield(owner, field.getName(), fieldType);
+        }
+    }
+}
@@ -31,6 +31,15 @@ public class ArraySortTest {
         System.out.println(Arrays.toString(arrays));
     }
 
+    @Test
+    public void testParallelMergeSort() {
+        int[] arrays = new java.util.Random(7).ints(200000).toArray();
+        int[] expected = arrays.clone();
+        Arrays.sort(expected);
+        ArrayUtils.parallelMergeSort(arrays);
+        assert Arrays.equals(expected, arrays);
+    }
+
     @Test
     public void testConcatArrays() {
         System.out.println(Arrays.toString(ArrayUtils.concatArrays(new int[]{1, 2}, new int[]{3, 4})));
@@ -1,10 +1,17 @@
 package com.zhazhapan.util;
 
+import org.apache.commons.jexl3.JexlContext;
+import org.apache.commons.jexl3.JexlEngine;
+import org.apache.commons.jexl3.MapContext;
+import org.apache.commons.jexl3.internal.Engine;
 import org.junit.Test;
 
 import java.io.IOException;
 import java.lang.reflect.InvocationTargetException;
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.HashMap;
+import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
 
@@ -40,6 +47,60 @@ public class ReflectUtilsTest {
         ReflectUtils.executeExpression(expression, map);
     }
 
+    @Test
+    public void executeExpressionCached() {
+        Map<String, Object> map = new HashMap<>();
+        map.put("age", 20);
+        assert ReflectUtils.getExpression("age >= 18") == ReflectUtils.getExpression("age >= 18");
+        assert Boolean.TRUE.equals(ReflectUtils.executeExpression("age >= 18", map));
+        map.put("age", 12);
+        assert Boolean.FALSE.equals(ReflectUtils.executeExpression("age >= 18", map));
+        // 上下文直接使用传入的映射
+        assert (int) ReflectUtils.executeScript("var x = age * 2; total = x + 1; total", map) == 25;
+        assert (int) map.get("total") == 25;
+        assert ReflectUtils.executeExpression("1 + 2", null).equals(3);
+        assert ReflectUtils.executeExpressions("1 + 2", Collections.singletonList(null)).get(0).equals(3);
+    }
+
+    @Test
+    public void executeExpressionBatch() {
+        List<Map<String, Object>> maps = new ArrayList<>();
+        for (int i = 0; i < 10000; i++) {
+            Map<String, Object> map = new HashMap<>();
+            map.put("age", i % 100);
+            map.put("name", "user" + i);
+            maps.add(map);
+        }
+        String expression = "age >= 18 && name.startsWith('user')";
+        List<Object> results = ReflectUtils.executeExpressions(expression, maps);
+        assert results.size() == maps.size();
+        for (int i = 0; i < results.size(); i++) {
+            assert results.get(i).equals(i % 100 >= 18) : i;
+        }
+        assert ReflectUtils.executeExpressions(expression, new LinkedList<>(maps.subList(0, 20))).equals(results
+                .subList(0, 20));
+        for (int round = 0; round < 5; round++) {
+            JexlEngine engine = new Engine();
+            long start = System.nanoTime();
+            for (Map<String, Object> map : maps) {
+                JexlContext context = new MapContext();
+                map.forEach(context::set);
+                engine.createExpression(expression).evaluate(context);
+            }
+            long uncachedTime = System.nanoTime() - start;
+            start = System.nanoTime();
+            for (Map<String, Object> map : maps) {
+                ReflectUtils.executeExpression(expression, map);
+            }
+            long cachedTime = System.nanoTime() - start;
+            start = System.nanoTime();
+            ReflectUtils.executeExpressions(expression, maps);
+            long batchTime = System.nanoTime() - start;
+            System.out.println("expression, uncached: " + uncachedTime / maps.size() + "ns/op, cached: " +
+                    cachedTime / maps.size() + "ns/op, parallel batch: " + batchTime / maps.size() + "ns/op");
+        }
+    }
+
     @Test
     public void invokeMethodUseBasicType() {
     }
@@ -0,0 +1,218 @@
+package com.zhazhapan.util.bean;
+
+import com.alibaba.fastjson.JSONObject;
+import com.zhazhapan.util.BeanUtils;
+import org.junit.Ignore;
+import org.junit.Test;
+
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.util.function.Function;
+
+/**
+ * @author pantao
+ * @since 1.1.0
+ */
+public class BeanIntrospectorTest {
+
+    @Test
+    public void testProperties() throws Exception {
+        BeanIntrospector introspector = BeanIntrospector.of(Account.class);
+        assert introspector == BeanIntrospector.of(Account.class);
+        // 按属性名排序，getClass不是属性
+        StringBuilder names = new StringBuilder();
+        introspector.getProperties().forEach(p -> names.append(p.getName()).append(','));
+        assert "active,balance,id,name,nickname,secret,".equals(names.toString()) : names;
+        Account account = new Account();
+        BeanProperty balance = introspector.getProperty("balance");
+        assert balance.getType() == long.class && balance.isReadable() && balance.isWritable();
+        balance.set(account, 100L);
+        assert account.getBalance() == 100L && (long) balance.get(account) == 100L;
+        // 公有类的方法通过LambdaMetafactory生成，不需要捕获MethodHandle
+        assert balance.getGetter().getClass().getDeclaredFields().length == 0;
+        assert introspector.getProperty("active").get(account) == Boolean.TRUE;
+        assert !introspector.getProperty("id").isWritable() && !introspector.getProperty("secret").isReadable();
+        // 重载的set方法选择与get方法类型一致的
+        introspector.getProperty("name").set(account, "pan");
+        assert "pan".equals(account.getName());
+        assert introspector.getProperty("nickname").getType() == String.class;
+        try {
+            introspector.getProperty("id").set(account, 1);
+            assert false;
+        } catch (IllegalAccessException e) {
+            assert e.getMessage().contains("id");
+        }
+        // 非公有类退回到MethodHandle，结果一致
+        BeanIntrospector hidden = BeanIntrospector.of(Hidden.class);
+        Hidden bean = new Hidden();
+        hidden.getProperty("value").set(bean, 7);
+        assert (int) hidden.getProperty("value").get(bean) == 7 && bean.value == 7;
+        assert hidden.getProperty("value").getGetter().getClass().getDeclaredFields().length == 1;
+    }
+
+    @Test
+    public void testIllegalValue() throws Exception {
+        BeanIntrospector introspector = BeanIntrospector.of(Account.class);
+        Account account = new Account();
+        // 与Field.set一致，类型不一致或基本类型为null时抛出IllegalArgumentException
+        Object[][] cases = {{introspector.getProperty("balance"), account, "1"}, {introspector.getProperty
+                ("balance"), account, null}, {introspector.getProperty("name"), account, 1}, {introspector.getField
+                ("secret"), account, 1}, {BeanIntrospector.of(Hidden.class).getProperty("value"), new Hidden(), null}};
+        for (Object[] c : cases) {
+            BeanProperty property = (BeanProperty) c[0];
+            try {
+                property.set(c[1], c[2]);
+                assert false : property;
+            } catch (IllegalArgumentException e) {
+                assert e.getMessage().contains(property.getName()) : e.getMessage();
+            }
+        }
+        // 对象为null时仍然是NullPointerException
+        try {
+            introspector.getField("secret").set(null, "s3");
+            assert false;
+        } catch (NullPointerException e) {
+            assert account.secret == null;
+        }
+    }
+
+    @Test
+    public void testFields() throws Exception {
+        BeanIntrospector introspector = BeanIntrospector.of(Account.class);
+        Account account = new Account();
+        BeanProperty secret = introspector.getField("secret");
+        secret.set(account, "s3");
+        assert "s3".equals(secret.get(account)) && "s3".equals(account.secret);
+        assert "static".equals(introspector.getField("SHARED").get(null));
+        assert introspector.getField("CONSTANT").isReadable() && !introspector.getField("CONSTANT").isWritable();
+        assert introspector.getFields().get(0).getName().equals("CONSTANT");
+        assert introspector.getField("missing") == null;
+    }
+
+    @Test
+    public void testBeanUtils() throws Exception {
+        Account account = new Account();
+        account.setName("pan");
+        account.setBalance(5);
+        JSONObject json = BeanUtils.beanToJson(account);
+        assert json.getBoolean("active") && !json.containsKey("isActive") && !json.containsKey("secret");
+        assert "pan".equals(json.getString("name")) && json.getLongValue("balance") == 5;
+        JSONObject source = new JSONObject();
+        source.put("value", "3");
+        Hidden hidden = new Hidden();
+        BeanUtils.jsonPutIn(source, hidden);
+        assert hidden.value == 3;
+        try {
+            BeanUtils.beanToJson(new Broken());
+            assert false;
+        } catch (InvocationTargetException e) {
+            assert e.getCause() instanceof UnsupportedOperationException;
+        }
+    }
+
+    @Test
+    @Ignore("基准测试，手动运行")
+    public void testBenchmark() throws Exception {
+        Account account = new Account();
+        account.setBalance(1);
+        Method method = Account.class.getMethod("getBalance");
+        Function<Object, Object> getter = BeanIntrospector.of(Account.class).getProperty("balance").getGetter();
+        for (int round = 0; round < 3; round++) {
+            int count = 5000000;
+            long sum = 0;
+            long start = System.nanoTime();
+            for (int i = 0; i < count; i++) {
+                sum += account.getBalance();
+            }
+            long direct = System.nanoTime() - start;
+            start = System.nanoTime();
+            for (int i = 0; i < count; i++) {
+                sum += (long) method.invoke(account);
+            }
+            long reflect = System.nanoTime() - start;
+            start = System.nanoTime();
+            for (int i = 0; i < count; i++) {
+                sum += (long) getter.apply(account);
+            }
+            long lambda = System.nanoTime() - start;
+            assert sum == 3L * count;
+            System.out.println("getter, direct: " + direct * 1000 / count + "ps/op, reflect: " + reflect * 1000 /
+                    count + "ps/op, introspector: " + lambda * 1000 / count + "ps/op");
+        }
+    }
+
+    public static class Account {
+
+        public static final String CONSTANT = "constant";
+
+        public static String SHARED = "static";
+
+        private String name;
+
+        private long balance;
+
+        private String secret;
+
+        private String nickname;
+
+        public String getName() {
+            return name;
+        }
+
+        public void setName(String name) {
+            this.name = name;
+        }
+
+        public void setName(StringBuilder name) {
+            this.name = "builder:" + name;
+        }
+
+        public long getBalance() {
+            return balance;
+        }
+
+        public void setBalance(long balance) {
+            this.balance = balance;
+        }
+
+        public boolean isActive() {
+            return true;
+        }
+
+        public int getId() {
+            return 1;
+        }
+
+        public void setSecret(String secret) {
+            this.secret = secret;
+        }
+
+        public String getNickname() {
+            return nickname;
+        }
+
+        public void setNickname(String nickname) {
+            this.nickname = nickname;
+        }
+    }
+
+    static class Hidden {
+
+        private int value;
+
+        public int getValue() {
+            return value;
+        }
+
+        public void setValue(int value) {
+            this.value = value;
+        }
+    }
+
+    public static class Broken {
+
+        public String getValue() {
+            throw new UnsupportedOperationException("broken");
+        }
+    }
+}
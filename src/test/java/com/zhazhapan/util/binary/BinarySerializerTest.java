@@ -0,0 +1,382 @@
+package com.zhazhapan.util.binary;
+
+import com.alibaba.fastjson.JSON;
+import com.alibaba.fastjson.serializer.SerializerFeature;
+import com.zhazhapan.util.annotation.BinaryField;
+import org.junit.Ignore;
+import org.junit.Test;
+
+import java.io.*;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.util.*;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * @author pantao
+ * @since 1.1.0
+ */
+public class BinarySerializerTest {
+
+    static {
+        // anyList中的枚举和Bean写在Object元素中，需要注册
+        BinarySerializer.registerType(TimeUnit.class, SampleChild.class);
+    }
+
+    @Test
+    public void testRoundTrip() {
+        Sample sample = Sample.create(1);
+        sample.cache = "changed";
+        byte[] bytes = BinarySerializer.toBytes(sample);
+        Sample copy = BinarySerializer.fromBytes(bytes, Sample.class);
+        // 共享的引用会被分别写入，不保留引用关系
+        assert toJson(sample).equals(toJson(copy)) : toJson(copy);
+        assert "cache".equals(copy.cache) && copy.base == 7 && copy.unit == TimeUnit.HOURS;
+        assert copy.child instanceof SampleChild && ((SampleChild) copy.child).extra == 99;
+        assert copy.any instanceof Integer && copy.anyList.get(2) instanceof BigDecimal;
+        assert copy.tags instanceof TreeSet && copy.scores instanceof LinkedHashMap;
+        assert BinarySerializer.fromBytes(BinarySerializer.toBytes(null), Sample.class) == null;
+        assert "中文😀".equals(BinarySerializer.fromBytes(BinarySerializer.toBytes("中文😀"), String.class));
+        int[] numbers = BinarySerializer.fromBytes(BinarySerializer.toBytes(new int[]{-1, 0, 300}), int[].class);
+        assert Arrays.equals(numbers, new int[]{-1, 0, 300});
+        // 字符串的UTF-8长度超过127字节时长度前缀占两个字节
+        StringBuilder longText = new StringBuilder();
+        for (int i = 0; i < 100; i++) {
+            longText.append("长");
+        }
+        assert longText.toString().equals(BinarySerializer.fromBytes(BinarySerializer.toBytes(longText), String
+                .class));
+        assert bytes.length < JSON.toJSONString(sample).length();
+    }
+
+    @Test
+    public void testSchemaEvolution() {
+        Version1 v1 = new Version1();
+        v1.id = 42;
+        v1.name = "old";
+        v1.removed = "gone";
+        Version2 v2 = BinarySerializer.fromBytes(BinarySerializer.toBytes(v1), Version2.class);
+        // 按编号匹配：删除的字段被跳过，新字段保持默认值，int可以读取为long
+        assert v2.id == 42L && "old".equals(v2.name) && v2.added == 5;
+        assert Arrays.equals(BinaryCodec.of(Version2.class).getFieldNames(), new String[]{"added", "name", "id"});
+        try {
+            BinaryCodec.of(Duplicated.class);
+            assert false;
+        } catch (IllegalArgumentException e) {
+            assert e.getMessage().contains("duplicate");
+        }
+        // 部分字段有编号时其余字段的编号会随增删字段变化，不允许
+        try {
+            BinaryCodec.of(Mixed.class);
+            assert false;
+        } catch (IllegalArgumentException e) {
+            assert e.getMessage().contains("missing @BinaryField") && e.getMessage().contains("b");
+        }
+        // 没有注解时按字段名编号，父类字段在前
+        assert Arrays.equals(BinaryCodec.of(Unordered.class).getFieldNames(), new String[]{"b", "a", "c"});
+    }
+
+    @Test
+    public void testStreamAndBatch() throws IOException {
+        List<Sample> samples = new ArrayList<>();
+        for (int i = 0; i < 500; i++) {
+            samples.add(Sample.create(i));
+        }
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        BinarySerializer.write(samples.get(0), out);
+        BinarySerializer.writeList(samples, Sample.class, out);
+        BinarySerializer.write("end", out);
+        InputStream in = new ByteArrayInputStream(out.toByteArray());
+        Sample first = BinarySerializer.read(in, Sample.class);
+        assert first.number == 0;
+        List<Sample> copy = BinarySerializer.readList(in, Sample.class);
+        assert copy.size() == 500 && copy.get(499).number == 499;
+        String end = BinarySerializer.read(in, String.class);
+        String eof = BinarySerializer.read(in, String.class);
+        assert "end".equals(end) && eof == null;
+        List<Sample> batch = BinarySerializer.listFromBytes(BinarySerializer.toBytes(samples, Sample.class), Sample
+                .class);
+        assert toJson(samples).equals(toJson(batch));
+        byte[] bytes = BinarySerializer.toBytes(samples.get(1));
+        try {
+            BinarySerializer.fromBytes(Arrays.copyOf(bytes, bytes.length - 3), Sample.class);
+            assert false;
+        } catch (IllegalArgumentException e) {
+            assert e.getMessage().contains("end of data");
+        }
+        try {
+            BinarySerializer.read(new ByteArrayInputStream(new byte[]{10, 1, 2}), Sample.class);
+            assert false;
+        } catch (EOFException e) {
+            assert e.getMessage() != null;
+        }
+        Node node = new Node();
+        node.next = node;
+        try {
+            BinarySerializer.toBytes(node);
+            assert false;
+        } catch (IllegalStateException e) {
+            assert e.getMessage().contains("circular");
+        }
+    }
+
+    @Test
+    public void testTypeCheck() {
+        Holder holder = new Holder();
+        holder.value = new Version1();
+        holder.base = new SampleChild();
+        byte[] bytes = BinarySerializer.toBytes(holder);
+        // Object字段中未注册的类不会被加载
+        try {
+            BinarySerializer.fromBytes(bytes, Holder.class);
+            assert false;
+        } catch (IllegalArgumentException e) {
+            assert e.getMessage().contains("not registered");
+        }
+        BinarySerializer.registerType(Version1.class);
+        try {
+            Holder copy = BinarySerializer.fromBytes(bytes, Holder.class);
+            // 声明类型的子类不需要注册
+            assert copy.value instanceof Version1 && copy.base instanceof SampleChild;
+        } finally {
+            BinarySerializer.unregisterType(Version1.class);
+        }
+    }
+
+    @Test
+    @Ignore("基准测试，手动运行")
+    public void testBenchmark() throws Exception {
+        Small small = new Small();
+        small.id = 1234567L;
+        small.name = "user-1234567";
+        small.age = 31;
+        small.score = 88.5;
+        small.active = true;
+        small.created = new Date(1500000000000L);
+        byte[] java = javaSerialize(small);
+        String json = JSON.toJSONString(small);
+        byte[] binary = BinarySerializer.toBytes(small);
+        System.out.println("small bean size, java: " + java.length + " bytes, fastjson: " + json.getBytes().length +
+                " bytes, binary: " + binary.length + " bytes");
+        for (int round = 0; round < 5; round++) {
+            int count = 100000;
+            long start = System.nanoTime();
+            for (int i = 0; i < count; i++) {
+                javaDeserialize(javaSerialize(small));
+            }
+            long javaTime = System.nanoTime() - start;
+            start = System.nanoTime();
+            for (int i = 0; i < count; i++) {
+                JSON.parseObject(JSON.toJSONString(small), Small.class);
+            }
+            long jsonTime = System.nanoTime() - start;
+            start = System.nanoTime();
+            for (int i = 0; i < count; i++) {
+                BinarySerializer.fromBytes(BinarySerializer.toBytes(small), Small.class);
+            }
+            long binaryTime = System.nanoTime() - start;
+            System.out.println("small bean round trip, java: " + javaTime / count + "ns/op, fastjson: " + jsonTime /
+                    count + "ns/op, binary: " + binaryTime / count + "ns/op");
+        }
+        Small copy = BinarySerializer.fromBytes(binary, Small.class);
+        assert copy.id == small.id && copy.created.equals(small.created) && copy.score == small.score;
+    }
+
+    private static String toJson(Object object) {
+        return JSON.toJSONString(object, SerializerFeature.DisableCircularReferenceDetect);
+    }
+
+    private static byte[] javaSerialize(Object object) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (ObjectOutputStream out = new ObjectOutputStream(bytes)) {
+            out.writeObject(object);
+        }
+        return bytes.toByteArray();
+    }
+
+    private static Object javaDeserialize(byte[] bytes) throws Exception {
+        try (ObjectInputStream in = new ObjectInputStream(new ByteArrayInputStream(bytes))) {
+            return in.readObject();
+        }
+    }
+
+    public static class Base {
+
+        public int base = 7;
+    }
+
+    public static class Sample extends Base {
+
+        public static String ignored = "static";
+
+        public transient String cache = "cache";
+
+        public boolean flag;
+
+        public byte small;
+
+        public short medium;
+
+        public int number;
+
+        public long big;
+
+        public float ratio;
+
+        public double value;
+
+        public char letter;
+
+        public Integer boxed;
+
+        public String text;
+
+        public byte[] data;
+
+        public long[] history;
+
+        public TimeUnit unit;
+
+        public Date time;
+
+        public BigDecimal amount;
+
+        public BigInteger huge;
+
+        public List<String> names;
+
+        public SortedSet<Integer> tags;
+
+        public Map<String, List<Long>> scores;
+
+        public SampleChild nested;
+
+        public Base child;
+
+        public List<SampleChild> children;
+
+        public Object any;
+
+        public List<Object> anyList;
+
+        static Sample create(int i) {
+            Sample sample = new Sample();
+            sample.flag = i % 2 == 0;
+            sample.small = (byte) -i;
+            sample.medium = (short) (i * 100);
+            sample.number = i;
+            sample.big = Long.MIN_VALUE + i;
+            sample.ratio = 0.5f;
+            sample.value = -i / 3.0;
+            sample.letter = '字';
+            sample.boxed = -i;
+            sample.text = "样本-" + i;
+            sample.data = new byte[]{1, (byte) i, -1};
+            sample.history = new long[]{i, -i, Long.MAX_VALUE};
+            sample.unit = TimeUnit.HOURS;
+            sample.time = new Date(1500000000000L + i);
+            sample.amount = new BigDecimal("-12.3400");
+            sample.huge = BigInteger.TEN.pow(30);
+            sample.names = Arrays.asList("a", null, "c");
+            sample.tags = new TreeSet<>(Arrays.asList(3, 1, 2));
+            sample.scores = new LinkedHashMap<>();
+            sample.scores.put("x", Arrays.asList(1L, 2L));
+            sample.scores.put("y", Collections.emptyList());
+            sample.nested = new SampleChild();
+            SampleChild child = new SampleChild();
+            child.extra = 99;
+            sample.child = child;
+            sample.children = Arrays.asList(new SampleChild(), child);
+            sample.any = i;
+            sample.anyList = Arrays.asList("s", 1L, new BigDecimal("1.5"), true, TimeUnit.DAYS, child);
+            return sample;
+        }
+    }
+
+    public static class SampleChild extends Base {
+
+        public int extra = 1;
+    }
+
+    public static class Version1 {
+
+        @BinaryField(id = 1)
+        public int id;
+
+        @BinaryField(id = 2)
+        public String name;
+
+        @BinaryField(id = 3)
+        public String removed;
+    }
+
+    public static class Version2 {
+
+        @BinaryField(id = 4)
+        public int added = 5;
+
+        @BinaryField(id = 2)
+        public String name;
+
+        @BinaryField(id = 1)
+        public long id;
+    }
+
+    public static class Duplicated {
+
+        @BinaryField(id = 1)
+        public int a;
+
+        @BinaryField(id = 1)
+        public int b;
+    }
+
+    public static class Mixed {
+
+        @BinaryField(id = 1)
+        public int a;
+
+        public int b;
+    }
+
+    public static class UnorderedBase {
+
+        public int b;
+    }
+
+    public static class Unordered extends UnorderedBase {
+
+        public int c;
+
+        public int a;
+    }
+
+    public static class Holder {
+
+        public Object value;
+
+        public Base base;
+    }
+
+    public static class Node {
+
+        public Node next;
+    }
+
+    public static class Small implements Serializable {
+
+        private static final long serialVersionUID = 1L;
+
+        public long id;
+
+        public String name;
+
+        public int age;
+
+        public double score;
+
+        public boolean active;
+
+        public Date created;
+    }
+}
@@ -0,0 +1,126 @@
+package com.zhazhapan.util.collection;
+
+import com.zhazhapan.util.Checker;
+import com.zhazhapan.util.enums.FieldModifier;
+import com.zhazhapan.util.enums.LogLevel;
+import org.junit.Ignore;
+import org.junit.Test;
+
+import java.util.*;
+
+/**
+ * @author pantao
+ * @since 1.1.0
+ */
+public class MembershipSetTest {
+
+    @Test
+    public void testSameAsHashSet() {
+        Random random = new Random(2018);
+        for (int size : new int[]{1, 3, 16, 1000}) {
+            Set<Object> expected = new HashSet<>();
+            List<Object> values = new ArrayList<>();
+            for (int i = 0; i < size; i++) {
+                Object value = i % 3 == 0 ? "key" + random.nextInt(size * 2) : (i % 3 == 1 ? random.nextInt(size * 2) :
+                        random.nextLong());
+                values.add(value);
+                expected.add(value);
+            }
+            values.add(null);
+            MembershipSet<Object> set = MembershipSet.of(values);
+            MembershipSet<Object> bloom = set.withBloomFilter(0.01);
+            assert set.size() == expected.size() && bloom.size() == expected.size();
+            for (int i = 0; i < size * 4; i++) {
+                Object probe = i % 2 == 0 ? "key" + i : (Object) i;
+                assert set.contains(probe) == expected.contains(probe);
+                assert bloom.contains(probe) == expected.contains(probe);
+            }
+            assert !set.contains(null) && !bloom.contains(null);
+            List<Object> visited = new ArrayList<>();
+            set.forEach(visited::add);
+            assert new HashSet<>(visited).equals(expected);
+        }
+    }
+
+    @Test
+    public void testStringsAndEnums() {
+        MembershipSet<String> strings = MembershipSet.of("GET", "POST", "PUT", "GET");
+        assert strings.size() == 3 && strings.contains("POST") && !strings.contains("post");
+        assert !strings.contains(1) && !MembershipSet.of().contains("GET");
+        MembershipSet<FieldModifier> modifiers = MembershipSet.of(FieldModifier.PRIVATE, FieldModifier.ALL);
+        assert modifiers.contains(FieldModifier.PRIVATE) && !modifiers.contains(FieldModifier.PUBLIC);
+        assert !modifiers.contains(LogLevel.values()[FieldModifier.PRIVATE.ordinal()]);
+        assert Checker.isIn(FieldModifier.ALL, modifiers) && Checker.isNotIn(FieldModifier.PUBLIC, modifiers);
+        assert !Checker.isIn("GET", (MembershipSet<String>) null);
+        // 不同类型的枚举混在一起时使用哈希表
+        MembershipSet<Enum<?>> mixed = MembershipSet.of(FieldModifier.PUBLIC, LogLevel.INFO);
+        assert mixed.contains(LogLevel.INFO) && !mixed.contains(FieldModifier.ALL);
+    }
+
+    @Test
+    public void testPrimitives() {
+        IntMembershipSet dense = IntMembershipSet.of(200, 404, 500, 404, 302);
+        assert dense.size() == 4 && dense.contains(404) && !dense.contains(403) && !dense.contains(-1);
+        assert !dense.contains(Integer.MIN_VALUE) && !dense.contains(Integer.MAX_VALUE);
+        IntMembershipSet sparse = IntMembershipSet.of(0, Integer.MIN_VALUE, Integer.MAX_VALUE, -7, 1 << 20);
+        assert sparse.size() == 5 && sparse.contains(0) && sparse.contains(Integer.MIN_VALUE) && sparse.contains(-7);
+        assert !sparse.contains(1) && !IntMembershipSet.of().contains(0);
+        LongMembershipSet longs = LongMembershipSet.of(0, Long.MAX_VALUE, 1L << 40, 1L << 40);
+        assert longs.size() == 3 && longs.contains(0) && longs.contains(1L << 40) && !longs.contains(1L << 41);
+        assert Checker.isIn(500, dense) && Checker.isNotIn(501, dense) && Checker.isIn(Long.MAX_VALUE, longs);
+        Random random = new Random(7);
+        int[] values = random.ints(5000).toArray();
+        Set<Integer> expected = new HashSet<>();
+        Arrays.stream(values).forEach(expected::add);
+        IntMembershipSet set = IntMembershipSet.of(values);
+        for (int i = 0; i < values.length; i++) {
+            int probe = i % 2 == 0 ? values[i] : random.nextInt();
+            assert set.contains(probe) == expected.contains(probe);
+        }
+    }
+
+    @Test
+    public void testBloomFilter() {
+        BloomFilter filter = new BloomFilter(10000, 0.01);
+        for (int i = 0; i < 10000; i++) {
+            filter.put("item" + i);
+        }
+        int falsePositives = 0;
+        for (int i = 0; i < 10000; i++) {
+            assert filter.mightContain("item" + i);
+            falsePositives += filter.mightContain("other" + i) ? 1 : 0;
+        }
+        // 期望误判率1%，留出余量
+        assert falsePositives < 300 : falsePositives;
+        assert filter.getHashCount() > 1 && filter.getBitSize() >= 10000 * 9;
+    }
+
+    @Test
+    @Ignore("基准测试，手动运行")
+    public void testBenchmark() {
+        List<String> whitelist = new ArrayList<>();
+        for (int i = 0; i < 2000; i++) {
+            whitelist.add("user-" + i);
+        }
+        MembershipSet<String> set = MembershipSet.of(whitelist);
+        String[] probes = new String[4096];
+        for (int i = 0; i < probes.length; i++) {
+            probes[i] = "user-" + (i * 7);
+        }
+        for (int round = 0; round < 3; round++) {
+            int found = 0;
+            long start = System.nanoTime();
+            for (int i = 0; i < 20000; i++) {
+                found += Checker.isIn(probes[i & 4095], whitelist) ? 1 : 0;
+            }
+            long list = (System.nanoTime() - start) / 20000;
+            start = System.nanoTime();
+            for (int i = 0; i < 2000000; i++) {
+                found -= Checker.isIn(probes[i & 4095], set) && i < 20000 ? 1 : 0;
+            }
+            long hashed = (System.nanoTime() - start) / 2000000;
+            assert found == 0;
+            System.out.println("isIn list: " + list + "ns/op, membership set: " + hashed + "ns/op");
+        }
+    }
+}
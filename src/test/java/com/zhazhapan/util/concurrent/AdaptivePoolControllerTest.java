@@ -0,0 +1,91 @@
+package com.zhazhapan.util.concurrent;
+
+import com.zhazhapan.util.enums.PoolAdjustment;
+import com.zhazhapan.util.model.PoolDecision;
+import org.junit.Test;
+
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertTrue;
+
+/**
+ * @author pantao
+ * @since 1.1.0
+ */
+public class AdaptivePoolControllerTest {
+
+    private static final long SECOND = TimeUnit.SECONDS.toNanos(1);
+
+    @Test
+    public void testGrowRevertShrink() throws InterruptedException {
+        SampledExecutor executor = new SampledExecutor();
+        AdaptivePoolController controller = new AdaptivePoolController(executor, 1, 32);
+        long now = System.nanoTime();
+        // 积压时扩容，吞吐量没有提升则回退，回退后冷却一个周期
+        executor.backlog.add(() -> {});
+        PoolDecision decision = tick(controller, executor, now += SECOND, 100);
+        assert decision.adjustment == PoolAdjustment.GROW && decision.sizeAfter == 2;
+        decision = tick(controller, executor, now += SECOND, 100);
+        assert decision.adjustment == PoolAdjustment.REVERT && decision.sizeAfter == 1;
+        decision = tick(controller, executor, now += SECOND, 100);
+        assert decision.adjustment == PoolAdjustment.HOLD && decision.sizeAfter == 1;
+        // 吞吐量随扩容提升时继续扩容
+        decision = tick(controller, executor, now += SECOND, 200);
+        assert decision.adjustment == PoolAdjustment.GROW && decision.sizeAfter == 2;
+        decision = tick(controller, executor, now += SECOND, 300);
+        assert decision.adjustment == PoolAdjustment.GROW && decision.sizeAfter == 3;
+        assert controller.getGrowCount() == 3 && controller.getRevertCount() == 1;
+        assert executor.getCorePoolSize() == 3 && controller.getCurrentSize() == 3;
+        // 没有积压且利用率低时缩容
+        executor.backlog.clear();
+        decision = tick(controller, executor, now + SECOND, 100);
+        assert decision.adjustment == PoolAdjustment.SHRINK && decision.sizeAfter < decision.sizeBefore;
+        assert controller.getShrinkCount() == 1 && controller.getDecisions().size() == 6;
+        executor.shutdownNow();
+        boolean terminated = executor.awaitTermination(5, TimeUnit.SECONDS);
+        assertTrue(terminated);
+    }
+
+    private static PoolDecision tick(AdaptivePoolController controller, SampledExecutor executor, long now, int
+            completed) {
+        executor.completed += completed;
+        return controller.adjust(now);
+    }
+
+    /**
+     * 由测试设定采样值的线程池，不执行任务
+     */
+    private static class SampledExecutor extends ThreadPoolExecutor {
+
+        private final BlockingQueue<Runnable> backlog = new LinkedBlockingQueue<>();
+
+        private long completed = 0;
+
+        private SampledExecutor() {
+            super(1, 1, 0, TimeUnit.SECONDS, new LinkedBlockingQueue<>());
+        }
+
+        @Override
+        public long getCompletedTaskCount() {
+            return completed;
+        }
+
+        @Override
+        public long getTaskCount() {
+            return completed + backlog.size();
+        }
+
+        @Override
+        public int getActiveCount() {
+            return 0;
+        }
+
+        @Override
+        public BlockingQueue<Runnable> getQueue() {
+            return backlog;
+        }
+    }
+}
@@ -0,0 +1,83 @@
+package com.zhazhapan.util.concurrent;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * @author pantao
+ * @since 1.1.0
+ */
+public class BatchingExecutorTest {
+
+    @Test
+    public void testBatchBySizeAndLinger() throws Exception {
+        List<Integer> sizes = Collections.synchronizedList(new ArrayList<>());
+        List<Integer> handled = Collections.synchronizedList(new ArrayList<>());
+        BatchingExecutor<Integer> executor = new BatchingExecutor<>("size", 10, 50, batch -> {
+            sizes.add(batch.size());
+            handled.addAll(batch);
+        });
+        List<CompletableFuture<Void>> futures = new ArrayList<>();
+        for (int i = 0; i < 95; i++) {
+            futures.add(executor.submit(i));
+        }
+        CompletableFuture.allOf(futures.toArray(new CompletableFuture[0])).get(5, TimeUnit.SECONDS);
+        assert handled.size() == 95;
+        assert sizes.stream().allMatch(size -> size <= 10);
+        assert executor.getBatchCount() < 95;
+        // 单个元素在等待时长后被处理
+        long start = System.nanoTime();
+        executor.submit(100).get(5, TimeUnit.SECONDS);
+        assert TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start) >= 40;
+        executor.close();
+        try {
+            executor.submit(1);
+            assert false;
+        } catch (RejectedExecutionException e) {
+            assert executor.getItemCount() == 96;
+        }
+    }
+
+    @Test
+    public void testFailureAndBackpressure() throws Exception {
+        CountDownLatch latch = new CountDownLatch(1);
+        AtomicInteger calls = new AtomicInteger();
+        ExecutorService workers = Executors.newSingleThreadExecutor();
+        BatchingExecutor<String> executor = new BatchingExecutor<>("bp", 2, 200, TimeUnit.MILLISECONDS, 2, 1, batch
+                -> {
+            if (calls.incrementAndGet() == 1) {
+                latch.await();
+                throw new IllegalStateException("boom");
+            }
+        }, workers);
+        CompletableFuture<Void> first = executor.submit("a");
+        Thread.sleep(300);
+        // 第一批阻塞，调度线程最多再取出一批，之后缓冲区满
+        executor.submit("b");
+        executor.submit("c");
+        Thread.sleep(50);
+        executor.submit("d");
+        executor.submit("e");
+        try {
+            executor.offer("f", 50, TimeUnit.MILLISECONDS);
+            assert false;
+        } catch (RejectedExecutionException e) {
+            assert executor.getPendingCount() == 2;
+        }
+        latch.countDown();
+        try {
+            first.get(5, TimeUnit.SECONDS);
+            assert false;
+        } catch (ExecutionException e) {
+            assert e.getCause() instanceof IllegalStateException;
+        }
+        boolean closed = executor.close(5, TimeUnit.SECONDS);
+        assert closed && executor.getItemCount() == 5;
+        workers.shutdown();
+    }
+}
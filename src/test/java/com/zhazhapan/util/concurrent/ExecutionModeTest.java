@@ -0,0 +1,45 @@
+package com.zhazhapan.util.concurrent;
+
+import com.zhazhapan.util.ThreadPool;
+import com.zhazhapan.util.enums.ExecutionMode;
+import org.junit.Test;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertTrue;
+
+/**
+ * @author pantao
+ * @since 1.1.0
+ */
+public class ExecutionModeTest {
+
+    @Test
+    public void testDefaultModes() throws Exception {
+        ExecutorService cpu = ThreadPool.getExecutor(ThreadPool.CPU);
+        assert cpu instanceof ForkJoinPool;
+        assert cpu == ThreadPool.getForkJoinPool();
+        String cpuThread = cpu.submit(() -> Thread.currentThread().getName()).get();
+        assertTrue(cpuThread.startsWith("cpu-"));
+
+        ExecutorService io = ThreadPool.getExecutor(ThreadPool.IO);
+        assert io == ThreadPool.getExecutor(ThreadPool.IO);
+        String name = io.submit(() -> Thread.currentThread().getName()).get();
+        assert name.startsWith("io-");
+        assert VirtualThreads.isSupported() != io instanceof MonitoredThreadPoolExecutor;
+    }
+
+    @Test
+    public void testSwitchMode() throws Exception {
+        String name = "switch";
+        ExecutorService before = ThreadPool.getExecutor(name);
+        assert ThreadPool.getExecutionMode(name) == ExecutionMode.THREAD_POOL;
+        assert before instanceof MonitoredThreadPoolExecutor;
+        ThreadPool.setExecutionMode(name, ExecutionMode.WORK_STEALING);
+        boolean terminated = before.awaitTermination(5, TimeUnit.SECONDS);
+        assertTrue(terminated);
+        assert ThreadPool.getExecutor(name) instanceof ForkJoinPool;
+    }
+}
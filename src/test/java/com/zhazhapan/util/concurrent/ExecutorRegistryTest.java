@@ -0,0 +1,105 @@
+package com.zhazhapan.util.concurrent;
+
+import com.zhazhapan.util.ThreadPool;
+import com.zhazhapan.util.enums.ExecutionMode;
+import org.junit.Test;
+
+import java.util.Map;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.assertTrue;
+
+/**
+ * @author pantao
+ * @since 1.1.0
+ */
+public class ExecutorRegistryTest {
+
+    private ExecutorRegistry newRegistry() {
+        return new ExecutorRegistry(name -> new ThreadPoolBuilder(name).poolSize(1, 1).build());
+    }
+
+    @Test
+    public void testIsolationAndResize() throws Exception {
+        ExecutorRegistry registry = newRegistry();
+        CountDownLatch latch = new CountDownLatch(1);
+        // io被阻塞时cpu不受影响
+        registry.get("io").execute(() -> await(latch));
+        String cpuThread = registry.get("cpu").submit(() -> Thread.currentThread().getName()).get(5, TimeUnit.SECONDS);
+        assertTrue("cpu-1".equals(cpuThread));
+        registry.resize("io", 2, 4);
+        ThreadPoolExecutor io = (ThreadPoolExecutor) registry.get("io");
+        assert io.getCorePoolSize() == 2 && io.getMaximumPoolSize() == 4;
+        int resized = io.submit(() -> 1).get(5, TimeUnit.SECONDS);
+        assertTrue(resized == 1);
+        registry.resize("io", 1, 1);
+        assert io.getCorePoolSize() == 1 && io.getMaximumPoolSize() == 1;
+        latch.countDown();
+        assert registry.getMetrics().keySet().size() == 2;
+        Map<String, Boolean> terminated = registry.shutdownAll(5, TimeUnit.SECONDS);
+        assertTrue(terminated.values().stream().allMatch(Boolean::booleanValue));
+        assert registry.names().isEmpty();
+    }
+
+    @Test
+    public void testDrainDeadline() {
+        ExecutorRegistry registry = newRegistry();
+        AtomicInteger finished = new AtomicInteger();
+        ExecutorService slow = registry.get("slow");
+        slow.execute(() -> {
+            try {
+                Thread.sleep(10000);
+            } catch (InterruptedException e) {
+                return;
+            }
+            finished.incrementAndGet();
+        });
+        slow.execute(finished::incrementAndGet);
+        registry.get("fast").execute(finished::incrementAndGet);
+        long start = System.currentTimeMillis();
+        Map<String, Boolean> drained = registry.shutdownAll(200, TimeUnit.MILLISECONDS);
+        assert System.currentTimeMillis() - start < 5000;
+        assert drained.get("fast") && !drained.get("slow");
+        assert finished.get() == 1;
+        assert slow.isShutdown();
+    }
+
+    @Test
+    public void testThreadPoolReinit() throws Exception {
+        ThreadPool.init();
+        ThreadPoolExecutor old = ThreadPool.getExecutor();
+        CountDownLatch latch = new CountDownLatch(1);
+        AtomicInteger done = new AtomicInteger();
+        for (int i = 0; i < ThreadPool.getCorePoolSize(); i++) {
+            old.execute(() -> await(latch));
+        }
+        old.execute(done::incrementAndGet);
+        ThreadPool.setQueueCapacity(16);
+        ThreadPoolExecutor current = ThreadPool.getExecutor();
+        assert current != old && old.isShutdown();
+        assert ThreadPool.getExecutor(ThreadPool.NAME) == current;
+        latch.countDown();
+        boolean terminated = old.awaitTermination(5, TimeUnit.SECONDS);
+        assertTrue(terminated);
+        current.submit(() -> {}).get(5, TimeUnit.SECONDS);
+        assert done.get() == 1;
+        ThreadPool.setQueueCapacity(ThreadPoolBuilder.DEFAULT_QUEUE_CAPACITY);
+        ThreadPool.setMaximumPoolSize(ThreadPool.getCorePoolSize() + 1);
+        assert ThreadPool.getExecutor().getMaximumPoolSize() == ThreadPool.getCorePoolSize() + 1;
+    }
+
+    @Test(expected = UnsupportedOperationException.class)
+    public void testResizeWorkStealing() {
+        ThreadPool.setExecutionMode("stealing", ExecutionMode.WORK_STEALING);
+        ThreadPool.resize("stealing", 1, 2);
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
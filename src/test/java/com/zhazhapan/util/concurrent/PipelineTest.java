@@ -0,0 +1,130 @@
+package com.zhazhapan.util.concurrent;
+
+import com.zhazhapan.util.FileExecutor;
+import com.zhazhapan.util.model.StageMetrics;
+import org.apache.commons.io.FileUtils;
+import org.junit.After;
+import org.junit.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.math.BigInteger;
+import java.nio.file.Files;
+import java.security.MessageDigest;
+import java.util.*;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.IntStream;
+
+/**
+ * @author pantao
+ * @since 1.1.0
+ */
+public class PipelineTest {
+
+    private final List<File> directories = new ArrayList<>();
+
+    @After
+    public void cleanup() throws IOException {
+        for (File directory : directories) {
+            FileUtils.deleteDirectory(directory);
+        }
+    }
+
+    @Test
+    public void testScanHashCopy() throws Exception {
+        File source = tempDirectory("pipeline-source");
+        File target = tempDirectory("pipeline-target");
+        for (int i = 0; i < 50; i++) {
+            FileExecutor.saveFile(new File(source, i + ".txt"), "content " + i);
+        }
+        Map<String, String> hashes = Collections.synchronizedMap(new HashMap<>(64));
+        List<Integer> sizes = Collections.synchronizedList(new ArrayList<>());
+        Pipeline.Execution execution = Pipeline.from("copy", FileExecutor.scanFolder(source)).map("hash", 4,
+                (String path) -> {
+            byte[] digest = MessageDigest.getInstance("MD5").digest(Files.readAllBytes(new File(path).toPath()));
+            hashes.put(path, new BigInteger(1, digest).toString(16));
+            return path;
+        }).batch("group", 8, 50, TimeUnit.MILLISECONDS).map("copy", 2, batch -> {
+            sizes.add(batch.size());
+            FileExecutor.copyFiles(batch.toArray(new String[0]), target.getAbsolutePath());
+            return batch.size();
+        }).start();
+        execution.get(10, TimeUnit.SECONDS);
+        assert hashes.size() == 50;
+        assert sizes.stream().mapToInt(Integer::intValue).sum() == 50;
+        assert sizes.stream().allMatch(size -> size <= 8);
+        assert FileExecutor.scanFolder(target).size() == 50;
+        List<StageMetrics> metrics = execution.getMetrics();
+        assert metrics.size() == 4;
+        assert Pipeline.SOURCE.equals(metrics.get(0).name) && metrics.get(0).emitted == 50;
+        assert metrics.get(1).received == 50 && metrics.get(1).parallelism == 4;
+        assert metrics.get(2).emitted == sizes.size();
+        assert metrics.stream().allMatch(stage -> stage.finished && stage.queueDepth == 0);
+        assert execution.getFailedStage() == null;
+    }
+
+    @Test
+    public void testBackpressure() throws Exception {
+        AtomicInteger sum = new AtomicInteger();
+        Pipeline.Execution execution = Pipeline.from("slow", range(200)).buffer(4).map("square", 2,
+                (Integer i) -> i * i).buffer(4).map("sink", 1, (Integer i) -> {
+            Thread.sleep(1);
+            return sum.addAndGet(i);
+        }).start();
+        Thread.sleep(50);
+        List<StageMetrics> metrics = execution.getMetrics();
+        // 下游慢时上游被阻塞，队列不会超过容量
+        assert metrics.get(0).received < 200;
+        assert metrics.get(1).queueDepth <= 4 && metrics.get(2).queueDepth <= 4;
+        execution.get(10, TimeUnit.SECONDS);
+        assert sum.get() == IntStream.range(0, 200).map(i -> i * i).sum();
+        assert execution.getMetrics().get(0).blockedTime > 0;
+    }
+
+    @Test
+    public void testCancelOnError() throws Exception {
+        AtomicInteger handled = new AtomicInteger();
+        Pipeline.Execution execution = Pipeline.from("error", range(1000000)).map("check", 4, (Integer i) -> {
+            if (i == 100) {
+                throw new IllegalStateException("bad item");
+            }
+            return i;
+        }).map("sink", 1, i -> handled.incrementAndGet()).start();
+        try {
+            execution.get(10, TimeUnit.SECONDS);
+            assert false;
+        } catch (ExecutionException e) {
+            assert e.getCause() instanceof IllegalStateException;
+        }
+        assert "check".equals(execution.getFailedStage());
+        Thread.sleep(50);
+        assert execution.getMetrics().get(0).received < 1000000;
+
+        Pipeline.Execution cancelled = Pipeline.from("cancel", range(1000000)).map("sleep", 2, (Integer i) -> {
+            Thread.sleep(10);
+            return i;
+        }).start();
+        boolean first = cancelled.cancel();
+        boolean second = cancelled.cancel();
+        assert first && !second;
+        try {
+            cancelled.get();
+            assert false;
+        } catch (CancellationException e) {
+            assert cancelled.isDone();
+        }
+    }
+
+    private File tempDirectory(String prefix) throws IOException {
+        File directory = Files.createTempDirectory(prefix).toFile();
+        directories.add(directory);
+        return directory;
+    }
+
+    private static Iterable<Integer> range(int count) {
+        return () -> IntStream.range(0, count).iterator();
+    }
+}
@@ -0,0 +1,215 @@
+package com.zhazhapan.util.concurrent;
+
+import com.zhazhapan.util.ThreadPool;
+import org.junit.Test;
+
+import java.time.ZoneId;
+import java.time.ZonedDateTime;
+import java.util.Set;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * @author pantao
+ * @since 1.1.0
+ */
+public class TaskSchedulerTest {
+
+    @Test
+    public void testWheelTimer() throws Exception {
+        HashedWheelTimer timer = new HashedWheelTimer("wheel-test", 1, TimeUnit.MILLISECONDS, 64, null);
+        int count = 100000;
+        CountDownLatch latch = new CountDownLatch(count / 2);
+        AtomicInteger fired = new AtomicInteger();
+        long start = System.nanoTime();
+        for (int i = 0; i < count; i++) {
+            // 延时超过一圈的任务也要准时到期
+            HashedWheelTimer.Timeout timeout = timer.newTimeout(() -> {
+                fired.incrementAndGet();
+                latch.countDown();
+            }, 50 + i % 150, TimeUnit.MILLISECONDS);
+            if (i % 2 == 1) {
+                boolean cancelled = timeout.cancel();
+                assert cancelled;
+            }
+        }
+        boolean completed = latch.await(10, TimeUnit.SECONDS);
+        assert completed;
+        assert TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start) >= 50;
+        Thread.sleep(50);
+        assert fired.get() == count / 2;
+        assert timer.getPendingCount() == 0;
+        timer.newTimeout(() -> { }, 1, TimeUnit.HOURS);
+        assert timer.stop().size() == 1;
+        try {
+            timer.newTimeout(() -> { }, 1, TimeUnit.SECONDS);
+            assert false;
+        } catch (RejectedExecutionException e) {
+            assert true;
+        }
+    }
+
+    @Test
+    public void testPeriodicTasks() throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        TaskScheduler scheduler = new TaskScheduler("scheduler-test", executor);
+        AtomicInteger failures = new AtomicInteger();
+        TaskScheduler.ScheduledTask rate = scheduler.scheduleAtFixedRate(() -> {
+            // 异常不影响后续调度
+            if (failures.incrementAndGet() == 1) {
+                throw new IllegalStateException("first run fails");
+            }
+        }, 0, 20, TimeUnit.MILLISECONDS);
+        TaskScheduler.ScheduledTask delay = scheduler.scheduleWithFixedDelay(() -> {
+            try {
+                Thread.sleep(30);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }, 0, 20, TimeUnit.MILLISECONDS);
+        CountDownLatch once = new CountDownLatch(1);
+        scheduler.schedule(once::countDown, 30, TimeUnit.MILLISECONDS);
+        Thread.sleep(500);
+        rate.cancel();
+        delay.cancel();
+        long rateRuns = rate.getRunCount();
+        long delayRuns = delay.getRunCount();
+        boolean ranOnce = once.await(1, TimeUnit.SECONDS);
+        assert ranOnce;
+        // 固定频率约25次，固定延时每次约50毫秒，约10次
+        assert rateRuns >= 15 && rateRuns <= 27;
+        assert delayRuns >= 5 && delayRuns <= 11;
+        assert delayRuns < rateRuns;
+        Thread.sleep(100);
+        assert rate.getRunCount() == rateRuns;
+        assert rate.isCancelled();
+        scheduler.close();
+        executor.shutdown();
+    }
+
+    @Test
+    public void testSharedScheduler() throws Exception {
+        CompletableFuture<String> thread = new CompletableFuture<>();
+        ThreadPool.getScheduler().schedule(() -> thread.complete(Thread.currentThread().getName()), 10, TimeUnit
+                .MILLISECONDS);
+        // 到期的任务交给专用的执行器，不会因为线程池饱和而在时间轮线程中执行
+        String name = thread.get(5, TimeUnit.SECONDS);
+        assert name.startsWith(ThreadPool.SCHEDULED + "-") : name;
+    }
+
+    @Test
+    public void testCronExpression() {
+        ZoneId zone = ZoneId.of("Asia/Shanghai");
+        ZonedDateTime time = ZonedDateTime.of(2018, 7, 20, 17, 46, 30, 0, zone);
+        CronExpression quarter = CronExpression.parse("0/15 9-18 * * 1-5");
+        assert quarter.next(time).equals(ZonedDateTime.of(2018, 7, 20, 18, 0, 0, 0, zone));
+        // 周五18:45之后到下周一9:00
+        ZonedDateTime friday = ZonedDateTime.of(2018, 7, 20, 18, 45, 0, 0, zone);
+        assert quarter.next(friday).equals(ZonedDateTime.of(2018, 7, 23, 9, 0, 0, 0, zone));
+        CronExpression leap = CronExpression.parse("30 12 29 2 *");
+        assert leap.next(time).equals(ZonedDateTime.of(2020, 2, 29, 12, 30, 0, 0, zone));
+        // 日和周都有限制时满足其一即可：每月1日或周日
+        CronExpression either = CronExpression.parse("0 0 1 * 7");
+        assert either.next(time).equals(ZonedDateTime.of(2018, 7, 22, 0, 0, 0, 0, zone));
+        assert CronExpression.parse("0 0 30 2 *").next(time) == null;
+        try {
+            CronExpression.parse("60 * * * *");
+            assert false;
+        } catch (IllegalArgumentException e) {
+            assert true;
+        }
+    }
+
+    @Test
+    public void testRateLimiters() throws Exception {
+        TokenBucketRateLimiter token = new TokenBucketRateLimiter(100, 10);
+        // 突发的10个许可不需要等待
+        for (int i = 0; i < 10; i++) {
+            assert token.reserve(1) == 0;
+        }
+        assert token.reserve(1) == 0;
+        assert token.reserve(1) > 0;
+        boolean acquired = token.tryAcquire(1, 0, TimeUnit.MILLISECONDS);
+        assert !acquired;
+        long start = System.nanoTime();
+        for (int i = 0; i < 20; i++) {
+            token.acquire(1);
+        }
+        long elapsed = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+        assert elapsed >= 180 && elapsed < 1000;
+
+        LeakyBucketRateLimiter leaky = new LeakyBucketRateLimiter(100, 5);
+        assert leaky.reserve(1) == 0;
+        for (int i = 0; i < 5; i++) {
+            assert leaky.reserve(1) > 0;
+        }
+        boolean queued = leaky.tryAcquire(1, 1, TimeUnit.SECONDS);
+        assert !queued;
+        try {
+            leaky.reserve(1);
+            assert false;
+        } catch (RejectedExecutionException e) {
+            assert true;
+        }
+    }
+
+    @Test
+    public void testRateLimitedExecutor() throws Exception {
+        HashedWheelTimer timer = new HashedWheelTimer("limited-test", 1, TimeUnit.MILLISECONDS, 64, null);
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        TaskScheduler scheduler = new TaskScheduler(timer, executor);
+        RateLimitedExecutor limited = new RateLimitedExecutor(executor, new TokenBucketRateLimiter(50, 0), scheduler);
+        int count = 20;
+        CountDownLatch latch = new CountDownLatch(count);
+        long start = System.nanoTime();
+        for (int i = 0; i < count; i++) {
+            limited.execute(latch::countDown);
+        }
+        // 提交不会阻塞
+        assert TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start) < 100;
+        boolean completed = latch.await(5, TimeUnit.SECONDS);
+        assert completed;
+        long elapsed = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+        assert elapsed >= 350 && elapsed < 2000;
+        timer.stop();
+        executor.shutdown();
+    }
+
+    @Test
+    public void testRateLimitedHandoff() throws Exception {
+        HashedWheelTimer timer = new HashedWheelTimer("handoff-test", 1, TimeUnit.MILLISECONDS, 64, null);
+        ExecutorService dispatcher = Executors.newSingleThreadExecutor();
+        TaskScheduler scheduler = new TaskScheduler(timer, dispatcher);
+        // 相当于线程池已满时的CALLER_RUNS策略，任务在提交线程中执行
+        Executor callerRuns = Runnable::run;
+        RateLimitedExecutor limited = new RateLimitedExecutor(callerRuns, new TokenBucketRateLimiter(100, 0),
+                scheduler);
+        Set<String> threads = ConcurrentHashMap.newKeySet();
+        CountDownLatch latch = new CountDownLatch(3);
+        for (int i = 0; i < 3; i++) {
+            limited.execute(() -> {
+                threads.add(Thread.currentThread().getName());
+                latch.countDown();
+            });
+        }
+        boolean completed = latch.await(5, TimeUnit.SECONDS);
+        assert completed;
+        // 延时的任务不在时间轮线程中执行
+        assert threads.stream().noneMatch(name -> name.contains("handoff-test")) : threads;
+        // 延时提交被拒绝时计数
+        ThreadPoolExecutor abort = new ThreadPoolExecutor(1, 1, 0, TimeUnit.SECONDS, new SynchronousQueue<>());
+        abort.shutdown();
+        RateLimitedExecutor rejecting = new RateLimitedExecutor(abort, new TokenBucketRateLimiter(100, 0), scheduler);
+        try {
+            rejecting.execute(() -> {});
+            assert false;
+        } catch (RejectedExecutionException e) {
+            assert rejecting.getRejectedCount() == 0;
+        }
+        rejecting.execute(() -> {});
+        Thread.sleep(200);
+        assert rejecting.getRejectedCount() == 1;
+        timer.stop();
+        dispatcher.shutdown();
+    }
+}
@@ -0,0 +1,242 @@
+package com.zhazhapan.util.concurrent;
+
+import com.zhazhapan.util.ThreadPool;
+import com.zhazhapan.util.enums.QueueType;
+import com.zhazhapan.util.enums.RejectPolicy;
+import com.zhazhapan.util.model.PoolMetrics;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * @author pantao
+ * @since 1.1.0
+ */
+public class ThreadPoolBuilderTest {
+
+    @Test
+    public void testCallerRunsUnderBurst() throws InterruptedException {
+        MonitoredThreadPoolExecutor executor = new ThreadPoolBuilder("burst").poolSize(1, 2).queue(QueueType
+                .ARRAY, 2).build();
+        AtomicInteger done = new AtomicInteger();
+        String caller = Thread.currentThread().getName();
+        AtomicInteger ranByCaller = new AtomicInteger();
+        for (int i = 0; i < 50; i++) {
+            executor.execute(() -> {
+                if (caller.equals(Thread.currentThread().getName())) {
+                    ranByCaller.incrementAndGet();
+                }
+                sleep(5);
+                done.incrementAndGet();
+            });
+        }
+        executor.shutdown();
+        boolean terminated = executor.awaitTermination(10, TimeUnit.SECONDS);
+        PoolMetrics metrics = executor.getMetrics();
+        assert terminated && done.get() == 50;
+        assert ranByCaller.get() > 0;
+        assert metrics.rejectedTasks == ranByCaller.get();
+        assert metrics.taskLatencyP50 > 0;
+        assert metrics.taskLatencyMax >= metrics.taskLatencyP50;
+    }
+
+    @Test
+    public void testBlockWithTimeout() throws InterruptedException {
+        MonitoredThreadPoolExecutor executor = new ThreadPoolBuilder("block").poolSize(1, 1).queue(QueueType
+                .LINKED, 1).blockWhenFull(50, TimeUnit.MILLISECONDS).build();
+        CountDownLatch latch = new CountDownLatch(1);
+        executor.execute(() -> await(latch));
+        executor.execute(() -> {});
+        try {
+            executor.execute(() -> {});
+            assert false;
+        } catch (RejectedExecutionException e) {
+            assert executor.getRejectedCount() == 1;
+        }
+        assert executor.getMetrics().queueDepth == 1;
+        latch.countDown();
+        executor.shutdown();
+        boolean terminated = executor.awaitTermination(5, TimeUnit.SECONDS);
+        assert terminated && executor.getMetrics().completedTasks == 2;
+    }
+
+    @Test
+    public void testNamedThreadsAndShutdownNow() throws InterruptedException {
+        MonitoredThreadPoolExecutor executor = new ThreadPoolBuilder("named").poolSize(1, 1).rejectPolicy
+                (RejectPolicy.ABORT).build();
+        CountDownLatch latch = new CountDownLatch(1);
+        String[] name = new String[1];
+        executor.execute(() -> {
+            name[0] = Thread.currentThread().getName();
+            assert Thread.currentThread().isDaemon();
+            await(latch);
+        });
+        Runnable pending = () -> {};
+        executor.execute(pending);
+        boolean removed = executor.remove(pending);
+        assert removed;
+        executor.execute(pending);
+        List<Runnable> left = executor.shutdownNow();
+        assert left.size() == 1 && left.get(0) == pending;
+        boolean terminated = executor.awaitTermination(5, TimeUnit.SECONDS);
+        assert terminated && "named-1".equals(name[0]);
+    }
+
+    @Test
+    public void testPriorityQueue() throws Exception {
+        MonitoredThreadPoolExecutor executor = new ThreadPoolBuilder("priority").poolSize(1, 1).queue(QueueType
+                .PRIORITY, 0).build();
+        CountDownLatch latch = new CountDownLatch(1);
+        List<Integer> order = new CopyOnWriteArrayList<>();
+        executor.execute(new PriorityTask(0, order, latch));
+        // submit包装成FutureTask后依然按原始任务排序
+        Future<?> low = executor.submit((Callable<Integer>) new PriorityTask(3, order, null));
+        Future<?> high = executor.submit((Runnable) new PriorityTask(1, order, null));
+        try {
+            executor.submit(() -> {});
+            assert false;
+        } catch (IllegalArgumentException e) {
+            assert e.getMessage().contains("Comparable");
+        }
+        latch.countDown();
+        low.get(5, TimeUnit.SECONDS);
+        high.get(5, TimeUnit.SECONDS);
+        assert order.equals(Arrays.asList(0, 1, 3)) : order;
+        executor.shutdown();
+        // 比较器按原始任务比较，任务不需要实现Comparable
+        MonitoredThreadPoolExecutor ordered = new ThreadPoolBuilder("comparator").poolSize(1, 1).priorityQueue((a,
+                b) -> a.toString().compareTo(b.toString())).build();
+        CountDownLatch gate = new CountDownLatch(1);
+        ordered.execute(() -> await(gate));
+        List<String> names = new CopyOnWriteArrayList<>();
+        Future<?> second = ordered.submit(new NamedTask("b", names));
+        Future<?> first = ordered.submit(new NamedTask("a", names));
+        gate.countDown();
+        second.get(5, TimeUnit.SECONDS);
+        first.get(5, TimeUnit.SECONDS);
+        assert names.equals(Arrays.asList("a", "b")) : names;
+        ordered.shutdown();
+    }
+
+    @Test
+    public void testReinitWithCustomQueue() throws Exception {
+        ThreadPool.init(1, 1, 1000, TimeUnit.MILLISECONDS);
+        BlockingQueue<Runnable> queue = new LinkedBlockingQueue<>(16);
+        ThreadPool.setWorkQueue(queue);
+        MonitoredThreadPoolExecutor old = (MonitoredThreadPoolExecutor) ThreadPool.getExecutor();
+        assert old.getQueue() == queue;
+        CountDownLatch latch = new CountDownLatch(1);
+        old.execute(() -> await(latch));
+        Future<?>[] futures = new Future<?>[3];
+        for (int i = 0; i < futures.length; i++) {
+            futures[i] = old.submit(() -> {});
+        }
+        ThreadPool.init();
+        MonitoredThreadPoolExecutor current = (MonitoredThreadPoolExecutor) ThreadPool.getExecutor();
+        // 新旧线程池不共享队列，转移的任务不再经过旧线程池的统计
+        assert current != old && current.getQueue() != queue && current.getQueue().remainingCapacity() <= 16;
+        for (Future<?> future : futures) {
+            future.get(5, TimeUnit.SECONDS);
+        }
+        latch.countDown();
+        boolean terminated = old.awaitTermination(5, TimeUnit.SECONDS);
+        // Future完成时afterExecute可能还没有记录耗时，关闭后再检查统计
+        current.shutdown();
+        boolean drained = current.awaitTermination(5, TimeUnit.SECONDS);
+        assert terminated && drained;
+        assert old.getTaskLatency().getCount() == 1 && current.getTaskLatency().getCount() == 3;
+        ThreadPool.setWorkQueue(null);
+        ThreadPool.init(Runtime.getRuntime().availableProcessors(), Runtime.getRuntime().availableProcessors() * 2,
+                1000, TimeUnit.MILLISECONDS);
+    }
+
+    @Test
+    public void testThreadPoolDefaults() throws Exception {
+        ThreadPool.init();
+        Future<?>[] futures = new Future<?>[200];
+        for (int i = 0; i < futures.length; i++) {
+            futures[i] = ThreadPool.getExecutor().submit(() -> sleep(1));
+        }
+        for (Future<?> future : futures) {
+            future.get(10, TimeUnit.SECONDS);
+        }
+        PoolMetrics metrics = ThreadPool.getMetrics();
+        assert metrics.name.equals(ThreadPool.NAME);
+        assert metrics.rejectedTasks == 0;
+    }
+
+    private static class PriorityTask implements Callable<Integer>, Runnable, Comparable<PriorityTask> {
+
+        private final int priority;
+
+        private final List<Integer> order;
+
+        private final CountDownLatch latch;
+
+        private PriorityTask(int priority, List<Integer> order, CountDownLatch latch) {
+            this.priority = priority;
+            this.order = order;
+            this.latch = latch;
+        }
+
+        @Override
+        public Integer call() {
+            run();
+            return priority;
+        }
+
+        @Override
+        public void run() {
+            if (latch != null) {
+                await(latch);
+            }
+            order.add(priority);
+        }
+
+        @Override
+        public int compareTo(PriorityTask other) {
+            return Integer.compare(priority, other.priority);
+        }
+    }
+
+    private static class NamedTask implements Runnable {
+
+        private final String name;
+
+        private final List<String> names;
+
+        private NamedTask(String name, List<String> names) {
+            this.name = name;
+            this.names = names;
+        }
+
+        @Override
+        public void run() {
+            names.add(name);
+        }
+
+        @Override
+        public String toString() {
+            return name;
+        }
+    }
+
+    private static void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
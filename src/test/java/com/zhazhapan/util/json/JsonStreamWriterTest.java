@@ -0,0 +1,134 @@
+package com.zhazhapan.util.json;
+
+import com.alibaba.fastjson.JSON;
+import com.alibaba.fastjson.JSONArray;
+import com.alibaba.fastjson.JSONObject;
+import com.zhazhapan.util.BeanUtils;
+import com.zhazhapan.util.Formatter;
+import com.zhazhapan.util.enums.FieldModifier;
+import com.zhazhapan.util.enums.JsonMethod;
+import com.zhazhapan.util.json.JsonWritePlanTest.Order;
+import org.junit.Ignore;
+import org.junit.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.OutputStream;
+import java.math.BigDecimal;
+import java.nio.channels.Channels;
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * @author pantao
+ * @since 1.1.0
+ */
+public class JsonStreamWriterTest {
+
+    @Test
+    public void testValues() {
+        JsonStreamWriter writer = new JsonStreamWriter();
+        Map<String, Object> map = new LinkedHashMap<>();
+        map.put("text", "引号\"、反斜杠\\、换行\n、控制\u0001、表情😀");
+        map.put("numbers", new Object[]{1, -2L, 3.5, 1e20, new BigDecimal("0.10"), Double.NaN});
+        map.put("flags", new boolean[]{true, false});
+        map.put("set", new TreeSet<>(Arrays.asList("b", "a")));
+        map.put("empty", Collections.emptyList());
+        map.put("nothing", null);
+        map.put("unit", TimeUnit.SECONDS);
+        map.put("date", new Date(1000));
+        map.put(null, 'c');
+        String json = writer.toJson(map);
+        assert json.startsWith("{\"text\":\"引号\\\"、反斜杠\\\\、换行\\n、控制\\u0001、表情😀\",") : json;
+        JSONObject parsed = JSON.parseObject(json);
+        assert map.get("text").equals(parsed.getString("text"));
+        JSONArray numbers = parsed.getJSONArray("numbers");
+        assert numbers.getIntValue(0) == 1 && numbers.getDoubleValue(2) == 3.5 && "NaN".equals(numbers.get(5));
+        assert "0.10".equals(numbers.getBigDecimal(4).toPlainString());
+        assert parsed.getJSONArray("set").equals(Arrays.asList("a", "b")) && parsed.getJSONArray("empty").isEmpty();
+        assert !parsed.containsKey("nothing") && "SECONDS".equals(parsed.getString("unit"));
+        assert parsed.getLongValue("date") == 1000 && "c".equals(parsed.getString("null"));
+        assert writer.serializeNulls(true).toJson(map).contains("\"nothing\":null");
+        assert "null".equals(writer.toJson(null)) && "[]".equals(writer.toJson(new int[0]));
+    }
+
+    @Test
+    public void testBeanAndPretty() throws Exception {
+        Order order = JsonWritePlanTest.sampleOrder();
+        String compact = new JsonStreamWriter().toJson(order);
+        JSONObject parsed = JSON.parseObject(compact);
+        // 静态字段不输出，集合和Map输出为真正的JSON
+        assert !parsed.containsKey("type") && parsed.getLongValue("id") == 10086L;
+        assert parsed.getJSONArray("items").getJSONArray(3).getIntValue(1) == 2;
+        assert parsed.getJSONObject("extra").getJSONArray("list").getBoolean(0);
+        assert parsed.getJSONArray("empty").isEmpty() && parsed.getDoubleValue("price") == 12.5;
+        // 与解析后再用Gson格式化的结果一致
+        String pretty = new JsonStreamWriter().pretty(true).toJson(order);
+        assert pretty.equals(Formatter.formatJson(compact)) : pretty;
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        BeanUtils.writeJson(order, Channels.newChannel(out), true);
+        assert pretty.equals(new String(out.toByteArray(), StandardCharsets.UTF_8));
+        String publicOnly = new JsonStreamWriter().modifier(FieldModifier.PUBLIC).toJson(order);
+        assert !publicOnly.contains("\"name\"") && publicOnly.contains("\"extra\"");
+    }
+
+    @Test
+    public void testStreaming() throws Exception {
+        List<Order> orders = new ArrayList<>();
+        for (int i = 0; i < 2000; i++) {
+            orders.add(JsonWritePlanTest.sampleOrder());
+        }
+        int[] writes = new int[1];
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        OutputStream out = new OutputStream() {
+            @Override
+            public void write(int b) {
+                bytes.write(b);
+            }
+
+            @Override
+            public void write(byte[] b, int off, int len) {
+                writes[0]++;
+                // 每次写出的大小都不会远超缓冲区阈值
+                assert len < JsonStreamWriter.FLUSH_SIZE * 2;
+                bytes.write(b, off, len);
+            }
+        };
+        BeanUtils.writeJson(orders, out, false);
+        assert writes[0] > 10;
+        assert JSON.parseArray(new String(bytes.toByteArray(), StandardCharsets.UTF_8)).size() == 2000;
+        List<Object> loop = new ArrayList<>();
+        loop.add(loop);
+        try {
+            new JsonStreamWriter().toJson(loop);
+            assert false;
+        } catch (IllegalStateException e) {
+            assert e.getMessage().contains("circular");
+        }
+    }
+
+    @Test
+    @Ignore("基准测试，手动运行")
+    public void testBenchmark() throws Exception {
+        Order order = JsonWritePlanTest.sampleOrder();
+        JsonStreamWriter writer = new JsonStreamWriter().pretty(true);
+        ByteArrayOutputStream out = new ByteArrayOutputStream(1 << 16);
+        for (int round = 0; round < 3; round++) {
+            int count = 20000;
+            long start = System.nanoTime();
+            for (int i = 0; i < count; i++) {
+                BeanUtils.toPrettyJson(order).getBytes(StandardCharsets.UTF_8);
+            }
+            long reprint = System.nanoTime() - start;
+            start = System.nanoTime();
+            for (int i = 0; i < count; i++) {
+                out.reset();
+                writer.write(order, out);
+            }
+            long stream = System.nanoTime() - start;
+            System.out.println("pretty json, toPrettyJson: " + reprint / count + "ns/op, stream writer: " +
+                    stream / count + "ns/op");
+        }
+        assert BeanUtils.toJsonString(order, FieldModifier.ALL, JsonMethod.AUTO).contains("10086");
+    }
+}
@@ -0,0 +1,204 @@
+package com.zhazhapan.util.json;
+
+import com.alibaba.fastjson.JSONObject;
+import com.zhazhapan.util.BeanUtils;
+import com.zhazhapan.util.Checker;
+import com.zhazhapan.util.enums.FieldModifier;
+import com.zhazhapan.util.enums.JsonMethod;
+import org.junit.Ignore;
+import org.junit.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+
+/**
+ * @author pantao
+ * @since 1.1.0
+ */
+public class JsonWritePlanTest {
+
+    @Test
+    public void testSameAsLegacy() throws Exception {
+        List<Object> beans = Arrays.asList(new Order(), sampleOrder(), new Empty(), new NullsOnly(), new Nested());
+        for (Object bean : beans) {
+            for (FieldModifier modifier : FieldModifier.values()) {
+                for (JsonMethod method : new JsonMethod[]{JsonMethod.AUTO, JsonMethod.MANUAL}) {
+                    String expected = legacyToJsonString(bean, modifier, method);
+                    String actual = BeanUtils.toJsonString(bean, modifier, method);
+                    assert expected.equals(actual) : expected + " != " + actual;
+                }
+            }
+        }
+        assert "{}".equals(BeanUtils.toJsonString(null, FieldModifier.ALL, JsonMethod.MANUAL));
+    }
+
+    @Test
+    public void testPlanAndStream() throws Exception {
+        JsonWritePlan plan = JsonWritePlan.of(Order.class, FieldModifier.ALL, JsonMethod.MANUAL);
+        assert plan == JsonWritePlan.of(Order.class, FieldModifier.ALL, JsonMethod.MANUAL);
+        assert plan != JsonWritePlan.of(Order.class, FieldModifier.PUBLIC, JsonMethod.MANUAL);
+        assert Arrays.asList(plan.getFieldNames()).contains("items");
+        Order order = sampleOrder();
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        plan.writeTo(order, out);
+        assert new String(out.toByteArray(), StandardCharsets.UTF_8).equals(plan.toJsonString(order));
+        // 序列化过程中toString又进行序列化时，不会覆盖外层的缓冲区
+        Nested nested = new Nested();
+        String json = BeanUtils.toJsonString(nested, FieldModifier.ALL, JsonMethod.MANUAL);
+        assert json.equals(legacyToJsonString(nested, FieldModifier.ALL, JsonMethod.MANUAL));
+    }
+
+    @Test
+    public void testBuffer() {
+        JsonBuffer buffer = new JsonBuffer(1);
+        String text = "a中é😀\uD800x";
+        buffer.append(text).append(Long.MIN_VALUE).append(0).append(-42).append(Long.MAX_VALUE);
+        String expected = text + Long.MIN_VALUE + 0 + -42 + Long.MAX_VALUE;
+        assert Arrays.equals(buffer.toByteArray(), expected.getBytes(StandardCharsets.UTF_8));
+        int size = buffer.removeLast(3).size();
+        assert size == expected.getBytes(StandardCharsets.UTF_8).length - 3;
+        JsonBuffer first = JsonBuffer.acquire();
+        JsonBuffer second = JsonBuffer.acquire();
+        assert first != second;
+        second.release();
+        first.release();
+        JsonBuffer reused = JsonBuffer.acquire();
+        assert reused == first;
+        reused.release();
+    }
+
+    @Test
+    @Ignore("基准测试，手动运行")
+    public void testBenchmark() throws Exception {
+        Order order = sampleOrder();
+        for (int round = 0; round < 3; round++) {
+            int count = 50000;
+            long start = System.nanoTime();
+            for (int i = 0; i < count; i++) {
+                legacyToJsonString(order, FieldModifier.ALL, JsonMethod.MANUAL);
+            }
+            long legacy = System.nanoTime() - start;
+            start = System.nanoTime();
+            for (int i = 0; i < count; i++) {
+                BeanUtils.toJsonString(order, FieldModifier.ALL, JsonMethod.MANUAL);
+            }
+            long plan = System.nanoTime() - start;
+            System.out.println("manual toJsonString, legacy: " + count * 1000000000L / legacy + " beans/s, plan: " +
+                    count * 1000000000L / plan + " beans/s");
+        }
+    }
+
+    static Order sampleOrder() {
+        Order order = new Order();
+        order.id = 10086L;
+        order.name = "订单-\"quoted\"";
+        order.items = Arrays.asList("apple", 3, null, Arrays.asList(1, 2));
+        Map<String, Object> extra = new LinkedHashMap<>();
+        extra.put("k", "v");
+        extra.put("", "anonymous");
+        extra.put("list", Collections.singletonList(true));
+        extra.put("none", null);
+        order.extra = extra;
+        order.price = 12.5;
+        order.empty = new ArrayList<>();
+        return order;
+    }
+
+    /**
+     * 改造前的实现
+     */
+    private static String legacyToJsonString(Object object, FieldModifier modifier, JsonMethod method) throws
+            IllegalAccessException {
+        JSONObject jsonObject = new JSONObject();
+        StringBuilder builder = new StringBuilder("{");
+        boolean isManual = false;
+        if (Checker.isNotNull(object)) {
+            Class<?> bean = object.getClass();
+            Field[] fields = bean.getDeclaredFields();
+            for (Field field : fields) {
+                int mod = field.getModifiers();
+                boolean addable = modifier == FieldModifier.ALL || (modifier == FieldModifier.PRIVATE && Modifier
+                        .isPrivate(mod)) || (modifier == FieldModifier.PUBLIC && Modifier.isPublic(mod));
+                if (addable) {
+                    field.setAccessible(true);
+                    isManual = method == JsonMethod.MANUAL;
+                    if (isManual) {
+                        Object f = field.get(object);
+                        if (Checker.isNotNull(f)) {
+                            builder.append(converter(field.getName(), f));
+                        }
+                    } else {
+                        jsonObject.put(field.getName(), field.get(object));
+                    }
+                }
+            }
+        }
+        return isManual ? builder.substring(0, builder.length() - 1) + "}" : jsonObject.toString();
+    }
+
+    private static String converter(String fieldName, Object object) {
+        StringBuilder builder = new StringBuilder();
+        if (Checker.isNotEmpty(fieldName)) {
+            builder.append("\"").append(fieldName).append("\":");
+        }
+        if (object instanceof Collection) {
+            List<?> list = (List<?>) object;
+            builder.append("[");
+            list.forEach(obj -> builder.append(converter("", obj)));
+            return builder.substring(0, builder.length() - 1) + "],";
+        } else if (object instanceof Map) {
+            Map<?, ?> map = (Map<?, ?>) object;
+            builder.append("{");
+            map.forEach((k, v) -> builder.append(converter(k.toString(), v)));
+            return builder.substring(0, builder.length() - 1) + "},";
+        } else {
+            builder.append("\"").append(object).append("\",");
+        }
+        return builder.toString();
+    }
+
+    public static class Order {
+
+        public static String type = "order";
+
+        public Long id;
+
+        private String name;
+
+        private List<Object> items;
+
+        public Map<String, Object> extra;
+
+        private double price;
+
+        private int count;
+
+        public List<Object> empty;
+    }
+
+    static class Empty {}
+
+    static class NullsOnly {
+
+        private String value;
+    }
+
+    static class Nested {
+
+        private Order order = sampleOrder();
+
+        private Object self = new Object() {
+            @Override
+            public String toString() {
+                try {
+                    return BeanUtils.toJsonString(order, FieldModifier.PUBLIC, JsonMethod.MANUAL);
+                } catch (IllegalAccessException e) {
+                    return e.getMessage();
+                }
+            }
+        };
+    }
+}
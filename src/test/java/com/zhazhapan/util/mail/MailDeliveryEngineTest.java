@@ -0,0 +1,196 @@
+package com.zhazhapan.util.mail;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import javax.mail.*;
+import javax.mail.internet.AddressException;
+import javax.mail.internet.InternetAddress;
+import java.io.UnsupportedEncodingException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * @author pantao
+ * @since 1.1.0
+ */
+public class MailDeliveryEngineTest {
+
+    private static final AtomicInteger CONNECTS = new AtomicInteger(0);
+
+    private static final Map<String, AtomicInteger> ATTEMPTS = new ConcurrentHashMap<>(16);
+
+    private static volatile CountDownLatch gate = new CountDownLatch(0);
+
+    @Before
+    public void reset() {
+        CONNECTS.set(0);
+        ATTEMPTS.clear();
+        gate = new CountDownLatch(0);
+    }
+
+    @Test
+    public void testBatching() throws Exception {
+        MailDeliveryEngine engine = newEngine(1, 100);
+        engine.setBatchSize(5);
+        engine.setMessagesPerConnection(10);
+        List<Mail> mails = new ArrayList<>();
+        for (int i = 0; i < 25; i++) {
+            mails.add(new Mail("user" + i + "@example.com", "title", "content"));
+        }
+        List<DeliveryResult> results = engine.sendAll(mails);
+        boolean terminated = engine.shutdown(5, TimeUnit.SECONDS);
+        assert terminated && results.size() == 25 && engine.getDeliveredCount() == 25;
+        assert results.stream().allMatch(result -> result.delivered && result.attempts == 1);
+        assert results.get(24).mail == mails.get(24);
+        // 每个连接发送10封后重建
+        assert CONNECTS.get() == 3 : CONNECTS.get();
+    }
+
+    @Test
+    public void testRetry() throws Exception {
+        MailDeliveryEngine engine = newEngine(2, 100);
+        engine.setMaxAttempts(3);
+        engine.setRetryBackoff(50);
+        long start = System.nanoTime();
+        CompletableFuture<DeliveryResult> flaky = engine.submit(new Mail("flaky@example.com", "title", "content"));
+        CompletableFuture<DeliveryResult> broken = engine.submit(new Mail("broken@example.com", "title", "content"));
+        CompletableFuture<DeliveryResult> rejected = engine.submit(new Mail("rejected@example.com", "t", "c"));
+        DeliveryResult flakyResult = flaky.get(5, TimeUnit.SECONDS);
+        long elapsed = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+        // 第二次失败后等待翻倍：50ms + 100ms
+        assert flakyResult.delivered && flakyResult.attempts == 3 && elapsed >= 150 : elapsed;
+        DeliveryResult brokenResult = broken.get(5, TimeUnit.SECONDS);
+        assert !brokenResult.delivered && brokenResult.attempts == 3;
+        assert brokenResult.error instanceof MessagingException;
+        // 收件地址被拒绝且没有其他有效地址，不重试
+        DeliveryResult rejectedResult = rejected.get(5, TimeUnit.SECONDS);
+        assert !rejectedResult.delivered && rejectedResult.attempts == 1;
+        assert rejectedResult.error instanceof SendFailedException;
+        boolean terminated = engine.shutdown(5, TimeUnit.SECONDS);
+        assert terminated && engine.getRetryCount() == 4 && engine.getFailedCount() == 2;
+    }
+
+    @Test
+    public void testRuntimeException() throws Exception {
+        MailDeliveryEngine engine = newEngine(1, 100);
+        engine.setMaxAttempts(3);
+        CompletableFuture<DeliveryResult> crash = engine.submit(new Mail("crash@example.com", "title", "content"));
+        CompletableFuture<DeliveryResult> next = engine.submit(new Mail("next@example.com", "title", "content"));
+        // 运行时异常不重试，只让这封邮件失败，工作线程继续投递后面的邮件
+        DeliveryResult crashResult = crash.get(5, TimeUnit.SECONDS);
+        assert !crashResult.delivered && crashResult.attempts == 1;
+        assert crashResult.error instanceof IllegalStateException;
+        DeliveryResult nextResult = next.get(5, TimeUnit.SECONDS);
+        assert nextResult.delivered;
+        boolean terminated = engine.shutdown(5, TimeUnit.SECONDS);
+        assert terminated && engine.getPendingCount() == 0 && engine.getFailedCount() == 1;
+        assert engine.getRetryCount() == 0;
+    }
+
+    @Test
+    public void testValidation() throws Exception {
+        MailDeliveryEngine engine = newEngine(1, 100);
+        CompletableFuture<DeliveryResult> future = engine.submit(new Mail("not-an-email", "title", "content"));
+        // 不合法的地址不进入队列，立即失败
+        assert future.isDone();
+        DeliveryResult result = future.get();
+        assert !result.delivered && result.attempts == 0 && result.error instanceof AddressException;
+        boolean terminated = engine.shutdown(5, TimeUnit.SECONDS);
+        assert terminated && engine.getFailedCount() == 1 && CONNECTS.get() == 0;
+    }
+
+    @Test
+    public void testShutdown() throws Exception {
+        gate = new CountDownLatch(1);
+        MailDeliveryEngine engine = newEngine(1, 1);
+        CompletableFuture<DeliveryResult> first = engine.submit(new Mail("first@example.com", "title", "content"));
+        // 队列容量为1，第二次提交阻塞在容量上
+        CompletableFuture<Object> blocked = CompletableFuture.supplyAsync(() -> {
+            try {
+                return engine.submit(new Mail("second@example.com", "title", "content"));
+            } catch (InterruptedException | RejectedExecutionException e) {
+                return e;
+            }
+        });
+        Thread.sleep(100);
+        assert !blocked.isDone();
+        CompletableFuture<Boolean> shutdown = CompletableFuture.supplyAsync(() -> {
+            try {
+                return engine.shutdown(5, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                return false;
+            }
+        });
+        // 关闭时阻塞的提交被拒绝，已提交的邮件继续投递
+        Object rejected = blocked.get(5, TimeUnit.SECONDS);
+        assert rejected instanceof RejectedExecutionException : rejected;
+        assert !first.isDone() && engine.getPendingCount() == 1;
+        gate.countDown();
+        boolean terminated = shutdown.get(5, TimeUnit.SECONDS);
+        DeliveryResult result = first.get(5, TimeUnit.SECONDS);
+        assert terminated && result.delivered && engine.getPendingCount() == 0;
+        try {
+            engine.submit(new Mail("late@example.com", "title", "content"));
+            assert false;
+        } catch (RejectedExecutionException e) {
+            assert e.getMessage().contains("closed");
+        }
+    }
+
+    private static MailDeliveryEngine newEngine(int connections, int queueCapacity) throws
+            UnsupportedEncodingException {
+        Properties properties = new Properties();
+        properties.setProperty("mail.transport.protocol", "fake");
+        Session session = Session.getInstance(properties);
+        try {
+            session.setProvider(new Provider(Provider.Type.TRANSPORT, "fake", FakeTransport.class.getName(), "test",
+                    "1.0"));
+        } catch (NoSuchProviderException e) {
+            throw new IllegalStateException(e);
+        }
+        return new MailDeliveryEngine(session, new InternetAddress("sender@example.com", "sender", "UTF-8"),
+                connections, queueCapacity);
+    }
+
+    /**
+     * 根据收件人模拟发送结果：flaky前两次失败，broken总是失败，rejected地址被拒绝，crash抛出运行时异常
+     */
+    public static class FakeTransport extends Transport {
+
+        public FakeTransport(Session session, URLName urlname) {
+            super(session, urlname);
+        }
+
+        @Override
+        protected boolean protocolConnect(String host, int port, String user, String password) {
+            CONNECTS.incrementAndGet();
+            return true;
+        }
+
+        @Override
+        public void sendMessage(Message message, Address[] addresses) throws MessagingException {
+            try {
+                gate.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new MessagingException("interrupted", e);
+            }
+            String to = ((InternetAddress) addresses[0]).getAddress();
+            int attempt = ATTEMPTS.computeIfAbsent(to, key -> new AtomicInteger(0)).incrementAndGet();
+            if (to.startsWith("flaky") && attempt < 3 || to.startsWith("broken")) {
+                throw new MessagingException("temporary failure");
+            }
+            if (to.startsWith("crash")) {
+                throw new IllegalStateException("transport crashed");
+            }
+            if (to.startsWith("rejected")) {
+                throw new SendFailedException("mailbox unavailable", null, null, null, addresses);
+            }
+        }
+    }
+}
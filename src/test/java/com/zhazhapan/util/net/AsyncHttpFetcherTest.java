@@ -0,0 +1,137 @@
+package com.zhazhapan.util.net;
+
+import com.sun.net.httpserver.HttpServer;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * @author pantao
+ * @since 1.1.0
+ */
+public class AsyncHttpFetcherTest {
+
+    private HttpServer server;
+
+    private String base;
+
+    @Before
+    public void setUp() throws IOException {
+        server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        server.createContext("/hello", exchange -> {
+            byte[] body = "hello, 世界".getBytes(StandardCharsets.UTF_8);
+            exchange.getResponseHeaders().add("Content-Type", "text/plain; charset=UTF-8");
+            exchange.sendResponseHeaders(200, body.length);
+            try (OutputStream os = exchange.getResponseBody()) {
+                os.write(body);
+            }
+        });
+        server.createContext("/slow", exchange -> {
+            try {
+                Thread.sleep(2000);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            exchange.sendResponseHeaders(200, -1);
+            exchange.close();
+        });
+        server.setExecutor(java.util.concurrent.Executors.newCachedThreadPool());
+        server.start();
+        base = "http://127.0.0.1:" + server.getAddress().getPort();
+    }
+
+    @After
+    public void tearDown() {
+        server.stop(0);
+    }
+
+    @Test
+    public void fetchString() throws Exception {
+        try (AsyncHttpFetcher fetcher = new AsyncHttpFetcher(2)) {
+            List<CompletableFuture<String>> futures = new ArrayList<>();
+            for (int i = 0; i < 20; i++) {
+                futures.add(fetcher.fetchString(new URL(base + "/hello")));
+            }
+            for (CompletableFuture<String> future : futures) {
+                String body = future.get();
+                assert "hello, 世界".equals(body);
+            }
+        }
+    }
+
+    @Test
+    public void timeout() throws Exception {
+        try (AsyncHttpFetcher fetcher = new AsyncHttpFetcher(1, 1000, 5000, 200)) {
+            try {
+                fetcher.fetchString(new URL(base + "/slow")).get();
+                assert false;
+            } catch (ExecutionException e) {
+                assert e.getCause() instanceof TimeoutException;
+            }
+        }
+    }
+
+    @Test
+    public void cancel() throws Exception {
+        try (AsyncHttpFetcher fetcher = new AsyncHttpFetcher(1)) {
+            CompletableFuture<String> slow = fetcher.fetchString(new URL(base + "/slow"));
+            CompletableFuture<String> queued = fetcher.fetchString(new URL(base + "/hello"));
+            boolean queuedCancelled = queued.cancel(true);
+            boolean slowCancelled = slow.cancel(true);
+            assert queuedCancelled && slowCancelled;
+            assert queued.isCancelled() && slow.isCancelled();
+        }
+    }
+
+    @Test
+    public void cancelDerived() throws Exception {
+        try (AsyncHttpFetcher fetcher = new AsyncHttpFetcher(1)) {
+            CompletableFuture<String> source = fetcher.fetchString(new URL(base + "/slow"));
+            CompletableFuture<Integer> length = AsyncHttpFetcher.thenApply(source, String::length);
+            CompletableFuture<Integer> doubled = AsyncHttpFetcher.thenApply(length, n -> n * 2);
+            // 取消派生的Future时逐级取消到原请求
+            boolean cancelled = doubled.cancel(true);
+            assert cancelled && length.isCancelled() && source.isCancelled();
+            CompletableFuture<Integer> hello = AsyncHttpFetcher.thenApply(fetcher.fetchString(new URL(base +
+                    "/hello")), String::length);
+            int helloLength = hello.get(5, TimeUnit.SECONDS);
+            assert helloLength == "hello, 世界".length();
+        }
+    }
+
+    @Test
+    public void fetchWhileClosing() throws Exception {
+        URL url = new URL(base + "/hello");
+        for (int round = 0; round < 20; round++) {
+            AsyncHttpFetcher fetcher = new AsyncHttpFetcher(1);
+            CompletableFuture<Void> closing = CompletableFuture.runAsync(fetcher::close);
+            // 与关闭并发时不会直接抛出异常，只会返回异常完成的Future
+            List<CompletableFuture<String>> futures = new ArrayList<>();
+            while (!closing.isDone()) {
+                futures.add(fetcher.fetchString(url));
+            }
+            CompletableFuture<String> closed = fetcher.fetchString(url);
+            assert closed.isCompletedExceptionally();
+            for (CompletableFuture<String> future : futures) {
+                try {
+                    future.get(5, TimeUnit.SECONDS);
+                } catch (ExecutionException e) {
+                    assert e.getCause() instanceof RejectedExecutionException : e.getCause();
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,141 @@
+package com.zhazhapan.util.net;
+
+import com.sun.net.httpserver.HttpServer;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * @author pantao
+ * @since 1.1.0
+ */
+public class HttpResponseCacheTest {
+
+    private HttpServer server;
+
+    private String base;
+
+    private AtomicInteger fullResponses = new AtomicInteger(0);
+
+    private AtomicInteger notModified = new AtomicInteger(0);
+
+    @Before
+    public void setUp() throws IOException {
+        server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        server.createContext("/etag", exchange -> {
+            if ("\"v1\"".equals(exchange.getRequestHeaders().getFirst("If-None-Match"))) {
+                notModified.incrementAndGet();
+                exchange.getResponseHeaders().add("Cache-Control", "no-cache");
+                exchange.sendResponseHeaders(304, -1);
+                exchange.close();
+                return;
+            }
+            respond(exchange, "no-cache", "{\"version\":1}");
+        });
+        server.createContext("/fresh", exchange -> {
+            try {
+                Thread.sleep(200);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            respond(exchange, "max-age=60", "fresh");
+        });
+        server.createContext("/nostore", exchange -> respond(exchange, "no-store", "secret"));
+        server.setExecutor(Executors.newCachedThreadPool());
+        server.start();
+        base = "http://127.0.0.1:" + server.getAddress().getPort();
+    }
+
+    private void respond(com.sun.net.httpserver.HttpExchange exchange, String cacheControl, String content) throws
+            IOException {
+        fullResponses.incrementAndGet();
+        byte[] body = content.getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().add("Content-Type", "application/json; charset=UTF-8");
+        exchange.getResponseHeaders().add("Cache-Control", cacheControl);
+        exchange.getResponseHeaders().add("ETag", "\"v1\"");
+        exchange.sendResponseHeaders(200, body.length);
+        try (OutputStream os = exchange.getResponseBody()) {
+            os.write(body);
+        }
+    }
+
+    @After
+    public void tearDown() {
+        server.stop(0);
+    }
+
+    @Test
+    public void revalidate() throws IOException {
+        HttpResponseCache cache = new HttpResponseCache(1024 * 1024);
+        URL url = new URL(base + "/etag");
+        for (int i = 0; i < 5; i++) {
+            assert "{\"version\":1}".equals(cache.getString(url));
+        }
+        assert fullResponses.get() == 1;
+        assert notModified.get() == 4;
+        assert cache.getRevalidateCount() == 4;
+    }
+
+    @Test
+    public void collapse() throws Exception {
+        HttpResponseCache cache = new HttpResponseCache(1024 * 1024);
+        URL url = new URL(base + "/fresh");
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        List<Future<String>> futures = new ArrayList<>();
+        for (int i = 0; i < 8; i++) {
+            futures.add(executor.submit(() -> cache.getString(url)));
+        }
+        for (Future<String> future : futures) {
+            assert "fresh".equals(future.get());
+        }
+        executor.shutdown();
+        assert fullResponses.get() == 1;
+        assert "fresh".equals(cache.getString(url));
+        assert fullResponses.get() == 1;
+    }
+
+    @Test
+    public void noStore() throws IOException {
+        HttpResponseCache cache = new HttpResponseCache(1024 * 1024);
+        URL url = new URL(base + "/nostore");
+        cache.getString(url);
+        cache.getString(url);
+        assert fullResponses.get() == 2;
+        assert cache.getMemoryBytes() == 0;
+    }
+
+    @Test
+    public void diskTier() throws IOException {
+        File dir = Files.createTempDirectory("http-cache").toFile();
+        URL url = new URL(base + "/fresh");
+        new HttpResponseCache(1024, dir, 1024 * 1024).getString(url);
+        // 新实例从磁盘读取缓存
+        HttpResponseCache cache = new HttpResponseCache(1024, dir, 1024 * 1024);
+        assert cache.getDiskBytes() > 0;
+        assert "fresh".equals(cache.getString(url));
+        assert fullResponses.get() == 1;
+        cache.clear();
+        assert cache.getDiskBytes() == 0;
+        dir.delete();
+    }
+
+    @Test
+    public void evictBySize() throws IOException {
+        HttpResponseCache cache = new HttpResponseCache(64);
+        cache.getString(new URL(base + "/fresh?a=1"));
+        cache.getString(new URL(base + "/fresh?a=2"));
+        assert cache.getMemoryBytes() <= 64;
+    }
+}
@@ -0,0 +1,69 @@
+package com.zhazhapan.util.net;
+
+import com.zhazhapan.util.NetUtils;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Map;
+
+/**
+ * @author pantao
+ * @since 1.1.0
+ */
+public class UrlViewTest {
+
+    @Test
+    public void parse() {
+        UrlView view = UrlView.parse("https://user@127.0.0.1:8080/heart/api/date.html?love-you=forever&tag=a&tag=b" +
+                "&flag&name=%E4%BD%A0+%E5%A5%BD#top");
+        assert "https".equals(view.getProtocol());
+        assert "user@127.0.0.1:8080".equals(view.getAuthority());
+        assert "127.0.0.1".equals(view.getHost());
+        assert view.getPort() == 8080;
+        assert "/heart/api/date.html".equals(view.getPath());
+        assert "top".equals(view.getFragment());
+        assert "forever".equals(view.getParameter("love-you"));
+        assert Arrays.asList("a", "b").equals(view.getParameters("tag"));
+        assert "".equals(view.getParameter("flag"));
+        assert "你 好".equals(view.getParameter("name"));
+        assert view.getParameter("none") == null;
+        assert view.getParameterMap().size() == 4;
+        // 参数名按解码后的值匹配，与getParameterMap一致
+        view = UrlView.parse("http://127.0.0.1/?a%20b=1&a+b=2&%E5%90%8D=3");
+        assert Arrays.asList("1", "2").equals(view.getParameters("a b"));
+        assert view.getParameterMap().get("a b").equals(view.getParameters("a b"));
+        assert "3".equals(view.getParameter("名")) && view.getParameter("a%20b") == null;
+    }
+
+    @Test
+    public void parseWithoutScheme() {
+        UrlView view = UrlView.parse("127.0.0.1:8080/index.html?a=1");
+        assert "".equals(view.getProtocol());
+        assert "127.0.0.1".equals(view.getHost());
+        assert view.getPort() == 8080;
+        assert "/index.html".equals(view.getPath());
+        view = UrlView.parse("http://");
+        assert "http".equals(view.getProtocol());
+        assert "".equals(view.getHost());
+        assert view.getPort() == -1;
+        assert view.getQuery() == null;
+        view = UrlView.parse("http://[::1]:80?x=%zz");
+        assert "[::1]".equals(view.getHost());
+        assert view.getPort() == 80;
+        assert "%zz".equals(view.getParameter("x"));
+    }
+
+    @Test
+    public void parseUrl() {
+        Map<String, String> map = NetUtils.parseUrl("http://127.0.0.1:8080/heart/api/date.html?love-you=forever" +
+                "&coding=everyday&flag");
+        assert "http".equals(map.get(NetUtils.PROTOCOL_KEY));
+        assert "127.0.0.1:8080".equals(map.get(NetUtils.HOST_KEY));
+        assert "heart/api/date.html".equals(map.get(NetUtils.PATH_KEY));
+        assert "everyday".equals(map.get("coding"));
+        assert "".equals(map.get("flag"));
+        assert "http".equals(NetUtils.parseUrl("http").get(NetUtils.HOST_KEY));
+        assert "".equals(NetUtils.parseUrl("https://github.zhazhapan.com/").get(NetUtils.PATH_KEY));
+        assert "usr/local".equals(NetUtils.parseUrl("file:///usr/local/").get(NetUtils.PATH_KEY));
+    }
+}
@@ -0,0 +1,70 @@
+package com.zhazhapan.util.net;
+
+import com.zhazhapan.util.NetUtils;
+import com.zhazhapan.util.ThreadPool;
+import org.junit.Test;
+
+import javax.xml.parsers.ParserConfigurationException;
+import javax.xml.xpath.XPathExpressionException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * @author pantao
+ * @since 1.1.0
+ */
+public class XPathExtractorTest {
+
+    private final XPathExtractor extractor = new XPathExtractor();
+
+    private static String page(int i) {
+        return "<html><head><title>page" + i + "</title></head><body><div class='item'><p>a" + i + "</p><p>b" + i +
+                "</p></div></body></html>";
+    }
+
+    @Test
+    public void extract() throws XPathExpressionException, ParserConfigurationException {
+        List<String> result = extractor.extract(page(1), Arrays.asList("//title", "//div[@class='item']/p[2]"));
+        assert Arrays.asList("page1", "b1").equals(result);
+        assert "a1".equals(NetUtils.evaluate("//div[@class='item']/p[1]", page(1)));
+    }
+
+    @Test
+    public void extractAll() throws XPathExpressionException, ParserConfigurationException {
+        List<String> pages = new ArrayList<>();
+        for (int i = 0; i < 500; i++) {
+            pages.add(page(i));
+        }
+        List<List<String>> results = extractor.extractAll(pages, Arrays.asList("//title", "//p[1]"), 4);
+        for (int i = 0; i < pages.size(); i++) {
+            assert Arrays.asList("page" + i, "a" + i).equals(results.get(i));
+        }
+    }
+
+    @Test
+    public void extractAllInCpuExecutor() throws Exception {
+        ForkJoinPool pool = ThreadPool.getForkJoinPool();
+        List<String> pages = new ArrayList<>();
+        for (int i = 0; i < 20; i++) {
+            pages.add(page(i));
+        }
+        // 调用者比CPU线程多时，等待中的调用者不能占满线程池
+        List<ForkJoinTask<List<List<String>>>> tasks = new ArrayList<>();
+        for (int i = 0; i < pool.getParallelism() * 2; i++) {
+            tasks.add(pool.submit(() -> extractor.extractAll(pages, Arrays.asList("//title", "//p[1]"), 4)));
+        }
+        for (ForkJoinTask<List<List<String>>> task : tasks) {
+            List<List<String>> results = task.get(30, TimeUnit.SECONDS);
+            assert Arrays.asList("page19", "a19").equals(results.get(19));
+        }
+    }
+
+    @Test(expected = XPathExpressionException.class)
+    public void invalidExpression() throws XPathExpressionException, ParserConfigurationException {
+        extractor.extractAll(Arrays.asList(page(1), page(2)), Arrays.asList("//p[", "//title"), 2);
+    }
+}
@@ -0,0 +1,210 @@
+package com.zhazhapan.util.reflect;
+
+import com.google.common.collect.ImmutableList;
+import com.zhazhapan.util.ReflectUtils;
+import com.zhazhapan.util.ThreadPool;
+import org.apache.commons.io.FileUtils;
+import org.apache.commons.io.IOUtils;
+import org.junit.After;
+import org.junit.Ignore;
+import org.junit.Test;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.Serializable;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.jar.JarEntry;
+import java.util.jar.JarOutputStream;
+import java.util.stream.Collectors;
+
+/**
+ * @author pantao
+ * @since 1.1.0
+ */
+public class ClassScannerTest {
+
+    private static volatile boolean initialized = false;
+
+    private final List<File> directories = new ArrayList<>();
+
+    @After
+    public void cleanup() throws IOException {
+        for (File directory : directories) {
+            FileUtils.deleteDirectory(directory);
+        }
+    }
+
+    @Test
+    public void testParse() throws IOException {
+        ClassInfo string = ClassFileParser.parse(readClass(String.class));
+        assert "java.lang.String".equals(string.getName()) && "java.lang.Object".equals(string.getSuperName());
+        assert string.getInterfaces().contains(Serializable.class.getName()) && string.isPublic();
+        ClassInfo annotated = ClassFileParser.parse(readClass(Annotated.class));
+        assert Annotated.class.getName().equals(annotated.getName()) && annotated.isInnerClass();
+        assert "java.util.ArrayList".equals(annotated.getSuperName()) && annotated.isAbstract();
+        assert annotated.getInterfaces().contains(Runnable.class.getName()) && annotated.hasAnnotation(Deprecated
+                .class);
+        assert ClassFileParser.parse(readClass(Marker.class)).isAnnotation();
+        assert ClassFileParser.parse(readClass(Deprecated.class)).isInterface();
+        try {
+            ClassFileParser.parse(new byte[]{(byte) 0xCA, (byte) 0xFE, (byte) 0xBA, (byte) 0xBE, 0, 0});
+            assert false;
+        } catch (IllegalArgumentException e) {
+            assert e.getMessage().contains("truncated");
+        }
+    }
+
+    @Test
+    public void testScanDirectory() throws IOException, ClassNotFoundException {
+        List<ClassInfo> infos = ReflectUtils.scanClasses("com.zhazhapan.util.reflect");
+        List<String> names = infos.stream().map(ClassInfo::getName).collect(Collectors.toList());
+        assert names.contains(ClassScanner.class.getName()) && names.contains(Initializer.class.getName());
+        assert infos.stream().filter(info -> info.hasAnnotation(Marker.class)).count() == 1;
+        List<Class<?>> classes = ReflectUtils.getClasses("com.zhazhapan.util.reflect");
+        // 只加载不初始化
+        assert classes.contains(Initializer.class) && !initialized;
+        assert ReflectUtils.scanClasses("com.zhazhapan.util.ref").isEmpty();
+    }
+
+    @Test
+    public void testJarIndex() throws IOException, InterruptedException {
+        File directory = tempDirectory("class-scanner");
+        File jar = new File(directory, "sample.jar");
+        File index = new File(directory, "index");
+        writeJar(jar, ClassInfo.class, ClassScanner.class, Annotated.class);
+        URLClassLoader loader = new URLClassLoader(new URL[]{jar.toURI().toURL()}, null);
+        List<ClassInfo> infos = new ClassScanner(index).scan(loader, "com.zhazhapan.util.reflect");
+        assert infos.size() == 3 && infos.get(2).hasAnnotation(Deprecated.class);
+        File[] files = index.listFiles();
+        assert files != null && files.length == 1 && files[0].getName().endsWith(".idx");
+        // 新的扫描器从磁盘索引读取
+        List<ClassInfo> indexed = new ClassScanner(index).scan(loader, "com.zhazhapan.util.reflect");
+        assert names(infos).equals(names(indexed)) && indexed.get(2).getSuperName().equals("java.util.ArrayList");
+        // 损坏的索引被忽略并重新生成
+        Files.write(files[0].toPath(), new byte[]{1, 2, 3});
+        assert names(infos).equals(names(new ClassScanner(index).scan(loader, "com.zhazhapan.util.reflect")));
+        assert files[0].length() > 3;
+        // 只有修改时间变化时按校验和确认内容未变，继续使用索引并更新修改时间
+        long indexModified = files[0].lastModified();
+        boolean touched = jar.setLastModified(jar.lastModified() - 60000);
+        assert touched;
+        Thread.sleep(10);
+        assert names(infos).equals(names(new ClassScanner(index).scan(loader, "com.zhazhapan.util.reflect")));
+        assert files[0].lastModified() >= indexModified;
+        // jar的内容变化时重新解析，覆盖同一个索引文件
+        writeJar(jar, ClassInfo.class);
+        loader.close();
+        loader = new URLClassLoader(new URL[]{jar.toURI().toURL()}, null);
+        assert new ClassScanner(index).scan(loader, "com.zhazhapan.util.reflect").size() == 1;
+        assert index.listFiles().length == 1;
+        loader.close();
+    }
+
+    @Test
+    public void testScanInIoExecutor() throws Exception {
+        File directory = tempDirectory("class-scanner-io");
+        File jar = new File(directory, "io.jar");
+        writeJar(jar, ClassInfo.class);
+        URLClassLoader loader = new URLClassLoader(new URL[]{jar.toURI().toURL()}, ClassScannerTest.class
+                .getClassLoader());
+        // 在IO执行器的任务中扫描多个根路径，调用线程会自己执行任务，不会等待被占满的执行器
+        Future<List<ClassInfo>> future = ThreadPool.getExecutor(ThreadPool.IO).submit(() -> new ClassScanner().scan
+                (loader, "com.zhazhapan.util.reflect"));
+        List<ClassInfo> infos = future.get(30, TimeUnit.SECONDS);
+        assert names(infos).contains(ClassScanner.class.getName()) && names(infos).contains(ClassInfo.class
+                .getName());
+        loader.close();
+    }
+
+    @Test
+    @Ignore("基准测试，手动运行")
+    public void testBenchmark() throws IOException, ClassNotFoundException {
+        File index = tempDirectory("class-index");
+        URL guava = ImmutableList.class.getProtectionDomain().getCodeSource().getLocation();
+        if (!guava.getPath().endsWith(".jar")) {
+            return;
+        }
+        ClassLoader loader = new URLClassLoader(new URL[]{guava}, null);
+        for (int round = 0; round < 3; round++) {
+            long start = System.nanoTime();
+            int count = new ClassScanner().scan(loader, "com.google.common").size();
+            long parseTime = System.nanoTime() - start;
+            start = System.nanoTime();
+            new ClassScanner(index).scan(loader, "com.google.common");
+            long indexTime = System.nanoTime() - start;
+            ClassScanner scanner = new ClassScanner();
+            scanner.scan(loader, "com.google.common");
+            start = System.nanoTime();
+            scanner.scan(loader, "com.google.common.collect");
+            long memoryTime = System.nanoTime() - start;
+            System.out.println("scan " + count + " classes, parse: " + parseTime / 1000000 + "ms, disk index: " +
+                    indexTime / 1000000 + "ms, memory: " + memoryTime / 1000000 + "ms");
+        }
+        long start = System.nanoTime();
+        ClassLoader fresh = new URLClassLoader(new URL[]{guava}, null);
+        for (ClassInfo info : new ClassScanner(index).scan(fresh, "com.google.common.collect")) {
+            Class.forName(info.getName(), false, fresh);
+        }
+        System.out.println("load com.google.common.collect: " + (System.nanoTime() - start) / 1000000 + "ms");
+    }
+
+    private File tempDirectory(String prefix) throws IOException {
+        File directory = Files.createTempDirectory(prefix).toFile();
+        directories.add(directory);
+        return directory;
+    }
+
+    private static List<String> names(List<ClassInfo> infos) {
+        return infos.stream().map(ClassInfo::getName).collect(Collectors.toList());
+    }
+
+    private static byte[] readClass(Class<?> type) throws IOException {
+        try (InputStream in = type.getResourceAsStream('/' + type.getName().replace('.', '/') + ".class")) {
+            return IOUtils.toByteArray(in);
+        }
+    }
+
+    private static void writeJar(File jar, Class<?>... classes) throws IOException {
+        try (JarOutputStream out = new JarOutputStream(new FileOutputStream(jar))) {
+            // 与打包工具一样写入目录，类加载器才能找到包
+            String path = "";
+            for (String name : ClassScannerTest.class.getPackage().getName().split("\\.")) {
+                path += name + "/";
+                out.putNextEntry(new JarEntry(path));
+                out.closeEntry();
+            }
+            for (Class<?> type : classes) {
+                out.putNextEntry(new JarEntry(type.getName().replace('.', '/') + ".class"));
+                out.write(readClass(type));
+                out.closeEntry();
+            }
+        }
+    }
+
+    @Retention(RetentionPolicy.CLASS)
+    public @interface Marker {}
+
+    @Deprecated
+    @Marker
+    public abstract static class Annotated extends ArrayList<String> implements Runnable {
+
+        private static final long serialVersionUID = 1L;
+    }
+
+    public static class Initializer {
+
+        static {
+            initialized = true;
+        }
+    }
+}
@@ -0,0 +1,184 @@
+package com.zhazhapan.util.reflect;
+
+import com.zhazhapan.util.ReflectUtils;
+import org.junit.Ignore;
+import org.junit.Test;
+
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * @author pantao
+ * @since 1.1.0
+ */
+public class MethodInvokerTest {
+
+    @Test
+    public void testResolve() throws Exception {
+        Target target = new Target();
+        assert "int".equals(ReflectUtils.invokeMethodUseBasicType(target, "pick", new Object[]{1}));
+        assert "Integer".equals(ReflectUtils.invokeMethod(target, "pick", new Object[]{1}));
+        // 基本类型拓宽和拆箱
+        assert "long".equals(ReflectUtils.invokeMethodUseBasicType(target, "pick", new Object[]{(short) 1, 2L}));
+        assert "long, Integer".equals(ReflectUtils.invokeMethodUseBasicType(target, "pick", new Object[]{(short) 1,
+                2}));
+        assert 7.0 == (double) ReflectUtils.invokeMethod(target, "sum", new Object[]{3, 4L});
+        assert 7.0 == (double) ReflectUtils.invokeMethodUseBasicType(target, "sum", new Object[]{'\u0003', 4f});
+        // null匹配任意引用类型，选择最具体的方法
+        assert "String".equals(ReflectUtils.invokeMethod(target, "text", new Object[]{null}));
+        assert "CharSequence".equals(ReflectUtils.invokeMethod(target, "text", new Object[]{new StringBuilder()}));
+        assert "Object".equals(ReflectUtils.invokeMethod(target, "text", new Object[]{Collections.emptyList()}));
+        assert ReflectUtils.invokeMethod(target, "reset", null) == null && target.count == 0;
+        assert "static".equals(MethodInvoker.of(Target.class, "name").invoke(null));
+        for (Object[] arguments : new Object[][]{{1, 2}, {null}}) {
+            try {
+                ReflectUtils.invokeMethod(target, "pick", arguments);
+                assert false;
+            } catch (NoSuchMethodException e) {
+                assert e.getMessage().contains("ambiguous");
+            }
+        }
+        try {
+            ReflectUtils.invokeMethod(target, "sum", new Object[]{"1", 2});
+            assert false;
+        } catch (NoSuchMethodException e) {
+            assert e.getMessage().contains("no method");
+        }
+        // 非公有类实现的公有接口方法
+        List<Integer> list = Collections.unmodifiableList(Arrays.asList(1, 2, 3));
+        assert (int) ReflectUtils.invokeMethod(list, "size", null) == 3;
+        assert MethodInvoker.of(Target.class, "pick", int.class) == ReflectUtils.getInvoker(Target.class, "pick", int
+                .class);
+    }
+
+    @Test
+    public void testInvoke() throws Exception {
+        MethodInvoker invoker = MethodInvoker.of(Target.class, "sum", int.class, long.class);
+        Method method = invoker.getMethod();
+        assert method.getParameterTypes()[0] == double.class;
+        try {
+            invoker.invoke(new Target(), 1, "2");
+            assert false;
+        } catch (IllegalArgumentException e) {
+            assert e.getMessage().contains("mismatch");
+        }
+        try {
+            invoker.invoke(new Target(), 1);
+            assert false;
+        } catch (IllegalArgumentException e) {
+            assert e.getMessage().contains("number of arguments");
+        }
+        try {
+            invoker.invoke(null, 1, 2);
+            assert false;
+        } catch (NullPointerException e) {
+            assert e.getMessage().contains("target");
+        }
+        try {
+            MethodInvoker.of(Target.class, "fail", String.class).invoke(new Target(), (Object) null);
+            assert false;
+        } catch (InvocationTargetException e) {
+            assert e.getCause() instanceof NullPointerException;
+        }
+        BoundInvoker bound = ReflectUtils.bindInvoker(new Target(), "increase");
+        bound.invoke();
+        assert (int) bound.invoke() == 2;
+    }
+
+    @Test
+    @Ignore("基准测试，手动运行")
+    public void testBenchmark() throws Exception {
+        Target target = new Target();
+        Object[] arguments = {1};
+        BoundInvoker bound = ReflectUtils.bindInvoker(target, "add", int.class);
+        for (int round = 0; round < 5; round++) {
+            int count = 1000000;
+            long start = System.nanoTime();
+            for (int i = 0; i < count; i++) {
+                target.getClass().getMethod("add", int.class).invoke(target, arguments);
+            }
+            long reflectTime = System.nanoTime() - start;
+            start = System.nanoTime();
+            for (int i = 0; i < count; i++) {
+                ReflectUtils.invokeMethodUseBasicType(target, "add", arguments);
+            }
+            long cachedTime = System.nanoTime() - start;
+            start = System.nanoTime();
+            for (int i = 0; i < count; i++) {
+                bound.invoke(arguments);
+            }
+            long boundTime = System.nanoTime() - start;
+            System.out.println("invoke, getMethod + reflect: " + reflectTime / count + "ns/op, cached: " + cachedTime
+                    / count + "ns/op, bound: " + boundTime / count + "ns/op");
+        }
+        assert target.count == 15000000;
+    }
+
+    public static class Target {
+
+        public int count;
+
+        public static String name() {
+            return "static";
+        }
+
+        public String pick(int value) {
+            return "int";
+        }
+
+        public String pick(Integer value) {
+            return "Integer";
+        }
+
+        public String pick(long a, long b) {
+            return "long";
+        }
+
+        public String pick(Integer a, long b) {
+            return "Integer, long";
+        }
+
+        public String pick(long a, Integer b) {
+            return "long, Integer";
+        }
+
+        public String pick(String value) {
+            return "String";
+        }
+
+        public String text(Object value) {
+            return "Object";
+        }
+
+        public String text(CharSequence value) {
+            return "CharSequence";
+        }
+
+        public String text(String value) {
+            return "String";
+        }
+
+        public double sum(double a, double b) {
+            return a + b;
+        }
+
+        public void reset() {
+            count = 0;
+        }
+
+        public int increase() {
+            return ++count;
+        }
+
+        public void add(int value) {
+            count += value;
+        }
+
+        public int fail(String text) {
+            return text.length();
+        }
+    }
+}
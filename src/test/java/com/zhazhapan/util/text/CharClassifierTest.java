@@ -0,0 +1,142 @@
+package com.zhazhapan.util.text;
+
+import com.zhazhapan.util.Checker;
+import com.zhazhapan.util.enums.CharType;
+import org.junit.Ignore;
+import org.junit.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+
+/**
+ * @author pantao
+ * @since 1.1.0
+ */
+public class CharClassifierTest {
+
+    private static final String ALNUM = "abcdefghijklmnopqrstuvwxyzABCDEFGHIJKLMNOPQRSTUVWXYZ0123456789";
+
+    private static final String ALPHABET = "azAZ09mM5/:@[`{éÀ中İıK ０\u0080Ā";
+
+    @Test
+    public void testSameAsScalar() {
+        Random random = new Random(42);
+        for (int round = 0; round < 100000; round++) {
+            String text = randomText(random, random.nextInt(40));
+            for (CharType type : CharType.values()) {
+                int expected = -1;
+                for (int i = 0; i < text.length(); i++) {
+                    if (!scalar(type, text.charAt(i))) {
+                        expected = i;
+                        break;
+                    }
+                }
+                assert CharClassifier.indexOfMismatch(type, text) == expected;
+                assert CharClassifier.indexOfMismatch(type, new StringBuilder(text)) == expected;
+                assert CharClassifier.indexOfMismatch(type, text.toCharArray(), 0, text.length()) == expected;
+                assert CharClassifier.matches(type, text) == (!text.isEmpty() && expected < 0);
+                byte[] latin = text.getBytes(StandardCharsets.ISO_8859_1);
+                byte[] utf8 = text.getBytes(StandardCharsets.UTF_8);
+                // ASCII部分在两种编码下下标一致，第一个非ASCII字符一定不匹配
+                assert CharClassifier.indexOfMismatch(type, latin, 0, latin.length) == expected;
+                assert CharClassifier.indexOfMismatch(type, utf8, 0, utf8.length) == expected;
+            }
+        }
+        assert Checker.isLetterAndNumber("abcABC0123456789xyz") && !Checker.isLetterAndNumber("abcABC0123456789xy_");
+        assert Checker.isOnlyLowerCase("abcdefghijklmnop") && !Checker.isOnlyLowerCase("abcdefghijklmnoP");
+        assert !Checker.isLetter(null) && !Checker.isLetter("") && !Checker.isOnlyUpperCase("ABCDEFGHIJİ");
+    }
+
+    @Test
+    public void testOffsets() {
+        char[] chars = "___abcdefghijklmnopqrstuvwxyz___".toCharArray();
+        assert CharClassifier.indexOfMismatch(CharType.LOWER_CASE, chars, 3, 29) == -1;
+        assert CharClassifier.indexOfMismatch(CharType.LOWER_CASE, chars, 3, 30) == 29;
+        byte[] bytes = "12345678901234567890x".getBytes(StandardCharsets.UTF_8);
+        assert CharClassifier.indexOfMismatch(CharType.NUMBER, bytes, 1, 20) == -1;
+        assert CharClassifier.indexOfMismatch(CharType.NUMBER, bytes, 1, 21) == 20;
+    }
+
+    @Test
+    public void testMatchRows() {
+        List<String> column = Arrays.asList("abc", null, "", "abc1", "ABCDEFGHIJKLMNOPQRSTUVWXYZabcdef", "x y");
+        BitSet rows = CharClassifier.matchRows(CharType.LETTER, column);
+        assert rows.equals(BitSet.valueOf(new long[]{0b10001}));
+        assert CharClassifier.matchRows(CharType.LETTER, new LinkedList<>(column)).equals(rows);
+        byte[][] bytes = {"123".getBytes(), null, "12a".getBytes(), "١".getBytes(StandardCharsets.UTF_8)};
+        assert CharClassifier.matchRows(CharType.NUMBER, bytes).equals(BitSet.valueOf(new long[]{1}));
+    }
+
+    @Test
+    @Ignore("基准测试，手动运行")
+    public void testBenchmark() {
+        Random random = new Random(7);
+        List<String> column = new ArrayList<>();
+        for (int i = 0; i < 20000; i++) {
+            StringBuilder builder = new StringBuilder();
+            int length = 16 + random.nextInt(64);
+            for (int j = 0; j < length; j++) {
+                builder.append(ALNUM.charAt(random.nextInt(ALNUM.length())));
+            }
+            column.add(builder.toString());
+        }
+        for (int round = 0; round < 5; round++) {
+            long start = System.nanoTime();
+            int legacy = 0;
+            for (String text : column) {
+                legacy += legacyLetterAndNumber(text) ? 1 : 0;
+            }
+            long scalar = System.nanoTime() - start;
+            start = System.nanoTime();
+            int bulk = CharClassifier.matchRows(CharType.LETTER_OR_NUMBER, column).cardinality();
+            long swar = System.nanoTime() - start;
+            assert legacy == bulk && bulk == column.size();
+            System.out.println("letter or number column, charAt loop: " + scalar / 1000 + "us, swar: " + swar / 1000 +
+                    "us");
+        }
+    }
+
+    /**
+     * 改造前 {@link Checker#isLetterAndNumber(String)} 的实现
+     */
+    private static boolean legacyLetterAndNumber(String string) {
+        boolean result = Checker.isNotEmpty(string);
+        int idx = 0;
+        int len = string.length();
+        while (result) {
+            if (idx >= len) {
+                break;
+            }
+            char c = string.charAt(idx);
+            result = Checker.isLetter(c) || Checker.isNumber(c);
+            idx++;
+        }
+        return result;
+    }
+
+    private static boolean scalar(CharType type, char c) {
+        switch (type) {
+            case NUMBER:
+                return Checker.isNumber(c);
+            case LETTER:
+                return Checker.isLetter(c);
+            case LETTER_OR_NUMBER:
+                return Checker.isLetter(c) || Checker.isNumber(c);
+            case LOWER_CASE:
+                return Checker.isLowerCase(c);
+            default:
+                return Checker.isUpperCase(c);
+        }
+    }
+
+    private static String randomText(Random random, int length) {
+        StringBuilder builder = new StringBuilder(length);
+        // 大部分字符相同，使不匹配的位置分布在长字符串的各个位置
+        String pool = ALPHABET.substring(0, 1 + random.nextInt(ALPHABET.length()));
+        char base = "aZ5".charAt(random.nextInt(3));
+        for (int i = 0; i < length; i++) {
+            builder.append(random.nextInt(8) == 0 ? pool.charAt(random.nextInt(pool.length())) : base);
+        }
+        return builder.toString();
+    }
+}
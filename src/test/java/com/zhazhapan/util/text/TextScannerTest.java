@@ -0,0 +1,126 @@
+package com.zhazhapan.util.text;
+
+import com.zhazhapan.util.Checker;
+import org.junit.Ignore;
+import org.junit.Test;
+
+import java.util.Random;
+import java.util.function.Predicate;
+import java.util.regex.Pattern;
+
+/**
+ * @author pantao
+ * @since 1.1.0
+ */
+public class TextScannerTest {
+
+    private static final String[] ALPHABETS = {"0123456789", "0123456789.", "0123456789-", "019-23",
+            "abcXYZ09-.@", "aZ0-.@_+", "httpsHTTPS:/.abc0", "htps:/.com0&;\"'<> \t\n", "a.b/c?#=%~ ", "中é" +
+            ".a/\r\u000b\f", "http://a.co/"};
+
+    private static final String[] SAMPLES = {"2018-01-31", "1999-12-09", "123456", "3.1415", "0.5", "tao@util.org",
+            "pan.tao@mail.zhazhapan.com", "a-b@c-d.e-f", "https://www.baidu.com", "http://zhazhapan.com/path?q=1",
+            "HTTPSS://a.b/c/d", "zhazhapan.com/", "a.b.c", "www.example.com:8080/x", "a/b.c"};
+
+    @Test
+    public void testSamples() {
+        assert TextScanner.isNumber("0123") && !TextScanner.isNumber("") && !TextScanner.isNumber("12a");
+        assert TextScanner.isDecimal("12.50") && !TextScanner.isDecimal("12.") && !TextScanner.isDecimal(".5");
+        assert TextScanner.isDate("2018-02-31") && !TextScanner.isDate("2018-13-01") && !TextScanner.isDate(
+                "2018-00-10");
+        assert TextScanner.isEmail("Tao@Util.ORG") && !TextScanner.isEmail("tao@util") && !TextScanner.isEmail(
+                "tao..pan@util.org");
+        assert TextScanner.isHyperLink("https://zhazhapan.com/a") && !TextScanner.isHyperLink(
+                "https://zhazhapan.com/a b");
+        assert TextScanner.isHyperLink("a.b/c:d") && !TextScanner.isHyperLink("a.b:8080");
+        assert !TextScanner.isNumber("123\n") && !TextScanner.isHyperLink("a.com\n");
+        assert Checker.isNumber("42") && !Checker.isNumber(null) && !Checker.isDate(null);
+    }
+
+    /**
+     * 随机生成字符串，与原有正则的结果逐一比较
+     */
+    @Test
+    public void testDifferential() {
+        Random random = new Random(20181019);
+        StringBuilder builder = new StringBuilder();
+        for (int round = 0; round < 300000; round++) {
+            builder.setLength(0);
+            if (round % 3 == 0) {
+                mutate(builder, SAMPLES[random.nextInt(SAMPLES.length)], random);
+            } else {
+                String alphabet = ALPHABETS[random.nextInt(ALPHABETS.length)];
+                int length = random.nextInt(16);
+                for (int i = 0; i < length; i++) {
+                    builder.append(alphabet.charAt(random.nextInt(alphabet.length())));
+                }
+            }
+            String text = builder.toString();
+            compare(text, Checker.NUMBER_PATTERN, TextScanner::isNumber);
+            compare(text, Checker.DECIMAL_PATTERN, TextScanner::isDecimal);
+            compare(text, Checker.DATE_PATTERN, TextScanner::isDate);
+            compare(text, Checker.EMAIL_PATTERN, TextScanner::isEmail);
+            compare(text, Checker.HYPER_LINK_PATTERN, TextScanner::isHyperLink);
+        }
+    }
+
+    @Test
+    @Ignore("基准测试，手动运行")
+    public void testBenchmark() {
+        String[] inputs = {"1234567890", "3.1415926", "2018-10-19", "pan.tao@mail.zhazhapan.com",
+                "https://www.zhazhapan.com/util/index.html?v=1", "not a link"};
+        for (int i = 0; i < 3; i++) {
+            benchmark("number", inputs[0], Checker.NUMBER_PATTERN, TextScanner::isNumber);
+            benchmark("decimal", inputs[1], Checker.DECIMAL_PATTERN, TextScanner::isDecimal);
+            benchmark("date", inputs[2], Checker.DATE_PATTERN, TextScanner::isDate);
+            benchmark("email", inputs[3], Checker.EMAIL_PATTERN, TextScanner::isEmail);
+            benchmark("link", inputs[4], Checker.HYPER_LINK_PATTERN, TextScanner::isHyperLink);
+            benchmark("invalid link", inputs[5], Checker.HYPER_LINK_PATTERN, TextScanner::isHyperLink);
+        }
+    }
+
+    private static void benchmark(String name, String input, Pattern pattern, Predicate<CharSequence> scanner) {
+        int rounds = 200000;
+        int matched = 0;
+        long start = System.nanoTime();
+        for (int i = 0; i < rounds; i++) {
+            matched += pattern.matcher(input).matches() ? 1 : 0;
+        }
+        long regex = (System.nanoTime() - start) / rounds;
+        start = System.nanoTime();
+        for (int i = 0; i < rounds; i++) {
+            matched -= scanner.test(input) ? 1 : 0;
+        }
+        long scan = (System.nanoTime() - start) / rounds;
+        assert matched == 0;
+        System.out.println(name + " regex: " + regex + "ns/op, scanner: " + scan + "ns/op");
+    }
+
+    private static void mutate(StringBuilder builder, String sample, Random random) {
+        builder.append(sample);
+        String chars = "0a.-@/:Z \n&9s";
+        int mutations = random.nextInt(3);
+        for (int i = 0; i < mutations && builder.length() > 0; i++) {
+            int index = random.nextInt(builder.length());
+            char c = chars.charAt(random.nextInt(chars.length()));
+            switch (random.nextInt(3)) {
+                case 0:
+                    builder.setCharAt(index, c);
+                    break;
+                case 1:
+                    builder.insert(index, c);
+                    break;
+                default:
+                    builder.deleteCharAt(index);
+                    break;
+            }
+        }
+    }
+
+    private static void compare(String text, Pattern pattern, Predicate<CharSequence> scanner) {
+        boolean expected = pattern.matcher(text).matches();
+        if (expected != scanner.test(text)) {
+            throw new AssertionError(pattern.pattern() + " mismatch on [" + text + "], expected " + expected);
+        }
+    }
+}
@@ -0,0 +1,296 @@
+package com.zhazhapan.util.validation;
+
+import com.zhazhapan.util.Checker;
+import com.zhazhapan.util.ReflectUtils;
+import com.zhazhapan.util.annotation.FieldChecking;
+import com.zhazhapan.util.model.BatchCheckResult;
+import com.zhazhapan.util.model.CheckResult;
+import com.zhazhapan.util.model.Violation;
+import com.zhazhapan.util.model.TestBean;
+import org.junit.Ignore;
+import org.junit.Test;
+
+import java.lang.reflect.Field;
+import java.util.*;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.regex.Pattern;
+import java.util.stream.IntStream;
+
+/**
+ * @author pantao
+ * @since 1.1.0
+ */
+public class BeanValidatorTest {
+
+    @Test
+    public void testPlanIsCached() {
+        ValidationPlan plan = BeanValidator.planOf(TestBean.class);
+        assert plan == BeanValidator.planOf(TestBean.class);
+        assert plan.getRules().size() == 5;
+        assert "id".equals(plan.getRules().get(0).getFieldName());
+        assert "id必须大于0".equals(plan.getRules().get(0).getMessage());
+        BeanValidator.invalidate(TestBean.class);
+        assert plan != BeanValidator.planOf(TestBean.class);
+    }
+
+    @Test
+    public void testSameResultAsChecker() throws Exception {
+        TestBean bean = new TestBean();
+        assertSame(bean, 104, "id必须大于0");
+        bean.id = 7;
+        bean.defaultChecking = "god";
+        bean.username = "code4everything";
+        bean.email = "invalid@email";
+        assertSame(bean, 104, "邮箱不合法");
+        bean.email = "tao@util.org";
+        bean.age = 118;
+        assertSame(bean, 200, "测试通过");
+        CheckResult result = BeanValidator.checkAsync(bean).get(5, TimeUnit.SECONDS);
+        assert result.passed && result.resultObject.code == 200;
+    }
+
+    @Test
+    public void testPrivateFields() {
+        PrivateBean bean = new PrivateBean();
+        CheckResult result = BeanValidator.check(bean);
+        assert !result.passed;
+        assert "name字段不能为空".equals(result.resultObject.message);
+        bean.name = "pantao";
+        result = BeanValidator.check(bean);
+        // 正则规则遇到null时不通过，不再抛出空指针异常
+        assert !result.passed && "code不合法".equals(result.resultObject.message);
+        bean.code = "a1";
+        assert BeanValidator.check(bean).passed;
+        assert BeanValidator.planOf(PrivateBean.class).getRules().size() == 2;
+    }
+
+    @Test
+    public void testGeneratedValidator() {
+        ValidationPlan plan = BeanValidator.planOf(MixedBean.class);
+        FieldValidator generated = plan.getValidator(true);
+        FieldValidator reflective = plan.getValidator(false);
+        assert generated != reflective && generated.getClass().getName().startsWith(MixedBean.class.getName());
+        assert generated == plan.getValidator(true);
+        MixedBean bean = new MixedBean();
+        String[][] cases = {{null, null, null}, {"tao", null, null}, {"tao", "x", null}, {"tao", "a1", null},
+                {"tao", "a1", "bad"}, {"tao", "a1", "good"}, {"", "a1", "good"}};
+        for (String[] values : cases) {
+            bean.name = values[0];
+            bean.secret = values[1];
+            bean.status = values[2];
+            CheckResult expected = plan.check(bean, reflective);
+            CheckResult actual = plan.check(bean, generated);
+            assert expected.passed == actual.passed;
+            assert expected.resultObject.message.equals(actual.resultObject.message);
+        }
+        assert plan.check(bean, generated).resultObject.message.equals("name字段不能为空");
+        bean.name = "tao";
+        assert plan.check(bean, generated).passed;
+        MixedBean.count = null;
+        assert "count字段不能为空".equals(plan.check(bean, generated).resultObject.message);
+        MixedBean.count = 1L;
+    }
+
+    @Test
+    public void testCollectAll() {
+        TestBean bean = new TestBean();
+        bean.username = "pan";
+        CheckResult result = Checker.checkBean(bean, true);
+        assert !result.passed && result.violations.size() == 5;
+        assert "id必须大于0".equals(result.resultObject.message);
+        assert "username".equals(result.violations.get(2).field);
+        bean.id = 7;
+        bean.defaultChecking = "god";
+        bean.username = "code4everything";
+        bean.email = "tao@util.org";
+        bean.age = 118;
+        result = Checker.checkBean(bean, true);
+        assert result.passed && result.violations.isEmpty() && result.resultObject.code == 200;
+        // 生成的校验器与反射实现收集到的违例一致
+        ValidationPlan plan = BeanValidator.planOf(MixedBean.class);
+        MixedBean mixed = new MixedBean();
+        mixed.status = "bad";
+        int[] buffer = new int[plan.getRuleCount()];
+        List<Violation> expected = plan.violations(mixed, plan.getValidator(false), buffer);
+        List<Violation> actual = plan.violations(mixed, plan.getValidator(true), buffer);
+        assert expected.size() == 3 && expected.equals(actual);
+    }
+
+    @Test
+    public void testBatch() {
+        int count = 100000;
+        List<Object> rows = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            RequestBean request = new RequestBean();
+            request.token = i % 7 == 0 ? null : "token";
+            request.email = i % 11 == 0 ? "invalid" : "tao@util.org";
+            rows.add(request);
+        }
+        rows.set(5, new PrivateBean());
+        BatchCheckResult result = Checker.checkBeans(rows);
+        long expected = IntStream.range(0, count).filter(i -> i % 7 == 0 || i % 11 == 0 || i == 5).count();
+        assert result.total == count && result.getInvalidCount() == expected;
+        for (int i = 1; i < result.invalidRows.length; i++) {
+            assert result.invalidRows[i - 1] < result.invalidRows[i];
+        }
+        assert result.getViolations(77).size() == 2;
+        assert result.getViolations(14).size() == 1 && "token".equals(result.getViolations(14).get(0).field);
+        assert result.getViolations(5).size() == 2 && "name".equals(result.getViolations(5).get(0).field);
+        assert result.getViolations(1).isEmpty();
+        BatchCheckResult streamed = BeanValidator.checkAll(rows.stream());
+        assert Arrays.equals(result.invalidRows, streamed.invalidRows);
+        assert result.violations.equals(streamed.violations);
+        assert BeanValidator.checkAll(new LinkedList<>(rows.subList(0, 10))).getInvalidCount() == 3;
+    }
+
+    @Test
+    public void testBatchFailures() {
+        RequestBean valid = new RequestBean();
+        valid.token = "token";
+        valid.email = "tao@util.org";
+        ThrowingBean throwing = new ThrowingBean();
+        throwing.value = "abc";
+        List<Object> rows = Arrays.asList(valid, null, throwing, valid);
+        // null行和抛出异常的行只作为这一行的违例，不中断整批校验
+        BatchCheckResult result = BeanValidator.checkAll(rows);
+        assert result.total == 4 && Arrays.equals(result.invalidRows, new int[]{1, 2});
+        assert result.getViolations(1).get(0) == BeanValidator.NULL_ROW;
+        assert result.getViolations(2).get(0).code == ValidationPlan.ACCESS_ERROR.code;
+        AtomicBoolean closed = new AtomicBoolean(false);
+        BatchCheckResult streamed = BeanValidator.checkAll(rows.stream().onClose(() -> closed.set(true)));
+        assert Arrays.equals(result.invalidRows, streamed.invalidRows) && closed.get();
+    }
+
+    @Test
+    @Ignore("基准测试，手动运行")
+    public void testBenchmark() {
+        TestBean bean = new TestBean();
+        bean.id = 7;
+        bean.defaultChecking = "god";
+        bean.username = "code4everything";
+        bean.email = "tao@util.org";
+        bean.age = 118;
+        RequestBean request = new RequestBean();
+        request.token = "e10adc3949ba59abbe56e057f20f883e";
+        request.page = 1;
+        request.email = "tao@util.org";
+        for (int i = 0; i < 3; i++) {
+            benchmark(bean, 5000, 50000);
+            benchmark(request, 50000, 1000000);
+        }
+    }
+
+    private static void benchmark(Object bean, int legacyRounds, int rounds) {
+        ValidationPlan plan = BeanValidator.planOf(bean.getClass());
+        FieldValidator generated = plan.getValidator(true);
+        FieldValidator reflective = plan.getValidator(false);
+        assert plan.check(bean, generated).passed && plan.check(bean, reflective).passed && legacyCheck(bean);
+        long legacy = time(legacyRounds, () -> legacyCheck(bean)) / legacyRounds;
+        long reflect = time(rounds, () -> plan.check(bean, reflective)) / rounds;
+        long codegen = time(rounds, () -> plan.check(bean, generated)) / rounds;
+        System.out.println(bean.getClass().getSimpleName() + " legacy: " + legacy + "ns/op, reflective plan: " +
+                reflect + "ns/op, generated: " + codegen + "ns/op");
+    }
+
+    private static long time(int rounds, Runnable task) {
+        long start = System.nanoTime();
+        for (int i = 0; i < rounds; i++) {
+            task.run();
+        }
+        return System.nanoTime() - start;
+    }
+
+    /**
+     * 改造前的实现：每次都查找字段和注解、编译正则和JEXL表达式
+     */
+    private static boolean legacyCheck(Object bean) {
+        try {
+            for (Field field : bean.getClass().getDeclaredFields()) {
+                FieldChecking checking = field.getAnnotation(FieldChecking.class);
+                if (checking == null) {
+                    continue;
+                }
+                String expression = checking.expression();
+                Object value = field.get(bean);
+                boolean passed;
+                if (expression.isEmpty()) {
+                    passed = value != null && !value.toString().isEmpty();
+                } else if (expression.startsWith(":")) {
+                    passed = Pattern.compile(expression.substring(1)).matcher(value.toString()).matches();
+                } else {
+                    Map<String, Object> map = new HashMap<>(2);
+                    map.put("val", value);
+                    passed = Boolean.TRUE.equals(ReflectUtils.executeExpression(expression, map));
+                }
+                if (!passed) {
+                    return false;
+                }
+            }
+            return true;
+        } catch (IllegalAccessException e) {
+            return false;
+        }
+    }
+
+    private static void assertSame(TestBean bean, int code, String message) {
+        CheckResult result = BeanValidator.check(bean);
+        CheckResult expected = Checker.checkBean(bean);
+        assert result.passed == expected.passed && result.passed == (code == 200);
+        assert result.resultObject.code == code && expected.resultObject.code == code;
+        assert message.equals(result.resultObject.message);
+    }
+
+    private static class PrivateBean {
+
+        @FieldChecking
+        private String name;
+
+        @FieldChecking(message = "{}不合法", expression = ":^[a-z][0-9]$")
+        private String code;
+
+        private int ignored;
+    }
+
+    /**
+     * 只有非空验证和正则规则，代码生成的收益最明显
+     */
+    public static class RequestBean {
+
+        @FieldChecking
+        public String token;
+
+        @FieldChecking
+        public int page;
+
+        @FieldChecking
+        public Integer size = 20;
+
+        @FieldChecking(expression = ":^[a-z]+@[a-z]+\\.[a-z]+$")
+        public String email;
+    }
+
+    static class MixedBean {
+
+        @FieldChecking
+        static Long count = 1L;
+
+        @FieldChecking
+        int primitive;
+
+        @FieldChecking
+        String name;
+
+        @FieldChecking(message = "{}不合法", expression = ":^[a-z][0-9]$")
+        private String secret;
+
+        @FieldChecking(message = "{}不合法", expression = "val == null || val == 'good'")
+        public String status;
+    }
+
+    static class ThrowingBean {
+
+        @FieldChecking(message = "{}不合法", expression = "val.substring(5) == 'x'")
+        String value;
+    }
+}